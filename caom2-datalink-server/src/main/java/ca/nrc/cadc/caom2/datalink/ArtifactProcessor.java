@@ -81,7 +81,6 @@ import ca.nrc.cadc.caom2.ProductType;
 import ca.nrc.cadc.caom2.PublisherID;
 import ca.nrc.cadc.caom2.ReleaseType;
 import ca.nrc.cadc.caom2.Time;
-import ca.nrc.cadc.caom2.artifact.resolvers.CaomArtifactResolver;
 import ca.nrc.cadc.caom2.compute.CustomAxisUtil;
 import ca.nrc.cadc.caom2.compute.CutoutUtil;
 import ca.nrc.cadc.caom2.compute.EnergyUtil;
@@ -91,21 +90,36 @@ import ca.nrc.cadc.caom2.compute.TimeUtil;
 import ca.nrc.cadc.caom2.types.Circle;
 import ca.nrc.cadc.caom2.types.Polygon;
 import ca.nrc.cadc.caom2ops.ArtifactQueryResult;
+import ca.nrc.cadc.caom2ops.ArtifactResolverTable;
+import ca.nrc.cadc.caom2ops.CaomEntityUtil;
 import ca.nrc.cadc.caom2ops.CutoutGenerator;
+import ca.nrc.cadc.caom2ops.ExecutorUtil;
+import ca.nrc.cadc.caom2ops.ExpiringCache;
 import ca.nrc.cadc.dali.util.DoubleArrayFormat;
 import ca.nrc.cadc.net.NetUtil;
-import ca.nrc.cadc.net.StorageResolver;
+import ca.nrc.cadc.net.ResourceNotFoundException;
 import ca.nrc.cadc.reg.Standards;
 import ca.nrc.cadc.reg.client.RegistryClient;
 import ca.nrc.cadc.wcs.exceptions.NoSuchKeywordException;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
+import java.security.cert.CertificateException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import javax.security.auth.Subject;
 import org.apache.log4j.Logger;
 import org.opencadc.datalink.DataLink;
@@ -123,13 +137,28 @@ public class ArtifactProcessor {
 
     private static final String PKG_CONTENT_TYPE_TAR = "application/x-tar";
 
+    // resolved service URLs keyed by resourceID + standardID + authMethod; shared by all instances
+    private static final long SERVICE_URL_TTL = 10 * 60 * 1000L; // 10 min
+    private static final ExpiringCache<String,URL> serviceURLCache = new ExpiringCache<String,URL>(256, SERVICE_URL_TTL);
+
     private final RegistryClient registryClient;
-    private final CaomArtifactResolver artifactResolver;
     private boolean downloadOnly;
+    
+    // computed bounds keyed by artifact ID + accMetaChecksum or maxLastModified: the key changes 
+    // when the artifact or any part or chunk changes so the TTL only limits retention
+    private static final long BOUNDS_TTL = 60 * 60 * 1000L; // 1 hour
+    private static final ExpiringCache<String,ArtifactBounds> boundsCache = new ExpiringCache<String,ArtifactBounds>(4096, BOUNDS_TTL);
+
+    // optional: usually the process-wide pool from ServiceConfig
+    private ExecutorService executor;
+    private int maxTasks = 1;
+    
+    // resolved service URLs for this request, including services that were not found;
+    // synchronized because artifacts may be processed in parallel
+    private final Map<String,URL> serviceURLs = Collections.synchronizedMap(new HashMap<String,URL>());
 
     public ArtifactProcessor() {
         this.registryClient = new RegistryClient();
-        this.artifactResolver = new CaomArtifactResolver();
     }
 
     /**
@@ -143,115 +172,289 @@ public class ArtifactProcessor {
         this.downloadOnly = downloadOnly;
     }
 
+    /**
+     * Process artifacts in parallel using the specified pool, which is normally shared 
+     * by all requests. At most maxTasks artifacts of this request are submitted at any 
+     * time so a plane with many artifacts cannot fill the pool queue; iterator(uri, ar)
+     * submits the next artifacts as the links are consumed rather than all of them up
+     * front. The links are always returned in artifact order.
+     * 
+     * @param executor pool to process artifacts, null for sequential (default)
+     * @param maxTasks max number of artifacts of a request in the pool at one time
+     */
+    public void setExecutor(ExecutorService executor, int maxTasks) {
+        if (maxTasks < 1) {
+            throw new IllegalArgumentException("invalid maxTasks: " + maxTasks);
+        }
+        this.executor = executor;
+        this.maxTasks = maxTasks;
+    }
+
     public List<DataLink> process(URI uri, ArtifactQueryResult ar) {
         log.debug("process: " + uri + " " + ar);
         List<DataLink> ret = new ArrayList<>(ar.getArtifacts().size());
-        int numFiles = ar.getArtifacts().size();
-        boolean pkgReadable = true;
-        for (Artifact a : ar.getArtifacts()) {
-            DataLink.Term sem = DataLink.Term.THIS;
-            if (ProductType.PREVIEW.equals(a.getProductType())) {
-                sem = DataLink.Term.PREVIEW;
-                numFiles--; // exclude from #pkg
-            } else if (ProductType.THUMBNAIL.equals(a.getProductType())) {
-                sem = DataLink.Term.THUMBNAIL;
-                numFiles--; // exclude from #pkg
-            } else if (ProductType.CATALOG.equals(a.getProductType())) {
-                sem = DataLink.Term.DERIVATION;
-            } else if (ProductType.AUXILIARY.equals(a.getProductType())
-                    || ProductType.WEIGHT.equals(a.getProductType())
-                    || ProductType.NOISE.equals(a.getProductType())
-                    || ProductType.INFO.equals(a.getProductType())) {
-                sem = DataLink.Term.AUXILIARY;
-            }
-
-            Boolean readable = null;
-            if (ReleaseType.DATA.equals(a.getReleaseType())) {
-                readable = ar.dataReadable;
-            } else if (ReleaseType.META.equals(a.getReleaseType())) {
-                readable = ar.metaReadable;
-            }
-            // else: new releaseType is not likely without major caom design change
-
-            if (readable != null) {
-                pkgReadable = pkgReadable && readable;
+        
+        if (executor == null || downloadOnly || ar.getArtifacts().size() < 2) {
+            for (Artifact a : ar.getArtifacts()) {
+                ret.addAll(processArtifact(uri, ar, a));
             }
-            // direct download links
+        } else {
+            // links for each artifact are computed in the background and added in artifact order
+            Subject caller = AuthenticationUtil.getCurrentSubject();
+            LinkedList<Future<List<DataLink>>> futures = new LinkedList<>();
+            Iterator<Artifact> iter = ar.getArtifacts().iterator();
             try {
-                DataLink dl = new DataLink(uri.toASCIIString(), sem);
-                dl.accessURL = getDownloadURL(a);
-                dl.contentType = a.contentType;
-                dl.contentLength = a.contentLength;
-                dl.contentQualifier = null; // TODO: get plane.datatProductType?
-                dl.linkAuth = DataLink.LinkAuthTerm.OPTIONAL; // TODO: make configurable
-                dl.linkAuthorized = readable;
-                dl.description = "download " + a.getURI().toASCIIString();
-                ret.add(dl);
-            } catch (MalformedURLException ex) {
-                DataLink dl = new DataLink(uri.toASCIIString(), sem);
-                dl.errorMessage = "FatalFault: failed to generate download URL: " + ex.toString();
-                ret.add(dl);
+                while (iter.hasNext() || !futures.isEmpty()) {
+                    while (iter.hasNext() && futures.size() < maxTasks) {
+                        futures.add(submitArtifact(executor, caller, uri, ar, iter.next()));
+                    }
+                    ret.addAll(getLinks(futures.poll()));
+                }
+            } finally {
+                // only non-empty after a failure
+                ExecutorUtil.cancel(futures);
             }
+        }
+        DataLink pkg = getPackageLink(uri, ar.getPublisherID(), getNumFiles(ar));
+        if (pkg != null) {
+            ret.add(pkg);
+        }
+        return ret;
+    }
 
-            if (!downloadOnly && canCutout(a)) {
-                try {
-                    final ArtifactBounds ab = generateBounds(a);
-                    
-                    DataLink syncLink = new DataLink(uri.toASCIIString(), DataLink.Term.CUTOUT);
-                    syncLink.serviceDef = "soda-" + UUID.randomUUID();
-                    syncLink.contentType = a.contentType; // unchanged
-                    syncLink.contentLength = null; // unknown
-                    syncLink.contentQualifier = null; // unknown or still plane.datatProductType?
-                    syncLink.linkAuth = DataLink.LinkAuthTerm.OPTIONAL; // TODO: make configurable
-                    syncLink.linkAuthorized = readable;
-                    syncLink.description = "SODA-sync cutout of " + a.getURI().toASCIIString();
-                    ServiceDescriptor sds = generateServiceDescriptor(ar.getPublisherID(), Standards.SODA_SYNC_10, syncLink.serviceDef, a, ab);
-                    log.debug("SODA-sync: " + sds);
-                    if (sds != null) {
-                        syncLink.descriptor = sds;
-                        ret.add(syncLink);
-                    }
+    /**
+     * Generate links lazily: the links for an artifact are generated when the iterator
+     * reaches it and the artifact is then released from the result, so memory use does
+     * not grow with the number of artifacts in the plane. The links are the same and in 
+     * the same order as process(uri, ar). The result must not be used by the caller
+     * after this call. With an executor (see setExecutor) the links for the next maxTasks
+     * artifacts are generated in the background while the iterator is consumed.
+     * 
+     * @param uri input ID
+     * @param ar artifacts for the input ID
+     * @return iterator over the links
+     */
+    public Iterator<DataLink> iterator(URI uri, ArtifactQueryResult ar) {
+        return new ArtifactLinkIterator(uri, ar);
+    }
+
+    private class ArtifactLinkIterator implements Iterator<DataLink> {
+        private final URI uri;
+        private final ArtifactQueryResult ar;
+        private final int numFiles;
+        private final boolean parallel;
+        private final Subject caller;
+        private int next = 0;
+        private boolean pkgDone = false;
+        private Iterator<DataLink> curIter;
+        
+        // links for the artifacts in the pool, in artifact order
+        private final LinkedList<Future<List<DataLink>>> futures = new LinkedList<>();
+        
+        ArtifactLinkIterator(URI uri, ArtifactQueryResult ar) {
+            this.uri = uri;
+            this.ar = ar;
+            this.numFiles = getNumFiles(ar);
+            this.parallel = executor != null && !downloadOnly && ar.getArtifacts().size() > 1;
+            this.caller = AuthenticationUtil.getCurrentSubject();
+        }
 
-                    DataLink asyncLink = new DataLink(uri.toASCIIString(), DataLink.Term.CUTOUT);
-                    asyncLink.serviceDef = "soda-" + UUID.randomUUID();
-                    asyncLink.contentType = a.contentType; // unchanged
-                    asyncLink.contentLength = null; // unknown
-                    asyncLink.contentQualifier = null; // unknown or still plane.datatProductType?
-                    asyncLink.linkAuth = DataLink.LinkAuthTerm.OPTIONAL; // TODO: make configurable
-                    asyncLink.linkAuthorized = readable;
-                    asyncLink.description = "SODA-async cutout of " + a.getURI().toASCIIString();
-                    ServiceDescriptor sda = generateServiceDescriptor(ar.getPublisherID(), Standards.SODA_ASYNC_10, asyncLink.serviceDef, a, ab);
-                    log.debug("SODA-async: " + sda);
-                    if (sda != null) {
-                        asyncLink.descriptor = sda;
-                        ret.add(asyncLink);
+        @Override
+        public boolean hasNext() {
+            while (curIter == null || !curIter.hasNext()) {
+                List<Artifact> artifacts = ar.getArtifacts();
+                while (parallel && next < artifacts.size() && futures.size() < maxTasks) {
+                    futures.add(submitArtifact(executor, caller, uri, ar, release(artifacts)));
+                }
+                if (!futures.isEmpty()) {
+                    boolean ok = false;
+                    try {
+                        curIter = getLinks(futures.poll()).iterator();
+                        ok = true;
+                    } finally {
+                        if (!ok) {
+                            ExecutorUtil.cancel(futures);
+                        }
+                    }
+                } else if (next < artifacts.size()) {
+                    curIter = processArtifact(uri, ar, release(artifacts)).iterator();
+                } else if (!pkgDone) {
+                    pkgDone = true;
+                    DataLink pkg = getPackageLink(uri, ar.getPublisherID(), numFiles);
+                    if (pkg == null) {
+                        return false;
                     }
-                } catch (NoSuchKeywordException ex) {
-                    throw new RuntimeException("FAIL: invalid WCS", ex);
+                    curIter = Collections.singletonList(pkg).iterator();
+                } else {
+                    return false;
                 }
             }
+            return true;
+        }
+
+        @Override
+        public DataLink next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return curIter.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+        
+        private Artifact release(List<Artifact> artifacts) {
+            Artifact ret = artifacts.get(next);
+            artifacts.set(next, null);
+            next++;
+            return ret;
         }
+    }
+
+    private DataLink.Term getSemantics(Artifact a) {
+        if (ProductType.PREVIEW.equals(a.getProductType())) {
+            return DataLink.Term.PREVIEW;
+        } else if (ProductType.THUMBNAIL.equals(a.getProductType())) {
+            return DataLink.Term.THUMBNAIL;
+        } else if (ProductType.CATALOG.equals(a.getProductType())) {
+            return DataLink.Term.DERIVATION;
+        } else if (ProductType.AUXILIARY.equals(a.getProductType())
+                || ProductType.WEIGHT.equals(a.getProductType())
+                || ProductType.NOISE.equals(a.getProductType())
+                || ProductType.INFO.equals(a.getProductType())) {
+            return DataLink.Term.AUXILIARY;
+        }
+        return DataLink.Term.THIS;
+    }
+
+    private Boolean getReadable(ArtifactQueryResult ar, Artifact a) {
+        if (ReleaseType.DATA.equals(a.getReleaseType())) {
+            return ar.dataReadable;
+        } else if (ReleaseType.META.equals(a.getReleaseType())) {
+            return ar.metaReadable;
+        }
+        // else: new releaseType is not likely without major caom design change
+        return null;
+    }
+
+    // previews and thumbnails are excluded from the package
+    private int getNumFiles(ArtifactQueryResult ar) {
+        int ret = 0;
+        for (Artifact a : ar.getArtifacts()) {
+            if (!ProductType.PREVIEW.equals(a.getProductType()) 
+                    && !ProductType.THUMBNAIL.equals(a.getProductType())) {
+                ret++;
+            }
+        }
+        return ret;
+    }
+
+    private DataLink getPackageLink(URI uri, PublisherID pubID, int numFiles) {
         log.debug("num files for package: " + numFiles);
         if (numFiles > 1) {
 
-            URL pkg = getBasePackageURL(ar.getPublisherID());
+            URL pkg = getBasePackageURL(pubID);
             log.debug("base pkg url: " + pkg);
             if (pkg != null) {
                 DataLink link = new DataLink(uri.toASCIIString(), DataLink.Term.PACKAGE);
                 try {
-                    link.accessURL = getPackageURL(pkg, ar.getPublisherID());
+                    link.accessURL = getPackageURL(pkg, pubID);
                     link.contentType = PKG_CONTENT_TYPE_TAR;
                     link.description = "single download containing all files (previews and thumbnails excluded)";
                 } catch (MalformedURLException ex) {
                     link.errorMessage = "failed to create package link: " + ex;
                 }
-                ret.add(link);
+                return link;
+            }
+        }
+        return null;
+    }
+
+    private List<DataLink> processArtifact(URI uri, ArtifactQueryResult ar, Artifact a) {
+        PublisherID pubID = ar.getPublisherID();
+        DataLink.Term sem = getSemantics(a);
+        Boolean readable = getReadable(ar, a);
+        List<DataLink> ret = new ArrayList<>(3);
+        // direct download links
+        try {
+            DataLink dl = new DataLink(uri.toASCIIString(), sem);
+            dl.accessURL = getDownloadURL(a);
+            dl.contentType = a.contentType;
+            dl.contentLength = a.contentLength;
+            dl.contentQualifier = null; // TODO: get plane.datatProductType?
+            dl.linkAuth = DataLink.LinkAuthTerm.OPTIONAL; // TODO: make configurable
+            dl.linkAuthorized = readable;
+            dl.description = "download " + a.getURI().toASCIIString();
+            ret.add(dl);
+        } catch (MalformedURLException ex) {
+            DataLink dl = new DataLink(uri.toASCIIString(), sem);
+            dl.errorMessage = "FatalFault: failed to generate download URL: " + ex.toString();
+            ret.add(dl);
+        }
+
+        if (!downloadOnly && canCutout(a)) {
+            try {
+                final ArtifactBounds ab = getBounds(a);
+                
+                DataLink syncLink = new DataLink(uri.toASCIIString(), DataLink.Term.CUTOUT);
+                syncLink.serviceDef = "soda-" + UUID.randomUUID();
+                syncLink.contentType = a.contentType; // unchanged
+                syncLink.contentLength = null; // unknown
+                syncLink.contentQualifier = null; // unknown or still plane.datatProductType?
+                syncLink.linkAuth = DataLink.LinkAuthTerm.OPTIONAL; // TODO: make configurable
+                syncLink.linkAuthorized = readable;
+                syncLink.description = "SODA-sync cutout of " + a.getURI().toASCIIString();
+                ServiceDescriptor sds = generateServiceDescriptor(pubID, Standards.SODA_SYNC_10, syncLink.serviceDef, a, ab);
+                log.debug("SODA-sync: " + sds);
+                if (sds != null) {
+                    syncLink.descriptor = sds;
+                    ret.add(syncLink);
+                }
+
+                DataLink asyncLink = new DataLink(uri.toASCIIString(), DataLink.Term.CUTOUT);
+                asyncLink.serviceDef = "soda-" + UUID.randomUUID();
+                asyncLink.contentType = a.contentType; // unchanged
+                asyncLink.contentLength = null; // unknown
+                asyncLink.contentQualifier = null; // unknown or still plane.datatProductType?
+                asyncLink.linkAuth = DataLink.LinkAuthTerm.OPTIONAL; // TODO: make configurable
+                asyncLink.linkAuthorized = readable;
+                asyncLink.description = "SODA-async cutout of " + a.getURI().toASCIIString();
+                ServiceDescriptor sda = generateServiceDescriptor(pubID, Standards.SODA_ASYNC_10, asyncLink.serviceDef, a, ab);
+                log.debug("SODA-async: " + sda);
+                if (sda != null) {
+                    asyncLink.descriptor = sda;
+                    ret.add(asyncLink);
+                }
+            } catch (NoSuchKeywordException ex) {
+                throw new RuntimeException("FAIL: invalid WCS", ex);
             }
         }
         return ret;
     }
+    
+    private Future<List<DataLink>> submitArtifact(ExecutorService executor, final Subject caller, 
+            final URI uri, final ArtifactQueryResult ar, final Artifact a) {
+        // registry lookups depend on the caller
+        return ExecutorUtil.submit(executor, caller, new Callable<List<DataLink>>() {
+            @Override
+            public List<DataLink> call() throws Exception {
+                return processArtifact(uri, ar, a);
+            }
+        });
+    }
+    
+    private List<DataLink> getLinks(Future<List<DataLink>> f) {
+        try {
+            return ExecutorUtil.get(f);
+        } catch (IOException | ResourceNotFoundException | CertificateException ex) {
+            throw new RuntimeException("failed to process artifact", ex);
+        }
+    }
 
-    private class ArtifactBounds {
+    // shared by all requests via boundsCache: do not modify after generateBounds
+    private static class ArtifactBounds {
 
         public String circle;
         public String poly;
@@ -266,13 +469,12 @@ public class ArtifactProcessor {
     }
 
     private boolean canCutout(Artifact a) {
-        StorageResolver sr = artifactResolver.getStorageResolver(a.getURI());
-        if (!(sr instanceof CutoutGenerator)) {
+        CutoutGenerator cg = ArtifactResolverTable.getCutoutGenerator(a.getURI());
+        if (cg == null) {
             log.debug("canCutout: no code to generate cutout for " + a.getURI());
             return false;
         }
 
-        CutoutGenerator cg = (CutoutGenerator) sr;
         if (!cg.canCutout(a)) {
             log.debug("canCutout: artifact not supported by  " + cg.getClass().getName() + ": " + a.getURI());
             return false;
@@ -287,6 +489,23 @@ public class ArtifactProcessor {
         return true;
     }
 
+    private ArtifactBounds getBounds(Artifact a)
+            throws NoSuchKeywordException {
+        String key = CaomEntityUtil.getVersionKey(a);
+        if (key != null) {
+            ArtifactBounds ret = boundsCache.get(key);
+            if (ret != null) {
+                log.debug("bounds cache hit: " + key);
+                return ret;
+            }
+        }
+        ArtifactBounds ret = generateBounds(a);
+        if (key != null) {
+            boundsCache.put(key, ret);
+        }
+        return ret;
+    }
+
     private ArtifactBounds generateBounds(Artifact a)
             throws NoSuchKeywordException {
         ArtifactBounds ret = new ArtifactBounds();
@@ -358,7 +577,7 @@ public class ArtifactProcessor {
         }
 
         // generate artifact-specific SODA service descriptor
-        URL accessURL = registryClient.getServiceURL(pubID.getResourceID(), standardID, authMethod);
+        URL accessURL = getServiceURL(pubID.getResourceID(), standardID, authMethod);
         log.debug("resolve cuotut: " + pubID.getResourceID() + " + " + standardID + " +" + authMethod + " -> " + accessURL);
         if (accessURL == null) {
             // no SODA support for this publisherID
@@ -446,7 +665,8 @@ public class ArtifactProcessor {
      */
     protected URL getDownloadURL(Artifact a)
             throws MalformedURLException {
-        URL url = artifactResolver.getURL(a.getURI());
+        // may be called from a pool thread: use the resolver of this thread
+        URL url = ArtifactResolverTable.getResolver().getURL(a.getURI());
 
         return url;
     }
@@ -465,13 +685,48 @@ public class ArtifactProcessor {
         }
 
         URI resourceID = id.getResourceID();
-        URL ret = registryClient.getServiceURL(resourceID, Standards.PKG_10, authMethod);
+        URL ret = getServiceURL(resourceID, Standards.PKG_10, authMethod);
         log.debug("resolve package: " + id
                 + " > " + resourceID + " " + Standards.PKG_10 + " " + authMethod
                 + " >> " + ret);
         return ret;
     }
 
+    /**
+     * Find a service URL. Lookups are done once per request and found URLs are cached
+     * by all instances for 10 minutes.
+     * 
+     * @param resourceID
+     * @param standardID
+     * @param authMethod
+     * @return service url or null if no such service
+     */
+    URL getServiceURL(URI resourceID, URI standardID, AuthMethod authMethod) {
+        String key = resourceID.toASCIIString() + " " + standardID.toASCIIString() + " " + authMethod;
+        if (serviceURLs.containsKey(key)) {
+            return serviceURLs.get(key);
+        }
+        URL ret = serviceURLCache.get(key);
+        if (ret == null) {
+            ret = lookupServiceURL(resourceID, standardID, authMethod);
+            serviceURLCache.put(key, ret); // not found is not cached
+        }
+        serviceURLs.put(key, ret);
+        return ret;
+    }
+    
+    /**
+     * Find a service URL in the registry.
+     * 
+     * @param resourceID
+     * @param standardID
+     * @param authMethod
+     * @return service url or null if no such service
+     */
+    protected URL lookupServiceURL(URI resourceID, URI standardID, AuthMethod authMethod) {
+        return registryClient.getServiceURL(resourceID, standardID, authMethod);
+    }
+
     private URL getPackageURL(URL pkg, PublisherID id) throws MalformedURLException {
         StringBuilder sb = new StringBuilder();
         sb.append(pkg.toExternalForm());
@@ -70,7 +70,8 @@ package ca.nrc.cadc.caom2.datalink;
 
 import ca.nrc.cadc.caom2ops.CaomTapQuery;
 import ca.nrc.cadc.caom2ops.ServiceConfig;
-import java.net.URI;
+import ca.nrc.cadc.caom2ops.SyncJobUpdater;
+import java.util.concurrent.ExecutorService;
 import org.apache.log4j.Logger;
 import org.opencadc.datalink.server.DataLinkSource;
 import org.opencadc.datalink.server.LinkQueryRunner;
@@ -86,6 +87,15 @@ public class CaomLinkQueryRunner extends LinkQueryRunner {
         super();
     }
 
+    @Override
+    public void run() {
+        // sync requests are read-only lookups: optionally skip the intermediate job phase writes
+        if (syncOutput != null && new ServiceConfig().getSyncJobMemory()) {
+            jobUpdater = new SyncJobUpdater(job, jobUpdater);
+        }
+        super.run();
+    }
+
     @Override
     protected DataLinkSource getDataLinkSource() {
         String runID = job.getID();
@@ -96,9 +106,18 @@ public class CaomLinkQueryRunner extends LinkQueryRunner {
         // everything else can be derived from the input PublisherID (if we add TAP aux capability to
         // data collection capabilities
         ServiceConfig sc = new ServiceConfig();
-        URI tapServiceID = sc.getTapServiceID();
-        CaomTapQuery query = new CaomTapQuery(tapServiceID, runID);
+        CaomTapQuery query = sc.newQuery(runID);
         ArtifactProcessor ap = new ArtifactProcessor();
-        return new DynamicTableData(job, query, ap);
+        ExecutorService executor = sc.getArtifactExecutor();
+        if (executor != null) {
+            // one request can use all the threads but not queue the whole plane
+            ap.setExecutor(executor, sc.getArtifactThreads());
+        }
+        DynamicTableData ret = new DynamicTableData(job, query, ap);
+        Integer lookahead = sc.getQueryLookahead();
+        if (lookahead != null) {
+            ret.setLookahead(lookahead);
+        }
+        return ret;
     }
 }
@@ -69,10 +69,12 @@
 
 package ca.nrc.cadc.caom2.datalink;
 
+import ca.nrc.cadc.auth.AuthenticationUtil;
 import ca.nrc.cadc.caom2.PlaneURI;
 import ca.nrc.cadc.caom2.PublisherID;
 import ca.nrc.cadc.caom2ops.ArtifactQueryResult;
 import ca.nrc.cadc.caom2ops.CaomTapQuery;
+import ca.nrc.cadc.caom2ops.ExecutorUtil;
 import ca.nrc.cadc.caom2ops.TransientFault;
 import ca.nrc.cadc.caom2ops.UsageFault;
 import ca.nrc.cadc.net.ResourceNotFoundException;
@@ -83,7 +85,13 @@ import java.net.URI;
 import java.security.cert.CertificateException;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.security.auth.Subject;
 import org.apache.log4j.Logger;
 import org.opencadc.datalink.DataLink;
 import org.opencadc.datalink.ServiceDescriptor;
@@ -96,7 +104,14 @@ import org.opencadc.datalink.server.DataLinkSource;
 public class DynamicTableData implements DataLinkSource {
     private static final Logger log = Logger.getLogger(DynamicTableData.class);
 
+    // shared by all requests: bounds the number of concurrent prefetch queries in the process;
+    // lookahead bounds the number of IDs each request has waiting in the queue
+    static final int PREFETCH_THREADS = 8;
+    private static final ExecutorService prefetchExecutor = 
+            ExecutorUtil.newFixedThreadPool("datalink-prefetch", PREFETCH_THREADS);
+    
     private Integer maxrec;
+    private int lookahead = 0;
     private Iterator<String> argIter;
     private CaomTapQuery query;
     private boolean downloadOnly;
@@ -120,6 +135,21 @@ public class DynamicTableData implements DataLinkSource {
         this.maxrec = maxrec;
     }
 
+    /**
+     * Set the number of input IDs to look up in the background while links for the current
+     * IDs are being written. IDs are looked up in windows of up to batchSize IDs (see 
+     * CaomTapQuery.setBatchSize) so windows are submitted until at least this many IDs are
+     * outstanding. The default (0) looks up each window when it is needed.
+     * 
+     * @param lookahead number of IDs to prefetch
+     */
+    public void setLookahead(int lookahead) {
+        if (lookahead < 0) {
+            throw new IllegalArgumentException("invalid lookahead: " + lookahead);
+        }
+        this.lookahead = lookahead;
+    }
+
     @Override
     public Iterator<DataLink> links() {
         log.debug("links() called");
@@ -136,6 +166,13 @@ public class DynamicTableData implements DataLinkSource {
 
         private int count = 0;
         private Iterator<DataLink> curIter;
+        
+        // current window of input IDs and the windows being looked up in the background
+        private Iterator<InputID> windowIter;
+        private final LinkedList<Future<List<InputID>>> prefetch = new LinkedList<>();
+        private final LinkedList<Integer> prefetchSizes = new LinkedList<>();
+        private int numPrefetch = 0; // IDs in prefetch windows
+        private final Subject caller = AuthenticationUtil.getCurrentSubject();
 
         public boolean hasNext() {
             if (argIter == null) {
@@ -152,6 +189,7 @@ public class DynamicTableData implements DataLinkSource {
 
             if (curIter == null) {
                 log.debug("ConcatIterator.hasNext: curIter==null");
+                cancelPrefetch();
                 return false;
             }
             log.debug("ConcatIterator.hasNext: " + curIter.hasNext());
@@ -170,59 +208,48 @@ public class DynamicTableData implements DataLinkSource {
 
         private Iterator<DataLink> getBatchIterator() {
             log.debug("getBatchIterator: START");
-            if (!argIter.hasNext()) {
-                return null;
-            }
             curIter = null;
-            while (argIter.hasNext() && curIter == null) {
-                String s = argIter.next();
-                URI uri = null;
-                PlaneURI planeURI = null;
-                PublisherID pubID = null;
+            while (curIter == null) {
+                String s = null;
                 try {
-                    List<DataLink> links = null;
-                    try {
-                        uri = new URI(s);
-                        if (PublisherID.SCHEME.equals(uri.getScheme())) {
-                            pubID = new PublisherID(uri);
-                        } else {
-                            planeURI = new PlaneURI(uri);
+                    if (windowIter == null || !windowIter.hasNext()) {
+                        List<InputID> window = nextWindow();
+                        if (window == null) {
+                            return null;
                         }
-                    } catch (Exception ex) {
+                        windowIter = window.iterator();
+                    }
+                    
+                    InputID in = windowIter.next();
+                    s = in.value;
+                    List<DataLink> links = null;
+                    if (in.pubID == null && in.planeURI == null) {
                         links = new ArrayList<>(1);
                         DataLink usage = new DataLink(s, DataLink.Term.THIS);
                         usage.errorMessage = "UsageFault: invalid ID: " + s;
                         links.add(usage);
-                    }
-                    if (pubID != null || planeURI != null) {
-                        try {
-                            ArtifactQueryResult ar;
-                            if (pubID != null) {
-                                log.debug("getBatchIterator: " + pubID);
-                                ar = query.performQuery(pubID, downloadOnly);
-                            } else {
-                                log.debug("getBatchIterator: " + planeURI);
-                                ar = query.performQuery(planeURI, downloadOnly);
-                            }
-                            if (ar == null || ar.getArtifacts().isEmpty()) {
-                                links = new ArrayList<>(1);
-                                DataLink notFound = new DataLink(s, DataLink.Term.THIS);
-                                notFound.errorMessage = "NotFoundFault: " + s;
-                                links.add(notFound);
-                            } else {
-                                log.debug("getBatchIterator: " + uri + ": " + ar.getArtifacts().size() + " artifacts");
-                                links = ap.process(uri, ar);
-                            }
-                        } catch (TransientFault f) {
-                            links = new ArrayList<>(1);
-                            DataLink fail = new DataLink(s, DataLink.Term.THIS);
-                            fail.errorMessage = f.toString();
-                            links.add(fail);
+                    } else if (in.fault != null) {
+                        links = new ArrayList<>(1);
+                        DataLink fail = new DataLink(s, DataLink.Term.THIS);
+                        fail.errorMessage = in.fault.toString();
+                        links.add(fail);
+                    } else if (in.result == null || in.result.getArtifacts().isEmpty()) {
+                        links = new ArrayList<>(1);
+                        DataLink notFound = new DataLink(s, DataLink.Term.THIS);
+                        notFound.errorMessage = "NotFoundFault: " + s;
+                        links.add(notFound);
+                    } else {
+                        log.debug("getBatchIterator: " + in.uri + ": " + in.result.getArtifacts().size() + " artifacts");
+                        // links are generated as they are written and artifacts released after use
+                        Iterator<DataLink> iter = ap.iterator(in.uri, in.result);
+                        in.result = null;
+                        if (iter.hasNext()) {
+                            curIter = iter;
                         }
                     }
 
                     if (links != null && !links.isEmpty()) {
-                        log.debug("getBatchIterator: " + uri + ": " + links.size() + " links");
+                        log.debug("getBatchIterator: " + in.uri + ": " + links.size() + " links");
                         curIter = links.iterator();
                     }
                 } catch (IOException ex) {
@@ -236,6 +263,135 @@ public class DynamicTableData implements DataLinkSource {
 
             return curIter;
         }
+        
+        // get the next resolved window of input IDs in input order, or null when done
+        private List<InputID> nextWindow() throws IOException, ResourceNotFoundException, CertificateException {
+            if (lookahead == 0) {
+                List<InputID> window = readWindow();
+                if (window != null) {
+                    resolve(window);
+                }
+                return window;
+            }
+            
+            fillPrefetch();
+            Future<List<InputID>> f = prefetch.poll();
+            if (f == null) {
+                return null;
+            }
+            numPrefetch -= prefetchSizes.poll();
+            boolean ok = false;
+            try {
+                List<InputID> window = ExecutorUtil.get(f);
+                ok = true;
+                fillPrefetch();
+                return window;
+            } finally {
+                if (!ok) {
+                    cancelPrefetch();
+                }
+            }
+        }
+        
+        // submit lookups for upcoming windows until lookahead IDs are outstanding or maxrec is reached
+        private void fillPrefetch() {
+            while (numPrefetch < lookahead && (maxrec == null || count < maxrec)) {
+                final List<InputID> window = readWindow();
+                if (window == null) {
+                    return;
+                }
+                Future<List<InputID>> f = ExecutorUtil.submit(prefetchExecutor, caller, new Callable<List<InputID>>() {
+                    @Override
+                    public List<InputID> call() throws Exception {
+                        resolve(window);
+                        return window;
+                    }
+                });
+                prefetch.add(f);
+                prefetchSizes.add(window.size());
+                numPrefetch += window.size();
+            }
+        }
+        
+        private void cancelPrefetch() {
+            ExecutorUtil.cancel(prefetch);
+            prefetch.clear();
+            prefetchSizes.clear();
+            numPrefetch = 0;
+        }
+        
+        // read the next batchSize input IDs
+        private List<InputID> readWindow() {
+            if (!argIter.hasNext()) {
+                return null;
+            }
+            List<InputID> window = new ArrayList<>();
+            while (argIter.hasNext() && window.size() < query.getBatchSize()) {
+                InputID in = new InputID(argIter.next());
+                try {
+                    in.uri = new URI(in.value);
+                    if (PublisherID.SCHEME.equals(in.uri.getScheme())) {
+                        in.pubID = new PublisherID(in.uri);
+                    } else {
+                        in.planeURI = new PlaneURI(in.uri);
+                    }
+                } catch (Exception ex) {
+                    log.debug("invalid ID: " + in.value + " " + ex);
+                }
+                window.add(in);
+            }
+            return window;
+        }
+    }
+    
+    // look up all the publisherID values in a window at once and the PlaneURI values one at a time
+    private void resolve(List<InputID> window) throws IOException, ResourceNotFoundException, CertificateException {
+        List<PublisherID> pubIDs = new ArrayList<>();
+        for (InputID in : window) {
+            if (in.pubID != null) {
+                pubIDs.add(in.pubID);
+            }
+        }
+        if (!pubIDs.isEmpty()) {
+            log.debug("resolve: " + pubIDs.size() + " publisherID(s)");
+            try {
+                Map<PublisherID,ArtifactQueryResult> results = query.performQuery(pubIDs, downloadOnly);
+                for (InputID in : window) {
+                    if (in.pubID != null) {
+                        in.result = results.get(in.pubID);
+                    }
+                }
+            } catch (TransientFault f) {
+                for (InputID in : window) {
+                    if (in.pubID != null) {
+                        in.fault = f;
+                    }
+                }
+            }
+        }
+        for (InputID in : window) {
+            if (in.planeURI != null) {
+                log.debug("resolve: " + in.planeURI);
+                try {
+                    in.result = query.performQuery(in.planeURI, downloadOnly);
+                } catch (TransientFault f) {
+                    in.fault = f;
+                }
+            }
+        }
+    }
+    
+    private static class InputID {
+        String value;
+        URI uri;
+        PublisherID pubID;
+        PlaneURI planeURI;
+        ArtifactQueryResult result;
+        TransientFault fault;
+        
+        InputID(String value) {
+            this.value = value;
+        }
     }
 
 }
@@ -69,16 +69,34 @@
 
 package ca.nrc.cadc.caom2.datalink;
 
+import ca.nrc.cadc.auth.AuthMethod;
 import ca.nrc.cadc.caom2.Artifact;
+import ca.nrc.cadc.caom2.Chunk;
+import ca.nrc.cadc.caom2.Part;
 import ca.nrc.cadc.caom2.ProductType;
 import ca.nrc.cadc.caom2.PublisherID;
 import ca.nrc.cadc.caom2.ReleaseType;
+import ca.nrc.cadc.caom2.wcs.Axis;
+import ca.nrc.cadc.caom2.wcs.Coord2D;
+import ca.nrc.cadc.caom2.wcs.CoordAxis2D;
+import ca.nrc.cadc.caom2.wcs.CoordFunction2D;
+import ca.nrc.cadc.caom2.wcs.Dimension2D;
+import ca.nrc.cadc.caom2.wcs.RefCoord;
+import ca.nrc.cadc.caom2.wcs.SpatialWCS;
 import ca.nrc.cadc.caom2ops.ArtifactQueryResult;
+import ca.nrc.cadc.caom2ops.ExecutorUtil;
 import ca.nrc.cadc.caom2ops.ServiceConfig;
+import ca.nrc.cadc.reg.Standards;
 import ca.nrc.cadc.util.Log4jInit;
+import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URL;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.junit.Assert;
@@ -134,6 +152,53 @@ public class ArtifactProcessorTest {
         }
     }
 
+    @Test
+    public void testServiceURLCache() {
+        try {
+            // unique resourceID so the shared cache cannot have an entry
+            final URI resourceID = URI.create("ivo://example.net/" + UUID.randomUUID());
+            final URL found = new URL("https://example.net/soda");
+            final List<URI> lookups = new ArrayList<URI>();
+            ArtifactProcessor ap = new ArtifactProcessor() {
+                @Override
+                protected URL lookupServiceURL(URI rid, URI standardID, AuthMethod am) {
+                    lookups.add(standardID);
+                    if (Standards.SODA_SYNC_10.equals(standardID)) {
+                        return found;
+                    }
+                    return null;
+                }
+            };
+            
+            for (int i = 0; i < 3; i++) {
+                Assert.assertEquals(found, ap.getServiceURL(resourceID, Standards.SODA_SYNC_10, AuthMethod.ANON));
+                Assert.assertNull(ap.getServiceURL(resourceID, Standards.PKG_10, AuthMethod.ANON));
+            }
+            Assert.assertEquals("lookups", 2, lookups.size());
+            
+            // different auth method is a separate entry
+            ap.getServiceURL(resourceID, Standards.SODA_SYNC_10, AuthMethod.CERT);
+            Assert.assertEquals("lookups", 3, lookups.size());
+            
+            // found URL shared with a new instance, not found is looked up again
+            lookups.clear();
+            ArtifactProcessor ap2 = new ArtifactProcessor() {
+                @Override
+                protected URL lookupServiceURL(URI rid, URI standardID, AuthMethod am) {
+                    lookups.add(standardID);
+                    return null;
+                }
+            };
+            Assert.assertEquals(found, ap2.getServiceURL(resourceID, Standards.SODA_SYNC_10, AuthMethod.ANON));
+            Assert.assertNull(ap2.getServiceURL(resourceID, Standards.PKG_10, AuthMethod.ANON));
+            Assert.assertEquals("lookups", 1, lookups.size());
+            Assert.assertEquals(Standards.PKG_10, lookups.get(0));
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
     @Test
     public void testSimple() {
         try {
@@ -198,6 +263,230 @@ public class ArtifactProcessorTest {
         }
     }
 
+    @Test
+    public void testIterator() {
+        try {
+            URI uri = PUB_ID.getURI();
+            ArtifactProcessor ap = new ArtifactProcessor() {
+                @Override
+                protected URL getDownloadURL(Artifact a) throws MalformedURLException {
+                    return new URL("https://example.net/" + a.getURI().getSchemeSpecificPart());
+                }
+                
+                @Override
+                protected URL lookupServiceURL(URI rid, URI standardID, AuthMethod am) {
+                    try {
+                        return new URL("https://example.net/pkg");
+                    } catch (MalformedURLException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+            };
+
+            ArtifactQueryResult expected = new ArtifactQueryResult(PUB_ID);
+            expected.getArtifacts().addAll(getTestArtifacts(3, 2));
+            List<DataLink> links = ap.process(uri, expected);
+            
+            ArtifactQueryResult artifacts = new ArtifactQueryResult(PUB_ID);
+            artifacts.getArtifacts().addAll(getTestArtifacts(3, 2));
+            Iterator<DataLink> iter = ap.iterator(uri, artifacts);
+            Assert.assertNotNull("first artifact not released before use", artifacts.getArtifacts().get(0));
+            
+            int num = 0;
+            while (iter.hasNext()) {
+                DataLink dl = iter.next();
+                DataLink edl = links.get(num);
+                log.info("testIterator: " + dl);
+                Assert.assertEquals(edl.getSemantics(), dl.getSemantics());
+                Assert.assertEquals(edl.accessURL, dl.accessURL);
+                Assert.assertEquals(edl.description, dl.description);
+                num++;
+            }
+            Assert.assertEquals("num links", links.size(), num);
+            Assert.assertEquals(DataLink.Term.PACKAGE, links.get(links.size() - 1).getSemantics());
+            for (Artifact a : artifacts.getArtifacts()) {
+                Assert.assertNull("released", a);
+            }
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testParallelOrder() {
+        ExecutorService executor = ExecutorUtil.newFixedThreadPool("test-artifact", 4);
+        try {
+            URI uri = PUB_ID.getURI();
+
+            ArtifactQueryResult artifacts = new ArtifactQueryResult(PUB_ID);
+            artifacts.getArtifacts().addAll(getCutoutArtifacts(20));
+            
+            ArtifactProcessor seq = new TestArtifactProcessor();
+            List<DataLink> expected = seq.process(uri, artifacts);
+            // download, SODA-sync, and SODA-async per artifact
+            Assert.assertEquals("num links", 3 * 20, expected.size());
+            
+            ArtifactProcessor ap = new TestArtifactProcessor();
+            ap.setExecutor(executor, 2);
+            List<DataLink> links = ap.process(uri, artifacts);
+            Assert.assertEquals("num links", expected.size(), links.size());
+            for (int i = 0; i < links.size(); i++) {
+                DataLink edl = expected.get(i);
+                DataLink dl = links.get(i);
+                log.debug("link " + i + ": " + dl.description);
+                Assert.assertEquals(uri.toASCIIString(), dl.getID());
+                Assert.assertEquals(edl.getSemantics(), dl.getSemantics());
+                Assert.assertEquals(edl.description, dl.description);
+                Assert.assertEquals(edl.accessURL, dl.accessURL);
+                if (edl.descriptor == null) {
+                    Assert.assertNull(dl.descriptor);
+                } else {
+                    Assert.assertNotNull(dl.descriptor);
+                    Assert.assertEquals(dl.serviceDef, dl.descriptor.id);
+                    Assert.assertEquals(edl.descriptor.standardID, dl.descriptor.standardID);
+                    Assert.assertEquals(edl.descriptor.getAccessURL(), dl.descriptor.getAccessURL());
+                    Assert.assertEquals(edl.descriptor.getInputParams().size(), dl.descriptor.getInputParams().size());
+                }
+            }
+            
+            int a = 0;
+            for (int i = 0; i < links.size(); i += 3) {
+                String auri = BASE_ARTIFACT_URI + a;
+                Assert.assertEquals("download " + auri, links.get(i).description);
+                Assert.assertEquals("SODA-sync cutout of " + auri, links.get(i + 1).description);
+                Assert.assertEquals("SODA-async cutout of " + auri, links.get(i + 2).description);
+                a++;
+            }
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testParallelIterator() {
+        ExecutorService executor = ExecutorUtil.newFixedThreadPool("test-artifact", 4);
+        try {
+            URI uri = PUB_ID.getURI();
+
+            ArtifactQueryResult expected = new ArtifactQueryResult(PUB_ID);
+            expected.getArtifacts().addAll(getCutoutArtifacts(20));
+            List<DataLink> links = new TestArtifactProcessor().process(uri, expected);
+            
+            ArtifactQueryResult artifacts = new ArtifactQueryResult(PUB_ID);
+            artifacts.getArtifacts().addAll(getCutoutArtifacts(20));
+            ArtifactProcessor ap = new TestArtifactProcessor();
+            ap.setExecutor(executor, 2);
+            Iterator<DataLink> iter = ap.iterator(uri, artifacts);
+            Assert.assertNotNull("first artifact not submitted before use", artifacts.getArtifacts().get(0));
+            
+            // only the artifacts in the window are taken from the result
+            Assert.assertTrue(iter.hasNext());
+            Assert.assertNull(artifacts.getArtifacts().get(1));
+            Assert.assertNotNull("artifact outside the window", artifacts.getArtifacts().get(2));
+            
+            int num = 0;
+            while (iter.hasNext()) {
+                DataLink dl = iter.next();
+                DataLink edl = links.get(num);
+                Assert.assertEquals(edl.getSemantics(), dl.getSemantics());
+                Assert.assertEquals(edl.description, dl.description);
+                Assert.assertEquals(edl.accessURL, dl.accessURL);
+                num++;
+            }
+            Assert.assertEquals("num links", links.size(), num);
+            for (Artifact a : artifacts.getArtifacts()) {
+                Assert.assertNull("released", a);
+            }
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testParallelFail() {
+        ExecutorService executor = ExecutorUtil.newFixedThreadPool("test-artifact", 4);
+        try {
+            URI uri = PUB_ID.getURI();
+
+            ArtifactQueryResult artifacts = new ArtifactQueryResult(PUB_ID);
+            artifacts.getArtifacts().addAll(getCutoutArtifacts(20));
+            
+            final String failURI = BASE_ARTIFACT_URI + 3;
+            final AtomicInteger num = new AtomicInteger();
+            ArtifactProcessor ap = new TestArtifactProcessor() {
+                @Override
+                protected URL getDownloadURL(Artifact a) throws MalformedURLException {
+                    num.incrementAndGet();
+                    if (failURI.equals(a.getURI().toASCIIString())) {
+                        throw new IllegalStateException("fail: " + failURI);
+                    }
+                    return super.getDownloadURL(a);
+                }
+            };
+            ap.setExecutor(executor, 2);
+            try {
+                ap.process(uri, artifacts);
+                Assert.fail("expected IllegalStateException");
+            } catch (IllegalStateException expected) {
+                log.debug("caught expected: " + expected);
+            }
+            // failure is found while artifacts 3 and 4 are in the pool: no more are submitted
+            Assert.assertTrue("num processed: " + num.get(), num.get() <= 5);
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static class TestArtifactProcessor extends ArtifactProcessor {
+        @Override
+        protected URL getDownloadURL(Artifact a) throws MalformedURLException {
+            return new URL("https://example.net/" + a.getURI().getSchemeSpecificPart());
+        }
+
+        @Override
+        protected URL lookupServiceURL(URI rid, URI standardID, AuthMethod am) {
+            try {
+                return new URL("https://example.net/soda/" + standardID.getFragment() + "/" + am.name());
+            } catch (MalformedURLException ex) {
+                throw new RuntimeException("BUG: " + ex);
+            }
+        }
+    }
+    
+    // fits artifacts with a 2D spatial WCS so they support SODA cutouts
+    private List<Artifact> getCutoutArtifacts(int numA)
+            throws Exception {
+        List<Artifact> ret = new ArrayList<>();
+        for (int i = 0; i < numA; i++) {
+            Artifact a = new Artifact(new URI(BASE_ARTIFACT_URI + i), ProductType.SCIENCE, ReleaseType.DATA);
+            a.contentType = "application/fits";
+            Part p = new Part("0");
+            Chunk c = new Chunk();
+            c.naxis = 2;
+            c.positionAxis1 = 1;
+            c.positionAxis2 = 2;
+            CoordAxis2D axis = new CoordAxis2D(new Axis("RA---TAN", "deg"), new Axis("DEC--TAN", "deg"));
+            Coord2D ref = new Coord2D(new RefCoord(50.5, 10.0 + i), new RefCoord(50.5, 20.0));
+            axis.function = new CoordFunction2D(new Dimension2D(100, 100), ref, 1.0e-3, 0.0, 0.0, 1.0e-3);
+            c.position = new SpatialWCS(axis);
+            c.position.coordsys = "ICRS";
+            p.getChunks().add(c);
+            a.getParts().add(p);
+            ret.add(a);
+        }
+        return ret;
+    }
+
     private List<Artifact> getTestArtifacts(int numA, int numP)
             throws Exception {
         List<Artifact> ret = new ArrayList<>();
@@ -82,7 +82,13 @@ import ca.nrc.cadc.util.Log4jInit;
 import ca.nrc.cadc.uws.Job;
 import ca.nrc.cadc.uws.Parameter;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.junit.Assert;
@@ -287,9 +293,135 @@ public class DynamicTableDataTest
         }
     }
 
+    @Test
+    public void testBatchedInputURI()
+    {
+        log.debug("testBatchedInputURI - START");
+        try
+        {
+            Job job = new Job();
+            job.getParameterList().add(new Parameter("id", "ivo://cadc.nrc.ca/IRIS?bar/baz1"));
+            job.getParameterList().add(new Parameter("id", "ivo://cadc.nrc.ca/IRIS?bar/baz2"));
+            job.getParameterList().add(new Parameter("id", "ivo://cadc.nrc.ca/IRIS?bar/baz3"));
+            ArtifactProcessor ap = new ArtifactProcessor();
+            TestCaomTapQuery query = new TestCaomTapQuery("123456", new URI("ivo://cadc.nrc.ca/unused"), 1);
+            query.setBatchSize(2);
+            DynamicTableData dtd = new DynamicTableData(job, query, ap);
+            dtd.setDownloadOnly(false);
+            dtd.setMaxrec(10);
+            Iterator<DataLink> iter = dtd.links();
+
+            int n = 0;
+            while (iter.hasNext())
+            {
+                Assert.assertNotNull(iter.next());
+                n++;
+            }
+            Assert.assertEquals(3, n);
+            Assert.assertEquals("batch queries", 2, query.numBatchQueries.get());
+        }
+        catch(Exception unexpected)
+        {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+    
+    @Test
+    public void testPrefetchOrder()
+    {
+        log.debug("testPrefetchOrder - START");
+        try
+        {
+            Job job = new Job();
+            List<String> ids = new ArrayList<String>();
+            for (int i = 0; i < 10; i++)
+            {
+                String id = "ivo://cadc.nrc.ca/IRIS?bar/baz" + i;
+                ids.add(id);
+                job.getParameterList().add(new Parameter("id", id));
+            }
+            ArtifactProcessor ap = new ArtifactProcessor();
+            TestCaomTapQuery query = new TestCaomTapQuery("123456", new URI("ivo://cadc.nrc.ca/unused"), 1);
+            query.setBatchSize(1);
+            DynamicTableData dtd = new DynamicTableData(job, query, ap);
+            dtd.setDownloadOnly(false);
+            dtd.setMaxrec(10);
+            dtd.setLookahead(3);
+            Iterator<DataLink> iter = dtd.links();
+
+            // 1 link per ID in input order
+            for (String id : ids)
+            {
+                Assert.assertTrue(iter.hasNext());
+                DataLink dl = iter.next();
+                Assert.assertEquals(id, dl.getID());
+            }
+            Assert.assertFalse(iter.hasNext());
+            
+            // maxrec stops further lookups
+            dtd = new DynamicTableData(job, query, ap);
+            dtd.setDownloadOnly(false);
+            dtd.setMaxrec(2);
+            dtd.setLookahead(3);
+            iter = dtd.links();
+            query.numBatchQueries.set(0);
+            int n = 0;
+            while (iter.hasNext())
+            {
+                iter.next();
+                n++;
+            }
+            Assert.assertEquals(2, n);
+            Assert.assertTrue("batch queries", query.numBatchQueries.get() <= 2 + 3);
+        }
+        catch(Exception unexpected)
+        {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+    
+    @Test
+    public void testPrefetchLookaheadIDs()
+    {
+        log.debug("testPrefetchLookaheadIDs - START");
+        try
+        {
+            Job job = new Job();
+            for (int i = 0; i < 20; i++)
+            {
+                job.getParameterList().add(new Parameter("id", "ivo://cadc.nrc.ca/IRIS?bar/baz" + i));
+            }
+            ArtifactProcessor ap = new ArtifactProcessor();
+            TestCaomTapQuery query = new TestCaomTapQuery("123456", new URI("ivo://cadc.nrc.ca/unused"), 1);
+            query.setBatchSize(2);
+            DynamicTableData dtd = new DynamicTableData(job, query, ap);
+            dtd.setDownloadOnly(false);
+            dtd.setMaxrec(1);
+            dtd.setLookahead(4);
+            Iterator<DataLink> iter = dtd.links();
+            int n = 0;
+            while (iter.hasNext())
+            {
+                iter.next();
+                n++;
+            }
+            Assert.assertEquals(1, n);
+            // lookahead is 4 IDs = 2 windows of 2, plus 1 window to refill after the first is used
+            Assert.assertTrue("batch queries", query.numBatchQueries.get() <= 3);
+        }
+        catch(Exception unexpected)
+        {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
     class TestCaomTapQuery extends CaomTapQuery
     {
         int num;
+        AtomicInteger numBatchQueries = new AtomicInteger();
         TestCaomTapQuery(String jobID, URI tapURI, int num)
         {
             super(tapURI, jobID);
@@ -320,6 +452,19 @@ public class DynamicTableDataTest
             return  ret;
         }
         
+        @Override
+        public Map<PublisherID,ArtifactQueryResult> performQuery(Collection<PublisherID> ids, boolean artifactOnly)
+        {
+            Assert.assertTrue(ids.size() <= getBatchSize());
+            numBatchQueries.incrementAndGet();
+            Map<PublisherID,ArtifactQueryResult> ret = new LinkedHashMap<PublisherID,ArtifactQueryResult>();
+            for (PublisherID id : ids)
+            {
+                ret.put(id, performQuery(id, artifactOnly));
+            }
+            return ret;
+        }
+        
         @Override
         public ArtifactQueryResult performQuery(PlaneURI id, boolean artifactOnly)
         {
@@ -0,0 +1,236 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2.meta;
+
+import ca.nrc.cadc.util.HexUtil;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Date;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Conditional GET headers (If-None-Match and If-Modified-Since) of the current request.
+ * The ConditionalRequestFilter makes these available to the job runner, which executes
+ * synchronous jobs in the request thread.
+ */
+public class ConditionalRequest
+{
+    private static final ThreadLocal<ConditionalRequest> current = new ThreadLocal<ConditionalRequest>();
+
+    private final String ifNoneMatch;
+    private final long ifModifiedSince;
+
+    /**
+     * @param ifNoneMatch value of the If-None-Match header, may be null
+     * @param ifModifiedSince value of the If-Modified-Since header in milliseconds, or -1
+     */
+    public ConditionalRequest(String ifNoneMatch, long ifModifiedSince)
+    {
+        this.ifNoneMatch = ifNoneMatch;
+        this.ifModifiedSince = ifModifiedSince;
+    }
+
+    /**
+     * @return the conditional headers of the current request or null if the request
+     *     did not pass the ConditionalRequestFilter
+     */
+    public static ConditionalRequest getCurrent()
+    {
+        return current.get();
+    }
+
+    static void setCurrent(ConditionalRequest cr)
+    {
+        if (cr == null)
+            current.remove();
+        else
+            current.set(cr);
+    }
+
+    public boolean isConditional()
+    {
+        return ifNoneMatch != null || ifModifiedSince >= 0L;
+    }
+
+    /**
+     * Evaluate the conditions (RFC 7232): If-None-Match takes precedence and uses the weak
+     * comparison; If-Modified-Since is only used when there is no If-None-Match.
+     * 
+     * @param etag current entity tag, may be null
+     * @param lastModified current last modification time, may be null
+     * @return true if the client copy is current
+     */
+    public boolean isNotModified(String etag, Date lastModified)
+    {
+        if (ifNoneMatch != null)
+        {
+            for (String t : ifNoneMatch.split(","))
+            {
+                t = t.trim();
+                // * matches any current representation
+                if ("*".equals(t))
+                    return true;
+                if (etag != null && stripWeak(t).equals(stripWeak(etag)))
+                    return true;
+            }
+            return false;
+        }
+        if (ifModifiedSince >= 0L && lastModified != null)
+        {
+            // HTTP dates have 1 second resolution
+            return lastModified.getTime() / 1000L <= ifModifiedSince / 1000L;
+        }
+        return false;
+    }
+
+    /**
+     * The same observation has a different representation for each response format
+     * and CAOM namespace, so both are part of the entity tag. The checksum covers all
+     * planes but the planes a caller can see depend on the metaRelease dates and the
+     * caller's groups, so the visible planes are also part of the entity tag.
+     * 
+     * @param accMetaChecksum accumulated metadata checksum of the observation
+     * @param planes IDs of the planes visible to the caller
+     * @param format response format (content type)
+     * @param namespace CAOM namespace of the output
+     * @return a strong entity tag or null if there is no checksum
+     */
+    public static String getETag(URI accMetaChecksum, Collection<UUID> planes, String format, String namespace)
+    {
+        if (accMetaChecksum == null)
+            return null;
+        try
+        {
+            // format comes from a request parameter: only use a digest in the tag
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            md.update((format + " " + namespace).getBytes(StandardCharsets.UTF_8));
+            for (UUID id : new TreeSet<UUID>(planes))
+            {
+                md.update((" " + id).getBytes(StandardCharsets.UTF_8));
+            }
+            String variant = HexUtil.toHex(md.digest()).substring(0, 8);
+            return "\"" + accMetaChecksum.toASCIIString() + "-" + variant + "\"";
+        }
+        catch(NoSuchAlgorithmException ex)
+        {
+            throw new RuntimeException("BUG: MD5 digest not available", ex);
+        }
+    }
+
+    /**
+     * Get the last modification of the observation as seen by the caller. A plane that 
+     * was hidden becomes visible at its metaRelease without a change to the observation,
+     * so that is a modification as well. A visible plane that is not released yet is
+     * only visible to some callers: there is no modification time that is valid for 
+     * all of them in that case.
+     * 
+     * @param maxLastModified last modification of the observation, may be null
+     * @param metaRelease metaRelease of the planes visible to the caller
+     * @param now current time
+     * @return the last modification or null
+     */
+    public static Date getLastModified(Date maxLastModified, Collection<Date> metaRelease, Date now)
+    {
+        if (maxLastModified == null)
+            return null;
+        Date ret = maxLastModified;
+        for (Date d : metaRelease)
+        {
+            if (d == null || d.after(now))
+                return null;
+            if (d.after(ret))
+                ret = d;
+        }
+        return ret;
+    }
+
+    /**
+     * @param d date
+     * @return the date in HTTP (RFC 1123) format
+     */
+    public static String formatHttpDate(Date d)
+    {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(d.getTime()).atOffset(ZoneOffset.UTC));
+    }
+
+    private static String stripWeak(String etag)
+    {
+        if (etag.startsWith("W/"))
+            return etag.substring(2);
+        return etag;
+    }
+}
@@ -71,13 +71,18 @@ package ca.nrc.cadc.caom2.meta;
 
 import ca.nrc.cadc.caom2.Observation;
 import ca.nrc.cadc.caom2.ObservationURI;
-import ca.nrc.cadc.caom2.xml.JsonWriter;
-import ca.nrc.cadc.caom2.xml.ObservationWriter;
+import ca.nrc.cadc.caom2.Plane;
+import ca.nrc.cadc.caom2.util.CaomValidator;
+import ca.nrc.cadc.caom2.xml.XmlConstants;
 import ca.nrc.cadc.caom2ops.CaomTapQuery;
+import ca.nrc.cadc.caom2ops.ObservationVersion;
 import ca.nrc.cadc.caom2ops.ServiceConfig;
+import ca.nrc.cadc.caom2ops.SyncJobUpdater;
 import ca.nrc.cadc.caom2ops.TransientFault;
 import ca.nrc.cadc.dali.tables.votable.VOTableWriter;
+import ca.nrc.cadc.date.DateUtil;
 import ca.nrc.cadc.log.WebServiceLogInfo;
+import ca.nrc.cadc.net.ResourceNotFoundException;
 import ca.nrc.cadc.rest.SyncOutput;
 import ca.nrc.cadc.util.ThrowableUtil;
 import ca.nrc.cadc.uws.ErrorSummary;
@@ -95,10 +100,23 @@ import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.cert.CertificateException;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
 import org.apache.log4j.Logger;
 
 /**
+ * Meta query runner. The output is written with the MetaWriterRegistry writer for the 
+ * requested format and the CAOM namespace of the runner; the default is CAOM-2.4.
+ * With multiple ID values or a COLLECTION (and optional START and END bounds on
+ * maxLastModified) the observations are queried in batches and the response is a
+ * single document (see ObservationListWriter) that also lists the observations that
+ * were not found.
  *
  * @author pdowler
  */
@@ -106,8 +124,10 @@ public class MetaQueryRunner implements JobRunner
 {
     private static final Logger log = Logger.getLogger(MetaQueryRunner.class);
 
-    private static final String DEFAULT_FORMAT = "text/xml";
-    private static final String JSON_FORMAT = "application/json";
+    private static final String DEFAULT_FORMAT = MetaWriterRegistry.XML_FORMAT;
+    
+    // warn once per process if conditional GET is not enabled
+    private static volatile boolean filterWarning = false;
     
     private Job job;
     private JobUpdater jobUpdater;
@@ -115,13 +135,23 @@ public class MetaQueryRunner implements JobRunner
     private WebServiceLogInfo logInfo;
     
     private final URI metaID;
-    private final URI tapID;
+    private final ServiceConfig config;
+    private final String namespace;
 
     public MetaQueryRunner() 
+    { 
+        this(XmlConstants.CAOM2_4_NAMESPACE);
+    }
+
+    /**
+     * @param namespace CAOM namespace of the output documents
+     */
+    protected MetaQueryRunner(String namespace) 
     { 
         ServiceConfig sc = new ServiceConfig();
         this.metaID = sc.getMetaID();
-        this.tapID = sc.getTapServiceID();
+        this.config = sc;
+        this.namespace = namespace;
     }
 
     @Override
@@ -149,6 +179,10 @@ public class MetaQueryRunner implements JobRunner
         log.info(logInfo.start());
         long start = System.currentTimeMillis();
 
+        // read-only lookup: optionally skip the intermediate job phase writes
+        if (syncOutput != null && config.getSyncJobMemory())
+            jobUpdater = new SyncJobUpdater(job, jobUpdater);
+
         doIt();
 
         logInfo.setElapsedTime(System.currentTimeMillis() - start);
@@ -172,58 +206,50 @@ public class MetaQueryRunner implements JobRunner
             }
             log.debug(job.getID() + ": QUEUED -> EXECUTING [OK]");
             
-            // input parameter
-            String suri = ParameterUtil.findParameterValue("ID", job.getParameterList());
-            if (suri == null)
+            // input parameters: one or more ID or a COLLECTION with optional START and END
+            List<String> ids = ParameterUtil.findParameterValues("ID", job.getParameterList());
+            String collection = ParameterUtil.findParameterValue("COLLECTION", job.getParameterList());
+            String start = ParameterUtil.findParameterValue("START", job.getParameterList());
+            String end = ParameterUtil.findParameterValue("END", job.getParameterList());
+            if (ids.isEmpty() && collection == null)
                 throw new IllegalArgumentException("missing required parameter: ID");
+            if (collection != null)
+                CaomValidator.assertValidPathComponent(MetaQueryRunner.class, "COLLECTION", collection);
+            if (!ids.isEmpty() && collection != null)
+                throw new IllegalArgumentException("invalid parameters: ID and COLLECTION cannot be combined");
+            if (collection == null && (start != null || end != null))
+                throw new IllegalArgumentException("invalid parameters: START and END require COLLECTION");
 
             String format = ParameterUtil.findParameterValue("RESPONSEFORMAT", job.getParameterList());
             if (format == null)
                 format = DEFAULT_FORMAT;
             
-            
-            ObservationURI uri = null;
-            try 
-            {
-                uri = new ObservationURI(new URI(suri));
-            }
-            catch(URISyntaxException ex)
+            List<ObservationURI> uris = new ArrayList<ObservationURI>(ids.size());
+            for (String suri : ids)
             {
-                StringBuilder msg = new StringBuilder();
-                msg.append("invalid URI: '").append(suri).append("'");
-                if (suri.indexOf(' ') > 0)
-                    msg.append(" contains space(s) -- client failed to URL-encode?");
-                throw new IllegalArgumentException(msg.toString(), ex);
+                uris.add(toObservationURI(suri));
             }
             
             String runID = job.getID();
             if (job.getRunID() != null)
                 runID = job.getRunID();
-            CaomTapQuery query = new CaomTapQuery(tapID, runID);
-            Observation obs = query.performQuery(uri);
-            log.warn("found: " + obs);
-            
-            if (obs == null)
+            CaomTapQuery query = config.newQuery(runID);
+            if (collection != null)
             {
-                throw new ObservationNotFoundException(uri);
+                if (!writeObservations(query, new CollectionBatches(query, collection, 
+                        toDate("START", start), toDate("END", end)), format))
+                    return;
             }
-                
-            syncOutput.setResponseCode(HttpURLConnection.HTTP_OK);
-            syncOutput.setHeader("Content-Type", format);
-            
-            if (JSON_FORMAT.equals(format))
+            else if (uris.size() > 1)
             {
-                JsonWriter writer = new JsonWriter();
-                writer.write(obs, syncOutput.getOutputStream());
+                if (!writeObservations(query, new ListBatches(uris, query.getBatchSize()), format))
+                    return;
             }
             else
             {
-                //RegistryClient reg = new RegistryClient();
-                //URL metaURL = reg.getServiceURL(metaID, Standards.CAOM2_OBS_20, AuthMethod.ANON);
-                //String styleSheetURL = metaURL.toExternalForm().replace("/meta", "/caom2_summary.xslt");
-                ObservationWriter writer = new ObservationWriter();
-                //writer.setStylesheetURL(styleSheetURL);
-                writer.write(obs, syncOutput.getOutputStream());
+                ObservationURI uri = uris.get(0);
+                if (!checkNotModified(query, uri, format))
+                    writeObservation(query, uri, format);
             }
             
             // set final phase, only sync so no results
@@ -279,6 +305,265 @@ public class MetaQueryRunner implements JobRunner
         }
     }
 
+    private ObservationURI toObservationURI(String suri)
+    {
+        try 
+        {
+            return new ObservationURI(new URI(suri));
+        }
+        catch(URISyntaxException ex)
+        {
+            StringBuilder msg = new StringBuilder();
+            msg.append("invalid URI: '").append(suri).append("'");
+            if (suri.indexOf(' ') > 0)
+                msg.append(" contains space(s) -- client failed to URL-encode?");
+            throw new IllegalArgumentException(msg.toString(), ex);
+        }
+    }
+    
+    private Date toDate(String param, String value)
+    {
+        if (value == null)
+            return null;
+        try
+        {
+            DateFormat df = DateUtil.getDateFormat(DateUtil.IVOA_DATE_FORMAT, DateUtil.UTC);
+            return DateUtil.flexToDate(value, df);
+        }
+        catch(ParseException ex)
+        {
+            throw new IllegalArgumentException("invalid " + param + ": " + value, ex);
+        }
+    }
+    
+    // conditional GET: a single-row probe for the validators instead of the whole observation
+    private boolean checkNotModified(CaomTapQuery query, ObservationURI uri, String format)
+        throws IOException, ResourceNotFoundException, CertificateException, ObservationNotFoundException
+    {
+        ConditionalRequest cond = ConditionalRequest.getCurrent();
+        if (cond == null)
+        {
+            // validators are still sent but clients never get a 304
+            if (!filterWarning)
+            {
+                filterWarning = true;
+                log.warn("conditional GET disabled: ConditionalRequestFilter is not mapped to the meta service");
+            }
+            return false;
+        }
+        if (!cond.isConditional())
+            return false;
+        
+        ObservationVersion v = query.getObservationVersion(uri);
+        if (v == null)
+            throw new ObservationNotFoundException(uri);
+        
+        String etag = ConditionalRequest.getETag(v.accMetaChecksum, v.planes.keySet(), format, namespace);
+        Date lastModified = getLastModified(v.lastModified, v.maxLastModified, v.planes);
+        if (!cond.isNotModified(etag, lastModified))
+            return false;
+        
+        log.debug("not modified: " + v);
+        syncOutput.setResponseCode(HttpURLConnection.HTTP_NOT_MODIFIED);
+        setValidators(etag, lastModified);
+        return true;
+    }
+    
+    private void writeObservation(CaomTapQuery query, ObservationURI uri, String format)
+        throws IOException, ResourceNotFoundException, CertificateException, ObservationNotFoundException
+    {
+        MetaWriter writer = getWriter(format);
+        
+        Observation obs = query.performQuery(uri);
+        log.debug("found: " + obs);
+        
+        if (obs == null)
+        {
+            throw new ObservationNotFoundException(uri);
+        }
+        
+        // the observation only has the planes the caller can see
+        Map<UUID,Date> planes = new TreeMap<UUID,Date>();
+        for (Plane p : obs.getPlanes())
+        {
+            planes.put(p.getID(), p.metaRelease);
+        }
+        
+        // status and headers are only set once the whole observation has been read so 
+        // failures are still reported with an error code
+        syncOutput.setResponseCode(HttpURLConnection.HTTP_OK);
+        syncOutput.setHeader("Content-Type", format);
+        setValidators(ConditionalRequest.getETag(obs.getAccMetaChecksum(), planes.keySet(), format, namespace), 
+                getLastModified(obs.getLastModified(), obs.getMaxLastModified(), planes));
+        
+        writer.write(obs, syncOutput.getOutputStream());
+    }
+    
+    // bulk mode: one query per batch of observations and a single document with all the 
+    // observations, the URIs of observations that were not found, and an error message
+    // if the output failed after the response was committed
+    // return: true if all batches were written
+    private boolean writeObservations(CaomTapQuery query, Batches batches, String format)
+        throws IOException, ResourceNotFoundException, CertificateException
+    {
+        MetaWriter writer = getWriter(format);
+        boolean json = MetaWriterRegistry.JSON_FORMAT.equals(format);
+        if (!json && !MetaWriterRegistry.XML_FORMAT.equals(format) 
+                && MetaWriterRegistry.getWriter(format, namespace) != null)
+            throw new UnsupportedOperationException("multiple observations in " + format);
+        
+        // the first batch is read before the response is committed so failures up to 
+        // this point are still reported with an error code
+        List<ObservationURI> batch = batches.next();
+        Map<ObservationURI,Observation> found = null;
+        if (batch != null)
+            found = query.performQuery(batch);
+        
+        syncOutput.setResponseCode(HttpURLConnection.HTTP_OK);
+        syncOutput.setHeader("Content-Type", format);
+        syncOutput.setHeader("Cache-Control", "private");
+        ObservationListWriter out = new ObservationListWriter(writer, json, syncOutput.getOutputStream());
+        out.start();
+        try
+        {
+            while (batch != null)
+            {
+                for (ObservationURI uri : batch)
+                {
+                    Observation obs = found.get(uri);
+                    if (obs != null)
+                        out.write(obs);
+                    else
+                        out.notFound(uri);
+                }
+                out.flush();
+                
+                batch = batches.next();
+                if (batch != null)
+                    found = query.performQuery(batch);
+            }
+        }
+        catch(Exception ex)
+        {
+            String msg = "unexpected failure after " + out.getNumWritten() + " observations: " + ex.toString();
+            log.error("EPIC FAIL", ex);
+            setError(ex, msg);
+            try
+            {
+                out.end(msg);
+            }
+            catch(IOException ex2)
+            {
+                log.debug("write error failed", ex2);
+            }
+            return false;
+        }
+        out.end(null);
+        log.debug("wrote " + out.getNumWritten() + " observations, not found: " + out.getNumNotFound());
+        return true;
+    }
+    
+    // batches of observations for bulk mode; next returns null when there are no more
+    private interface Batches
+    {
+        List<ObservationURI> next()
+            throws IOException, ResourceNotFoundException, CertificateException;
+    }
+    
+    private static class ListBatches implements Batches
+    {
+        private final List<ObservationURI> uris;
+        private final int batchSize;
+        private int pos = 0;
+        
+        ListBatches(List<ObservationURI> uris, int batchSize)
+        {
+            this.uris = uris;
+            this.batchSize = batchSize;
+        }
+        
+        @Override
+        public List<ObservationURI> next()
+        {
+            if (pos >= uris.size())
+                return null;
+            List<ObservationURI> ret = uris.subList(pos, Math.min(pos + batchSize, uris.size()));
+            pos += ret.size();
+            return ret;
+        }
+    }
+    
+    // one page of the collection listing per batch so only one batch of URIs is in memory
+    private static class CollectionBatches implements Batches
+    {
+        private final CaomTapQuery query;
+        private final String collection;
+        private final Date start;
+        private final Date end;
+        private ObservationVersion last;
+        private boolean done = false;
+        
+        CollectionBatches(CaomTapQuery query, String collection, Date start, Date end)
+        {
+            this.query = query;
+            this.collection = collection;
+            this.start = start;
+            this.end = end;
+        }
+        
+        @Override
+        public List<ObservationURI> next()
+            throws IOException, ResourceNotFoundException, CertificateException
+        {
+            if (done)
+                return null;
+            int batchSize = query.getBatchSize();
+            List<ObservationVersion> page = query.getObservationList(collection, start, end, last, batchSize);
+            if (page.size() < batchSize)
+                done = true;
+            if (page.isEmpty())
+                return null;
+            last = page.get(page.size() - 1);
+            List<ObservationURI> ret = new ArrayList<ObservationURI>(page.size());
+            for (ObservationVersion v : page)
+            {
+                ret.add(v.getURI());
+            }
+            return ret;
+        }
+    }
+    
+    private MetaWriter getWriter(String format)
+    {
+        MetaWriter writer = MetaWriterRegistry.getWriter(format, namespace);
+        if (writer == null)
+        {
+            // unknown format: XML with the requested content type
+            writer = MetaWriterRegistry.getWriter(DEFAULT_FORMAT, namespace);
+        }
+        if (writer == null)
+            throw new IllegalStateException("no writer for " + format + " " + namespace);
+        return writer;
+    }
+    
+    // maxLastModified covers the whole observation, lastModified only the observation itself
+    private Date getLastModified(Date lastModified, Date maxLastModified, Map<UUID,Date> planes)
+    {
+        if (maxLastModified != null)
+            return ConditionalRequest.getLastModified(maxLastModified, planes.values(), new Date());
+        return ConditionalRequest.getLastModified(lastModified, planes.values(), new Date());
+    }
+    
+    // the output depends on the caller so shared caches must not store it
+    private void setValidators(String etag, Date lastModified)
+    {
+        syncOutput.setHeader("Cache-Control", "private");
+        if (etag != null)
+            syncOutput.setHeader("ETag", etag);
+        if (lastModified != null)
+            syncOutput.setHeader("Last-Modified", ConditionalRequest.formatHttpDate(lastModified));
+    }
+
     private class ObservationNotFoundException extends Exception
     {
 
@@ -296,6 +581,27 @@ public class MetaQueryRunner implements JobRunner
     }
 
     private void sendError(Throwable t, String s, int code)
+    {
+        setError(t, s);
+
+        // attempt to write VOTable eror output
+        try
+        {
+            syncOutput.setHeader("Content-Type", VOTableWriter.CONTENT_TYPE);
+            syncOutput.setResponseCode(code);
+            PrintWriter writer = new PrintWriter(new OutputStreamWriter(syncOutput.getOutputStream()));
+            writer.println(s);
+            writer.flush();
+            writer.close();
+        }
+        catch(IOException ex)
+        {
+            log.debug("write error failed", ex);
+        }
+    }
+
+    // job phase only: used directly when the response is already committed
+    private void setError(Throwable t, String s)
     {
     	logInfo.setSuccess(false);
         logInfo.setMessage(s);
@@ -316,20 +622,5 @@ public class MetaQueryRunner implements JobRunner
         {
             log.error("failed to persist Job ERROR for " + job.getID(), t2);
         }
-
-        // attempt to write VOTable eror output
-        try
-        {
-            syncOutput.setHeader("Content-Type", VOTableWriter.CONTENT_TYPE);
-            syncOutput.setResponseCode(code);
-            PrintWriter writer = new PrintWriter(new OutputStreamWriter(syncOutput.getOutputStream()));
-            writer.println(s);
-            writer.flush();
-            writer.close();
-        }
-        catch(IOException ex)
-        {
-            log.debug("write error failed", ex);
-        }
     }
 }
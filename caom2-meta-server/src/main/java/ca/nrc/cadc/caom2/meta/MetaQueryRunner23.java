@@ -69,266 +69,17 @@
 
 package ca.nrc.cadc.caom2.meta;
 
-import ca.nrc.cadc.caom2.Observation;
-import ca.nrc.cadc.caom2.ObservationURI;
-import ca.nrc.cadc.caom2.xml.JsonWriter;
-import ca.nrc.cadc.caom2.xml.ObservationWriter;
 import ca.nrc.cadc.caom2.xml.XmlConstants;
-import ca.nrc.cadc.caom2ops.CaomTapQuery;
-import ca.nrc.cadc.caom2ops.ServiceConfig;
-import ca.nrc.cadc.caom2ops.TransientFault;
-import ca.nrc.cadc.dali.tables.votable.VOTableWriter;
-import ca.nrc.cadc.log.WebServiceLogInfo;
-import ca.nrc.cadc.rest.SyncOutput;
-import ca.nrc.cadc.util.ThrowableUtil;
-import ca.nrc.cadc.uws.ErrorSummary;
-import ca.nrc.cadc.uws.ErrorType;
-import ca.nrc.cadc.uws.ExecutionPhase;
-import ca.nrc.cadc.uws.Job;
-import ca.nrc.cadc.uws.ParameterUtil;
-import ca.nrc.cadc.uws.server.JobRunner;
-import ca.nrc.cadc.uws.server.JobUpdater;
-import ca.nrc.cadc.uws.util.JobLogInfo;
-import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.security.cert.CertificateException;
-import java.util.Date;
-import org.apache.log4j.Logger;
 
 /**
- * MetaQueryRunner hard coded to output CAOM-2.2 documents.
+ * MetaQueryRunner hard coded to output CAOM-2.3 documents.
  * 
  * @author pdowler
  */
-public class MetaQueryRunner23 implements JobRunner
+public class MetaQueryRunner23 extends MetaQueryRunner
 {
-    private static final Logger log = Logger.getLogger(MetaQueryRunner23.class);
-
-    private static final String DEFAULT_FORMAT = "text/xml";
-    private static final String JSON_FORMAT = "application/json";
-    
-    private Job job;
-    private JobUpdater jobUpdater;
-    private SyncOutput syncOutput;
-    private WebServiceLogInfo logInfo;
-    
-    private final URI metaID;
-    private final URI tapID;
-
     public MetaQueryRunner23() 
     { 
-        ServiceConfig sc = new ServiceConfig();
-        this.metaID = sc.getMetaID();
-        this.tapID = sc.getTapServiceID();
-    }
-
-    @Override
-    public void setJob(Job job)
-    {
-        this.job = job;
-    }
-
-    @Override
-    public void setJobUpdater(JobUpdater ju)
-    {
-        this.jobUpdater = ju;
-    }
-
-    @Override
-    public void setSyncOutput(SyncOutput so)
-    {
-        this.syncOutput = so;
-    }
-
-    @Override
-    public void run()
-    {
-        logInfo = new JobLogInfo(job);
-        log.info(logInfo.start());
-        long start = System.currentTimeMillis();
-
-        doIt();
-
-        logInfo.setElapsedTime(System.currentTimeMillis() - start);
-        log.info(logInfo.end());
-    }
-
-    private void doIt()
-    {
-
-        ExecutionPhase ep;
-        try
-        {
-            ep = jobUpdater.setPhase(job.getID(), ExecutionPhase.QUEUED, ExecutionPhase.EXECUTING, new Date());
-            if ( !ExecutionPhase.EXECUTING.equals(ep) )
-            {
-                ep = jobUpdater.getPhase(job.getID());
-                log.debug(job.getID() + ": QUEUED -> EXECUTING [FAILED] -- DONE");
-                logInfo.setSuccess(false);
-                logInfo.setMessage("Could not set job phase to executing, was: " + ep);
-                return;
-            }
-            log.debug(job.getID() + ": QUEUED -> EXECUTING [OK]");
-            
-            // input parameter
-            String suri = ParameterUtil.findParameterValue("ID", job.getParameterList());
-            if (suri == null)
-                throw new IllegalArgumentException("missing required parameter: ID");
-
-            String format = ParameterUtil.findParameterValue("RESPONSEFORMAT", job.getParameterList());
-            if (format == null)
-                format = DEFAULT_FORMAT;
-            
-            
-            ObservationURI uri = null;
-            try 
-            {
-                uri = new ObservationURI(new URI(suri));
-            }
-            catch(URISyntaxException ex)
-            {
-                StringBuilder msg = new StringBuilder();
-                msg.append("invalid URI: '").append(suri).append("'");
-                if (suri.indexOf(' ') > 0)
-                    msg.append(" contains space(s) -- client failed to URL-encode?");
-                throw new IllegalArgumentException(msg.toString(), ex);
-            }
-            
-            String runID = job.getID();
-            if (job.getRunID() != null)
-                runID = job.getRunID();
-            CaomTapQuery query = new CaomTapQuery(tapID, runID);
-            Observation obs = query.performQuery(uri);
-            log.warn("found: " + obs);
-            
-            if (obs == null)
-            {
-                throw new ObservationNotFoundException(uri);
-            }
-                
-            syncOutput.setResponseCode(HttpURLConnection.HTTP_OK);
-            syncOutput.setHeader("Content-Type", format);
-            
-            if (JSON_FORMAT.equals(format))
-            {
-                JsonWriter writer = new JsonWriter(true, XmlConstants.CAOM2_3_NAMESPACE);
-                writer.write(obs, syncOutput.getOutputStream());
-            }
-            else
-            {
-                ObservationWriter writer = new ObservationWriter("caom2", XmlConstants.CAOM2_3_NAMESPACE, false);
-                //writer.setStylesheetURL(styleSheetURL);
-                writer.write(obs, syncOutput.getOutputStream());
-            }
-            
-            // set final phase, only sync so no results
-            log.debug(job.getID() + ": EXECUTING -> COMPLETED...");
-            ep = jobUpdater.setPhase(job.getID(), ExecutionPhase.EXECUTING, ExecutionPhase.COMPLETED, new Date());
-            if ( !ExecutionPhase.COMPLETED.equals(ep) )
-            {
-                ep = jobUpdater.getPhase(job.getID());
-                log.debug(job.getID() + ": EXECUTING -> COMPLETED [FAILED], phase was " + ep);
-                logInfo.setSuccess(false);
-                logInfo.setMessage("Could not set job phase to completed.");
-                return;
-            }
-            log.debug(job.getID() + ": EXECUTING -> COMPLETED [OK]");
-
-        }
-        catch(CertificateException ex)
-        {
-            sendError(ex, "permission denied -- reason: invalid proxy certificate", 403);
-        }
-        catch(IllegalArgumentException ex)
-        {
-            sendError(ex, ex.getMessage(), 400);
-        }
-        catch(ObservationNotFoundException ex)
-        {
-            sendError(ex, ex.getMessage(), 404);
-        }
-        catch(UnsupportedOperationException ex)
-        {
-            sendError(ex, "unsupported operation: " + ex.getMessage(), 400);
-        }
-        catch(TransientFault ex)
-        {
-            sendError(ex, ex.getMessage(), ex.getResponseCode());
-        }
-        catch(Throwable t)
-        {
-            if ( ThrowableUtil.isACause(t, InterruptedException.class) )
-            {
-                try
-                {
-                    ep = jobUpdater.setPhase(job.getID(), ExecutionPhase.QUEUED, ExecutionPhase.EXECUTING, new Date());
-                    if ( !ExecutionPhase.ABORTED.equals(ep) )
-                        return; // clean exit of aborted job
-                }
-                catch(Exception ex2)
-                {
-                    log.error("failed to check job phase after InterruptedException", ex2);
-                }
-            }
-            sendError(t, 500);
-        }
-    }
-
-    private class ObservationNotFoundException extends Exception
-    {
-
-        public ObservationNotFoundException(ObservationURI uri)
-        {
-            super("not found: " + uri.getURI().toASCIIString());
-        }
-        
-    }
-    private void sendError(Throwable t, int code)
-    {
-        if (code >= 500)
-            log.error("EPIC FAIL", t);
-        sendError(t, "unexpected failure: " + t.toString(), code);
-    }
-
-    private void sendError(Throwable t, String s, int code)
-    {
-    	logInfo.setSuccess(false);
-        logInfo.setMessage(s);
-        log.debug("sendError", t);
-        try
-        {
-            ErrorSummary err = new ErrorSummary(s, ErrorType.FATAL);
-            ExecutionPhase ep = jobUpdater.setPhase(job.getID(), ExecutionPhase.EXECUTING, ExecutionPhase.ERROR, err, new Date());
-            if ( !ExecutionPhase.ERROR.equals(ep) )
-            {
-                ep = jobUpdater.getPhase(job.getID());
-                log.debug(job.getID() + ": EXECUTING -> ERROR [FAILED] -- DONE");
-            }
-            else
-                log.debug(job.getID() + ": EXECUTING -> ERROR [OK]");
-        }
-        catch(Throwable t2)
-        {
-            log.error("failed to persist Job ERROR for " + job.getID(), t2);
-        }
-
-        // attempt to write VOTable eror output
-        try
-        {
-            syncOutput.setHeader("Content-Type", VOTableWriter.CONTENT_TYPE);
-            syncOutput.setResponseCode(code);
-            PrintWriter writer = new PrintWriter(new OutputStreamWriter(syncOutput.getOutputStream()));
-            writer.println(s);
-            writer.flush();
-            writer.close();
-        }
-        catch(IOException ex)
-        {
-            log.debug("write error failed", ex);
-        }
+        super(XmlConstants.CAOM2_3_NAMESPACE);
     }
 }
@@ -0,0 +1,212 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2.meta;
+
+import ca.nrc.cadc.caom2.Observation;
+import ca.nrc.cadc.caom2.xml.JsonWriter;
+import ca.nrc.cadc.caom2.xml.ObservationWriter;
+import ca.nrc.cadc.caom2.xml.XmlConstants;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.log4j.Logger;
+
+/**
+ * Process-wide registry of writer factories keyed by response format and CAOM 
+ * namespace. The XML and JSON writers for CAOM-2.2, 2.3, and 2.4 are registered by
+ * default; additional serializations can be added with register. The caom2 writers
+ * are not thread-safe, so each thread gets its own writer from the factory and
+ * reuses it for later requests.
+ */
+public class MetaWriterRegistry
+{
+    private static final Logger log = Logger.getLogger(MetaWriterRegistry.class);
+
+    public static final String XML_FORMAT = "text/xml";
+    public static final String JSON_FORMAT = "application/json";
+
+    private static final Map<String,MetaWriterFactory> factories = new ConcurrentHashMap<String,MetaWriterFactory>();
+
+    // keyed by factory so a replaced factory is never served from a stale writer
+    private static final ThreadLocal<Map<MetaWriterFactory,MetaWriter>> writers = 
+            new ThreadLocal<Map<MetaWriterFactory,MetaWriter>>()
+    {
+        @Override
+        protected Map<MetaWriterFactory,MetaWriter> initialValue()
+        {
+            return new HashMap<MetaWriterFactory,MetaWriter>();
+        }
+    };
+
+    static
+    {
+        // CAOM-2.4 is the default output of the no-arg writers
+        register(XML_FORMAT, XmlConstants.CAOM2_4_NAMESPACE, new MetaWriterFactory()
+        {
+            @Override
+            public MetaWriter newWriter()
+            {
+                return wrap(new ObservationWriter());
+            }
+        });
+        register(JSON_FORMAT, XmlConstants.CAOM2_4_NAMESPACE, new MetaWriterFactory()
+        {
+            @Override
+            public MetaWriter newWriter()
+            {
+                return wrap(new JsonWriter());
+            }
+        });
+
+        registerNamespace(XmlConstants.CAOM2_3_NAMESPACE);
+        registerNamespace(XmlConstants.CAOM2_2_NAMESPACE);
+    }
+
+    private MetaWriterRegistry() 
+    { 
+    }
+
+    /**
+     * Register a writer factory, replacing any previous factory for the same format 
+     * and namespace.
+     * 
+     * @param format response format (content type)
+     * @param namespace CAOM namespace of the output
+     * @param factory thread-safe writer factory
+     */
+    public static void register(String format, String namespace, MetaWriterFactory factory)
+    {
+        log.debug("register: " + format + " " + namespace + " " + factory.getClass().getName());
+        factories.put(getKey(format, namespace), factory);
+    }
+
+    /**
+     * Get the writer of the current thread. The writer must not be passed to other threads.
+     * 
+     * @param format response format (content type)
+     * @param namespace CAOM namespace of the output
+     * @return the writer or null if no factory is registered
+     */
+    public static MetaWriter getWriter(String format, String namespace)
+    {
+        MetaWriterFactory factory = factories.get(getKey(format, namespace));
+        if (factory == null)
+            return null;
+        
+        Map<MetaWriterFactory,MetaWriter> cur = writers.get();
+        MetaWriter ret = cur.get(factory);
+        if (ret == null)
+        {
+            ret = factory.newWriter();
+            cur.put(factory, ret);
+        }
+        return ret;
+    }
+
+    private static String getKey(String format, String namespace)
+    {
+        return format + " " + namespace;
+    }
+
+    private static void registerNamespace(final String namespace)
+    {
+        register(XML_FORMAT, namespace, new MetaWriterFactory()
+        {
+            @Override
+            public MetaWriter newWriter()
+            {
+                return wrap(new ObservationWriter("caom2", namespace, false));
+            }
+        });
+        register(JSON_FORMAT, namespace, new MetaWriterFactory()
+        {
+            @Override
+            public MetaWriter newWriter()
+            {
+                return wrap(new JsonWriter(true, namespace));
+            }
+        });
+    }
+
+    private static MetaWriter wrap(final ObservationWriter w)
+    {
+        return new MetaWriter()
+        {
+            @Override
+            public void write(Observation obs, OutputStream out)
+                throws IOException
+            {
+                w.write(obs, out);
+            }
+        };
+    }
+}
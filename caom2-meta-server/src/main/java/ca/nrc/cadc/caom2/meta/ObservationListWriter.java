@@ -0,0 +1,275 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2.meta;
+
+import ca.nrc.cadc.caom2.Observation;
+import ca.nrc.cadc.caom2.ObservationURI;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes multiple observations as a single document. In XML the observation elements
+ * are children of an observations element; in JSON they are the elements of the 
+ * observations array. The URIs of observations that were not found and an error 
+ * message (if the output could not be completed) follow the observations, so the 
+ * document is well-formed even when output fails part way through.
+ */
+class ObservationListWriter
+{
+    private final MetaWriter writer;
+    private final boolean json;
+    private final OutputStream out;
+    
+    // each observation is written to the buffer first so a failed observation never 
+    // leaves a partial element in the output
+    private final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+    private final List<ObservationURI> notFound = new ArrayList<ObservationURI>();
+    private int num = 0;
+
+    /**
+     * @param writer writer for a single observation
+     * @param json true for JSON output, false for XML
+     * @param out output stream
+     */
+    ObservationListWriter(MetaWriter writer, boolean json, OutputStream out)
+    {
+        this.writer = writer;
+        this.json = json;
+        this.out = out;
+    }
+
+    void start()
+        throws IOException
+    {
+        if (json)
+            write("{\n\"observations\": [\n");
+        else
+            write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<observations>\n");
+    }
+
+    void write(Observation obs)
+        throws IOException
+    {
+        buf.reset();
+        writer.write(obs, buf);
+        byte[] b = buf.toByteArray();
+        int off = 0;
+        if (json)
+        {
+            if (num > 0)
+                write(",\n");
+        }
+        else
+            off = getContentOffset(b);
+        out.write(b, off, b.length - off);
+        if (!json)
+            write("\n");
+        num++;
+    }
+
+    void notFound(ObservationURI uri)
+    {
+        notFound.add(uri);
+    }
+
+    void flush()
+        throws IOException
+    {
+        out.flush();
+    }
+
+    /**
+     * @return number of observations written
+     */
+    int getNumWritten()
+    {
+        return num;
+    }
+
+    /**
+     * @return number of observations not found
+     */
+    int getNumNotFound()
+    {
+        return notFound.size();
+    }
+
+    /**
+     * Complete the document.
+     * 
+     * @param error message if the output is incomplete, null if complete
+     * @throws IOException 
+     */
+    void end(String error)
+        throws IOException
+    {
+        StringBuilder sb = new StringBuilder();
+        if (json)
+        {
+            if (num > 0)
+                sb.append("\n");
+            sb.append("],\n\"notFound\": [");
+            for (int i = 0; i < notFound.size(); i++)
+            {
+                if (i > 0)
+                    sb.append(", ");
+                sb.append(jsonString(notFound.get(i).getURI().toASCIIString()));
+            }
+            sb.append("]");
+            if (error != null)
+                sb.append(",\n\"error\": ").append(jsonString(error));
+            sb.append("\n}\n");
+        }
+        else
+        {
+            for (ObservationURI uri : notFound)
+            {
+                sb.append("<notFound uri=\"").append(xmlString(uri.getURI().toASCIIString())).append("\" />\n");
+            }
+            if (error != null)
+                sb.append("<error>").append(xmlString(error)).append("</error>\n");
+            sb.append("</observations>\n");
+        }
+        write(sb.toString());
+        out.flush();
+    }
+
+    private void write(String s)
+        throws IOException
+    {
+        out.write(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // skip the XML declaration of a complete document
+    private static int getContentOffset(byte[] b)
+    {
+        String head = new String(b, 0, Math.min(b.length, 128), StandardCharsets.UTF_8);
+        if (!head.startsWith("<?xml"))
+            return 0;
+        int i = head.indexOf("?>");
+        if (i < 0)
+            return 0;
+        i += 2;
+        while (i < head.length() && Character.isWhitespace(head.charAt(i)))
+            i++;
+        return i;
+    }
+
+    static String xmlString(String s)
+    {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++)
+        {
+            char c = s.charAt(i);
+            switch (c)
+            {
+                case '&':
+                    sb.append("&amp;");
+                    break;
+                case '<':
+                    sb.append("&lt;");
+                    break;
+                case '>':
+                    sb.append("&gt;");
+                    break;
+                case '"':
+                    sb.append("&quot;");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    static String jsonString(String s)
+    {
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++)
+        {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\')
+                sb.append('\\').append(c);
+            else if (c == '\n')
+                sb.append("\\n");
+            else if (c < 0x20)
+                sb.append(String.format("\\u%04x", (int) c));
+            else
+                sb.append(c);
+        }
+        sb.append('"');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,270 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2.meta;
+
+import ca.nrc.cadc.caom2.xml.XmlConstants;
+import ca.nrc.cadc.util.Log4jInit;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConditionalRequestTest
+{
+    private static final Logger log = Logger.getLogger(ConditionalRequestTest.class);
+
+    static
+    {
+        Log4jInit.setLevel("ca.nrc.cadc.caom2.meta", Level.INFO);
+    }
+
+    private static final URI CHECKSUM = URI.create("md5:d41d8cd98f00b204e9800998ecf8427e");
+    private static final UUID PLANE1 = new UUID(0L, 1L);
+    private static final UUID PLANE2 = new UUID(0L, 2L);
+    private static final List<UUID> PLANES = Arrays.asList(PLANE1, PLANE2);
+
+    public ConditionalRequestTest() 
+    { 
+    }
+
+    @Test
+    public void testETag()
+    {
+        try
+        {
+            String xml24 = ConditionalRequest.getETag(CHECKSUM, PLANES, MetaWriterRegistry.XML_FORMAT, XmlConstants.CAOM2_4_NAMESPACE);
+            String json24 = ConditionalRequest.getETag(CHECKSUM, PLANES, MetaWriterRegistry.JSON_FORMAT, XmlConstants.CAOM2_4_NAMESPACE);
+            String xml23 = ConditionalRequest.getETag(CHECKSUM, PLANES, MetaWriterRegistry.XML_FORMAT, XmlConstants.CAOM2_3_NAMESPACE);
+            log.debug("etags: " + xml24 + " " + json24 + " " + xml23);
+            
+            Assert.assertTrue(xml24.startsWith("\"" + CHECKSUM.toASCIIString()));
+            Assert.assertTrue(xml24.endsWith("\""));
+            Assert.assertEquals(xml24, ConditionalRequest.getETag(CHECKSUM, PLANES, MetaWriterRegistry.XML_FORMAT, XmlConstants.CAOM2_4_NAMESPACE));
+            Assert.assertNotEquals(xml24, json24);
+            Assert.assertNotEquals(xml24, xml23);
+            
+            // parameter values with characters that are not allowed in an entity tag
+            String odd = ConditionalRequest.getETag(CHECKSUM, PLANES, "text/xml; charset=\"UTF-8\"", XmlConstants.CAOM2_4_NAMESPACE);
+            Assert.assertTrue(odd, odd.matches("\"[\\x21\\x23-\\x7e]+\""));
+            
+            Assert.assertNull(ConditionalRequest.getETag(null, PLANES, MetaWriterRegistry.XML_FORMAT, XmlConstants.CAOM2_4_NAMESPACE));
+        }
+        catch(Exception unexpected)
+        {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testETagVisiblePlanes()
+    {
+        try
+        {
+            String all = ConditionalRequest.getETag(CHECKSUM, PLANES, MetaWriterRegistry.XML_FORMAT, XmlConstants.CAOM2_4_NAMESPACE);
+            
+            // same planes in a different order
+            String reversed = ConditionalRequest.getETag(CHECKSUM, Arrays.asList(PLANE2, PLANE1), 
+                    MetaWriterRegistry.XML_FORMAT, XmlConstants.CAOM2_4_NAMESPACE);
+            Assert.assertEquals(all, reversed);
+            
+            // a caller that cannot see one or all of the planes has a different tag
+            String one = ConditionalRequest.getETag(CHECKSUM, Collections.singletonList(PLANE1), 
+                    MetaWriterRegistry.XML_FORMAT, XmlConstants.CAOM2_4_NAMESPACE);
+            String none = ConditionalRequest.getETag(CHECKSUM, new ArrayList<UUID>(), 
+                    MetaWriterRegistry.XML_FORMAT, XmlConstants.CAOM2_4_NAMESPACE);
+            log.debug("etags: " + all + " " + one + " " + none);
+            Assert.assertNotEquals(all, one);
+            Assert.assertNotEquals(all, none);
+            Assert.assertNotEquals(one, none);
+            Assert.assertFalse(new ConditionalRequest(one, -1L).isNotModified(all, null));
+        }
+        catch(Exception unexpected)
+        {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testLastModifiedVisiblePlanes()
+    {
+        try
+        {
+            Date now = new Date(1500000000000L);
+            Date maxLastModified = new Date(now.getTime() - 7200000L);
+            Date released = new Date(now.getTime() - 3600000L);
+            Date proprietary = new Date(now.getTime() + 3600000L);
+            
+            Assert.assertEquals(maxLastModified, ConditionalRequest.getLastModified(maxLastModified, new ArrayList<Date>(), now));
+            Assert.assertEquals(maxLastModified, ConditionalRequest.getLastModified(maxLastModified, 
+                    Arrays.asList(new Date(0L)), now));
+            
+            // a plane released after the last change of the observation
+            Assert.assertEquals(released, ConditionalRequest.getLastModified(maxLastModified, 
+                    Arrays.asList(new Date(0L), released), now));
+            
+            // a plane that is only visible to some callers
+            Assert.assertNull(ConditionalRequest.getLastModified(maxLastModified, Arrays.asList(released, proprietary), now));
+            Assert.assertNull(ConditionalRequest.getLastModified(maxLastModified, Arrays.asList(released, null), now));
+            
+            Assert.assertNull(ConditionalRequest.getLastModified(null, Arrays.asList(released), now));
+        }
+        catch(Exception unexpected)
+        {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testIfNoneMatch()
+    {
+        try
+        {
+            String etag = ConditionalRequest.getETag(CHECKSUM, PLANES, MetaWriterRegistry.XML_FORMAT, XmlConstants.CAOM2_4_NAMESPACE);
+            String other = ConditionalRequest.getETag(CHECKSUM, PLANES, MetaWriterRegistry.JSON_FORMAT, XmlConstants.CAOM2_4_NAMESPACE);
+            Date lastModified = new Date();
+            
+            Assert.assertTrue(new ConditionalRequest(etag, -1L).isNotModified(etag, lastModified));
+            Assert.assertFalse(new ConditionalRequest(other, -1L).isNotModified(etag, lastModified));
+            
+            // list of tags with optional white space
+            Assert.assertTrue(new ConditionalRequest(other + "," + etag, -1L).isNotModified(etag, lastModified));
+            Assert.assertTrue(new ConditionalRequest(other + " ,  " + etag + " ", -1L).isNotModified(etag, lastModified));
+            Assert.assertFalse(new ConditionalRequest(other + ", \"foo\"", -1L).isNotModified(etag, lastModified));
+            
+            // any current representation
+            Assert.assertTrue(new ConditionalRequest("*", -1L).isNotModified(etag, lastModified));
+            Assert.assertTrue(new ConditionalRequest("*", -1L).isNotModified(null, null));
+            Assert.assertTrue(new ConditionalRequest(other + ", *", -1L).isNotModified(etag, lastModified));
+            
+            // weak comparison on both sides
+            Assert.assertTrue(new ConditionalRequest("W/" + etag, -1L).isNotModified(etag, lastModified));
+            Assert.assertTrue(new ConditionalRequest(etag, -1L).isNotModified("W/" + etag, lastModified));
+            Assert.assertTrue(new ConditionalRequest("W/" + etag, -1L).isNotModified("W/" + etag, lastModified));
+            Assert.assertFalse(new ConditionalRequest("W/" + other, -1L).isNotModified(etag, lastModified));
+            
+            // no current tag
+            Assert.assertFalse(new ConditionalRequest(etag, -1L).isNotModified(null, lastModified));
+            
+            // If-None-Match takes precedence over If-Modified-Since
+            long future = lastModified.getTime() + 3600000L;
+            Assert.assertFalse(new ConditionalRequest(other, future).isNotModified(etag, lastModified));
+            Assert.assertTrue(new ConditionalRequest(etag, 0L).isNotModified(etag, lastModified));
+        }
+        catch(Exception unexpected)
+        {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testIfModifiedSince()
+    {
+        try
+        {
+            // HTTP dates have 1 second resolution: a sub-second lastModified in the same 
+            // second as the client date is not modified
+            long since = 1500000000000L;
+            ConditionalRequest cr = new ConditionalRequest(null, since);
+            Assert.assertTrue(cr.isConditional());
+            Assert.assertTrue(cr.isNotModified(null, new Date(since)));
+            Assert.assertTrue(cr.isNotModified(null, new Date(since + 999L)));
+            Assert.assertTrue(cr.isNotModified(null, new Date(since - 1L)));
+            Assert.assertFalse(cr.isNotModified(null, new Date(since + 1000L)));
+            Assert.assertFalse(cr.isNotModified(null, null));
+            
+            // client date from the Last-Modified header of a previous response
+            long lastModified = 1500000000123L;
+            String header = ConditionalRequest.formatHttpDate(new Date(lastModified));
+            Assert.assertEquals("Fri, 14 Jul 2017 02:40:00 GMT", header);
+            cr = new ConditionalRequest(null, 1500000000000L);
+            Assert.assertTrue(cr.isNotModified(null, new Date(lastModified)));
+            
+            cr = new ConditionalRequest(null, -1L);
+            Assert.assertFalse(cr.isConditional());
+            Assert.assertFalse(cr.isNotModified(null, new Date(since)));
+        }
+        catch(Exception unexpected)
+        {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2.meta;
+
+import ca.nrc.cadc.caom2.Artifact;
+import ca.nrc.cadc.caom2.Observation;
+import ca.nrc.cadc.caom2.Plane;
+import ca.nrc.cadc.caom2.ProductType;
+import ca.nrc.cadc.caom2.ReleaseType;
+import ca.nrc.cadc.caom2.SimpleObservation;
+import ca.nrc.cadc.caom2.xml.XmlConstants;
+import ca.nrc.cadc.util.Log4jInit;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetaWriterRegistryTest
+{
+    private static final Logger log = Logger.getLogger(MetaWriterRegistryTest.class);
+
+    static
+    {
+        Log4jInit.setLevel("ca.nrc.cadc.caom2.meta", Level.INFO);
+    }
+
+    private static final int THREADS = 8;
+    private static final int WRITES = 50;
+
+    public MetaWriterRegistryTest() 
+    { 
+    }
+
+    @Test
+    public void testThreadWriters()
+    {
+        ExecutorService ex = Executors.newSingleThreadExecutor();
+        try
+        {
+            final String ns = XmlConstants.CAOM2_4_NAMESPACE;
+            MetaWriter w = MetaWriterRegistry.getWriter(MetaWriterRegistry.XML_FORMAT, ns);
+            Assert.assertNotNull(w);
+            Assert.assertSame(w, MetaWriterRegistry.getWriter(MetaWriterRegistry.XML_FORMAT, ns));
+            Assert.assertNotSame(w, MetaWriterRegistry.getWriter(MetaWriterRegistry.JSON_FORMAT, ns));
+            Assert.assertNull(MetaWriterRegistry.getWriter("text/plain", ns));
+            
+            MetaWriter other = ex.submit(new Callable<MetaWriter>()
+            {
+                @Override
+                public MetaWriter call()
+                {
+                    return MetaWriterRegistry.getWriter(MetaWriterRegistry.XML_FORMAT, ns);
+                }
+            }).get();
+            Assert.assertNotNull(other);
+            Assert.assertNotSame(w, other);
+            
+            // a replaced factory is used by threads that already have a writer
+            final String format = "text/x-test";
+            MetaWriterRegistry.register(format, ns, new TestFactory("a"));
+            MetaWriter a = MetaWriterRegistry.getWriter(format, ns);
+            MetaWriterRegistry.register(format, ns, new TestFactory("b"));
+            MetaWriter b = MetaWriterRegistry.getWriter(format, ns);
+            Assert.assertNotSame(a, b);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            b.write(getObservation(), bos);
+            Assert.assertEquals("b", bos.toString("UTF-8"));
+        }
+        catch(Exception unexpected)
+        {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+        finally
+        {
+            ex.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentWrite()
+    {
+        ExecutorService ex = Executors.newFixedThreadPool(THREADS);
+        try
+        {
+            final Observation obs = getObservation();
+            for (String ns : Arrays.asList(XmlConstants.CAOM2_4_NAMESPACE, XmlConstants.CAOM2_3_NAMESPACE))
+            {
+                for (String format : Arrays.asList(MetaWriterRegistry.XML_FORMAT, MetaWriterRegistry.JSON_FORMAT))
+                {
+                    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                    MetaWriterRegistry.getWriter(format, ns).write(obs, bos);
+                    final byte[] expected = bos.toByteArray();
+                    Assert.assertTrue(expected.length > 0);
+                    
+                    final String fmt = format;
+                    final String namespace = ns;
+                    final CountDownLatch ready = new CountDownLatch(THREADS);
+                    List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+                    for (int t = 0; t < THREADS; t++)
+                    {
+                        futures.add(ex.submit(new Callable<Integer>()
+                        {
+                            @Override
+                            public Integer call() throws Exception
+                            {
+                                // start all writers together
+                                ready.countDown();
+                                ready.await();
+                                int num = 0;
+                                for (int i = 0; i < WRITES; i++)
+                                {
+                                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                                    MetaWriterRegistry.getWriter(fmt, namespace).write(obs, out);
+                                    if (Arrays.equals(expected, out.toByteArray()))
+                                        num++;
+                                }
+                                return num;
+                            }
+                        }));
+                    }
+                    for (Future<Integer> f : futures)
+                    {
+                        Assert.assertEquals(format + " " + ns, WRITES, f.get().intValue());
+                    }
+                }
+            }
+        }
+        catch(Exception unexpected)
+        {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+        finally
+        {
+            ex.shutdownNow();
+        }
+    }
+
+    private Observation getObservation()
+        throws Exception
+    {
+        Observation obs = new SimpleObservation("TEST", "concurrentWrite");
+        for (int i = 0; i < 5; i++)
+        {
+            Plane p = new Plane("plane" + i);
+            for (int j = 0; j < 3; j++)
+            {
+                URI uri = new URI("ad:TEST/concurrentWrite-" + i + "-" + j + ".fits");
+                p.getArtifacts().add(new Artifact(uri, ProductType.SCIENCE, ReleaseType.DATA));
+            }
+            obs.getPlanes().add(p);
+        }
+        return obs;
+    }
+
+    private static class TestFactory implements MetaWriterFactory
+    {
+        private final String content;
+
+        TestFactory(String content)
+        {
+            this.content = content;
+        }
+
+        @Override
+        public MetaWriter newWriter()
+        {
+            return new MetaWriter()
+            {
+                @Override
+                public void write(Observation obs, OutputStream out)
+                    throws IOException
+                {
+                    out.write(content.getBytes("UTF-8"));
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2.meta;
+
+import ca.nrc.cadc.caom2.Observation;
+import ca.nrc.cadc.caom2.ObservationURI;
+import ca.nrc.cadc.caom2.SimpleObservation;
+import ca.nrc.cadc.caom2.xml.XmlConstants;
+import ca.nrc.cadc.util.Log4jInit;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+public class ObservationListWriterTest
+{
+    private static final Logger log = Logger.getLogger(ObservationListWriterTest.class);
+
+    static
+    {
+        Log4jInit.setLevel("ca.nrc.cadc.caom2.meta", Level.INFO);
+    }
+
+    public ObservationListWriterTest() 
+    { 
+    }
+
+    @Test
+    public void testXML()
+    {
+        try
+        {
+            MetaWriter w = MetaWriterRegistry.getWriter(MetaWriterRegistry.XML_FORMAT, XmlConstants.CAOM2_4_NAMESPACE);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            ObservationListWriter out = new ObservationListWriter(w, false, bos);
+            out.start();
+            out.write(new SimpleObservation("FOO", "bar1"));
+            out.notFound(new ObservationURI("FOO", "bar2"));
+            out.write(new SimpleObservation("FOO", "bar3"));
+            out.end(null);
+            Assert.assertEquals(2, out.getNumWritten());
+            Assert.assertEquals(1, out.getNumNotFound());
+            log.debug("testXML:\n" + bos.toString("UTF-8"));
+            
+            Element root = parse(bos.toByteArray()).getDocumentElement();
+            Assert.assertEquals("observations", root.getTagName());
+            NodeList obs = root.getElementsByTagNameNS(XmlConstants.CAOM2_4_NAMESPACE, "Observation");
+            Assert.assertEquals(2, obs.getLength());
+            NodeList nf = root.getElementsByTagName("notFound");
+            Assert.assertEquals(1, nf.getLength());
+            Assert.assertEquals("caom:FOO/bar2", ((Element) nf.item(0)).getAttribute("uri"));
+            Assert.assertEquals(0, root.getElementsByTagName("error").getLength());
+            
+            Assert.assertEquals("a&amp;b &lt;c&gt; &quot;d&quot;", ObservationListWriter.xmlString("a&b <c> \"d\""));
+        }
+        catch(Exception unexpected)
+        {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testXMLError()
+    {
+        try
+        {
+            final MetaWriter w = MetaWriterRegistry.getWriter(MetaWriterRegistry.XML_FORMAT, XmlConstants.CAOM2_4_NAMESPACE);
+            MetaWriter failing = new MetaWriter()
+            {
+                @Override
+                public void write(Observation obs, OutputStream out)
+                    throws IOException
+                {
+                    // partial element then failure
+                    out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<caom2:Observation".getBytes("UTF-8"));
+                    throw new IOException("failed: " + obs.getURI());
+                }
+            };
+            
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            ObservationListWriter out = new ObservationListWriter(w, false, bos);
+            out.start();
+            out.write(new SimpleObservation("FOO", "bar1"));
+            ObservationListWriter fail = new ObservationListWriter(failing, false, bos);
+            try
+            {
+                fail.write(new SimpleObservation("FOO", "bar2"));
+                Assert.fail("expected IOException");
+            }
+            catch(IOException expected)
+            {
+                log.debug("caught expected: " + expected);
+            }
+            out.end("failed <after> 1 observations");
+            log.debug("testXMLError:\n" + bos.toString("UTF-8"));
+            
+            Element root = parse(bos.toByteArray()).getDocumentElement();
+            Assert.assertEquals(1, root.getElementsByTagNameNS(XmlConstants.CAOM2_4_NAMESPACE, "Observation").getLength());
+            NodeList err = root.getElementsByTagName("error");
+            Assert.assertEquals(1, err.getLength());
+            Assert.assertEquals("failed <after> 1 observations", err.item(0).getTextContent());
+        }
+        catch(Exception unexpected)
+        {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testJSON()
+    {
+        try
+        {
+            MetaWriter w = new MetaWriter()
+            {
+                @Override
+                public void write(Observation obs, OutputStream out)
+                    throws IOException
+                {
+                    out.write(("{\"uri\": \"" + obs.getURI().getURI().toASCIIString() + "\"}").getBytes("UTF-8"));
+                }
+            };
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            ObservationListWriter out = new ObservationListWriter(w, true, bos);
+            out.start();
+            out.write(new SimpleObservation("FOO", "bar1"));
+            out.write(new SimpleObservation("FOO", "bar2"));
+            out.notFound(new ObservationURI("FOO", "bar3"));
+            out.end("line1\nline2 \"quoted\"");
+            
+            String doc = bos.toString("UTF-8");
+            log.debug("testJSON:\n" + doc);
+            String expected = "{\n\"observations\": [\n"
+                    + "{\"uri\": \"caom:FOO/bar1\"},\n"
+                    + "{\"uri\": \"caom:FOO/bar2\"}\n"
+                    + "],\n\"notFound\": [\"caom:FOO/bar3\"],\n"
+                    + "\"error\": \"line1\\nline2 \\\"quoted\\\"\"\n}\n";
+            Assert.assertEquals(expected, doc);
+            
+            // empty list
+            bos = new ByteArrayOutputStream();
+            out = new ObservationListWriter(w, true, bos);
+            out.start();
+            out.end(null);
+            Assert.assertEquals("{\n\"observations\": [\n],\n\"notFound\": []\n}\n", bos.toString("UTF-8"));
+        }
+        catch(Exception unexpected)
+        {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    private Document parse(byte[] doc)
+        throws Exception
+    {
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(true);
+        return dbf.newDocumentBuilder().parse(new ByteArrayInputStream(doc));
+    }
+}
@@ -96,6 +96,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.ListIterator;
 
 import javax.security.auth.Subject;
@@ -105,6 +106,7 @@ import org.apache.log4j.Logger;
 public class CaomPackageRunner extends PackageRunner {
     private static final Logger log = Logger.getLogger(CaomPackageRunner.class);
 
+    private final ServiceConfig config;
     private final URI tapID;
     private List<PublisherID> publisherIDList;
     private String runID;
@@ -112,6 +114,7 @@ public class CaomPackageRunner extends PackageRunner {
     public CaomPackageRunner()
     { 
         ServiceConfig sc = new ServiceConfig();
+        this.config = sc;
         this.tapID = sc.getTapServiceID();
     }
 
@@ -179,42 +182,44 @@ public class CaomPackageRunner extends PackageRunner {
             }
 
             // runID is checked in initPackage()
-            CaomTapQuery query = new CaomTapQuery(tapID, runID);
+            CaomTapQuery query = config.newQuery(runID);
 
             CaomArtifactResolver artifactResolver = new CaomArtifactResolver();
             artifactResolver.setAuthMethod(proxyAuthMethod);
             artifactResolver.setRunID(runID);
 
-            for (PublisherID publisherID : publisherIDList) {
-                try {
-
-                    // If query fails, the id will be skipped
-                    ArtifactQueryResult result = query.performQuery(publisherID, true);
+            // one query per batch of IDs; IDs that are not found have no result
+            Map<PublisherID, ArtifactQueryResult> results = query.performQuery(publisherIDList, true);
 
-                    List<Artifact> artifacts = result.getArtifacts();
-                    stripPreviews(artifacts);
+            for (PublisherID publisherID : publisherIDList) {
+                ArtifactQueryResult result = results.get(publisherID);
+                List<Artifact> artifacts = new ArrayList<Artifact>();
+                if (result != null) {
+                    artifacts.addAll(result.getArtifacts());
+                }
+                stripPreviews(artifacts);
 
-                    if (artifacts.isEmpty()) {
-                        // either the input ID was: not found, access-controlled, or has no artifacts
-                        log.info(this.packageName + ": no files available for ID =" + publisherID.getURI().toASCIIString());
-                    } else {
-                        for (Artifact a : artifacts) {
-                            URL url = artifactResolver.getURL(a.getURI());
+                if (artifacts.isEmpty()) {
+                    // either the input ID was: not found, access-controlled, or has no artifacts
+                    log.info(this.packageName + ": no files available for ID =" + publisherID.getURI().toASCIIString());
+                } else {
+                    for (Artifact a : artifacts) {
+                        URL url = artifactResolver.getURL(a.getURI());
 
-                            String artifactName = a.getURI().getSchemeSpecificPart();
-                            log.debug("new PackageItem: " + a.getURI() + " from " + url);
-                            log.debug("package entry filename " + artifactName);
+                        String artifactName = a.getURI().getSchemeSpecificPart();
+                        log.debug("new PackageItem: " + a.getURI() + " from " + url);
+                        log.debug("package entry filename " + artifactName);
 
-                            PackageItem newItem = new PackageItem(url, artifactName);
-                            packageItems.add(newItem);
-                        }
+                        PackageItem newItem = new PackageItem(url, artifactName);
+                        packageItems.add(newItem);
                     }
-                } catch (ResourceNotFoundException resourceEx) {
-                    // Skip this entry and continue to process
-                    log.info("plane not found: " + publisherID.getURI().toASCIIString() + "skipping...");
                 }
             }
         }
+        catch (ResourceNotFoundException resourceEx) {
+            // no TAP service: nothing can be found
+            log.info(this.packageName + ": cannot find TAP service " + tapID + " skipping all IDs");
+        }
         catch (CertificateException certEx) {
             // Stop - can be thrown by CredUtil check or TAP query inside for loop
             log.info("invalid delegated client certificate");
@@ -0,0 +1,257 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2.soda;
+
+import ca.nrc.cadc.caom2.Artifact;
+import ca.nrc.cadc.caom2.Chunk;
+import ca.nrc.cadc.caom2.Energy;
+import ca.nrc.cadc.caom2.Part;
+import ca.nrc.cadc.caom2.Position;
+import ca.nrc.cadc.caom2.Time;
+import ca.nrc.cadc.caom2.compute.EnergyUtil;
+import ca.nrc.cadc.caom2.compute.PositionUtil;
+import ca.nrc.cadc.caom2.compute.TimeUtil;
+import ca.nrc.cadc.caom2.types.Circle;
+import ca.nrc.cadc.caom2.types.Interval;
+import ca.nrc.cadc.caom2.types.Polygon;
+import ca.nrc.cadc.caom2.types.Shape;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.apache.log4j.Logger;
+
+/**
+ * Bounds of each chunk of an artifact, computed once when the artifact is loaded. Cutout
+ * requests use the index to drop chunks that cannot overlap the requested position, band,
+ * or time so only the remaining chunks get the exact WCS test in CutoutUtil. The bounds
+ * are conservative (a bounding circle on the sky) and a chunk without bounds for an axis
+ * is always a candidate.
+ */
+public class ChunkIndex {
+    private static final Logger log = Logger.getLogger(ChunkIndex.class);
+
+    private final Artifact artifact;
+    private final List<Entry> entries = new ArrayList<>();
+    
+    private static class Entry {
+        Part part;
+        Chunk chunk;
+        Circle pos;
+        Interval band;
+        Interval time;
+    }
+    
+    /**
+     * Compute the bounds of all chunks of the artifact.
+     * 
+     * @param artifact the artifact to index
+     */
+    public ChunkIndex(Artifact artifact) {
+        this.artifact = artifact;
+        for (Part p : artifact.getParts()) {
+            for (Chunk c : p.getChunks()) {
+                Entry e = new Entry();
+                e.part = p;
+                e.chunk = c;
+                computeBounds(e);
+                entries.add(e);
+            }
+        }
+        log.debug("indexed " + entries.size() + " chunks: " + artifact.getURI());
+    }
+    
+    public Artifact getArtifact() {
+        return artifact;
+    }
+    
+    /**
+     * Get the artifact with only the chunks that may overlap the cutout. The returned 
+     * artifact is a shallow copy with the same URI and Part names; it is only intended
+     * as input to CutoutUtil.
+     * 
+     * @param pos requested position or null
+     * @param band requested energy interval or null
+     * @param time requested time interval or null
+     * @return the original artifact if no chunks could be excluded, otherwise a copy 
+     *      with the candidate chunks
+     */
+    public Artifact getCandidates(Shape pos, Interval band, Interval time) {
+        if (pos == null && band == null && time == null) {
+            return artifact;
+        }
+        Circle reqPos = toCircle(pos);
+        
+        List<Entry> candidates = new ArrayList<>(entries.size());
+        for (Entry e : entries) {
+            if (overlaps(e.pos, reqPos) && overlaps(e.band, band) && overlaps(e.time, time)) {
+                candidates.add(e);
+            }
+        }
+        if (candidates.size() == entries.size()) {
+            return artifact;
+        }
+        log.debug("candidates: " + candidates.size() + " of " + entries.size() + " chunks");
+        
+        Artifact ret = new Artifact(artifact.getURI(), artifact.getProductType(), artifact.getReleaseType());
+        ret.contentType = artifact.contentType;
+        ret.contentLength = artifact.contentLength;
+        ret.contentChecksum = artifact.contentChecksum;
+        Part cur = null;
+        for (Entry e : candidates) {
+            // entries are in Part order
+            if (cur == null || !cur.getName().equals(e.part.getName())) {
+                cur = new Part(e.part.getName());
+                cur.productType = e.part.productType;
+                ret.getParts().add(cur);
+            }
+            cur.getChunks().add(e.chunk);
+        }
+        return ret;
+    }
+    
+    // bounds of one chunk: compute as if the chunk was the only one in the artifact
+    private void computeBounds(Entry e) {
+        Artifact tmp = new Artifact(artifact.getURI(), artifact.getProductType(), artifact.getReleaseType());
+        Part tp = new Part(e.part.getName());
+        tp.productType = e.part.productType;
+        tp.getChunks().add(e.chunk);
+        tmp.getParts().add(tp);
+        Set<Artifact> aset = new TreeSet<>();
+        aset.add(tmp);
+        
+        if (e.chunk.position != null) {
+            try {
+                Position p = PositionUtil.compute(aset);
+                if (p != null) {
+                    e.pos = toCircle(p.bounds);
+                }
+            } catch (Exception ex) {
+                log.debug("no position bounds: " + e.part.getName() + " " + ex);
+            }
+        }
+        if (e.chunk.energy != null) {
+            try {
+                Energy nrg = EnergyUtil.compute(aset);
+                if (nrg != null) {
+                    e.band = nrg.bounds;
+                }
+            } catch (Exception ex) {
+                log.debug("no energy bounds: " + e.part.getName() + " " + ex);
+            }
+        }
+        if (e.chunk.time != null) {
+            try {
+                Time tim = TimeUtil.compute(aset);
+                if (tim != null) {
+                    e.time = tim.bounds;
+                }
+            } catch (Exception ex) {
+                log.debug("no time bounds: " + e.part.getName() + " " + ex);
+            }
+        }
+    }
+    
+    private static Circle toCircle(Shape s) {
+        if (s instanceof Circle) {
+            return (Circle) s;
+        }
+        if (s instanceof Polygon) {
+            return ((Polygon) s).getMinimumSpanningCircle();
+        }
+        return null;
+    }
+    
+    // no bounds on either side is not a reason to exclude
+    static boolean overlaps(Circle c1, Circle c2) {
+        if (c1 == null || c2 == null) {
+            return true;
+        }
+        double d = distance(c1.getCenter().cval1, c1.getCenter().cval2, c2.getCenter().cval1, c2.getCenter().cval2);
+        return d <= c1.getRadius() + c2.getRadius();
+    }
+    
+    static boolean overlaps(Interval i1, Interval i2) {
+        if (i1 == null || i2 == null) {
+            return true;
+        }
+        return i1.getLower() <= i2.getUpper() && i2.getLower() <= i1.getUpper();
+    }
+    
+    // great circle distance in degrees
+    static double distance(double ra1, double dec1, double ra2, double dec2) {
+        double d1 = Math.toRadians(dec1);
+        double d2 = Math.toRadians(dec2);
+        double sdd = Math.sin((d2 - d1) / 2.0);
+        double sdr = Math.sin(Math.toRadians(ra2 - ra1) / 2.0);
+        double h = sdd * sdd + Math.cos(d1) * Math.cos(d2) * sdr * sdr;
+        return Math.toDegrees(2.0 * Math.asin(Math.min(1.0, Math.sqrt(h))));
+    }
+}
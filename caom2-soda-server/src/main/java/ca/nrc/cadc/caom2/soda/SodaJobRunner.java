@@ -69,12 +69,16 @@ package ca.nrc.cadc.caom2.soda;
 
 import ca.nrc.cadc.auth.AuthMethod;
 import ca.nrc.cadc.caom2.Artifact;
-import ca.nrc.cadc.caom2.artifact.resolvers.CaomArtifactResolver;
+import ca.nrc.cadc.caom2.Part;
 import ca.nrc.cadc.caom2.compute.CutoutUtil;
 import ca.nrc.cadc.caom2.types.IllegalPolygonException;
+import ca.nrc.cadc.caom2ops.ArtifactResolverTable;
+import ca.nrc.cadc.caom2ops.CaomEntityUtil;
 import ca.nrc.cadc.caom2ops.CaomTapQuery;
 import ca.nrc.cadc.caom2ops.CutoutGenerator;
+import ca.nrc.cadc.caom2ops.ExpiringCache;
 import ca.nrc.cadc.caom2ops.ServiceConfig;
+import ca.nrc.cadc.caom2ops.SyncJobUpdater;
 import ca.nrc.cadc.dali.Circle;
 import ca.nrc.cadc.dali.Interval;
 import ca.nrc.cadc.dali.Point;
@@ -85,21 +89,25 @@ import ca.nrc.cadc.dali.util.IntervalFormat;
 import ca.nrc.cadc.dali.util.PolarizationStateListFormat;
 import ca.nrc.cadc.dali.util.ShapeFormat;
 import ca.nrc.cadc.net.ResourceNotFoundException;
-import ca.nrc.cadc.net.StorageResolver;
 import ca.nrc.cadc.reg.Standards;
 import ca.nrc.cadc.reg.client.RegistryClient;
 import ca.nrc.cadc.util.Base64;
+import ca.nrc.cadc.uws.ParameterUtil;
 import ca.nrc.cadc.wcs.exceptions.NoSuchKeywordException;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.security.cert.CertificateException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
 import org.opencadc.soda.server.AbstractSodaJobRunner;
@@ -121,51 +129,127 @@ public class SodaJobRunner extends AbstractSodaJobRunner implements SodaPlugin {
         PARAM_FARADAY, PARAM_RM
     );
     
+    // artifacts with fewer chunks go straight to CutoutUtil
+    static final int INDEX_MIN_CHUNKS = 8;
+    private static final long INDEX_TTL = 60 * 60 * 1000L; // 1 hour
+    
+    // shared by all jobs: chunk bounds only change with the artifact metadata
+    private static final ExpiringCache<String,ChunkIndex> indexCache = new ExpiringCache<String,ChunkIndex>(256, INDEX_TTL);
+    
     private final RegistryClient reg;
     private final URI sodaURI;
-    private final URI tapURI;
+    private final ServiceConfig config;
     
-    CaomArtifactResolver artifactResolver;
+    // job-scoped: every cutout of one artifact uses the same lookup
+    private CaomTapQuery query;
+    private Map<URI,Artifact> artifacts;
+    private final Map<URI,ChunkIndex> indexes = new HashMap<>();
     
     public SodaJobRunner() { 
         super();
         this.reg = new RegistryClient();
         ServiceConfig sc = new ServiceConfig();
         this.sodaURI = sc.getSodaID();
-        this.tapURI = sc.getTapServiceID();
-        this.artifactResolver = new CaomArtifactResolver();
+        this.config = sc;
         super.getCustomCutoutParams().addAll(CUSTOM_CUT_PARAMS);
     }
 
+    @Override
+    public void run() {
+        // sync requests only compute a redirect: optionally skip the intermediate job phase writes
+        if (syncOutput != null && config.getSyncJobMemory()) {
+            jobUpdater = new SyncJobUpdater(job, jobUpdater);
+        }
+        super.run();
+    }
+
     @Override
     public SodaPlugin getSodaPlugin() {
         return this;
     }
 
+    // the first call finds all artifacts in the job with one batched query
+    private Artifact getArtifact(URI uri) throws IOException, ResourceNotFoundException, CertificateException {
+        if (query == null) {
+            String runID = job.getRunID();
+            if (runID == null) {
+                runID = job.getID();
+            }
+            this.query = config.newQuery(runID);
+        }
+        
+        if (artifacts == null) {
+            this.artifacts = new HashMap<>();
+            Set<URI> ids = new LinkedHashSet<>();
+            for (String s : ParameterUtil.findParameterValues("ID", job.getParameterList())) {
+                try {
+                    ids.add(new URI(s));
+                } catch (URISyntaxException ex) {
+                    log.debug("skip prefetch of invalid ID: " + s);
+                }
+            }
+            if (ids.size() > 1) {
+                Map<URI,Artifact> found = query.performArtifactQuery(ids);
+                for (URI id : ids) {
+                    artifacts.put(id, found.get(id)); // remember not found
+                }
+                log.debug("prefetch: " + found.size() + " of " + ids.size() + " artifacts");
+            }
+        }
+        
+        if (artifacts.containsKey(uri)) {
+            return artifacts.get(uri);
+        }
+        Artifact a = query.performQuery(uri);
+        artifacts.put(uri, a);
+        return a;
+    }
+    
+    // only chunks that may overlap the cutout get the exact WCS test
+    private Artifact getCandidates(Artifact a, ca.nrc.cadc.caom2.types.Shape pos, 
+            ca.nrc.cadc.caom2.types.Interval band, ca.nrc.cadc.caom2.types.Interval time) {
+        int numChunks = 0;
+        for (Part p : a.getParts()) {
+            numChunks += p.getChunks().size();
+        }
+        if (numChunks < INDEX_MIN_CHUNKS) {
+            return a;
+        }
+        
+        ChunkIndex ci = indexes.get(a.getURI());
+        if (ci == null) {
+            String key = CaomEntityUtil.getVersionKey(a);
+            if (key != null) {
+                ci = indexCache.get(key);
+            }
+            if (ci == null) {
+                ci = new ChunkIndex(a);
+                if (key != null) {
+                    indexCache.put(key, ci);
+                }
+            }
+            indexes.put(a.getURI(), ci);
+        }
+        return ci.getCandidates(pos, band, time);
+    }
+    
     @Override
     public URL toURL(int serialNum, URI uri, Cutout cutout, Map<String, List<String>> extraParams)
             throws IOException {
-        String runID = job.getRunID();
-        if (runID == null) {
-            runID = job.getID();
-        }
-        
         try {
-            CaomTapQuery query = new CaomTapQuery(tapURI, runID);
-            Artifact a = query.performQuery(uri);
+            Artifact a = getArtifact(uri);
 
             if (a == null) {
                 return errorURL("NotFound: " + uri);
             }
 
-            StorageResolver resolver = artifactResolver.getStorageResolver(uri);
-            if (resolver instanceof CutoutGenerator) {
-                if (!((CutoutGenerator) resolver).canCutout(a)) {
-                    return errorURL("cutout not supported: " + uri);
-                }
-            } else {
+            CutoutGenerator cg = ArtifactResolverTable.getCutoutGenerator(uri);
+            if (cg == null) {
                 return errorURL("no CutoutGenerator for " + uri);
             }
+            if (!cg.canCutout(a)) {
+                return errorURL("cutout not supported: " + uri);
+            }
 
             // log and ignore custom parameters
             for (Map.Entry<String,List<String>> me : extraParams.entrySet()) {
@@ -187,8 +271,12 @@ public class SodaJobRunner extends AbstractSodaJobRunner implements SodaPlugin {
                 throw new UnsupportedOperationException(sb.toString());
             }
             
-            List<String> strCutout = CutoutUtil.computeCutout(a, 
-                dali2caom2(cutout.pos), dali2caom2(cutout.band), dali2caom2(cutout.time), dali2caom2(cutout.pol), null, null);
+            ca.nrc.cadc.caom2.types.Shape pos = dali2caom2(cutout.pos);
+            ca.nrc.cadc.caom2.types.Interval band = dali2caom2(cutout.band);
+            ca.nrc.cadc.caom2.types.Interval time = dali2caom2(cutout.time);
+            Artifact candidates = getCandidates(a, pos, band, time);
+            List<String> strCutout = CutoutUtil.computeCutout(candidates, 
+                pos, band, time, dali2caom2(cutout.pol), null, null);
             if (strCutout != null && !strCutout.isEmpty()) {
                 // get the optional label parameter value
                 List<String> labels = extraParams.get(PARAM_LABEL);
@@ -198,7 +286,7 @@ public class SodaJobRunner extends AbstractSodaJobRunner implements SodaPlugin {
                     label = labels.get(0);
                 }
             
-                URL url = ((CutoutGenerator) resolver).toURL(a.getURI(), strCutout, label);
+                URL url = cg.toURL(a.getURI(), strCutout, label);
                 log.debug("cutout URL: " + url.toExternalForm());
                 return url;
             } else {
@@ -0,0 +1,330 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2.soda;
+
+import ca.nrc.cadc.caom2.Artifact;
+import ca.nrc.cadc.caom2.Chunk;
+import ca.nrc.cadc.caom2.Part;
+import ca.nrc.cadc.caom2.ProductType;
+import ca.nrc.cadc.caom2.ReleaseType;
+import ca.nrc.cadc.caom2.compute.CutoutUtil;
+import ca.nrc.cadc.caom2.types.Circle;
+import ca.nrc.cadc.caom2.types.Interval;
+import ca.nrc.cadc.caom2.types.MultiPolygon;
+import ca.nrc.cadc.caom2.types.Point;
+import ca.nrc.cadc.caom2.types.Polygon;
+import ca.nrc.cadc.caom2.types.SegmentType;
+import ca.nrc.cadc.caom2.types.Shape;
+import ca.nrc.cadc.caom2.types.Vertex;
+import ca.nrc.cadc.caom2.wcs.Axis;
+import ca.nrc.cadc.caom2.wcs.Coord2D;
+import ca.nrc.cadc.caom2.wcs.CoordAxis1D;
+import ca.nrc.cadc.caom2.wcs.CoordAxis2D;
+import ca.nrc.cadc.caom2.wcs.CoordFunction1D;
+import ca.nrc.cadc.caom2.wcs.CoordFunction2D;
+import ca.nrc.cadc.caom2.wcs.Dimension2D;
+import ca.nrc.cadc.caom2.wcs.RefCoord;
+import ca.nrc.cadc.caom2.wcs.SpatialWCS;
+import ca.nrc.cadc.caom2.wcs.SpectralWCS;
+import ca.nrc.cadc.util.Log4jInit;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ChunkIndexTest {
+    private static final Logger log = Logger.getLogger(ChunkIndexTest.class);
+
+    static {
+        Log4jInit.setLevel("ca.nrc.cadc.caom2.soda", Level.INFO);
+    }
+    
+    // 100x100 pixels of 0.001 deg: chunks are 0.1 deg on a side
+    private static final double PIXSCALE = 1.0e-3;
+    
+    public ChunkIndexTest() { 
+    }
+    
+    @Test
+    public void testDistance() {
+        try {
+            Assert.assertEquals(0.0, ChunkIndex.distance(10.0, 20.0, 10.0, 20.0), 1.0e-9);
+            Assert.assertEquals(1.0, ChunkIndex.distance(10.0, 20.0, 10.0, 21.0), 1.0e-9);
+            Assert.assertEquals(1.0, ChunkIndex.distance(0.0, 0.0, 1.0, 0.0), 1.0e-9);
+            // across RA = 0
+            Assert.assertEquals(0.2, ChunkIndex.distance(359.9, 0.0, 0.1, 0.0), 1.0e-9);
+            Assert.assertEquals(180.0, ChunkIndex.distance(0.0, 0.0, 180.0, 0.0), 1.0e-9);
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+    
+    @Test
+    public void testRAWrap() {
+        try {
+            Artifact a = newArtifact();
+            addChunk(a, newPositionChunk(359.98, 0.0)); // spans RA = 0
+            addChunk(a, newPositionChunk(359.90, 0.0));
+            addChunk(a, newPositionChunk(0.10, 0.0));
+            addChunk(a, newPositionChunk(0.50, 0.0));
+            addChunk(a, newPositionChunk(180.0, 0.0));
+            ChunkIndex ci = new ChunkIndex(a);
+            
+            Circle c = new Circle(new Point(0.0, 0.0), 0.01);
+            Assert.assertEquals(Arrays.asList("1"), getPartNames(ci.getCandidates(c, null, null)));
+            
+            c = new Circle(new Point(359.95, 0.0), 0.01);
+            Assert.assertEquals(Arrays.asList("1", "2"), getPartNames(ci.getCandidates(c, null, null)));
+            
+            c = new Circle(new Point(0.05, 0.0), 0.01);
+            Assert.assertEquals(Arrays.asList("1", "3"), getPartNames(ci.getCandidates(c, null, null)));
+            
+            c = new Circle(new Point(180.0, 0.0), 0.01);
+            Assert.assertEquals(Arrays.asList("5"), getPartNames(ci.getCandidates(c, null, null)));
+            
+            c = new Circle(new Point(90.0, 0.0), 0.01);
+            Assert.assertTrue(getPartNames(ci.getCandidates(c, null, null)).isEmpty());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+    
+    @Test
+    public void testPolygonCircle() {
+        try {
+            Artifact a = newGridArtifact(10.0, 20.0);
+            ChunkIndex ci = new ChunkIndex(a);
+            
+            // a small region inside one chunk
+            Circle c = new Circle(new Point(10.0, 20.0), 0.005);
+            Polygon p = newBox(10.0, 20.0, 0.005);
+            List<String> cnames = getPartNames(ci.getCandidates(c, null, null));
+            List<String> pnames = getPartNames(ci.getCandidates(p, null, null));
+            log.info("circle: " + cnames + " polygon: " + pnames);
+            Assert.assertFalse(cnames.isEmpty());
+            Assert.assertTrue(cnames.size() < a.getParts().size());
+            Assert.assertEquals(cnames, pnames);
+            
+            // a region that covers all chunks
+            c = new Circle(new Point(10.0, 20.0), 1.0);
+            p = newBox(10.0, 20.0, 1.0);
+            Assert.assertSame(a, ci.getCandidates(c, null, null));
+            Assert.assertSame(a, ci.getCandidates(p, null, null));
+            
+            // a region that misses all chunks
+            c = new Circle(new Point(12.0, 20.0), 0.05);
+            p = newBox(12.0, 20.0, 0.05);
+            Assert.assertTrue(getPartNames(ci.getCandidates(c, null, null)).isEmpty());
+            Assert.assertTrue(getPartNames(ci.getCandidates(p, null, null)).isEmpty());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+    
+    @Test
+    public void testMissingAxis() {
+        try {
+            Artifact a = newArtifact();
+            addChunk(a, newPositionChunk(10.0, 20.0));
+            addChunk(a, newPositionChunk(30.0, 20.0));
+            addChunk(a, newEnergyChunk(400.0e-9));
+            addChunk(a, newEnergyChunk(800.0e-9));
+            addChunk(a, new Chunk()); // no WCS
+            ChunkIndex ci = new ChunkIndex(a);
+            
+            // chunks without position are candidates for a position cutout
+            Circle c = new Circle(new Point(10.0, 20.0), 0.01);
+            Assert.assertEquals(Arrays.asList("1", "3", "4", "5"), getPartNames(ci.getCandidates(c, null, null)));
+            
+            // chunks without energy are candidates for a band cutout
+            Interval band = new Interval(390.0e-9, 410.0e-9);
+            Assert.assertEquals(Arrays.asList("1", "2", "3", "5"), getPartNames(ci.getCandidates(null, band, null)));
+            
+            // both
+            Assert.assertEquals(Arrays.asList("1", "3", "5"), getPartNames(ci.getCandidates(c, band, null)));
+            
+            // no time bounds at all
+            Interval time = new Interval(50000.0, 50001.0);
+            Assert.assertSame(a, ci.getCandidates(null, null, time));
+            Assert.assertSame(a, ci.getCandidates(null, null, null));
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+    
+    @Test
+    public void testSameCutout() {
+        try {
+            Artifact a = newGridArtifact(10.0, 20.0);
+            ChunkIndex ci = new ChunkIndex(a);
+            
+            List<Shape> shapes = new ArrayList<>();
+            shapes.add(new Circle(new Point(10.0, 20.0), 0.005));
+            shapes.add(new Circle(new Point(10.05, 20.05), 0.02)); // chunk corners
+            shapes.add(new Circle(new Point(10.0, 20.0), 1.0));
+            shapes.add(new Circle(new Point(12.0, 20.0), 0.05));
+            shapes.add(newBox(10.0, 20.0, 0.005));
+            shapes.add(newBox(10.1, 20.1, 0.03));
+            shapes.add(newBox(12.0, 20.0, 0.05));
+            for (Shape s : shapes) {
+                List<String> expected = CutoutUtil.computeCutout(a, s, null, null, null, null, null);
+                Artifact candidates = ci.getCandidates(s, null, null);
+                List<String> actual = CutoutUtil.computeCutout(candidates, s, null, null, null, null, null);
+                log.info("cutout: " + s + " " + candidates.getParts().size() + " parts: " + actual);
+                Assert.assertEquals(s.toString(), expected, actual);
+            }
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+    
+    private Artifact newArtifact() {
+        Artifact a = new Artifact(URI.create("ad:TEST/chunk-index"), ProductType.SCIENCE, ReleaseType.DATA);
+        a.contentType = "application/fits";
+        return a;
+    }
+    
+    // 5x5 chunks centered on ra,dec with no gap
+    private Artifact newGridArtifact(double ra, double dec) {
+        Artifact a = newArtifact();
+        double step = 100 * PIXSCALE;
+        for (int i = -2; i <= 2; i++) {
+            for (int j = -2; j <= 2; j++) {
+                addChunk(a, newPositionChunk(ra + i * step / Math.cos(Math.toRadians(dec)), dec + j * step));
+            }
+        }
+        return a;
+    }
+    
+    // one chunk per part like a multi-extension file: part names are 1..N
+    private void addChunk(Artifact a, Chunk c) {
+        Part p = new Part(Integer.toString(a.getParts().size() + 1));
+        p.getChunks().add(c);
+        a.getParts().add(p);
+    }
+    
+    private Chunk newPositionChunk(double ra, double dec) {
+        Chunk c = new Chunk();
+        c.naxis = 2;
+        c.positionAxis1 = 1;
+        c.positionAxis2 = 2;
+        CoordAxis2D axis = new CoordAxis2D(new Axis("RA---TAN", "deg"), new Axis("DEC--TAN", "deg"));
+        Coord2D ref = new Coord2D(new RefCoord(50.5, ra), new RefCoord(50.5, dec));
+        axis.function = new CoordFunction2D(new Dimension2D(100, 100), ref, -PIXSCALE, 0.0, 0.0, PIXSCALE);
+        c.position = new SpatialWCS(axis);
+        c.position.coordsys = "ICRS";
+        return c;
+    }
+    
+    private Chunk newEnergyChunk(double lower) {
+        Chunk c = new Chunk();
+        c.naxis = 1;
+        c.energyAxis = 1;
+        CoordAxis1D axis = new CoordAxis1D(new Axis("WAVE", "m"));
+        axis.function = new CoordFunction1D(100L, 1.0e-10, new RefCoord(0.5, lower));
+        c.energy = new SpectralWCS(axis, "TOPOCENT");
+        return c;
+    }
+    
+    // counter-clockwise box of half-width r (deg on the sky)
+    private Polygon newBox(double ra, double dec, double r) {
+        double dr = r / Math.cos(Math.toRadians(dec));
+        double[][] corners = new double[][] {
+            {ra - dr, dec - r}, {ra + dr, dec - r}, {ra + dr, dec + r}, {ra - dr, dec + r}
+        };
+        List<Point> points = new ArrayList<>();
+        List<Vertex> vertices = new ArrayList<>();
+        SegmentType t = SegmentType.MOVE;
+        for (double[] v : corners) {
+            points.add(new Point(v[0], v[1]));
+            vertices.add(new Vertex(v[0], v[1], t));
+            t = SegmentType.LINE;
+        }
+        vertices.add(Vertex.CLOSE);
+        return new Polygon(points, new MultiPolygon(vertices));
+    }
+    
+    private List<String> getPartNames(Artifact a) {
+        List<String> ret = new ArrayList<>();
+        for (Part p : a.getParts()) {
+            ret.add(p.getName());
+        }
+        return ret;
+    }
+}
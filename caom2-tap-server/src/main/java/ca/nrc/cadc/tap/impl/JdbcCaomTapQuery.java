@@ -0,0 +1,441 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.tap.impl;
+
+import ca.nrc.cadc.caom2ops.CaomTapQuery;
+import ca.nrc.cadc.caom2ops.ExpiringCache;
+import ca.nrc.cadc.caom2ops.ServiceConfig;
+import ca.nrc.cadc.caom2ops.TransientFault;
+import ca.nrc.cadc.caom2ops.mapper.UnexpectedContentException;
+import ca.nrc.cadc.dali.tables.votable.VOTableField;
+import ca.nrc.cadc.dali.util.Format;
+import ca.nrc.cadc.date.DateUtil;
+import ca.nrc.cadc.db.DBUtil;
+import ca.nrc.cadc.net.ResourceNotFoundException;
+import ca.nrc.cadc.tap.TapSelectItem;
+import ca.nrc.cadc.tap.schema.TapDataType;
+import ca.nrc.cadc.tap.schema.TapSchema;
+import ca.nrc.cadc.tap.schema.TapSchemaDAO;
+import ca.nrc.cadc.tap.schema.TapSchemaDAOImpl;
+import ca.nrc.cadc.tap.writer.format.ResultSetFormat;
+import ca.nrc.cadc.util.ThrowableUtil;
+import ca.nrc.cadc.uws.Job;
+import ca.nrc.cadc.uws.Parameter;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.security.AccessControlException;
+import java.security.cert.CertificateException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
+import org.apache.log4j.Logger;
+
+/**
+ * CaomTapQuery implementation that executes queries directly against the CAOM database
+ * instead of calling the TAP service. Queries are converted to SQL by CaomAdqlQuery, so the 
+ * same access control rewriting is applied for the calling subject. Scalar columns are read
+ * directly with the JDBC getter for the VOTable datatype; other columns (pgsphere shapes, 
+ * intervals, arrays) are converted with the same formats used to write query results. 
+ * Either way the mappers see the same values as they would from the VOTable.
+ * 
+ * <p>This class is selected with the ServiceConfig.queryImpl key and requires a JNDI
+ * DataSource (ServiceConfig.queryDataSource, default jdbc/tapuser) in the container.
+ */
+public class JdbcCaomTapQuery extends CaomTapQuery {
+    private static final Logger log = Logger.getLogger(JdbcCaomTapQuery.class);
+
+    public static final String DEFAULT_DATASOURCE = "jdbc/tapuser";
+    
+    private static final int FETCH_SIZE = 1000;
+    
+    // tap_schema content rarely changes and is expensive to load
+    private static final long TAP_SCHEMA_TTL = 10 * 60 * 1000L; // 10 min
+    private static final ExpiringCache<String,TapSchema> tapSchemaCache = new ExpiringCache<String,TapSchema>(4, TAP_SCHEMA_TTL);
+    
+    private String dataSourceName;
+    
+    public JdbcCaomTapQuery(URI tapServiceID, String runID) {
+        super(tapServiceID, runID);
+    }
+
+    /**
+     * Set the JNDI name of the DataSource. The default is the ServiceConfig.queryDataSource
+     * value or jdbc/tapuser.
+     * 
+     * @param dataSourceName 
+     */
+    public void setDataSourceName(String dataSourceName) {
+        this.dataSourceName = dataSourceName;
+    }
+    
+    @Override
+    protected <T> T execQuery(String uri, String adql, TableBuilder<T> builder)
+        throws IOException, ResourceNotFoundException, UnexpectedContentException, 
+            AccessControlException, CertificateException {
+        String dsName = getDataSourceName();
+        DataSource ds = getDataSource(dsName);
+        
+        final String jobID = (runID != null ? runID : "internal-jobID");
+        Job job = new Job() {
+            @Override
+            public String getID() {
+                return jobID;
+            }
+        };
+        job.getParameterList().add(new Parameter("LANG", "ADQL"));
+        job.getParameterList().add(new Parameter("QUERY", adql));
+        
+        CaomAdqlQuery q = new CaomAdqlQuery();
+        q.setJob(job);
+        q.setTapSchema(getTapSchema(dsName, ds));
+        String sql = q.getSQL();
+        log.debug("query: " + uri + " SQL: " + sql);
+        
+        List<TapSelectItem> selectList = q.getSelectList();
+        CaomFormatFactory ff = new CaomFormatFactory();
+        ff.setJob(job);
+        List<VOTableField> fields = new ArrayList<VOTableField>(selectList.size());
+        List<ColumnReader> readers = new ArrayList<ColumnReader>(selectList.size());
+        for (TapSelectItem item : selectList) {
+            VOTableField f = toVOTableField(item);
+            fields.add(f);
+            readers.add(new ColumnReader(f, ff.getFormat(item)));
+        }
+        
+        Connection con = null;
+        Statement st = null;
+        ResultSet rs = null;
+        try {
+            con = ds.getConnection();
+            // postgresql only uses a cursor (fetch size) inside a transaction
+            con.setAutoCommit(false);
+            st = con.createStatement();
+            st.setFetchSize(FETCH_SIZE);
+            rs = st.executeQuery(sql);
+            return builder.build(fields, new ResultSetRowIterator(rs, readers));
+        } catch (SQLException ex) {
+            throw new TransientFault("query failed: " + uri, HttpURLConnection.HTTP_UNAVAILABLE, ex);
+        } catch (RuntimeException ex) {
+            if (ThrowableUtil.isACause(ex, SQLException.class)) {
+                throw new TransientFault("query failed: " + uri, HttpURLConnection.HTTP_UNAVAILABLE, ex);
+            }
+            throw ex;
+        } finally {
+            close(con, st, rs);
+        }
+    }
+    
+    private String getDataSourceName() {
+        if (dataSourceName == null) {
+            String s = new ServiceConfig().getQueryDataSource();
+            if (s != null) {
+                dataSourceName = s;
+            } else {
+                dataSourceName = DEFAULT_DATASOURCE;
+            }
+        }
+        return dataSourceName;
+    }
+    
+    private static DataSource getDataSource(String dsName) {
+        try {
+            return DBUtil.findJNDIDataSource(dsName);
+        } catch (NamingException ex) {
+            throw new RuntimeException("CONFIG: failed to find DataSource " + dsName, ex);
+        }
+    }
+    
+    private static TapSchema getTapSchema(String dsName, DataSource ds) {
+        TapSchema ret = tapSchemaCache.get(dsName);
+        if (ret == null) {
+            TapSchemaDAO dao = new TapSchemaDAOImpl();
+            dao.setDataSource(ds);
+            ret = dao.get();
+            tapSchemaCache.put(dsName, ret);
+        }
+        return ret;
+    }
+    
+    static VOTableField toVOTableField(TapSelectItem item) {
+        TapDataType dt = item.getDatatype();
+        VOTableField ret = new VOTableField(item.getName(), dt.getDatatype(), dt.arraysize);
+        ret.utype = item.utype;
+        ret.xtype = dt.xtype;
+        return ret;
+    }
+    
+    static void close(Connection con, Statement st, ResultSet rs) {
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+        } catch (SQLException ignore) {
+            log.debug("failed to close ResultSet: " + ignore);
+        }
+        try {
+            if (st != null) {
+                st.close();
+            }
+        } catch (SQLException ignore) {
+            log.debug("failed to close Statement: " + ignore);
+        }
+        if (con != null) {
+            try {
+                con.rollback(); // read-only
+                con.setAutoCommit(true);
+            } catch (SQLException ignore) {
+                log.debug("failed to reset Connection: " + ignore);
+            } finally {
+                // always return the connection to the pool
+                try {
+                    con.close();
+                } catch (SQLException ignore) {
+                    log.debug("failed to close Connection: " + ignore);
+                }
+            }
+        }
+    }
+    
+    // JDBC getter used for a column
+    enum ColumnType {
+        BOOLEAN, SHORT, INT, LONG, FLOAT, DOUBLE, CHAR, TIMESTAMP, FORMAT
+    }
+    
+    static ColumnType getColumnType(VOTableField f, Format<Object> tapFormat) {
+        if (tapFormat instanceof ResultSetFormat) {
+            return ColumnType.FORMAT; // pgsphere and interval types
+        }
+        if ("char".equals(f.getDatatype())) {
+            if (f.xtype == null) {
+                return ColumnType.CHAR;
+            }
+            if ("timestamp".equals(f.xtype)) {
+                return ColumnType.TIMESTAMP;
+            }
+            return ColumnType.FORMAT;
+        }
+        if (f.xtype != null || f.getArraysize() != null) {
+            return ColumnType.FORMAT;
+        }
+        switch (f.getDatatype()) {
+            case "boolean":
+                return ColumnType.BOOLEAN;
+            case "short":
+                return ColumnType.SHORT;
+            case "int":
+                return ColumnType.INT;
+            case "long":
+                return ColumnType.LONG;
+            case "float":
+                return ColumnType.FLOAT;
+            case "double":
+                return ColumnType.DOUBLE;
+            default:
+                return ColumnType.FORMAT;
+        }
+    }
+    
+    // read one column as the value the cadc-dali format would parse from the VOTable
+    static class ColumnReader {
+        final ColumnType type;
+        private final Format<Object> tapFormat;
+        private final Format daliFormat;
+        private Calendar utc;
+        
+        ColumnReader(VOTableField f, Format<Object> tapFormat) {
+            this.type = getColumnType(f, tapFormat);
+            this.tapFormat = tapFormat;
+            if (type == ColumnType.FORMAT) {
+                this.daliFormat = ca.nrc.cadc.dali.util.FormatFactory.getFormat(f);
+            } else {
+                this.daliFormat = null;
+            }
+            if (type == ColumnType.TIMESTAMP) {
+                this.utc = Calendar.getInstance(DateUtil.UTC);
+            }
+        }
+        
+        Object read(ResultSet rs, int col) throws SQLException {
+            Object ret;
+            switch (type) {
+                case BOOLEAN:
+                    ret = rs.getBoolean(col);
+                    break;
+                case SHORT:
+                    ret = rs.getShort(col);
+                    break;
+                case INT:
+                    ret = rs.getInt(col);
+                    break;
+                case LONG:
+                    ret = rs.getLong(col);
+                    break;
+                case FLOAT:
+                    ret = rs.getFloat(col);
+                    break;
+                case DOUBLE:
+                    ret = rs.getDouble(col);
+                    break;
+                case CHAR:
+                    String s = rs.getString(col);
+                    if (s == null || s.trim().isEmpty()) {
+                        return null;
+                    }
+                    return s.trim();
+                case TIMESTAMP:
+                    Timestamp ts = rs.getTimestamp(col, utc);
+                    if (ts == null) {
+                        return null;
+                    }
+                    return new Date(ts.getTime());
+                default:
+                    return readFormat(rs, col);
+            }
+            if (rs.wasNull()) {
+                return null;
+            }
+            return ret;
+        }
+        
+        // convert the value to the string form written by the TAP service and parse it
+        // back with the cadc-dali format for the field, same as reading the VOTable
+        private Object readFormat(ResultSet rs, int col) throws SQLException {
+            Object o;
+            if (tapFormat instanceof ResultSetFormat) {
+                o = ((ResultSetFormat) tapFormat).extract(rs, col);
+            } else {
+                o = rs.getObject(col);
+            }
+            String s = tapFormat.format(o);
+            if (s == null || s.trim().isEmpty()) {
+                return null;
+            }
+            return daliFormat.parse(s.trim());
+        }
+    }
+    
+    static class ResultSetRowIterator implements Iterator<List<Object>> {
+        private final ResultSet rs;
+        private final List<ColumnReader> readers;
+        private boolean hasRow;
+        private boolean done;
+        
+        ResultSetRowIterator(ResultSet rs, List<ColumnReader> readers) {
+            this.rs = rs;
+            this.readers = readers;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            if (!hasRow && !done) {
+                try {
+                    hasRow = rs.next();
+                    done = !hasRow;
+                } catch (SQLException ex) {
+                    throw new RuntimeException("failed to read next row", ex);
+                }
+            }
+            return hasRow;
+        }
+
+        @Override
+        public List<Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasRow = false;
+            try {
+                List<Object> row = new ArrayList<Object>(readers.size());
+                for (int i = 0; i < readers.size(); i++) {
+                    row.add(readers.get(i).read(rs, i + 1));
+                }
+                return row;
+            } catch (SQLException ex) {
+                throw new RuntimeException("failed to read row", ex);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
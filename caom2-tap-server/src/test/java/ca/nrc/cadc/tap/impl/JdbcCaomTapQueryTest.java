@@ -0,0 +1,330 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.tap.impl;
+
+import ca.nrc.cadc.dali.tables.votable.VOTableField;
+import ca.nrc.cadc.dali.util.Format;
+import ca.nrc.cadc.util.Log4jInit;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JdbcCaomTapQueryTest
+{
+    private static final Logger log = Logger.getLogger(JdbcCaomTapQueryTest.class);
+
+    static
+    {
+        Log4jInit.setLevel("ca.nrc.cadc.tap.impl", Level.INFO);
+    }
+
+    // formats a double[] the way the TAP service writes it
+    private static final Format<Object> ARRAY_FORMAT = new Format<Object>()
+    {
+        @Override
+        public Object parse(String s)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String format(Object o)
+        {
+            if (o == null)
+            {
+                return "";
+            }
+            StringBuilder sb = new StringBuilder();
+            for (double d : (double[]) o)
+            {
+                sb.append(d).append(" ");
+            }
+            return sb.toString();
+        }
+    };
+
+    @Test
+    public void testColumnType()
+    {
+        try
+        {
+            Assert.assertEquals(JdbcCaomTapQuery.ColumnType.BOOLEAN, getColumnType("boolean", null, null));
+            Assert.assertEquals(JdbcCaomTapQuery.ColumnType.SHORT, getColumnType("short", null, null));
+            Assert.assertEquals(JdbcCaomTapQuery.ColumnType.INT, getColumnType("int", null, null));
+            Assert.assertEquals(JdbcCaomTapQuery.ColumnType.LONG, getColumnType("long", null, null));
+            Assert.assertEquals(JdbcCaomTapQuery.ColumnType.FLOAT, getColumnType("float", null, null));
+            Assert.assertEquals(JdbcCaomTapQuery.ColumnType.DOUBLE, getColumnType("double", null, null));
+            Assert.assertEquals(JdbcCaomTapQuery.ColumnType.CHAR, getColumnType("char", "36", null));
+            Assert.assertEquals(JdbcCaomTapQuery.ColumnType.CHAR, getColumnType("char", "*", null));
+            Assert.assertEquals(JdbcCaomTapQuery.ColumnType.TIMESTAMP, getColumnType("char", "*", "timestamp"));
+
+            // arrays and extended types use the formats
+            Assert.assertEquals(JdbcCaomTapQuery.ColumnType.FORMAT, getColumnType("double", "*", null));
+            Assert.assertEquals(JdbcCaomTapQuery.ColumnType.FORMAT, getColumnType("double", "2", "interval"));
+            Assert.assertEquals(JdbcCaomTapQuery.ColumnType.FORMAT, getColumnType("double", "*", "polygon"));
+            Assert.assertEquals(JdbcCaomTapQuery.ColumnType.FORMAT, getColumnType("char", "*", "clob"));
+            Assert.assertEquals(JdbcCaomTapQuery.ColumnType.FORMAT, getColumnType("unsignedByte", null, null));
+        }
+        catch (Exception unexpected)
+        {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testReadRows()
+    {
+        try
+        {
+            List<VOTableField> fields = new ArrayList<VOTableField>();
+            fields.add(new VOTableField("b", "boolean", null));
+            fields.add(new VOTableField("s", "short", null));
+            fields.add(new VOTableField("i", "int", null));
+            fields.add(new VOTableField("l", "long", null));
+            fields.add(new VOTableField("f", "float", null));
+            fields.add(new VOTableField("d", "double", null));
+            fields.add(new VOTableField("c", "char", "*"));
+            VOTableField ts = new VOTableField("t", "char", "*");
+            ts.xtype = "timestamp";
+            fields.add(ts);
+            fields.add(new VOTableField("a", "double", "2"));
+
+            List<JdbcCaomTapQuery.ColumnReader> readers = new ArrayList<JdbcCaomTapQuery.ColumnReader>();
+            for (VOTableField f : fields)
+            {
+                readers.add(new JdbcCaomTapQuery.ColumnReader(f, ARRAY_FORMAT));
+            }
+
+            List<Object[]> rows = new ArrayList<Object[]>();
+            rows.add(new Object[] {
+                true, (short) 2, 3, 4L, 5.0f, 6.0, "abc  ", new Timestamp(1000L), new double[] { 1.0, 2.0 }
+            });
+            // SQL NULL is null and not the primitive default
+            rows.add(new Object[] { null, null, null, null, null, null, null, null, null });
+            // NaN is a value
+            rows.add(new Object[] { false, (short) 0, 0, 0L, Float.NaN, Double.NaN, " ", null, null });
+
+            JdbcCaomTapQuery.ResultSetRowIterator iter = new JdbcCaomTapQuery.ResultSetRowIterator(newResultSet(rows), readers);
+
+            Assert.assertTrue(iter.hasNext());
+            List<Object> r = iter.next();
+            Assert.assertEquals(Boolean.TRUE, r.get(0));
+            Assert.assertEquals(Short.valueOf((short) 2), r.get(1));
+            Assert.assertEquals(Integer.valueOf(3), r.get(2));
+            Assert.assertEquals(Long.valueOf(4L), r.get(3));
+            Assert.assertEquals(Float.valueOf(5.0f), r.get(4));
+            Assert.assertEquals(Double.valueOf(6.0), r.get(5));
+            Assert.assertEquals("abc", r.get(6));
+            Assert.assertEquals(new Date(1000L), r.get(7));
+            Assert.assertTrue(r.get(8) instanceof double[]);
+            Assert.assertArrayEquals(new double[] { 1.0, 2.0 }, (double[]) r.get(8), 0.0);
+
+            Assert.assertTrue(iter.hasNext());
+            r = iter.next();
+            for (int i = 0; i < r.size(); i++)
+            {
+                Assert.assertNull(fields.get(i).getName(), r.get(i));
+            }
+
+            Assert.assertTrue(iter.hasNext());
+            r = iter.next();
+            Assert.assertEquals(Boolean.FALSE, r.get(0));
+            Assert.assertEquals(Short.valueOf((short) 0), r.get(1));
+            Assert.assertEquals(Integer.valueOf(0), r.get(2));
+            Assert.assertEquals(Long.valueOf(0L), r.get(3));
+            Assert.assertTrue(Float.isNaN((Float) r.get(4)));
+            Assert.assertTrue(Double.isNaN((Double) r.get(5)));
+            Assert.assertNull(r.get(6));
+
+            Assert.assertFalse(iter.hasNext());
+        }
+        catch (Exception unexpected)
+        {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testCloseConnection()
+    {
+        try
+        {
+            final List<String> calls = new ArrayList<String>();
+            Connection con = newConnection(calls, "rollback");
+            JdbcCaomTapQuery.close(con, null, null);
+            Assert.assertEquals(Arrays.asList("rollback", "close"), calls);
+
+            calls.clear();
+            con = newConnection(calls, "setAutoCommit");
+            JdbcCaomTapQuery.close(con, null, null);
+            Assert.assertEquals(Arrays.asList("rollback", "setAutoCommit", "close"), calls);
+
+            calls.clear();
+            con = newConnection(calls, null);
+            JdbcCaomTapQuery.close(con, null, null);
+            Assert.assertEquals(Arrays.asList("rollback", "setAutoCommit", "close"), calls);
+        }
+        catch (Exception unexpected)
+        {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    private static JdbcCaomTapQuery.ColumnType getColumnType(String datatype, String arraysize, String xtype)
+    {
+        VOTableField f = new VOTableField("foo", datatype, arraysize);
+        f.xtype = xtype;
+        return JdbcCaomTapQuery.getColumnType(f, null);
+    }
+
+    // connection that records calls and fails on the specified method
+    private static Connection newConnection(final List<String> calls, final String fail)
+    {
+        InvocationHandler h = new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method m, Object[] args) throws Throwable
+            {
+                calls.add(m.getName());
+                if (m.getName().equals(fail))
+                {
+                    throw new SQLException("fail: " + fail);
+                }
+                return null;
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[] { Connection.class }, h);
+    }
+
+    // result set over in-memory rows with the JDBC getter semantics for SQL NULL
+    private static ResultSet newResultSet(final List<Object[]> rows)
+    {
+        InvocationHandler h = new InvocationHandler()
+        {
+            int cur = -1;
+            Object last;
+
+            @Override
+            public Object invoke(Object proxy, Method m, Object[] args) throws Throwable
+            {
+                String name = m.getName();
+                if ("next".equals(name))
+                {
+                    cur++;
+                    return cur < rows.size();
+                }
+                if ("wasNull".equals(name))
+                {
+                    return last == null;
+                }
+                if (name.startsWith("get") && args != null && args[0] instanceof Integer)
+                {
+                    last = rows.get(cur)[(Integer) args[0] - 1];
+                    switch (name)
+                    {
+                        case "getBoolean":
+                            return (last == null ? false : last);
+                        case "getShort":
+                            return (last == null ? (short) 0 : ((Number) last).shortValue());
+                        case "getInt":
+                            return (last == null ? 0 : ((Number) last).intValue());
+                        case "getLong":
+                            return (last == null ? 0L : ((Number) last).longValue());
+                        case "getFloat":
+                            return (last == null ? 0.0f : ((Number) last).floatValue());
+                        case "getDouble":
+                            return (last == null ? 0.0 : ((Number) last).doubleValue());
+                        case "getString":
+                            return (last == null ? null : last.toString());
+                        default:
+                            return last;
+                    }
+                }
+                throw new UnsupportedOperationException(name);
+            }
+        };
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class[] { ResultSet.class }, h);
+    }
+}
@@ -0,0 +1,280 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2ops.mapper;
+
+import ca.nrc.cadc.caom2.Chunk;
+import java.net.URI;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Rows/sec for ChunkMapper compared to a copy of the mapper it replaced (BaselineChunkMapper)
+ * over the full Chunk select list. The rows describe one CCD of a mosaic camera: a 2D spatial 
+ * WCS function and energy and time ranges, with the polarization, custom, and observable axes
+ * null. The baseline maps rows with boxed values as the VOTable reader used to produce them; 
+ * the current mapper maps the PrimitiveRow the reader produces now.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MapperBenchmark {
+
+    private static final int ROWS = 1000;
+    
+    // all columns of the Chunk query in select list order
+    private static final String[] UTYPES = new String[] {
+        "caom2:Chunk.id", "caom2:Chunk.productType", "caom2:Chunk.naxis", 
+        "caom2:Chunk.positionAxis1", "caom2:Chunk.positionAxis2", "caom2:Chunk.energyAxis", 
+        "caom2:Chunk.timeAxis", "caom2:Chunk.polarizationAxis", "caom2:Chunk.customAxis", 
+        "caom2:Chunk.observableAxis", 
+        "caom2:Chunk.position.axis.axis1.ctype", "caom2:Chunk.position.axis.axis1.cunit", 
+        "caom2:Chunk.position.axis.axis2.ctype", "caom2:Chunk.position.axis.axis2.cunit", 
+        "caom2:Chunk.position.axis.error1.syser", "caom2:Chunk.position.axis.error1.rnder", 
+        "caom2:Chunk.position.axis.error2.syser", "caom2:Chunk.position.axis.error2.rnder", 
+        "caom2:Chunk.position.axis.range.start.coord1.pix", "caom2:Chunk.position.axis.range.start.coord1.val", 
+        "caom2:Chunk.position.axis.range.start.coord2.pix", "caom2:Chunk.position.axis.range.start.coord2.val", 
+        "caom2:Chunk.position.axis.range.end.coord1.pix", "caom2:Chunk.position.axis.range.end.coord1.val", 
+        "caom2:Chunk.position.axis.range.end.coord2.pix", "caom2:Chunk.position.axis.range.end.coord2.val", 
+        "caom2:Chunk.position.axis.bounds", 
+        "caom2:Chunk.position.axis.function.dimension.naxis1", "caom2:Chunk.position.axis.function.dimension.naxis2", 
+        "caom2:Chunk.position.axis.function.refCoord.coord1.pix", "caom2:Chunk.position.axis.function.refCoord.coord1.val", 
+        "caom2:Chunk.position.axis.function.refCoord.coord2.pix", "caom2:Chunk.position.axis.function.refCoord.coord2.val", 
+        "caom2:Chunk.position.axis.function.cd11", "caom2:Chunk.position.axis.function.cd12", 
+        "caom2:Chunk.position.axis.function.cd21", "caom2:Chunk.position.axis.function.cd22", 
+        "caom2:Chunk.position.coordsys", "caom2:Chunk.position.equinox", "caom2:Chunk.position.resolution", 
+        "caom2:Chunk.energy.axis.axis.ctype", "caom2:Chunk.energy.axis.axis.cunit", 
+        "caom2:Chunk.energy.axis.error.syser", "caom2:Chunk.energy.axis.error.rnder", 
+        "caom2:Chunk.energy.axis.range.start.pix", "caom2:Chunk.energy.axis.range.start.val", 
+        "caom2:Chunk.energy.axis.range.end.pix", "caom2:Chunk.energy.axis.range.end.val", 
+        "caom2:Chunk.energy.axis.bounds", "caom2:Chunk.energy.axis.function.naxis", 
+        "caom2:Chunk.energy.axis.function.refCoord.pix", "caom2:Chunk.energy.axis.function.refCoord.val", 
+        "caom2:Chunk.energy.axis.function.delta", "caom2:Chunk.energy.specsys", "caom2:Chunk.energy.ssysobs", 
+        "caom2:Chunk.energy.ssyssrc", "caom2:Chunk.energy.restfrq", "caom2:Chunk.energy.restwav", 
+        "caom2:Chunk.energy.velosys", "caom2:Chunk.energy.zsource", "caom2:Chunk.energy.velang", 
+        "caom2:Chunk.energy.bandpassName", "caom2:Chunk.energy.resolvingPower", 
+        "caom2:Chunk.energy.transition.species", "caom2:Chunk.energy.transition.transition", 
+        "caom2:Chunk.time.axis.axis.ctype", "caom2:Chunk.time.axis.axis.cunit", 
+        "caom2:Chunk.time.axis.error.syser", "caom2:Chunk.time.axis.error.rnder", 
+        "caom2:Chunk.time.axis.range.start.pix", "caom2:Chunk.time.axis.range.start.val", 
+        "caom2:Chunk.time.axis.range.end.pix", "caom2:Chunk.time.axis.range.end.val", 
+        "caom2:Chunk.time.axis.bounds", "caom2:Chunk.time.axis.function.naxis", 
+        "caom2:Chunk.time.axis.function.refCoord.pix", "caom2:Chunk.time.axis.function.refCoord.val", 
+        "caom2:Chunk.time.axis.function.delta", "caom2:Chunk.time.timesys", "caom2:Chunk.time.trepos", 
+        "caom2:Chunk.time.mjdref", "caom2:Chunk.time.exposure", "caom2:Chunk.time.resolution", 
+        "caom2:Chunk.polarization.axis.axis.ctype", "caom2:Chunk.polarization.axis.axis.cunit", 
+        "caom2:Chunk.polarization.axis.error.syser", "caom2:Chunk.polarization.axis.error.rnder", 
+        "caom2:Chunk.polarization.axis.range.start.pix", "caom2:Chunk.polarization.axis.range.start.val", 
+        "caom2:Chunk.polarization.axis.range.end.pix", "caom2:Chunk.polarization.axis.range.end.val", 
+        "caom2:Chunk.polarization.axis.bounds", "caom2:Chunk.polarization.axis.function.naxis", 
+        "caom2:Chunk.polarization.axis.function.refCoord.pix", "caom2:Chunk.polarization.axis.function.refCoord.val", 
+        "caom2:Chunk.polarization.axis.function.delta", 
+        "caom2:Chunk.custom.axis.axis.ctype", "caom2:Chunk.custom.axis.axis.cunit", 
+        "caom2:Chunk.custom.axis.error.syser", "caom2:Chunk.custom.axis.error.rnder", 
+        "caom2:Chunk.custom.axis.range.start.pix", "caom2:Chunk.custom.axis.range.start.val", 
+        "caom2:Chunk.custom.axis.range.end.pix", "caom2:Chunk.custom.axis.range.end.val", 
+        "caom2:Chunk.custom.axis.bounds", "caom2:Chunk.custom.axis.function.naxis", 
+        "caom2:Chunk.custom.axis.function.refCoord.pix", "caom2:Chunk.custom.axis.function.refCoord.val", 
+        "caom2:Chunk.custom.axis.function.delta", 
+        "caom2:Chunk.observable.dependent.axis.ctype", "caom2:Chunk.observable.dependent.axis.cunit", 
+        "caom2:Chunk.observable.dependent.bin", "caom2:Chunk.observable.independent.axis.ctype", 
+        "caom2:Chunk.observable.independent.axis.cunit", "caom2:Chunk.observable.independent.bin", 
+        "caom2:Chunk.lastModified", "caom2:Chunk.maxLastModified", 
+        "caom2:Chunk.metaChecksum", "caom2:Chunk.accMetaChecksum"
+    };
+
+    private DateFormat dateFormat;
+    
+    private List<List<Object>> boxedRows;
+    private List<List<Object>> primitiveRows;
+
+    private BaselineChunkMapper baseline;
+    private ChunkMapper current;
+
+    @Setup
+    public void setup() throws Exception {
+        Map<String, Integer> utypeMap = new HashMap<String, Integer>();
+        for (int i = 0; i < UTYPES.length; i++) {
+            utypeMap.put(UTYPES[i], i);
+        }
+        this.baseline = new BaselineChunkMapper(utypeMap);
+        this.current = new ChunkMapper(utypeMap);
+        
+        this.boxedRows = new ArrayList<List<Object>>(ROWS);
+        this.primitiveRows = new ArrayList<List<Object>>(ROWS);
+        for (int r = 0; r < ROWS; r++) {
+            Map<String, Object> vals = getValues(r);
+            List<Object> boxed = new ArrayList<Object>(UTYPES.length);
+            PrimitiveRow prim = new PrimitiveRow(UTYPES.length);
+            for (int i = 0; i < UTYPES.length; i++) {
+                Object o = vals.get(UTYPES[i]);
+                boxed.add(o);
+                if (o instanceof Double) {
+                    prim.setDouble(i, (Double) o);
+                } else if (o instanceof Long) {
+                    prim.setLong(i, (Long) o);
+                } else if (o instanceof Integer) {
+                    prim.setInt(i, (Integer) o);
+                } else if (o != null) {
+                    prim.setObject(i, o);
+                }
+            }
+            boxedRows.add(boxed);
+            primitiveRows.add(prim);
+        }
+    }
+    
+    // one CCD of a 36 CCD mosaic
+    private Map<String, Object> getValues(int r) {
+        Map<String, Object> ret = new LinkedHashMap<String, Object>();
+        ret.put("caom2:Chunk.id", UUID.randomUUID());
+        ret.put("caom2:Chunk.naxis", 2);
+        ret.put("caom2:Chunk.positionAxis1", 1);
+        ret.put("caom2:Chunk.positionAxis2", 2);
+        
+        ret.put("caom2:Chunk.position.axis.axis1.ctype", "RA---TAN");
+        ret.put("caom2:Chunk.position.axis.axis1.cunit", "deg");
+        ret.put("caom2:Chunk.position.axis.axis2.ctype", "DEC--TAN");
+        ret.put("caom2:Chunk.position.axis.axis2.cunit", "deg");
+        ret.put("caom2:Chunk.position.axis.function.dimension.naxis1", 2048L);
+        ret.put("caom2:Chunk.position.axis.function.dimension.naxis2", 4612L);
+        ret.put("caom2:Chunk.position.axis.function.refCoord.coord1.pix", 1024.5 + (r % 36) * 2112.0);
+        ret.put("caom2:Chunk.position.axis.function.refCoord.coord1.val", 210.8 + r * 1.0e-4);
+        ret.put("caom2:Chunk.position.axis.function.refCoord.coord2.pix", 2306.5);
+        ret.put("caom2:Chunk.position.axis.function.refCoord.coord2.val", 54.3 - r * 1.0e-4);
+        ret.put("caom2:Chunk.position.axis.function.cd11", -5.16e-5);
+        ret.put("caom2:Chunk.position.axis.function.cd12", 1.2e-8);
+        ret.put("caom2:Chunk.position.axis.function.cd21", -1.1e-8);
+        ret.put("caom2:Chunk.position.axis.function.cd22", 5.16e-5);
+        ret.put("caom2:Chunk.position.coordsys", "ICRS");
+        ret.put("caom2:Chunk.position.equinox", 2000.0);
+        ret.put("caom2:Chunk.position.resolution", 0.7);
+        
+        ret.put("caom2:Chunk.energy.axis.axis.ctype", "WAVE");
+        ret.put("caom2:Chunk.energy.axis.axis.cunit", "m");
+        ret.put("caom2:Chunk.energy.axis.range.start.pix", 0.5);
+        ret.put("caom2:Chunk.energy.axis.range.start.val", 5.44e-7);
+        ret.put("caom2:Chunk.energy.axis.range.end.pix", 1.5);
+        ret.put("caom2:Chunk.energy.axis.range.end.val", 6.94e-7);
+        ret.put("caom2:Chunk.energy.specsys", "TOPOCENT");
+        ret.put("caom2:Chunk.energy.bandpassName", "r.MP9601");
+        ret.put("caom2:Chunk.energy.resolvingPower", 4.0);
+        
+        ret.put("caom2:Chunk.time.axis.axis.ctype", "TIME");
+        ret.put("caom2:Chunk.time.axis.axis.cunit", "d");
+        ret.put("caom2:Chunk.time.axis.range.start.pix", 0.5);
+        ret.put("caom2:Chunk.time.axis.range.start.val", 57000.1 + r * 1.0e-3);
+        ret.put("caom2:Chunk.time.axis.range.end.pix", 1.5);
+        ret.put("caom2:Chunk.time.axis.range.end.val", 57000.1035 + r * 1.0e-3);
+        ret.put("caom2:Chunk.time.timesys", "UTC");
+        ret.put("caom2:Chunk.time.exposure", 300.0);
+        ret.put("caom2:Chunk.time.resolution", 300.0);
+        
+        Date d = new Date(1500000000000L + r);
+        ret.put("caom2:Chunk.lastModified", d);
+        ret.put("caom2:Chunk.maxLastModified", d);
+        ret.put("caom2:Chunk.metaChecksum", URI.create("md5:" + UUID.randomUUID().toString().replace("-", "")));
+        ret.put("caom2:Chunk.accMetaChecksum", URI.create("md5:" + UUID.randomUUID().toString().replace("-", "")));
+        return ret;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void baselineChunkMapper(Blackhole bh) {
+        for (List<Object> row : boxedRows) {
+            Chunk c = baseline.mapRow(row, dateFormat);
+            bh.consume(c);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void chunkMapper(Blackhole bh) {
+        for (List<Object> row : primitiveRows) {
+            Chunk c = current.mapRow(row, dateFormat);
+            bh.consume(c);
+        }
+    }
+}
@@ -72,7 +72,17 @@ package ca.nrc.cadc.caom2ops;
 import ca.nrc.cadc.caom2.ObservationURI;
 import ca.nrc.cadc.caom2.PlaneURI;
 import ca.nrc.cadc.caom2.PublisherID;
+import ca.nrc.cadc.date.DateUtil;
 import java.net.URI;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import org.apache.log4j.Logger;
 
 /**
@@ -108,6 +118,44 @@ public class AdqlQueryGenerator {
         + " LEFT OUTER JOIN caom2.Part AS Part ON Part.artifactID = Artifact.artifactID"
         + " LEFT OUTER JOIN caom2.Chunk AS Chunk ON Part.partID = Chunk.partID";
     
+    // alias for the FK column of a per-level query; no utype so it cannot affect mapping
+    static final String PARENT_ID = "parentID";
+    
+    private static final String[] LEVEL_SELECT = new String[] {
+        "Observation.*",
+        "Plane.obsID AS " + PARENT_ID + ", Plane.*",
+        "Artifact.planeID AS " + PARENT_ID + ", Artifact.*",
+        "Part.artifactID AS " + PARENT_ID + ", Part.*",
+        "Chunk.partID AS " + PARENT_ID + ", Chunk.*"
+    };
+    
+    // inner joins from Observation down to each level; only used to constrain the rows
+    private static final String[] LEVEL_FROM = new String[] {
+        "caom2.Observation AS Observation",
+        "caom2.Observation AS Observation"
+        + " JOIN caom2.Plane AS Plane ON Observation.obsID = Plane.obsID",
+        "caom2.Observation AS Observation"
+        + " JOIN caom2.Plane AS Plane ON Observation.obsID = Plane.obsID"
+        + " JOIN caom2.Artifact AS Artifact ON Plane.planeID = Artifact.planeID",
+        "caom2.Observation AS Observation"
+        + " JOIN caom2.Plane AS Plane ON Observation.obsID = Plane.obsID"
+        + " JOIN caom2.Artifact AS Artifact ON Plane.planeID = Artifact.planeID"
+        + " JOIN caom2.Part AS Part ON Artifact.artifactID = Part.artifactID",
+        "caom2.Observation AS Observation"
+        + " JOIN caom2.Plane AS Plane ON Observation.obsID = Plane.obsID"
+        + " JOIN caom2.Artifact AS Artifact ON Plane.planeID = Artifact.planeID"
+        + " JOIN caom2.Part AS Part ON Artifact.artifactID = Part.artifactID"
+        + " JOIN caom2.Chunk AS Chunk ON Part.partID = Chunk.partID"
+    };
+    
+    private static final String[] LEVEL_ORDER = new String[] {
+        null,
+        "Plane.planeID",
+        "Artifact.artifactID",
+        "Part.partID",
+        "Chunk.chunkID"
+    };
+    
     private static final String PLANE2ARTIFACT =
         "caom2.Plane AS Plane"
         + " LEFT OUTER JOIN caom2.Artifact AS Artifact ON Plane.planeID = Artifact.planeID";
@@ -124,6 +172,131 @@ public class AdqlQueryGenerator {
         return sb.toString();
     }
     
+    // used by meta: multiple observations in one query, ordered so rows for each
+    // observation are contiguous
+    public String getADQL(final Collection<ObservationURI> uris) {
+        if (uris == null || uris.isEmpty()) {
+            throw new IllegalArgumentException("no observation URI values");
+        }
+        
+        // ADQL has no row value IN so group the observationID values by collection
+        Map<String,Set<String>> values = new TreeMap<String,Set<String>>();
+        for (ObservationURI uri : uris) {
+            Set<String> ids = values.get(uri.getCollection());
+            if (ids == null) {
+                ids = new LinkedHashSet<String>();
+                values.put(uri.getCollection(), ids);
+            }
+            ids.add(uri.getObservationID());
+        }
+        
+        StringBuilder sb = new StringBuilder("SELECT ");
+        sb.append(SELECT_OBS2CHUNK);
+        sb.append(" FROM ");
+        sb.append(OBS2CHUNK);
+        sb.append(" WHERE ");
+        boolean firstCollection = true;
+        for (Map.Entry<String,Set<String>> me : values.entrySet()) {
+            if (!firstCollection) {
+                sb.append(" OR ");
+            }
+            sb.append("(Observation.collection = ").append(literal(me.getKey()));
+            sb.append(" AND Observation.observationID IN (");
+            boolean first = true;
+            for (String v : me.getValue()) {
+                if (!first) {
+                    sb.append(", ");
+                }
+                sb.append(literal(v));
+                first = false;
+            }
+            sb.append("))");
+            firstCollection = false;
+        }
+        sb.append(" ORDER BY Observation.obsID, Plane.planeID, Artifact.artifactID, Part.partID");
+        
+        String ret = sb.toString();
+        log.debug(ret);
+        return ret;
+    }
+    
+    /**
+     * Generate a query for one page of the observations in a collection with maxLastModified 
+     * in [start, end). Pages are ordered by maxLastModified and observationID; the next page
+     * starts after the last observation of the previous page, so observations with the same
+     * maxLastModified are neither skipped nor repeated.
+     * 
+     * @param collection collection to list
+     * @param start minimum maxLastModified (inclusive), may be null
+     * @param end maximum maxLastModified (exclusive), may be null
+     * @param after last observation of the previous page, null for the first page
+     * @param maxrec maximum number of observations in the page
+     * @return query
+     */
+    // used by meta
+    public String getObservationListADQL(final String collection, Date start, Date end, 
+            ObservationVersion after, int maxrec) {
+        DateFormat df = DateUtil.getDateFormat(DateUtil.ISO_DATE_FORMAT, DateUtil.UTC);
+        StringBuilder sb = new StringBuilder("SELECT TOP ").append(maxrec).append(" ");
+        sb.append("Observation.collection, Observation.observationID, Observation.maxLastModified");
+        sb.append(" FROM caom2.Observation AS Observation");
+        sb.append(" WHERE Observation.collection = ").append(literal(collection));
+        if (start != null) {
+            sb.append(" AND Observation.maxLastModified >= '").append(df.format(start)).append("'");
+        }
+        if (end != null) {
+            sb.append(" AND Observation.maxLastModified < '").append(df.format(end)).append("'");
+        }
+        if (after != null) {
+            String t = df.format(after.maxLastModified);
+            sb.append(" AND (Observation.maxLastModified > '").append(t).append("'");
+            sb.append(" OR (Observation.maxLastModified = '").append(t).append("'");
+            sb.append(" AND Observation.observationID > ").append(literal(after.getURI().getObservationID())).append("))");
+        }
+        sb.append(" ORDER BY Observation.maxLastModified, Observation.observationID");
+        return sb.toString();
+    }
+    
+    // used by meta: the observation validators with one row per plane the caller can see
+    public String getVersionADQL(final ObservationURI uri) {
+        StringBuilder sb = new StringBuilder("SELECT ");
+        sb.append("Observation.obsID, Observation.lastModified, Observation.maxLastModified, Observation.accMetaChecksum,");
+        sb.append(" Plane.planeID, Plane.metaRelease");
+        sb.append(" FROM caom2.Observation AS Observation");
+        sb.append(" LEFT OUTER JOIN caom2.Plane AS Plane ON Observation.obsID = Plane.obsID");
+        sb.append(" WHERE Observation.collection = ").append(literal(uri.getCollection()));
+        sb.append(" AND Observation.observationID = ").append(literal(uri.getObservationID()));
+        return sb.toString();
+    }
+    
+    /**
+     * Generate one query per level of the observation: observation, planes, artifacts, 
+     * parts, and chunks (in that order). Each query selects only the columns of its own 
+     * table; child rows include the ID of the parent entity in the parentID column.
+     * 
+     * @param uri observation to select
+     * @return list of five queries
+     */
+    // used by meta
+    public List<String> getLevelADQL(final ObservationURI uri) {
+        List<String> ret = new ArrayList<String>(LEVEL_SELECT.length);
+        for (int i = 0; i < LEVEL_SELECT.length; i++) {
+            StringBuilder sb = new StringBuilder("SELECT ");
+            sb.append(LEVEL_SELECT[i]);
+            sb.append(" FROM ");
+            sb.append(LEVEL_FROM[i]);
+            sb.append(" WHERE Observation.collection = ").append(literal(uri.getCollection()));
+            sb.append(" AND Observation.observationID = ").append(literal(uri.getObservationID()));
+            if (LEVEL_ORDER[i] != null) {
+                sb.append(" ORDER BY ").append(LEVEL_ORDER[i]);
+            }
+            String adql = sb.toString();
+            log.debug(adql);
+            ret.add(adql);
+        }
+        return ret;
+    }
+    
     // used by datalink
     public String getADQL(final PublisherID uri, boolean artifactOnly) {
         StringBuilder sb = new StringBuilder("SELECT ");
@@ -150,6 +323,50 @@ public class AdqlQueryGenerator {
         return ret;
     }
     
+    // used by datalink and pkg: multiple planes in one query, ordered so rows for each
+    // plane are contiguous
+    public String getADQL(final Collection<PublisherID> uris, boolean artifactOnly) {
+        if (uris == null || uris.isEmpty()) {
+            throw new IllegalArgumentException("no publisherID values");
+        }
+        
+        StringBuilder sb = new StringBuilder("SELECT ");
+        sb.append(SELECT_READABLE).append(",");
+        if (artifactOnly) {
+            sb.append(SELECT_ARTIFACT);
+            sb.append(" FROM ");
+            sb.append(PLANE2ARTIFACT);
+        } else {
+            sb.append(SELECT_ARTIFACT2CHUNK);
+            sb.append(" FROM ");
+            sb.append(PLANE2CHUNK);
+        }
+        
+        Set<String> values = new LinkedHashSet<String>();
+        for (PublisherID uri : uris) {
+            values.add(uri.getURI().toASCIIString());
+        }
+        sb.append(" WHERE Plane.publisherID IN (");
+        boolean first = true;
+        for (String v : values) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(literal(v));
+            first = false;
+        }
+        sb.append(")");
+        if (artifactOnly) {
+            sb.append(" ORDER BY Plane.publisherID, Artifact.artifactID");
+        } else {
+            sb.append(" ORDER BY Plane.publisherID, Artifact.artifactID, Part.partID");
+        }
+        
+        String ret = sb.toString();
+        log.debug(ret);
+        return ret;
+    }
+    
     // used by datalink
     public String getADQL(final PlaneURI uri, boolean artifactOnly) {
         StringBuilder sb = new StringBuilder("SELECT ");
@@ -189,4 +406,39 @@ public class AdqlQueryGenerator {
         sb.append(" ORDER BY Artifact.artifactID, Part.partID");
         return sb.toString();
     }
-}
\ No newline at end of file
+    
+    // used by cutout: rows grouped by plane so each artifact keeps its publisherID
+    public String getArtifactADQL(final Collection<URI> uris) {
+        if (uris == null || uris.isEmpty()) {
+            throw new IllegalArgumentException("no artifact uri values");
+        }
+        
+        StringBuilder sb = new StringBuilder();
+        sb.append("SELECT ");
+        sb.append(SELECT_ARTIFACT2CHUNK);
+        sb.append(" FROM ");
+        sb.append(PLANE2CHUNK); // need Plane.publisherID
+        
+        Set<String> values = new LinkedHashSet<String>();
+        for (URI uri : uris) {
+            values.add(uri.toString());
+        }
+        sb.append(" WHERE Artifact.uri IN (");
+        boolean first = true;
+        for (String v : values) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(literal(v));
+            first = false;
+        }
+        sb.append(")");
+        sb.append(" ORDER BY Plane.publisherID, Artifact.artifactID, Part.partID");
+        return sb.toString();
+    }
+
+    // string literal for values that come from request parameters
+    static String literal(String s) {
+        return "'" + s.replace("'", "''") + "'";
+    }
+}
@@ -0,0 +1,161 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2ops;
+
+import ca.nrc.cadc.caom2.artifact.resolvers.CaomArtifactResolver;
+import ca.nrc.cadc.net.StorageResolver;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.log4j.Logger;
+
+/**
+ * Artifact resolver for the calling thread and the capabilities of the resolver for each 
+ * URI scheme. A CaomArtifactResolver and its storage resolvers are not thread-safe, so 
+ * each thread (request threads and the pool threads that process artifacts) gets its own 
+ * resolver; the configuration is loaded once per thread instead of once per request. Only 
+ * the capability bitmap is shared by all threads. The resolvers use the default 
+ * configuration: callers that need to set the AuthMethod or runID must create their own 
+ * CaomArtifactResolver.
+ */
+public final class ArtifactResolverTable {
+    private static final Logger log = Logger.getLogger(ArtifactResolverTable.class);
+
+    /**
+     * Capability: a StorageResolver is configured for the scheme.
+     */
+    public static final int DOWNLOAD = 1;
+
+    /**
+     * Capability: the StorageResolver for the scheme is a CutoutGenerator.
+     */
+    public static final int CUTOUT = 2;
+
+    private static final ThreadLocal<CaomArtifactResolver> resolver = new ThreadLocal<CaomArtifactResolver>() {
+        @Override
+        protected CaomArtifactResolver initialValue() {
+            return new CaomArtifactResolver();
+        }
+    };
+
+    // scheme -> capabilities; schemes without a resolver are also recorded
+    private static final Map<String,Integer> schemes = new ConcurrentHashMap<String,Integer>();
+
+    private ArtifactResolverTable() { 
+    }
+
+    /**
+     * The resolver must not be passed to other threads.
+     * 
+     * @return the artifact resolver of the calling thread with default configuration
+     */
+    public static CaomArtifactResolver getResolver() {
+        return resolver.get();
+    }
+
+    /**
+     * @param uri artifact URI
+     * @return the cutout generator of the calling thread for the URI scheme or null if 
+     *     cutouts are not supported
+     */
+    public static CutoutGenerator getCutoutGenerator(URI uri) {
+        if ((getCapabilities(uri) & CUTOUT) != 0) {
+            return (CutoutGenerator) getResolver().getStorageResolver(uri);
+        }
+        return null;
+    }
+
+    /**
+     * @param uri artifact URI
+     * @return bitmap of DOWNLOAD and CUTOUT capabilities for the URI scheme
+     */
+    public static int getCapabilities(URI uri) {
+        String scheme = uri.getScheme();
+        if (scheme == null) {
+            return 0;
+        }
+        Integer ret = schemes.get(scheme);
+        if (ret == null) {
+            StorageResolver sr = getResolver().getStorageResolver(uri);
+            int c = 0;
+            if (sr != null) {
+                c |= DOWNLOAD;
+            }
+            if (sr instanceof CutoutGenerator) {
+                c |= CUTOUT;
+            }
+            ret = c;
+            schemes.put(scheme, ret);
+            log.debug("scheme: " + scheme + " -> " + (sr == null ? null : sr.getClass().getName()) 
+                    + " capabilities: " + ret);
+        }
+        return ret;
+    }
+}
@@ -86,9 +86,10 @@ import ca.nrc.cadc.caom2ops.mapper.PartMapper;
 import ca.nrc.cadc.caom2ops.mapper.PlaneMapper;
 import ca.nrc.cadc.caom2ops.mapper.UnexpectedContentException;
 import ca.nrc.cadc.caom2ops.mapper.Util;
+import ca.nrc.cadc.caom2ops.mapper.VOTableRowIterator;
+import ca.nrc.cadc.caom2ops.mapper.VOTableRowMapper;
 import ca.nrc.cadc.caom2ops.mapper.VOTableUtil;
 import ca.nrc.cadc.cred.client.CredUtil;
-import ca.nrc.cadc.dali.tables.TableData;
 import ca.nrc.cadc.dali.tables.votable.VOTableDocument;
 import ca.nrc.cadc.dali.tables.votable.VOTableField;
 import ca.nrc.cadc.dali.tables.votable.VOTableReader;
@@ -96,23 +97,33 @@ import ca.nrc.cadc.dali.tables.votable.VOTableResource;
 import ca.nrc.cadc.dali.tables.votable.VOTableTable;
 import ca.nrc.cadc.dali.tables.votable.VOTableWriter;
 import ca.nrc.cadc.date.DateUtil;
-import ca.nrc.cadc.net.HttpDownload;
-import ca.nrc.cadc.net.HttpPost;
 import ca.nrc.cadc.net.InputStreamWrapper;
 import ca.nrc.cadc.net.ResourceNotFoundException;
 import ca.nrc.cadc.reg.Standards;
+import ca.nrc.cadc.util.ThrowableUtil;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
 import java.security.AccessControlException;
+import java.security.Principal;
 import java.security.cert.CertificateException;
 import java.text.DateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import javax.security.auth.Subject;
 import org.apache.log4j.Logger;
 import org.opencadc.tap.TapClient;
@@ -126,9 +137,27 @@ public class CaomTapQuery {
     private static final Logger log = Logger.getLogger(CaomTapQuery.class);
     
     static final String VOTABLE_FORMAT = VOTableWriter.CONTENT_TYPE; // from cadcDALI
+    
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    
+    // resolved sync URLs keyed by tapServiceID + securityMethod; shared by all instances
+    private static final long SYNC_URL_TTL = 10 * 60 * 1000L; // 10 min
+    private static final ExpiringCache<String,URL> syncURLCache = new ExpiringCache<String,URL>(32, SYNC_URL_TTL);
+    
+    // runs the child level queries of split observation queries for all requests (4 per request):
+    // bounds the number of concurrent level queries the process makes to the TAP service
+    static final int LEVEL_QUERY_THREADS = 16;
+    private static final ExecutorService levelExecutor = 
+            ExecutorUtil.newFixedThreadPool("caom2-level-query", LEVEL_QUERY_THREADS);
 
     private final URI tapServiceID;
-    private final String runID;
+    protected final String runID;
+    private boolean streaming = true;
+    private String serialization;
+    private QueryTransport transport = new RedirectQueryTransport();
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private ExpiringCache<String,ArtifactQueryResult> resultCache;
+    private boolean splitObservationQuery = false;
 
     /**
      * LinkQuery constructor.
@@ -141,6 +170,92 @@ public class CaomTapQuery {
         this.runID = runID;
     }
 
+    /**
+     * Enable or disable streaming of query results. When enabled (the default), rows are
+     * mapped into CAOM objects as they are read from the response; when disabled, the
+     * complete VOTable document is read into memory before mapping.
+     * 
+     * @param streaming true to map rows as they are read
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+    
+    /**
+     * Set the VOTable serialization to request from the TAP service: TABLEDATA (the default), 
+     * BINARY, or BINARY2. Binary serializations are only requested when streaming is enabled;
+     * a service that does not support the requested serialization may ignore it and return
+     * TABLEDATA, which is always accepted.
+     * 
+     * @param serialization VOTable serialization or null for the default
+     */
+    public void setSerialization(String serialization) {
+        if (serialization == null || "TABLEDATA".equals(serialization)) {
+            this.serialization = null;
+        } else if ("BINARY".equals(serialization) || "BINARY2".equals(serialization)) {
+            this.serialization = serialization;
+        } else {
+            throw new IllegalArgumentException("invalid serialization: " + serialization);
+        }
+    }
+    
+    /**
+     * Set the transport used to execute queries. The default is a RedirectQueryTransport.
+     * 
+     * @param transport the transport to use, or null for the default
+     */
+    public void setTransport(QueryTransport transport) {
+        if (transport == null) {
+            this.transport = new RedirectQueryTransport();
+        } else {
+            this.transport = transport;
+        }
+    }
+
+    /**
+     * Set the maximum number of IDs to include in a single query by the multi-ID
+     * performQuery methods.
+     * 
+     * @param batchSize maximum number of IDs per query
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("invalid batchSize: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    /**
+     * Set a cache for artifact query results. Results are cached per caller (set of 
+     * principals) so that metaReadable and dataReadable values are never shared between 
+     * callers. Each call returns a new ArtifactQueryResult with a new artifact list; the
+     * Artifact objects themselves are shared and must not be modified.
+     * 
+     * @param resultCache cache to use, or null to disable caching
+     */
+    public void setResultCache(ExpiringCache<String,ArtifactQueryResult> resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Enable or disable split observation queries. When enabled, performQuery(ObservationURI)
+     * executes the observation query and, if the observation is found, one query per child 
+     * level (planes, artifacts, parts, chunks) concurrently on a pool shared by all requests;
+     * the observation is assembled in memory instead of executing a single outer join that 
+     * repeats the observation and plane columns in every chunk row. The level queries are 
+     * separate transactions so an observation that is modified while it is being read may 
+     * be incomplete.
+     * 
+     * @param splitObservationQuery true to use one query per level
+     */
+    public void setSplitObservationQuery(boolean splitObservationQuery) {
+        this.splitObservationQuery = splitObservationQuery;
+    }
+
     /**
      * Get an observation.
      * 
@@ -159,18 +274,234 @@ public class CaomTapQuery {
         
         log.debug("performing query on observation URI = " + uri.toString());
         
+        if (splitObservationQuery) {
+            try {
+                return performLevelQueries(uri);
+            } catch (IllegalArgumentException ex) {
+                throw new RuntimeException("got invalid observation " + uri, ex);
+            }
+        }
+        
         AdqlQueryGenerator gen = new AdqlQueryGenerator();
         String adql = gen.getADQL(uri);
         log.debug("observation query: " + adql);
         
-        VOTableDocument doc = execQuery(uri.getURI().toASCIIString(), adql);
         try {
-            return buildObservation(doc);
+            return execQuery(uri.getURI().toASCIIString(), adql, observationBuilder);
         } catch (IllegalArgumentException ex) {
             throw new RuntimeException("got invalid observation " + uri, ex);
         }
     }
     
+    /**
+     * Get multiple observations. The observations are found with one query per batch
+     * (see setBatchSize) so the number of queries scales with the number of observations
+     * divided by the batch size. Observations that are not found are not included in the 
+     * result. This always uses the joined query (see setSplitObservationQuery).
+     * 
+     * @param uris
+     * @return map of observation by URI, in the iteration order of the input
+     * @throws IOException
+     * @throws ResourceNotFoundException if a suitable TAP endpoint cannot be found
+     * @throws UnexpectedContentException
+     * @throws AccessControlException
+     * @throws CertificateException 
+     */
+    // used by caom2-meta-server
+    public Map<ObservationURI,Observation> performQuery(final Collection<ObservationURI> uris)
+        throws IOException, ResourceNotFoundException, UnexpectedContentException, 
+            AccessControlException, CertificateException {
+        log.debug("performing query on " + uris.size() + " observation URI(s)");
+        
+        Map<ObservationURI,Observation> found = new HashMap<ObservationURI,Observation>();
+        List<ObservationURI> batch = new ArrayList<ObservationURI>(Math.min(batchSize, uris.size()));
+        Iterator<ObservationURI> iter = uris.iterator();
+        while (iter.hasNext()) {
+            batch.add(iter.next());
+            if (batch.size() == batchSize || !iter.hasNext()) {
+                AdqlQueryGenerator gen = new AdqlQueryGenerator();
+                String adql = gen.getADQL(batch);
+                log.debug("observation query: " + adql);
+                
+                String desc = batch.get(0).getURI().toASCIIString() + " + " + (batch.size() - 1) + " more";
+                try {
+                    List<Observation> obs = execQuery(desc, adql, observationListBuilder);
+                    for (Observation o : obs) {
+                        found.put(o.getURI(), o);
+                    }
+                } catch (IllegalArgumentException ex) {
+                    throw new RuntimeException("got invalid observation in " + desc, ex);
+                }
+                batch.clear();
+            }
+        }
+        
+        Map<ObservationURI,Observation> ret = new LinkedHashMap<ObservationURI,Observation>();
+        for (ObservationURI uri : uris) {
+            Observation o = found.get(uri);
+            if (o != null) {
+                ret.put(uri, o);
+            }
+        }
+        return ret;
+    }
+    
+    /**
+     * Get one page of the observations in a collection, ordered by maxLastModified and 
+     * observationID. Only the URI and maxLastModified of the returned versions are set.
+     * To get the next page, call again with the last version of this page.
+     * 
+     * @param collection
+     * @param start minimum maxLastModified (inclusive), may be null
+     * @param end maximum maxLastModified (exclusive), may be null
+     * @param after last observation of the previous page, null for the first page
+     * @param maxrec maximum number of observations in the page
+     * @return list of observation versions, possibly empty
+     * @throws IOException
+     * @throws ResourceNotFoundException if a suitable TAP endpoint cannot be found
+     * @throws UnexpectedContentException
+     * @throws AccessControlException
+     * @throws CertificateException 
+     */
+    // used by caom2-meta-server
+    public List<ObservationVersion> getObservationList(final String collection, Date start, Date end, 
+            ObservationVersion after, int maxrec)
+        throws IOException, ResourceNotFoundException, UnexpectedContentException, 
+            AccessControlException, CertificateException {
+        AdqlQueryGenerator gen = new AdqlQueryGenerator();
+        String adql = gen.getObservationListADQL(collection, start, end, after, maxrec);
+        log.debug("observation list query: " + adql);
+        
+        return execQuery(collection, adql, new TableBuilder<List<ObservationVersion>>() {
+            @Override
+            public List<ObservationVersion> build(List<VOTableField> fields, Iterator<List<Object>> rows) {
+                Map<String,Integer> utypeMap = VOTableUtil.buildUTypeMap(fields);
+                Integer collectionCol = utypeMap.get("caom2:Observation.collection");
+                Integer observationIDCol = utypeMap.get("caom2:Observation.observationID");
+                Integer maxLastModifiedCol = utypeMap.get("caom2:Observation.maxLastModified");
+                List<ObservationVersion> ret = new ArrayList<ObservationVersion>();
+                while (rows.hasNext()) {
+                    List<Object> row = rows.next();
+                    ObservationURI uri = new ObservationURI(Util.getString(row, collectionCol), Util.getString(row, observationIDCol));
+                    ObservationVersion v = new ObservationVersion(uri);
+                    v.maxLastModified = Util.getDate(row, maxLastModifiedCol);
+                    ret.add(v);
+                }
+                return ret;
+            }
+        });
+    }
+    
+    /**
+     * Get the timestamps and checksum of an observation and the planes the caller can see 
+     * with a query that returns one row per plane. This is much cheaper than performQuery 
+     * and can be used to check if a copy of the observation is current.
+     * 
+     * @param uri
+     * @return the observation version or null if not found
+     * @throws IOException
+     * @throws ResourceNotFoundException if a suitable TAP endpoint cannot be found
+     * @throws UnexpectedContentException
+     * @throws AccessControlException
+     * @throws CertificateException 
+     */
+    public ObservationVersion getObservationVersion(final ObservationURI uri)
+        throws IOException, ResourceNotFoundException, UnexpectedContentException, 
+            AccessControlException, CertificateException {
+        AdqlQueryGenerator gen = new AdqlQueryGenerator();
+        String adql = gen.getVersionADQL(uri);
+        log.debug("version query: " + adql);
+        
+        return execQuery(uri.getURI().toASCIIString(), adql, new TableBuilder<ObservationVersion>() {
+            @Override
+            public ObservationVersion build(List<VOTableField> fields, Iterator<List<Object>> rows) {
+                Map<String,Integer> utypeMap = VOTableUtil.buildUTypeMap(fields);
+                ObservationVersion ret = null;
+                UUID obsID = null;
+                while (rows.hasNext()) {
+                    List<Object> row = rows.next();
+                    UUID id = Util.getUUID(row, utypeMap.get("caom2:Observation.id"));
+                    if (ret == null) {
+                        obsID = id;
+                        ret = new ObservationVersion(uri);
+                        ret.lastModified = Util.getDate(row, utypeMap.get("caom2:Observation.lastModified"));
+                        ret.maxLastModified = Util.getDate(row, utypeMap.get("caom2:Observation.maxLastModified"));
+                        ret.accMetaChecksum = Util.getURI(row, utypeMap.get("caom2:Observation.accMetaChecksum"));
+                    } else if (obsID != null && !obsID.equals(id)) {
+                        throw new UnexpectedContentException("BUG: found multiple observations, expected 1: " + uri);
+                    }
+                    UUID planeID = Util.getUUID(row, utypeMap.get("caom2:Plane.id"));
+                    if (planeID != null) {
+                        ret.planes.put(planeID, Util.getDate(row, utypeMap.get("caom2:Plane.metaRelease")));
+                    }
+                }
+                return ret;
+            }
+        });
+    }
+    
+    // observation query in this thread, then the child levels concurrently in the background
+    private Observation performLevelQueries(final ObservationURI uri)
+        throws IOException, ResourceNotFoundException, UnexpectedContentException, 
+            AccessControlException, CertificateException {
+        AdqlQueryGenerator gen = new AdqlQueryGenerator();
+        List<String> adql = gen.getLevelADQL(uri);
+        final String desc = uri.getURI().toASCIIString();
+        
+        // not found costs a single query
+        Observation ret = execQuery(desc, adql.get(0), observationBuilder);
+        if (ret == null) {
+            return null;
+        }
+        
+        Future<Map<UUID,List<Plane>>> planes = submitLevel(desc, adql.get(1), new ChildBuilder<Plane>(Plane.class));
+        Future<Map<UUID,List<Artifact>>> artifacts = submitLevel(desc, adql.get(2), new ChildBuilder<Artifact>(Artifact.class));
+        Future<Map<UUID,List<Part>>> parts = submitLevel(desc, adql.get(3), new ChildBuilder<Part>(Part.class));
+        Future<Map<UUID,List<Chunk>>> chunks = submitLevel(desc, adql.get(4), new ChildBuilder<Chunk>(Chunk.class));
+        List<Future<?>> children = new ArrayList<Future<?>>();
+        children.add(planes);
+        children.add(artifacts);
+        children.add(parts);
+        children.add(chunks);
+        
+        try {
+            Map<UUID,List<Artifact>> artifactMap = ExecutorUtil.get(artifacts);
+            Map<UUID,List<Part>> partMap = ExecutorUtil.get(parts);
+            Map<UUID,List<Chunk>> chunkMap = ExecutorUtil.get(chunks);
+            for (Plane p : getChildren(ExecutorUtil.get(planes), ret.getID())) {
+                ret.getPlanes().add(p);
+                for (Artifact a : getChildren(artifactMap, p.getID())) {
+                    p.getArtifacts().add(a);
+                    for (Part pt : getChildren(partMap, a.getID())) {
+                        a.getParts().add(pt);
+                        pt.getChunks().addAll(getChildren(chunkMap, pt.getID()));
+                    }
+                }
+            }
+            return ret;
+        } finally {
+            ExecutorUtil.cancel(children);
+        }
+    }
+    
+    private <T> Future<T> submitLevel(final String desc, final String adql, final TableBuilder<T> builder) {
+        log.debug("level query: " + adql);
+        return ExecutorUtil.submit(levelExecutor, AuthenticationUtil.getCurrentSubject(), new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return execQuery(desc, adql, builder);
+            }
+        });
+    }
+    
+    private static <E> List<E> getChildren(Map<UUID,List<E>> level, UUID parentID) {
+        List<E> ret = level.get(parentID);
+        if (ret == null) {
+            return Collections.emptyList();
+        }
+        return ret;
+    }
+    
     /**
      * 
      * @param uri
@@ -187,13 +518,85 @@ public class CaomTapQuery {
             AccessControlException, CertificateException {
         log.debug("performing query on plane URI = " + uri.toString() + " artifactOnly=" + artifactOnly);
 
+        String key = getCacheKey("publisherID", uri.getURI(), artifactOnly);
+        ArtifactQueryResult ret = getCachedResult(key);
+        if (ret != null) {
+            return ret;
+        }
+        
         // generate query, do not follow redirect
         AdqlQueryGenerator gen = new AdqlQueryGenerator();
         String adql = gen.getADQL(uri, artifactOnly);
         log.debug("link query: " + adql);
 
-        VOTableDocument doc = execQuery(uri.getURI().toASCIIString(), adql);
-        ArtifactQueryResult ret = buildArtifacts(doc);
+        ret = execQuery(uri.getURI().toASCIIString(), adql, artifactBuilder);
+        putCachedResult(key, ret);
+        return ret;
+    }
+    
+    /**
+     * Get artifacts for multiple planes. The IDs are queried in batches of at most
+     * batchSize values so N IDs cost ceil(N/batchSize) queries. IDs that are not found
+     * (or not readable by the caller) do not have an entry in the returned map.
+     * 
+     * @param uris
+     * @param artifactOnly
+     * @return map of artifact query result by ID, in the iteration order of the input
+     * @throws IOException
+     * @throws ResourceNotFoundException if a suitable TAP endpoint cannot be found
+     * @throws UnexpectedContentException
+     * @throws AccessControlException
+     * @throws CertificateException 
+     */
+    // used by caom2-datalink-server and caom2-pkg-server
+    public Map<PublisherID,ArtifactQueryResult> performQuery(final Collection<PublisherID> uris, boolean artifactOnly)
+        throws IOException,  ResourceNotFoundException, UnexpectedContentException, 
+            AccessControlException, CertificateException {
+        log.debug("performing query on " + uris.size() + " publisherID(s), artifactOnly=" + artifactOnly);
+        
+        Map<PublisherID,ArtifactQueryResult> ret = new LinkedHashMap<PublisherID,ArtifactQueryResult>();
+        List<PublisherID> misses = new ArrayList<PublisherID>(uris.size());
+        for (PublisherID id : uris) {
+            ArtifactQueryResult ar = getCachedResult(getCacheKey("publisherID", id.getURI(), artifactOnly));
+            if (ar != null) {
+                ret.put(id, ar);
+            } else {
+                misses.add(id);
+            }
+        }
+        
+        List<PublisherID> batch = new ArrayList<PublisherID>(Math.min(batchSize, misses.size()));
+        Iterator<PublisherID> iter = misses.iterator();
+        while (iter.hasNext()) {
+            batch.add(iter.next());
+            if (batch.size() == batchSize || !iter.hasNext()) {
+                AdqlQueryGenerator gen = new AdqlQueryGenerator();
+                String adql = gen.getADQL(batch, artifactOnly);
+                log.debug("link query: " + adql);
+                
+                String desc = batch.get(0).getURI().toASCIIString() + " + " + (batch.size() - 1) + " more";
+                Map<URI,ArtifactQueryResult> found = execQuery(desc, adql, artifactMapBuilder);
+                for (PublisherID id : batch) {
+                    ArtifactQueryResult ar = found.get(id.getURI());
+                    if (ar != null) {
+                        ret.put(id, ar);
+                        putCachedResult(getCacheKey("publisherID", id.getURI(), artifactOnly), ar);
+                    }
+                }
+                batch.clear();
+            }
+        }
+        if (!misses.isEmpty() && misses.size() < uris.size()) {
+            // results from cache and query are no longer in input order
+            Map<PublisherID,ArtifactQueryResult> ordered = new LinkedHashMap<PublisherID,ArtifactQueryResult>();
+            for (PublisherID id : uris) {
+                ArtifactQueryResult ar = ret.get(id);
+                if (ar != null) {
+                    ordered.put(id, ar);
+                }
+            }
+            ret = ordered;
+        }
         return ret;
     }
     
@@ -215,13 +618,20 @@ public class CaomTapQuery {
             AccessControlException, CertificateException {
         log.debug("performing query on plane URI = " + uri.toString() + ", artifactOnly=" + artifactOnly);
     
+        String key = getCacheKey("planeURI", uri.getURI(), artifactOnly);
+        ArtifactQueryResult ret = getCachedResult(key);
+        if (ret != null) {
+            return ret;
+        }
+        
         // generate query, do not follow redirect
         AdqlQueryGenerator gen = new AdqlQueryGenerator();
         String adql = gen.getADQL(uri, artifactOnly);
         log.debug("link query: " + adql);
 
-        VOTableDocument doc = execQuery(uri.getURI().toASCIIString(), adql);
-        return buildArtifacts(doc);
+        ret = execQuery(uri.getURI().toASCIIString(), adql, artifactBuilder);
+        putCachedResult(key, ret);
+        return ret;
     }
     
 
@@ -242,12 +652,16 @@ public class CaomTapQuery {
             AccessControlException, CertificateException {
         log.debug("query uri: " + uri.toString());
 
-        AdqlQueryGenerator gen = new AdqlQueryGenerator();
-        String adql = gen.getArtifactADQL(uri);
-        log.debug("artifact query: " + adql);
+        String key = getCacheKey("artifact", uri, false);
+        ArtifactQueryResult ar = getCachedResult(key);
+        if (ar == null) {
+            AdqlQueryGenerator gen = new AdqlQueryGenerator();
+            String adql = gen.getArtifactADQL(uri);
+            log.debug("artifact query: " + adql);
 
-        VOTableDocument doc = execQuery(uri.toASCIIString(), adql);
-        ArtifactQueryResult ar = buildArtifacts(doc);
+            ar = execQuery(uri.toASCIIString(), adql, artifactBuilder);
+            putCachedResult(key, ar);
+        }
         if (ar == null || ar.getArtifacts().isEmpty()) {
             return null;
         }
@@ -257,7 +671,90 @@ public class CaomTapQuery {
         return a;
     }
     
-    private VOTableDocument execQuery(String uri, String adql)
+    /**
+     * Get multiple artifacts. The artifacts are found with one query per batch of
+     * batchSize values. Artifacts that are not found are not included in the result.
+     * 
+     * @param uris artifact URIs
+     * @return map of artifact URI to artifact in the iteration order of the input
+     * @throws IOException
+     * @throws ResourceNotFoundException if a suitable TAP endpoint cannot be found
+     * @throws UnexpectedContentException
+     * @throws AccessControlException
+     * @throws CertificateException 
+     */
+    // used by caom2-soda-server
+    public Map<URI,Artifact> performArtifactQuery(final Collection<URI> uris)
+        throws IOException,  ResourceNotFoundException, UnexpectedContentException, 
+            AccessControlException, CertificateException {
+        log.debug("performing query on " + uris.size() + " artifact uri(s)");
+        
+        Map<URI,Artifact> found = new HashMap<URI,Artifact>();
+        List<URI> misses = new ArrayList<URI>(uris.size());
+        for (URI uri : uris) {
+            ArtifactQueryResult ar = getCachedResult(getCacheKey("artifact", uri, false));
+            if (ar != null) {
+                if (!ar.getArtifacts().isEmpty()) {
+                    found.put(uri, ar.getArtifacts().get(0));
+                }
+            } else if (!misses.contains(uri)) {
+                misses.add(uri);
+            }
+        }
+        
+        List<URI> batch = new ArrayList<URI>(Math.min(batchSize, misses.size()));
+        Iterator<URI> iter = misses.iterator();
+        while (iter.hasNext()) {
+            batch.add(iter.next());
+            if (batch.size() == batchSize || !iter.hasNext()) {
+                AdqlQueryGenerator gen = new AdqlQueryGenerator();
+                String adql = gen.getArtifactADQL(batch);
+                log.debug("artifact query: " + adql);
+                
+                String desc = batch.get(0).toASCIIString() + " + " + (batch.size() - 1) + " more";
+                Map<URI,ArtifactQueryResult> results = execQuery(desc, adql, artifactMapBuilder);
+                for (ArtifactQueryResult ar : results.values()) {
+                    for (Artifact a : ar.getArtifacts()) {
+                        // an artifact URI in more than one plane: keep the first, as performQuery(URI)
+                        if (!found.containsKey(a.getURI())) {
+                            // cache the same result performQuery(URI) would
+                            ArtifactQueryResult single = new ArtifactQueryResult(ar.getPublisherID());
+                            single.getArtifacts().add(a);
+                            putCachedResult(getCacheKey("artifact", a.getURI(), false), single);
+                            found.put(a.getURI(), a);
+                        }
+                    }
+                }
+                batch.clear();
+            }
+        }
+        
+        Map<URI,Artifact> ret = new LinkedHashMap<URI,Artifact>();
+        for (URI uri : uris) {
+            Artifact a = found.get(uri);
+            if (a != null) {
+                ret.put(uri, a);
+            }
+        }
+        return ret;
+    }
+    
+    /**
+     * Execute a query and build the result from the rows of the result table. The default
+     * implementation posts the query to the sync endpoint of the TAP service and reads the 
+     * VOTable response; subclasses may execute the query some other way.
+     * 
+     * @param uri the ID being queried, for error messages
+     * @param adql the query
+     * @param builder builds the result from the result table
+     * @return the result from the builder
+     * @throws IOException
+     * @throws ResourceNotFoundException if a suitable TAP endpoint cannot be found
+     * @throws UnexpectedContentException
+     * @throws AccessControlException
+     * @throws CertificateException 
+     */
+    protected <T> T execQuery(String uri, String adql, TableBuilder<T> builder)
         throws IOException, ResourceNotFoundException, UnexpectedContentException, 
             AccessControlException, CertificateException {
         // obtain credentials from CDP if the user is authorized
@@ -267,37 +764,94 @@ public class CaomTapQuery {
             queryAuthMethod = AuthenticationUtil.getAuthMethodFromCredentials(s);
         }
 
-        TapClient tc = new TapClient(tapServiceID);
-        URL tapSyncURL = tc.getSyncURL(Standards.getSecurityMethod(queryAuthMethod));
-        
-        log.debug("post: " + uri + " " + tapSyncURL);
-        HttpPost httpPost = new HttpPost(tapSyncURL, getQueryParameters(VOTABLE_FORMAT, adql), false);
-        httpPost.run();
-        if (httpPost.getThrowable() != null) {
-            throw new TransientFault("query failed: " + uri, httpPost.getResponseCode(), httpPost.getThrowable());
+        URI securityMethod = Standards.getSecurityMethod(queryAuthMethod);
+        String cacheKey = tapServiceID.toASCIIString() + " " + securityMethod;
+        URL tapSyncURL = syncURLCache.get(cacheKey);
+        if (tapSyncURL == null) {
+            TapClient tc = new TapClient(tapServiceID);
+            tapSyncURL = tc.getSyncURL(securityMethod);
+            syncURLCache.put(cacheKey, tapSyncURL);
         }
         
-        log.debug("redirect: " + httpPost.getRedirectURL());
+        log.debug("query: " + uri + " " + tapSyncURL);
+        String format = VOTABLE_FORMAT;
+        if (streaming && serialization != null) {
+            // only the streaming reader supports binary serialization
+            format = VOTABLE_FORMAT + ";serialization=" + serialization;
+        }
+        VOTableStreamReader<T> reader = new VOTableStreamReader<T>(builder);
+        try {
+            transport.execute(tapSyncURL, queryAuthMethod, getQueryParameters(format, adql), reader);
+        } catch (TransientFault f) {
+            // service may have moved: resolve again next time
+            syncURLCache.remove(cacheKey);
+            Throwable cause = f.getCause();
+            if (cause == null) {
+                cause = f;
+            }
+            throw new TransientFault("query failed: " + uri, f.getResponseCode(), cause);
+        }
+        if (reader.getFailure() != null) {
+            // failed to map content: not transient
+            throw reader.getFailure();
+        }
+        return reader.getResult();
+    }
+    
+    // cache key includes the caller so results are never shared between callers
+    private String getCacheKey(String type, URI uri, boolean artifactOnly) {
+        if (resultCache == null) {
+            return null;
+        }
         
-        // get
-        VOTableStreamReader reader = new VOTableStreamReader(new VOTableReader());
-        HttpDownload httpDownload = new HttpDownload(httpPost.getRedirectURL(), (InputStreamWrapper) reader);
-        httpDownload.run();
-        if (httpDownload.getThrowable() != null) {
-            throw new TransientFault("query failed: " + uri, httpDownload.getResponseCode(), httpDownload.getThrowable());
+        Set<String> principals = new TreeSet<String>();
+        Subject s = AuthenticationUtil.getCurrentSubject();
+        if (s != null) {
+            for (Principal p : s.getPrincipals()) {
+                principals.add(p.getClass().getName() + "=" + p.getName());
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(type).append(" ").append(artifactOnly).append(" ").append(uri.toASCIIString());
+        sb.append(" ").append(principals);
+        return sb.toString();
+    }
+    
+    private ArtifactQueryResult getCachedResult(String key) {
+        if (key == null) {
+            return null;
+        }
+        ArtifactQueryResult ret = resultCache.get(key);
+        if (ret == null) {
+            log.debug("cache miss: " + key);
+            return null;
         }
-        return reader.getVOTable();
+        log.debug("cache hit: " + key);
+        return copy(ret);
     }
     
-    private void logHeader(VOTableDocument vot) {
+    private void putCachedResult(String key, ArtifactQueryResult result) {
+        if (key != null && result != null) {
+            resultCache.put(key, copy(result));
+        }
+    }
+    
+    // shallow copy so callers can modify the artifact list
+    private ArtifactQueryResult copy(ArtifactQueryResult ar) {
+        ArtifactQueryResult ret = new ArtifactQueryResult(ar.getPublisherID());
+        ret.getArtifacts().addAll(ar.getArtifacts());
+        ret.metaReadable = ar.metaReadable;
+        ret.dataReadable = ar.dataReadable;
+        return ret;
+    }
+    
+    private void logHeader(List<VOTableField> fields) {
         if (!log.isDebugEnabled()) {
             return;
         }
         
         StringBuilder sb = new StringBuilder();
-        VOTableResource vr = vot.getResourceByType("results");
-        VOTableTable vt = vr.getTable();
-        for (VOTableField tf : vt.getFields()) {
+        for (VOTableField tf : fields) {
             sb.append("[").append(tf.utype).append("]");
         }
         log.debug("votable header: " + sb.toString());
@@ -315,15 +869,24 @@ public class CaomTapQuery {
         log.debug("votable row: " + sb.toString());
     }
     
-    private Observation buildObservation(final VOTableDocument vot) {
+    private Observation buildObservation(final List<VOTableField> fields, final Iterator<List<Object>> rowIterator) {
+        List<Observation> obs = buildObservations(fields, rowIterator);
+        
+        if (obs.size() > 1) {
+            throw new UnexpectedContentException("BUG: found " + obs.size() + " observations, expected 1");
+        }
+        
+        if (obs.isEmpty()) {
+            return null;
+        }
+        
+        return obs.get(0);
+    }
+    
+    // rows for each observation must be contiguous
+    private List<Observation> buildObservations(final List<VOTableField> fields, final Iterator<List<Object>> rowIterator) {
         log.debug("building observation from VOTable");
-        VOTableResource vr = vot.getResourceByType("results");
-        // TODO: check QUERY_STATUS to be careful and avoid about NPEs below
-        VOTableTable vt = vr.getTable();
-        TableData data = vt.getTableData();
-        Iterator<List<Object>> rowIterator = data.iterator();
-
-        Map<String,Integer> utypeMap = VOTableUtil.buildUTypeMap(vt.getFields());
+        Map<String,Integer> utypeMap = VOTableUtil.buildUTypeMap(fields);
         ObservationMapper om = new ObservationMapper(utypeMap);
         PlaneMapper planeM = new PlaneMapper(utypeMap);
         ArtifactMapper am = new ArtifactMapper(utypeMap);
@@ -331,6 +894,12 @@ public class CaomTapQuery {
         ChunkMapper cm = new ChunkMapper(utypeMap);
         DateFormat df = DateUtil.getDateFormat(DateUtil.IVOA_DATE_FORMAT, DateUtil.UTC);
         
+        // parent entities repeat on every joined row: only map them when the ID changes
+        Integer obsIDCol = utypeMap.get("caom2:Observation.id");
+        Integer planeIDCol = utypeMap.get("caom2:Plane.id");
+        Integer artifactIDCol = utypeMap.get("caom2:Artifact.id");
+        Integer partIDCol = utypeMap.get("caom2:Part.id");
+        
         List<Observation> obs = new ArrayList<Observation>();
         
         Observation curObservation = null;
@@ -341,16 +910,16 @@ public class CaomTapQuery {
         while (rowIterator.hasNext()) {
             List<Object> row = rowIterator.next();
             
-            Observation o = om.mapRow(row, df);
-            if (o != null) {
-                if (curObservation == null || !curObservation.getID().equals(o.getID())) {
+            UUID oid = Util.getUUID(row, obsIDCol);
+            if (oid != null) {
+                if (curObservation == null || !curObservation.getID().equals(oid)) {
                     // new observation
                     if (curObservation != null) {
                         // found first row of next obs
                         log.debug("END observation: " + curObservation.getID());
                     }
                     
-                    curObservation = o;
+                    curObservation = om.mapRow(row, df);
                     obs.add(curObservation);
                     log.debug("START observation: " + curObservation.getID());
                 }
@@ -360,15 +929,15 @@ public class CaomTapQuery {
             }
             
             if (curObservation != null) {
-                Plane p1 = planeM.mapRow(row, df);
-                if (p1 != null) {
-                    if (curPlane == null || !curPlane.getID().equals(p1.getID())) {
+                UUID pid = Util.getUUID(row, planeIDCol);
+                if (pid != null) {
+                    if (curPlane == null || !curPlane.getID().equals(pid)) {
                         // new plane
                         if (curPlane != null) {
                             log.debug("END plane: " + curPlane.getID());
                         }
                         
-                        curPlane = p1;
+                        curPlane = planeM.mapRow(row, df);
                         curObservation.getPlanes().add(curPlane);
                         log.debug("START plane: " + curPlane.getID());
                     }
@@ -378,41 +947,40 @@ public class CaomTapQuery {
                 }
                 
                 if (curPlane != null) {
-                    Artifact a = am.mapRow(row, df);
-                    if (a != null) {
-                        if (curArtifact == null || !curArtifact.getID().equals(a.getID())) {
+                    UUID aid = Util.getUUID(row, artifactIDCol);
+                    if (aid != null) {
+                        if (curArtifact == null || !curArtifact.getID().equals(aid)) {
                             // new artifact
                             if (curArtifact != null) {
                                 // found first row of next artifact in same plane
                                 log.debug("END artifact: " + curArtifact.getID());
                             }
                             
-                            curArtifact = a;
+                            curArtifact = am.mapRow(row, df);
                             curPlane.getArtifacts().add(curArtifact);
                             log.debug("START artifact: " + curArtifact.getID());
                         }
-                        // else a == curArtifact
+                        // else same artifact
                     } else {
                         log.debug("no artifacts");
                         curArtifact = null;
                     }
                     
                     if (curArtifact != null) {
-                        Part p = pm.mapRow(row, df);
-                        log.debug("artifact " + curArtifact.getClass() + " part " + p);
-                        if (p != null) {
-                            if (curPart == null || !curPart.getID().equals(p.getID())) {
+                        UUID partID = Util.getUUID(row, partIDCol);
+                        if (partID != null) {
+                            if (curPart == null || !curPart.getID().equals(partID)) {
                                 // new part
                                 if (curPart != null) {
                                     // found first row of next artifact in same plane
                                     log.debug("END part: " + curPart.getID());
                                 }
                                 
-                                curPart = p;
+                                curPart = pm.mapRow(row, df);
                                 curArtifact.getParts().add(curPart);
                                 log.debug("START part: " + curPart.getID());
                             }
-                            // else p == curPart
+                            // else same part
                         } else {
                             log.debug("artifact: " + curArtifact.getID() + ": no parts");
                             curPart = null;
@@ -433,47 +1001,54 @@ public class CaomTapQuery {
             }
         }
         
-        if (obs.size() > 1) {
-            throw new UnexpectedContentException("BUG: found " + obs.size() + " observations, expected 1");
-        }
-        
-        if (obs.isEmpty()) {
+        return obs;
+    }
+    
+    private ArtifactQueryResult buildArtifacts(final List<VOTableField> fields, final Iterator<List<Object>> rowIterator) {
+        Map<URI,ArtifactQueryResult> results = buildArtifacts(fields, rowIterator, false);
+        if (results.isEmpty()) {
             return null;
         }
-        
-        return obs.get(0);
+        return results.values().iterator().next();
     }
     
-    private ArtifactQueryResult buildArtifacts(final VOTableDocument vot) {
+    // splitPlanes: one result per Plane.publisherID value, otherwise all rows go into a single result
+    private Map<URI,ArtifactQueryResult> buildArtifacts(final List<VOTableField> fields, final Iterator<List<Object>> rowIterator, 
+            boolean splitPlanes) {
         log.debug("building artifacts from VOTable");
-        //logHeader(votable);
-
-        VOTableResource vr = vot.getResourceByType("results");
-        VOTableTable vt = vr.getTable();
-        TableData data = vt.getTableData();
-        Iterator<List<Object>> rowIterator = data.iterator();
+        Map<URI,ArtifactQueryResult> results = new LinkedHashMap<URI,ArtifactQueryResult>();
         Artifact curArtifact = null;
         Part curPart = null;
 
-        Map<String,Integer> utypeMap = VOTableUtil.buildUTypeMap(vt.getFields());
+        Map<String,Integer> utypeMap = VOTableUtil.buildUTypeMap(fields);
         ArtifactMapper am = new ArtifactMapper(utypeMap);
         PartMapper pm = new PartMapper(utypeMap);
         ChunkMapper cm = new ChunkMapper(utypeMap);
         DateFormat df = DateUtil.getDateFormat(DateUtil.IVOA_DATE_FORMAT, DateUtil.UTC);
-    
+        
+        // parent entities repeat on every joined row: only map them when the ID changes
+        Integer pubIDCol = utypeMap.get("caom2:Plane.publisherID");
+        Integer artifactIDCol = utypeMap.get("caom2:Artifact.id");
+        Integer partIDCol = utypeMap.get("caom2:Part.id");
+        Integer mrCol = utypeMap.get("column-name:metaReadable");
+        Integer drCol = utypeMap.get("column-name:dataReadable");
         
         ArtifactQueryResult ret = null;
         while (rowIterator.hasNext()) {
             List<Object> row = rowIterator.next();
             //logRow(row);
             
-            if (ret == null) {
-                URI pubID = Util.getURI(row, utypeMap.get("caom2:Plane.publisherID"));
-                ret = new ArtifactQueryResult(new PublisherID(pubID));
+            if (ret == null || splitPlanes) {
+                URI pubID = Util.getURI(row, pubIDCol);
+                if (ret == null || !ret.getPublisherID().getURI().equals(pubID)) {
+                    // first row of next plane
+                    ret = new ArtifactQueryResult(new PublisherID(pubID));
+                    results.put(pubID, ret);
+                    curArtifact = null;
+                    curPart = null;
+                }
             }
             
-            Integer mrCol = utypeMap.get("column-name:metaReadable");
-            Integer drCol = utypeMap.get("column-name:dataReadable");
             if (mrCol != null) {
                 Object o = row.get(mrCol);
                 ret.metaReadable = (o != null);
@@ -486,41 +1061,40 @@ public class CaomTapQuery {
             
             log.debug("found metaReadable: " + ret.metaReadable + " dataReadable: " + ret.dataReadable);
             
-            Artifact a = am.mapRow(row, df);
-            if (a != null) {
-                if (curArtifact == null || !curArtifact.getID().equals(a.getID())) {
+            UUID aid = Util.getUUID(row, artifactIDCol);
+            if (aid != null) {
+                if (curArtifact == null || !curArtifact.getID().equals(aid)) {
                     // new artifact
                     if (curArtifact != null) {
                         // found first row of next artifact in same plane
                         log.debug("END artifact: " + curArtifact.getID());
                     }
                     
-                    curArtifact = a;
+                    curArtifact = am.mapRow(row, df);
                     ret.getArtifacts().add(curArtifact);
                     log.debug("START artifact: " + curArtifact.getID());
                 }
-                // else a == curArtifact
+                // else same artifact
             } else {
                 log.debug("no artifacts");
                 curArtifact = null;
             }
             
             if (curArtifact != null) {
-                Part p = pm.mapRow(row, df);
-                log.debug("artifact " + curArtifact.getClass() + " part " + p);
-                if (p != null) {
-                    if (curPart == null || !curPart.getID().equals(p.getID())) {
+                UUID partID = Util.getUUID(row, partIDCol);
+                if (partID != null) {
+                    if (curPart == null || !curPart.getID().equals(partID)) {
                         // new part
                         if (curPart != null) {
                             // found first row of next artifact in same plane
                             log.debug("END part: " + curPart.getID());
                         }
                         
-                        curPart = p;
+                        curPart = pm.mapRow(row, df);
                         curArtifact.getParts().add(curPart);
                         log.debug("START part: " + curPart.getID());
                     }
-                    // else p == curPart
+                    // else same part
                 } else {
                     log.debug("artifact: " + curArtifact.getID() + ": no parts");
                     curPart = null;
@@ -539,7 +1113,7 @@ public class CaomTapQuery {
             }
         }
         
-        return ret;
+        return results;
     }
     
     private Map<String, Object> getQueryParameters(final String format, final String adql) {
@@ -555,22 +1129,145 @@ public class CaomTapQuery {
         return map;
     }
     
-    private class VOTableStreamReader implements InputStreamWrapper {
-        private VOTableDocument votable;
-        private VOTableReader wrappedReader;
+    /**
+     * Build CAOM objects from the rows of a result table. Row values must be the same
+     * types produced by the cadc-dali Format for each field.
+     * 
+     * @param <T> result type
+     */
+    protected interface TableBuilder<T> {
+        T build(List<VOTableField> fields, Iterator<List<Object>> rows);
+    }
+    
+    private final TableBuilder<Observation> observationBuilder = new TableBuilder<Observation>() {
+        @Override
+        public Observation build(List<VOTableField> fields, Iterator<List<Object>> rows) {
+            return buildObservation(fields, rows);
+        }
+    };
+    
+    private final TableBuilder<List<Observation>> observationListBuilder = new TableBuilder<List<Observation>>() {
+        @Override
+        public List<Observation> build(List<VOTableField> fields, Iterator<List<Object>> rows) {
+            return buildObservations(fields, rows);
+        }
+    };
+    
+    private final TableBuilder<ArtifactQueryResult> artifactBuilder = new TableBuilder<ArtifactQueryResult>() {
+        @Override
+        public ArtifactQueryResult build(List<VOTableField> fields, Iterator<List<Object>> rows) {
+            return buildArtifacts(fields, rows);
+        }
+    };
+    
+    private final TableBuilder<Map<URI,ArtifactQueryResult>> artifactMapBuilder = new TableBuilder<Map<URI,ArtifactQueryResult>>() {
+        @Override
+        public Map<URI,ArtifactQueryResult> build(List<VOTableField> fields, Iterator<List<Object>> rows) {
+            return buildArtifacts(fields, rows, true);
+        }
+    };
+    
+    // rows of one child level grouped by the parentID column
+    static class ChildBuilder<E> implements TableBuilder<Map<UUID,List<E>>> {
+        private final Class<E> type;
+        
+        ChildBuilder(Class<E> type) {
+            this.type = type;
+        }
+        
+        @Override
+        public Map<UUID,List<E>> build(List<VOTableField> fields, Iterator<List<Object>> rows) {
+            log.debug("building " + type.getSimpleName() + " level from VOTable");
+            Map<String,Integer> utypeMap = VOTableUtil.buildUTypeMap(fields);
+            Integer parentCol = utypeMap.get("column-name:" + AdqlQueryGenerator.PARENT_ID);
+            if (parentCol == null) {
+                throw new UnexpectedContentException("missing column: " + AdqlQueryGenerator.PARENT_ID);
+            }
+            VOTableRowMapper<E> mapper = newMapper(utypeMap);
+            DateFormat df = DateUtil.getDateFormat(DateUtil.IVOA_DATE_FORMAT, DateUtil.UTC);
+            
+            Map<UUID,List<E>> ret = new HashMap<UUID,List<E>>();
+            while (rows.hasNext()) {
+                List<Object> row = rows.next();
+                E e = mapper.mapRow(row, df);
+                if (e != null) {
+                    UUID parentID = toUUID(row.get(parentCol));
+                    List<E> children = ret.get(parentID);
+                    if (children == null) {
+                        children = new ArrayList<E>();
+                        ret.put(parentID, children);
+                    }
+                    children.add(e);
+                }
+            }
+            return ret;
+        }
+        
+        @SuppressWarnings("unchecked")
+        private VOTableRowMapper<E> newMapper(Map<String,Integer> utypeMap) {
+            if (Plane.class.equals(type)) {
+                return (VOTableRowMapper<E>) new PlaneMapper(utypeMap);
+            }
+            if (Artifact.class.equals(type)) {
+                return (VOTableRowMapper<E>) new ArtifactMapper(utypeMap);
+            }
+            if (Part.class.equals(type)) {
+                return (VOTableRowMapper<E>) new PartMapper(utypeMap);
+            }
+            if (Chunk.class.equals(type)) {
+                return (VOTableRowMapper<E>) new ChunkMapper(utypeMap);
+            }
+            throw new IllegalStateException("BUG: no mapper for " + type.getName());
+        }
+        
+        // the FK alias may come back as a UUID or as a string
+        private UUID toUUID(Object o) {
+            if (o == null || o instanceof UUID) {
+                return (UUID) o;
+            }
+            return UUID.fromString(o.toString());
+        }
+    }
     
+    private class VOTableStreamReader<T> implements InputStreamWrapper {
+        private final TableBuilder<T> builder;
+        private T result;
+        private RuntimeException failure;
     
-        public VOTableStreamReader(VOTableReader reader) {
-            this.wrappedReader = reader;
+        public VOTableStreamReader(TableBuilder<T> builder) {
+            this.builder = builder;
         }
     
-        public VOTableDocument getVOTable() {
-            return this.votable;
+        public T getResult() {
+            return result;
+        }
+        
+        public RuntimeException getFailure() {
+            return failure;
         }
 
         @Override
         public void read(InputStream inputStream) throws IOException {
-            this.votable = this.wrappedReader.read(inputStream);
+            try {
+                if (streaming) {
+                    VOTableRowIterator iter = new VOTableRowIterator(inputStream);
+                    logHeader(iter.getFields());
+                    this.result = builder.build(iter.getFields(), iter);
+                } else {
+                    VOTableReader r = new VOTableReader();
+                    VOTableDocument doc = r.read(inputStream);
+                    VOTableResource vr = doc.getResourceByType("results");
+                    VOTableTable vt = vr.getTable();
+                    logHeader(vt.getFields());
+                    this.result = builder.build(vt.getFields(), vt.getTableData().iterator());
+                }
+            } catch (RuntimeException ex) {
+                if (ThrowableUtil.isACause(ex, IOException.class)) {
+                    // failed to read from the stream
+                    throw new IOException("failed to read query result: " + ex.getMessage(), ex);
+                }
+                this.failure = ex;
+            }
         }
     }
 }
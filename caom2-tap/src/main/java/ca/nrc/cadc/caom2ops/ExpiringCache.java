@@ -0,0 +1,230 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2ops;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Simple thread-safe LRU cache with a time-to-live on each entry. Entries older
+ * than the TTL are dropped on access; the least recently used entry is evicted
+ * when the cache is full.
+ * 
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class ExpiringCache<K,V> {
+    
+    private final int maxSize;
+    private final long ttl;
+    private final LinkedHashMap<K,Entry<V>> map;
+    
+    private long hits = 0L;
+    private long misses = 0L;
+    private long evictions = 0L;
+
+    /**
+     * Constructor.
+     * 
+     * @param maxSize maximum number of entries
+     * @param ttl time-to-live in milliseconds
+     */
+    public ExpiringCache(int maxSize, long ttl) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("invalid maxSize: " + maxSize);
+        }
+        if (ttl < 0L) {
+            throw new IllegalArgumentException("invalid ttl: " + ttl);
+        }
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.map = new LinkedHashMap<K,Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K,Entry<V>> eldest) {
+                if (size() > ExpiringCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get a cached value.
+     * 
+     * @param key
+     * @return the value or null if not cached or expired
+     */
+    public synchronized V get(K key) {
+        Entry<V> e = map.get(key);
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        if (isExpired(e, System.currentTimeMillis())) {
+            map.remove(key);
+            evictions++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return e.value;
+    }
+    
+    /**
+     * Add or replace a value. Null values are not cached.
+     * 
+     * @param key
+     * @param value 
+     */
+    public synchronized void put(K key, V value) {
+        if (value == null) {
+            map.remove(key);
+            return;
+        }
+        map.put(key, new Entry<V>(value, System.currentTimeMillis()));
+    }
+    
+    /**
+     * Remove a value.
+     * 
+     * @param key 
+     */
+    public synchronized void remove(K key) {
+        map.remove(key);
+    }
+    
+    /**
+     * Remove all values.
+     */
+    public synchronized void clear() {
+        map.clear();
+    }
+    
+    /**
+     * Get the number of live entries. Expired entries are purged as a side effect.
+     * 
+     * @return number of entries
+     */
+    public synchronized int size() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry<V>> i = map.values().iterator();
+        while (i.hasNext()) {
+            if (isExpired(i.next(), now)) {
+                i.remove();
+                evictions++;
+            }
+        }
+        return map.size();
+    }
+    
+    /**
+     * @return number of get calls that found a live entry
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    /**
+     * @return number of get calls that did not find a live entry
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    /**
+     * @return number of entries dropped because the cache was full or the entry expired
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return "ExpiringCache[" + map.size() + "/" + maxSize + ",ttl=" + ttl 
+                + ",hits=" + hits + ",misses=" + misses + ",evictions=" + evictions + "]";
+    }
+    
+    private boolean isExpired(Entry<V> e, long now) {
+        return now - e.timestamp >= ttl;
+    }
+    
+    private static class Entry<V> {
+        V value;
+        long timestamp;
+        
+        Entry(V value, long timestamp) {
+            this.value = value;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2ops;
+
+import ca.nrc.cadc.auth.AuthMethod;
+import ca.nrc.cadc.auth.AuthenticationUtil;
+import ca.nrc.cadc.auth.SSLUtil;
+import ca.nrc.cadc.auth.X509CertificateChain;
+import ca.nrc.cadc.net.InputStreamWrapper;
+import ca.nrc.cadc.net.NetUtil;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+import javax.security.auth.Subject;
+import org.apache.log4j.Logger;
+
+/**
+ * QueryTransport that keeps connections to the TAP service alive between requests.
+ * Connections are pooled by the JVM HTTP keep-alive cache; this class makes sure that
+ * responses are consumed and closed (not disconnected) so the underlying socket can be
+ * reused, and that all https requests for the same caller use the same socket factory
+ * (which is part of the pool key). The POST and the GET of the redirect URL are normally
+ * made on the same connection. With followRedirects enabled, the redirect is followed
+ * in-process as part of the POST request.
+ * 
+ * <p>Only anonymous and client certificate authentication are supported; queries with any
+ * other AuthMethod are delegated to the RedirectQueryTransport.</p>
+ */
+public class PooledQueryTransport implements QueryTransport {
+    private static final Logger log = Logger.getLogger(PooledQueryTransport.class);
+    
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+    
+    // socket factories for client certificates keyed by subject DN + expiry: re-using the 
+    // same instance for the same credentials allows pooled https connections to be reused;
+    // each request authenticates with a new X509CertificateChain instance so that cannot be the key
+    private static final long SOCKET_FACTORY_TTL = 60 * 60 * 1000L; // 1 hour
+    private static final ExpiringCache<String, SSLSocketFactory> socketFactories 
+        = new ExpiringCache<String, SSLSocketFactory>(1024, SOCKET_FACTORY_TTL);
+    
+    private final QueryTransport fallback = new RedirectQueryTransport();
+    private boolean followRedirects = false;
+    
+    public PooledQueryTransport() { 
+    }
+
+    /**
+     * Follow the redirect from the sync endpoint as part of the POST request instead of
+     * issuing a separate GET request.
+     * 
+     * @param followRedirects true to follow redirect in-process
+     */
+    public void setFollowRedirects(boolean followRedirects) {
+        this.followRedirects = followRedirects;
+    }
+
+    @Override
+    public void execute(URL syncURL, AuthMethod authMethod, Map<String, Object> params, InputStreamWrapper wrapper)
+        throws TransientFault {
+        if (!AuthMethod.ANON.equals(authMethod) && !AuthMethod.CERT.equals(authMethod)) {
+            log.debug("unsupported AuthMethod: " + authMethod + " -- using " + fallback.getClass().getSimpleName());
+            fallback.execute(syncURL, authMethod, params, wrapper);
+            return;
+        }
+        
+        URL url = syncURL;
+        try {
+            SSLSocketFactory sf = getSocketFactory(authMethod);
+            log.debug("post: " + url + " followRedirects=" + followRedirects);
+            HttpURLConnection post = openConnection(url, sf);
+            post.setRequestMethod("POST");
+            post.setInstanceFollowRedirects(followRedirects);
+            post.setDoOutput(true);
+            byte[] body = encode(params);
+            post.setRequestProperty("Content-Type", FORM_CONTENT_TYPE);
+            post.setFixedLengthStreamingMode(body.length);
+            OutputStream ostream = post.getOutputStream();
+            ostream.write(body);
+            ostream.close();
+            
+            int code = post.getResponseCode();
+            if (code == HttpURLConnection.HTTP_OK) {
+                // redirect followed in-process or result returned directly
+                readResponse(post, wrapper);
+                return;
+            }
+            if (code != HttpURLConnection.HTTP_SEE_OTHER 
+                    && code != HttpURLConnection.HTTP_MOVED_TEMP 
+                    && code != HttpURLConnection.HTTP_MOVED_PERM) {
+                throw fail(post, url, code);
+            }
+            
+            String loc = post.getHeaderField("Location");
+            consume(post.getInputStream());
+            if (loc == null) {
+                throw new TransientFault("post failed: " + url + " redirect with no Location", code);
+            }
+            url = new URL(syncURL, loc);
+            
+            log.debug("redirect: " + url);
+            HttpURLConnection get = openConnection(url, sf);
+            get.setInstanceFollowRedirects(true);
+            code = get.getResponseCode();
+            if (code != HttpURLConnection.HTTP_OK) {
+                throw fail(get, url, code);
+            }
+            readResponse(get, wrapper);
+        } catch (IOException ex) {
+            throw new TransientFault("query failed: " + url, HttpURLConnection.HTTP_UNAVAILABLE, ex);
+        }
+    }
+    
+    private HttpURLConnection openConnection(URL url, SSLSocketFactory sf) throws IOException {
+        HttpURLConnection ret = (HttpURLConnection) url.openConnection();
+        ret.setUseCaches(false);
+        if (sf != null && ret instanceof HttpsURLConnection) {
+            ((HttpsURLConnection) ret).setSSLSocketFactory(sf);
+        }
+        return ret;
+    }
+    
+    private SSLSocketFactory getSocketFactory(AuthMethod authMethod) {
+        if (!AuthMethod.CERT.equals(authMethod)) {
+            return null; // default
+        }
+        Subject s = AuthenticationUtil.getCurrentSubject();
+        if (s == null) {
+            return null;
+        }
+        Set<X509CertificateChain> certs = s.getPublicCredentials(X509CertificateChain.class);
+        if (certs.isEmpty()) {
+            return null;
+        }
+        X509CertificateChain chain = certs.iterator().next();
+        String key = getSocketFactoryKey(chain);
+        SSLSocketFactory ret = socketFactories.get(key);
+        if (ret == null) {
+            ret = SSLUtil.getSocketFactory(s);
+            socketFactories.put(key, ret);
+        }
+        return ret;
+    }
+    
+    // a renewed certificate has a new expiry date and gets a new socket factory
+    static String getSocketFactoryKey(X509CertificateChain chain) {
+        return chain.getPrincipal().getName() + " " + chain.getExpiryDate().getTime();
+    }
+    
+    // read the response and close the stream so the connection can go back to the pool
+    private void readResponse(HttpURLConnection con, InputStreamWrapper wrapper) throws IOException {
+        InputStream istream = con.getInputStream();
+        try {
+            wrapper.read(istream);
+        } finally {
+            istream.close();
+        }
+    }
+    
+    private TransientFault fail(HttpURLConnection con, URL url, int code) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("query failed: ").append(url).append(" ").append(code);
+        InputStream istream = con.getErrorStream();
+        if (istream != null) {
+            byte[] buf = new byte[1024];
+            int n = istream.read(buf);
+            if (n > 0) {
+                sb.append(" ").append(new String(buf, 0, n, StandardCharsets.UTF_8).trim());
+            }
+            consume(istream);
+        }
+        return new TransientFault(sb.toString(), code);
+    }
+    
+    private void consume(InputStream istream) throws IOException {
+        byte[] buf = new byte[1024];
+        try {
+            while (istream.read(buf) != -1) {
+                // discard
+            }
+        } finally {
+            istream.close();
+        }
+    }
+    
+    private byte[] encode(Map<String, Object> params) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Object> me : params.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append("&");
+            }
+            sb.append(NetUtil.encode(me.getKey()));
+            sb.append("=");
+            sb.append(NetUtil.encode(me.getValue().toString()));
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -67,9 +67,11 @@
 
 package ca.nrc.cadc.caom2ops;
 
+import java.lang.reflect.Constructor;
 import java.net.URI;
 import java.net.URL;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
 import org.apache.log4j.Logger;
 
 /**
@@ -86,6 +88,22 @@ public class ServiceConfig {
     public static final String META_KEY = ServiceConfig.class.getName() + ".metaServiceID";
     public static final String PKG_KEY = ServiceConfig.class.getName() + ".pkgServiceID";
     public static final String SODA_KEY = ServiceConfig.class.getName() + ".sodaServiceID";
+    public static final String QUERY_TRANSPORT_KEY = ServiceConfig.class.getName() + ".queryTransport";
+    public static final String FOLLOW_REDIRECTS_KEY = ServiceConfig.class.getName() + ".followRedirects";
+    public static final String QUERY_BATCH_SIZE_KEY = ServiceConfig.class.getName() + ".queryBatchSize";
+    public static final String QUERY_LOOKAHEAD_KEY = ServiceConfig.class.getName() + ".queryLookahead";
+    public static final String RESULT_CACHE_SIZE_KEY = ServiceConfig.class.getName() + ".resultCacheSize";
+    public static final String RESULT_CACHE_TTL_KEY = ServiceConfig.class.getName() + ".resultCacheTTL";
+    public static final String QUERY_IMPL_KEY = ServiceConfig.class.getName() + ".queryImpl";
+    public static final String QUERY_DATASOURCE_KEY = ServiceConfig.class.getName() + ".queryDataSource";
+    public static final String QUERY_SERIALIZATION_KEY = ServiceConfig.class.getName() + ".querySerialization";
+    public static final String SPLIT_OBSERVATION_QUERY_KEY = ServiceConfig.class.getName() + ".splitObservationQuery";
+    public static final String SYNC_JOB_MEMORY_KEY = ServiceConfig.class.getName() + ".syncJobMemory";
+    public static final String ARTIFACT_THREADS_KEY = ServiceConfig.class.getName() + ".artifactThreads";
+    
+    // process-wide so all requests share it
+    private static ExpiringCache<String,ArtifactQueryResult> resultCache;
+    private static ExecutorService artifactExecutor;
     
     private Properties props;
     
@@ -141,4 +159,256 @@ public class ServiceConfig {
         log.debug("not found: " + SODA_KEY);
         return null;
     }
+    
+    /**
+     * Create the configured QueryTransport. The value of the queryTransport key is the class
+     * name of a QueryTransport implementation with a no-arg constructor. 
+     * 
+     * @return configured transport or null to use the default
+     */
+    public QueryTransport getQueryTransport() {
+        String val = props.getProperty(QUERY_TRANSPORT_KEY);
+        if (val == null) {
+            log.debug("not found: " + QUERY_TRANSPORT_KEY);
+            return null;
+        }
+        
+        try {
+            Class c = Class.forName(val.trim());
+            QueryTransport ret = (QueryTransport) c.newInstance();
+            if (ret instanceof PooledQueryTransport) {
+                ((PooledQueryTransport) ret).setFollowRedirects(getFollowRedirects());
+            }
+            return ret;
+        } catch (Exception ex) {
+            throw new RuntimeException("CONFIG: failed to load " + QUERY_TRANSPORT_KEY + " = " + val, ex);
+        }
+    }
+    
+    public boolean getFollowRedirects() {
+        String val = props.getProperty(FOLLOW_REDIRECTS_KEY);
+        if (val != null) {
+            return Boolean.parseBoolean(val.trim());
+        }
+        
+        log.debug("not found: " + FOLLOW_REDIRECTS_KEY);
+        return false;
+    }
+    
+    /**
+     * Get the maximum number of IDs to look up in a single query.
+     * 
+     * @return configured batch size or null to use the default
+     */
+    public Integer getQueryBatchSize() {
+        String val = props.getProperty(QUERY_BATCH_SIZE_KEY);
+        if (val != null) {
+            try {
+                return Integer.valueOf(val.trim());
+            } catch (NumberFormatException ex) {
+                throw new RuntimeException("CONFIG: invalid " + QUERY_BATCH_SIZE_KEY + " = " + val, ex);
+            }
+        }
+        
+        log.debug("not found: " + QUERY_BATCH_SIZE_KEY);
+        return null;
+    }
+    
+    /**
+     * Get the number of IDs to look up ahead of the output.
+     * 
+     * @return configured look-ahead or null to use the default
+     */
+    public Integer getQueryLookahead() {
+        String val = props.getProperty(QUERY_LOOKAHEAD_KEY);
+        if (val != null) {
+            try {
+                return Integer.valueOf(val.trim());
+            } catch (NumberFormatException ex) {
+                throw new RuntimeException("CONFIG: invalid " + QUERY_LOOKAHEAD_KEY + " = " + val, ex);
+            }
+        }
+        
+        log.debug("not found: " + QUERY_LOOKAHEAD_KEY);
+        return null;
+    }
+    
+    /**
+     * Get the number of threads used to generate links for the artifacts of a plane.
+     * 
+     * @return configured number of threads or null to process artifacts sequentially
+     */
+    public Integer getArtifactThreads() {
+        String val = props.getProperty(ARTIFACT_THREADS_KEY);
+        if (val != null) {
+            try {
+                return Integer.valueOf(val.trim());
+            } catch (NumberFormatException ex) {
+                throw new RuntimeException("CONFIG: invalid " + ARTIFACT_THREADS_KEY + " = " + val, ex);
+            }
+        }
+        
+        log.debug("not found: " + ARTIFACT_THREADS_KEY);
+        return null;
+    }
+    
+    /**
+     * Get the process-wide pool used to generate links for the artifacts of a plane. The
+     * pool is created once with artifactThreads threads; the same instance is returned to
+     * all callers.
+     * 
+     * @return the artifact pool or null if not configured
+     */
+    public ExecutorService getArtifactExecutor() {
+        Integer threads = getArtifactThreads();
+        if (threads == null) {
+            return null;
+        }
+        
+        synchronized (ServiceConfig.class) {
+            if (artifactExecutor == null) {
+                try {
+                    artifactExecutor = ExecutorUtil.newFixedThreadPool("caom2-artifact", threads);
+                    log.info("created artifact pool: " + threads + " threads");
+                } catch (IllegalArgumentException ex) {
+                    throw new RuntimeException("CONFIG: invalid " + ARTIFACT_THREADS_KEY + " = " + threads, ex);
+                }
+            }
+            return artifactExecutor;
+        }
+    }
+    
+    /**
+     * Get the process-wide artifact query result cache. The cache is enabled by setting
+     * resultCacheSize (max entries) and resultCacheTTL (seconds); the same instance is
+     * returned to all callers. The cache keeps the artifacts of each result in memory until
+     * the entry expires or is evicted, so with the cache enabled memory use no longer drops
+     * as datalink writes the links for a plane.
+     * 
+     * @return the result cache or null if not configured
+     */
+    public ExpiringCache<String,ArtifactQueryResult> getResultCache() {
+        String size = props.getProperty(RESULT_CACHE_SIZE_KEY);
+        String ttl = props.getProperty(RESULT_CACHE_TTL_KEY);
+        if (size == null || ttl == null) {
+            log.debug("not found: " + RESULT_CACHE_SIZE_KEY + " and/or " + RESULT_CACHE_TTL_KEY);
+            return null;
+        }
+        
+        synchronized (ServiceConfig.class) {
+            if (resultCache == null) {
+                try {
+                    int maxSize = Integer.parseInt(size.trim());
+                    long ttlMillis = 1000L * Long.parseLong(ttl.trim());
+                    resultCache = new ExpiringCache<String,ArtifactQueryResult>(maxSize, ttlMillis);
+                    log.info("created result cache: " + resultCache);
+                } catch (IllegalArgumentException ex) {
+                    throw new RuntimeException("CONFIG: invalid " + RESULT_CACHE_SIZE_KEY + " = " + size 
+                            + " or " + RESULT_CACHE_TTL_KEY + " = " + ttl, ex);
+                }
+            }
+            return resultCache;
+        }
+    }
+    
+    /**
+     * Create a query for the configured TAP service. The value of the queryImpl key is the 
+     * class name of a CaomTapQuery subclass with a (URI tapServiceID, String runID) constructor;
+     * the default is CaomTapQuery. The configured transport, batch size, result cache, 
+     * serialization, and observation query strategy are applied to the new query.
+     * 
+     * @param runID runID to attach to queries, may be null
+     * @return a new query
+     */
+    public CaomTapQuery newQuery(String runID) {
+        URI tapServiceID = getTapServiceID();
+        CaomTapQuery ret;
+        String val = props.getProperty(QUERY_IMPL_KEY);
+        if (val == null) {
+            log.debug("not found: " + QUERY_IMPL_KEY);
+            ret = new CaomTapQuery(tapServiceID, runID);
+        } else {
+            try {
+                Class<? extends CaomTapQuery> c = Class.forName(val.trim()).asSubclass(CaomTapQuery.class);
+                Constructor<? extends CaomTapQuery> ctor = c.getConstructor(URI.class, String.class);
+                ret = ctor.newInstance(tapServiceID, runID);
+            } catch (Exception ex) {
+                throw new RuntimeException("CONFIG: failed to load " + QUERY_IMPL_KEY + " = " + val, ex);
+            }
+        }
+        
+        ret.setTransport(getQueryTransport());
+        Integer batchSize = getQueryBatchSize();
+        if (batchSize != null) {
+            ret.setBatchSize(batchSize);
+        }
+        ret.setResultCache(getResultCache());
+        ret.setSerialization(getQuerySerialization());
+        ret.setSplitObservationQuery(getSplitObservationQuery());
+        return ret;
+    }
+    
+    /**
+     * Get the VOTable serialization to request for query results.
+     * 
+     * @return configured serialization (TABLEDATA, BINARY, or BINARY2) or null to use the default
+     */
+    public String getQuerySerialization() {
+        String val = props.getProperty(QUERY_SERIALIZATION_KEY);
+        if (val != null) {
+            return val.trim();
+        }
+        
+        log.debug("not found: " + QUERY_SERIALIZATION_KEY);
+        return null;
+    }
+    
+    /**
+     * Get the JNDI name of the DataSource used by query implementations that access
+     * the database directly.
+     * 
+     * @return configured JNDI name or null to use the default
+     */
+    public String getQueryDataSource() {
+        String val = props.getProperty(QUERY_DATASOURCE_KEY);
+        if (val != null) {
+            return val.trim();
+        }
+        
+        log.debug("not found: " + QUERY_DATASOURCE_KEY);
+        return null;
+    }
+    
+    /**
+     * Get the observation query strategy: true for one query per level of the observation,
+     * false (the default) for a single join query.
+     * 
+     * @return true if observation queries should be split by level
+     */
+    public boolean getSplitObservationQuery() {
+        String val = props.getProperty(SPLIT_OBSERVATION_QUERY_KEY);
+        if (val != null) {
+            return Boolean.parseBoolean(val.trim());
+        }
+        
+        log.debug("not found: " + SPLIT_OBSERVATION_QUERY_KEY);
+        return false;
+    }
+    
+    /**
+     * Get the sync job persistence mode: true to keep the phase of synchronous jobs in memory
+     * while they run and write successful jobs once (see SyncJobUpdater), false (the default)
+     * to persist every phase change.
+     * 
+     * @return true if synchronous job phase changes should be kept in memory
+     */
+    public boolean getSyncJobMemory() {
+        String val = props.getProperty(SYNC_JOB_MEMORY_KEY);
+        if (val != null) {
+            return Boolean.parseBoolean(val.trim());
+        }
+        
+        log.debug("not found: " + SYNC_JOB_MEMORY_KEY);
+        return false;
+    }
 }
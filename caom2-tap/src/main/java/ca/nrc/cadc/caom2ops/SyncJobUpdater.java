@@ -0,0 +1,268 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2ops;
+
+import ca.nrc.cadc.net.TransientException;
+import ca.nrc.cadc.uws.ErrorSummary;
+import ca.nrc.cadc.uws.ExecutionPhase;
+import ca.nrc.cadc.uws.Job;
+import ca.nrc.cadc.uws.Result;
+import ca.nrc.cadc.uws.server.JobNotFoundException;
+import ca.nrc.cadc.uws.server.JobPersistenceException;
+import ca.nrc.cadc.uws.server.JobUpdater;
+import java.util.Date;
+import java.util.List;
+import org.apache.log4j.Logger;
+
+/**
+ * JobUpdater for synchronous requests that keeps the phase of the job in memory while
+ * it runs. The transition to EXECUTING is not written to the job persistence; a job that
+ * completes is written once, directly from the persisted phase to COMPLETED, so the
+ * persisted job never stays QUEUED. When the job fails (ERROR or ABORTED) or results are
+ * set while it is running, the transitions so far are replayed to the wrapped updater.
+ * After the job has been written all calls are passed through. Calls for other jobs are 
+ * always passed through.
+ * 
+ * <p>The runners only use this when ServiceConfig.getSyncJobMemory() is true.</p>
+ */
+public class SyncJobUpdater implements JobUpdater {
+    private static final Logger log = Logger.getLogger(SyncJobUpdater.class);
+
+    private final JobUpdater delegate;
+    private final Job job;
+    private final ExecutionPhase persistedPhase;
+    private ExecutionPhase phase;
+    private Date startTime;
+    private boolean persisted = false;
+
+    /**
+     * @param job the synchronous job
+     * @param delegate updater used when the job has to be persisted
+     */
+    public SyncJobUpdater(Job job, JobUpdater delegate) {
+        this.job = job;
+        this.delegate = delegate;
+        this.persistedPhase = job.getExecutionPhase();
+        this.phase = persistedPhase;
+    }
+
+    /**
+     * @return true if the job has been written to the wrapped updater
+     */
+    public boolean isPersisted() {
+        return persisted;
+    }
+
+    @Override
+    public ExecutionPhase getPhase(String jobID)
+        throws JobNotFoundException, JobPersistenceException, TransientException {
+        if (persisted || !isJob(jobID)) {
+            return delegate.getPhase(jobID);
+        }
+        return phase;
+    }
+
+    @Override
+    public void setPhase(String jobID, ExecutionPhase end)
+        throws JobNotFoundException, JobPersistenceException, TransientException {
+        if (persisted || !isJob(jobID)) {
+            delegate.setPhase(jobID, end);
+            return;
+        }
+        if (isFailure(end)) {
+            persist(phase, end, null, null, new Date());
+            return;
+        }
+        if (ExecutionPhase.COMPLETED.equals(end)) {
+            complete(null, new Date());
+            return;
+        }
+        update(end, new Date());
+    }
+
+    @Override
+    public ExecutionPhase setPhase(String jobID, ExecutionPhase start, ExecutionPhase end, Date date)
+        throws JobNotFoundException, JobPersistenceException, TransientException {
+        if (persisted || !isJob(jobID)) {
+            return delegate.setPhase(jobID, start, end, date);
+        }
+        if (!start.equals(phase)) {
+            return null;
+        }
+        if (isFailure(end)) {
+            return persist(start, end, null, null, date);
+        }
+        if (ExecutionPhase.COMPLETED.equals(end)) {
+            return complete(null, date);
+        }
+        return update(end, date);
+    }
+
+    @Override
+    public ExecutionPhase setPhase(String jobID, ExecutionPhase start, ExecutionPhase end, 
+            List<Result> results, Date date)
+        throws JobNotFoundException, JobPersistenceException, TransientException {
+        if (persisted || !isJob(jobID)) {
+            return delegate.setPhase(jobID, start, end, results, date);
+        }
+        if (!start.equals(phase)) {
+            return null;
+        }
+        if (isFailure(end)) {
+            return persist(start, end, results, null, date);
+        }
+        if (ExecutionPhase.COMPLETED.equals(end)) {
+            return complete(results, date);
+        }
+        if (results != null && !results.isEmpty()) {
+            return persist(start, end, results, null, date);
+        }
+        return update(end, date);
+    }
+
+    @Override
+    public ExecutionPhase setPhase(String jobID, ExecutionPhase start, ExecutionPhase end, 
+            ErrorSummary error, Date date)
+        throws JobNotFoundException, JobPersistenceException, TransientException {
+        if (persisted || !isJob(jobID)) {
+            return delegate.setPhase(jobID, start, end, error, date);
+        }
+        if (!start.equals(phase)) {
+            return null;
+        }
+        return persist(start, end, null, error, date);
+    }
+
+    private boolean isJob(String jobID) {
+        return job.getID().equals(jobID);
+    }
+
+    private boolean isFailure(ExecutionPhase ep) {
+        return ExecutionPhase.ERROR.equals(ep) || ExecutionPhase.ABORTED.equals(ep);
+    }
+
+    private ExecutionPhase update(ExecutionPhase end, Date date) {
+        log.debug(job.getID() + ": " + phase + " -> " + end + " [memory]");
+        if (ExecutionPhase.EXECUTING.equals(end)) {
+            startTime = date;
+        }
+        phase = end;
+        job.setExecutionPhase(end);
+        return end;
+    }
+
+    // single write of a successful job, skipping the transitions only done in memory
+    private ExecutionPhase complete(List<Result> results, Date date)
+        throws JobNotFoundException, JobPersistenceException, TransientException {
+        log.debug(job.getID() + ": " + persistedPhase + " -> " + ExecutionPhase.COMPLETED + " [persist]");
+        persisted = true;
+        ExecutionPhase ret;
+        if (results != null && !results.isEmpty()) {
+            ret = delegate.setPhase(job.getID(), persistedPhase, ExecutionPhase.COMPLETED, results, date);
+        } else {
+            ret = delegate.setPhase(job.getID(), persistedPhase, ExecutionPhase.COMPLETED, date);
+        }
+        if (ret != null) {
+            phase = ret;
+            job.setExecutionPhase(ret);
+        }
+        return ret;
+    }
+
+    // replay the transition to EXECUTING that was only done in memory
+    private ExecutionPhase persist(ExecutionPhase start, ExecutionPhase end, List<Result> results, 
+            ErrorSummary error, Date date)
+        throws JobNotFoundException, JobPersistenceException, TransientException {
+        log.debug(job.getID() + ": " + start + " -> " + end + " [persist]");
+        persisted = true;
+        if (!persistedPhase.equals(start) && ExecutionPhase.EXECUTING.equals(start)) {
+            Date d = startTime;
+            if (d == null) {
+                d = date;
+            }
+            ExecutionPhase ep = delegate.setPhase(job.getID(), persistedPhase, ExecutionPhase.EXECUTING, d);
+            if (!ExecutionPhase.EXECUTING.equals(ep)) {
+                return ep;
+            }
+        }
+        ExecutionPhase ret;
+        if (error != null) {
+            ret = delegate.setPhase(job.getID(), start, end, error, date);
+        } else if (results != null) {
+            ret = delegate.setPhase(job.getID(), start, end, results, date);
+        } else {
+            ret = delegate.setPhase(job.getID(), start, end, date);
+        }
+        if (ret != null) {
+            phase = ret;
+        }
+        return ret;
+    }
+}
@@ -89,10 +89,35 @@ public class ArtifactMapper implements VOTableRowMapper<Artifact> {
 
     private static final Logger log = Logger.getLogger(ArtifactMapper.class);
 
-    private Map<String, Integer> map;
+    // column indexes resolved once per result set: mapRow is index-only
+    private final Integer idCol;
+    private final Integer uriCol;
+    private final Integer productTypeCol;
+    private final Integer releaseTypeCol;
+    private final Integer contentTypeCol;
+    private final Integer contentLengthCol;
+    private final Integer contentChecksumCol;
+    private final Integer contentReleaseCol;
+    private final Integer contentReadGroupsCol;
+    private final Integer lastModifiedCol;
+    private final Integer maxLastModifiedCol;
+    private final Integer metaChecksumCol;
+    private final Integer accMetaChecksumCol;
 
     public ArtifactMapper(Map<String, Integer> map) {
-        this.map = map;
+        this.idCol = map.get("caom2:Artifact.id");
+        this.uriCol = map.get("caom2:Artifact.uri");
+        this.productTypeCol = map.get("caom2:Artifact.productType");
+        this.releaseTypeCol = map.get("caom2:Artifact.releaseType");
+        this.contentTypeCol = map.get("caom2:Artifact.contentType");
+        this.contentLengthCol = map.get("caom2:Artifact.contentLength");
+        this.contentChecksumCol = map.get("caom2:Artifact.contentChecksum");
+        this.contentReleaseCol = map.get("caom2:Artifact.contentRelease");
+        this.contentReadGroupsCol = map.get("caom2:Artifact.contentReadGroups");
+        this.lastModifiedCol = map.get("caom2:Artifact.lastModified");
+        this.maxLastModifiedCol = map.get("caom2:Artifact.maxLastModified");
+        this.metaChecksumCol = map.get("caom2:Artifact.metaChecksum");
+        this.accMetaChecksumCol = map.get("caom2:Artifact.accMetaChecksum");
     }
 
     /**
@@ -105,15 +130,15 @@ public class ArtifactMapper implements VOTableRowMapper<Artifact> {
      */
     public Artifact mapRow(List<Object> data, DateFormat dateFormat) {
         log.debug("mapping Artifact");
-        UUID id = Util.getUUID(data, map.get("caom2:Artifact.id"));
+        UUID id = Util.getUUID(data, idCol);
         if (id == null) {
             return null;
         }
 
         try {
-            URI uri = Util.getURI(data, map.get("caom2:Artifact.uri"));
+            URI uri = Util.getURI(data, uriCol);
             ProductType pt = null;
-            String pts = Util.getString(data, map.get("caom2:Artifact.productType"));
+            String pts = Util.getString(data, productTypeCol);
             if (pts != null) {
                 pt = ProductType.toValue(pts);
             } else {
@@ -121,7 +146,7 @@ public class ArtifactMapper implements VOTableRowMapper<Artifact> {
                 log.warn("assigning default Artifact.productType = " + pt + " for " + uri);
             }
             ReleaseType rt = null;
-            String rts = Util.getString(data, map.get("caom2:Artifact.releaseType"));
+            String rts = Util.getString(data, releaseTypeCol);
             if (rts != null) {
                 rt = ReleaseType.toValue(rts);
             } else {
@@ -131,22 +156,22 @@ public class ArtifactMapper implements VOTableRowMapper<Artifact> {
 
             Artifact artifact = new Artifact(uri, pt, rt);
 
-            artifact.contentType = Util.getString(data, map.get("caom2:Artifact.contentType"));
-            artifact.contentLength = Util.getLong(data, map.get("caom2:Artifact.contentLength"));
-            artifact.contentChecksum = Util.getURI(data, map.get("caom2:Artifact.contentChecksum"));
-            artifact.contentRelease = Util.getDate(data, map.get("caom2:Artifact.contentRelease")); // CAOM-2.4
-            List<URI> crg = Util.getURIList(data, map.get("caom2:Artifact.contentReadGroups")); // CAOM-2.4
+            artifact.contentType = Util.getString(data, contentTypeCol);
+            artifact.contentLength = Util.getLong(data, contentLengthCol);
+            artifact.contentChecksum = Util.getURI(data, contentChecksumCol);
+            artifact.contentRelease = Util.getDate(data, contentReleaseCol); // CAOM-2.4
+            List<URI> crg = Util.getURIList(data, contentReadGroupsCol); // CAOM-2.4
             if (crg != null) {
                 artifact.getContentReadGroups().addAll(crg);
             }
 
-            Date lastModified = Util.getDate(data, map.get("caom2:Artifact.lastModified"));
-            Date maxLastModified = Util.getDate(data, map.get("caom2:Artifact.maxLastModified"));
+            Date lastModified = Util.getDate(data, lastModifiedCol);
+            Date maxLastModified = Util.getDate(data, maxLastModifiedCol);
             Util.assignLastModified(artifact, lastModified, "lastModified");
             Util.assignLastModified(artifact, maxLastModified, "maxLastModified");
 
-            URI metaChecksum = Util.getURI(data, map.get("caom2:Artifact.metaChecksum"));
-            URI accMetaChecksum = Util.getURI(data, map.get("caom2:Artifact.accMetaChecksum"));
+            URI metaChecksum = Util.getURI(data, metaChecksumCol);
+            URI accMetaChecksum = Util.getURI(data, accMetaChecksumCol);
             Util.assignMetaChecksum(artifact, metaChecksum, "metaChecksum");
             Util.assignMetaChecksum(artifact, accMetaChecksum, "accMetaChecksum");
 
@@ -0,0 +1,448 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2ops.mapper;
+
+import ca.nrc.cadc.dali.Circle;
+import ca.nrc.cadc.dali.DoubleInterval;
+import ca.nrc.cadc.dali.Point;
+import ca.nrc.cadc.dali.Polygon;
+import ca.nrc.cadc.dali.tables.votable.VOTableField;
+import ca.nrc.cadc.dali.util.Format;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.apache.log4j.Logger;
+
+/**
+ * Decoder for rows of a VOTable BINARY or BINARY2 stream (after base64 decoding). Scalar 
+ * numeric values are decoded into primitive row slots, other values to the same types 
+ * produced by the cadc-dali formats; values of fields with an xtype that is not a simple 
+ * geometry are converted with the field format.
+ */
+class BinaryRowReader {
+    private static final Logger log = Logger.getLogger(BinaryRowReader.class);
+
+    private final PushbackInputStream pin;
+    private final DataInputStream in;
+    private final boolean binary2;
+    private final FieldDecoder[] decoders;
+    private final byte[] nullMask;
+    
+    /**
+     * @param fields the table fields
+     * @param formats the format for each field
+     * @param nullValues the VALUES null of each integer field, null if not specified
+     * @param istream decoded binary stream
+     * @param binary2 true for BINARY2 (with null flags), false for BINARY
+     */
+    BinaryRowReader(List<VOTableField> fields, List<Format<Object>> formats, List<Long> nullValues, 
+            InputStream istream, boolean binary2) {
+        this.pin = new PushbackInputStream(istream, 1);
+        this.in = new DataInputStream(pin);
+        this.binary2 = binary2;
+        this.decoders = new FieldDecoder[fields.size()];
+        for (int i = 0; i < decoders.length; i++) {
+            decoders[i] = new FieldDecoder(fields.get(i), formats.get(i), nullValues.get(i));
+        }
+        this.nullMask = new byte[(fields.size() + 7) / 8];
+    }
+    
+    /**
+     * Read the next row.
+     * 
+     * @return the row or null at the end of the stream
+     * @throws IOException failure to read the stream
+     */
+    PrimitiveRow readRow() throws IOException {
+        int b = pin.read();
+        if (b == -1) {
+            return null;
+        }
+        pin.unread(b);
+        
+        try {
+            if (binary2) {
+                in.readFully(nullMask);
+            }
+            PrimitiveRow row = new PrimitiveRow(decoders.length);
+            for (int i = 0; i < decoders.length; i++) {
+                decoders[i].read(in, row, i);
+                if (binary2 && (nullMask[i >> 3] & (0x80 >>> (i & 7))) != 0) {
+                    row.setNull(i);
+                }
+            }
+            return row;
+        } catch (EOFException ex) {
+            throw new UnexpectedContentException("invalid binary stream: truncated row", ex);
+        }
+    }
+    
+    private static class FieldDecoder {
+        private final String name;
+        private final String datatype;
+        private final String xtype;
+        private final Format<Object> format;
+        private final byte slotType;
+        private final boolean array;
+        private final int count; // -1: variable length
+        private final Long nullValue; // BINARY has no null flags for integers
+        
+        FieldDecoder(VOTableField f, Format<Object> format, Long nullValue) {
+            this.name = f.getName();
+            this.datatype = f.getDatatype();
+            this.xtype = f.xtype;
+            this.format = format;
+            this.slotType = PrimitiveRow.getSlotType(f);
+            this.nullValue = nullValue;
+            
+            String arraysize = f.getArraysize();
+            if (arraysize == null || arraysize.trim().isEmpty()) {
+                this.array = false;
+                this.count = 1;
+            } else {
+                this.array = true;
+                String s = arraysize.trim();
+                if (s.endsWith("*")) {
+                    this.count = -1;
+                } else {
+                    int n = 1;
+                    for (String dim : s.split("x")) {
+                        n *= Integer.parseInt(dim);
+                    }
+                    this.count = n;
+                }
+            }
+        }
+        
+        void read(DataInputStream in, PrimitiveRow row, int col) throws IOException {
+            switch (slotType) {
+                case PrimitiveRow.DOUBLE:
+                    double d = in.readDouble();
+                    if (!Double.isNaN(d)) {
+                        row.setDouble(col, d);
+                    }
+                    break;
+                case PrimitiveRow.FLOAT:
+                    float f = in.readFloat();
+                    if (!Float.isNaN(f)) {
+                        row.setFloat(col, f);
+                    }
+                    break;
+                case PrimitiveRow.LONG:
+                    long l = in.readLong();
+                    if (!isNullValue(l)) {
+                        row.setLong(col, l);
+                    }
+                    break;
+                case PrimitiveRow.INT:
+                    int i = in.readInt();
+                    if (!isNullValue(i)) {
+                        row.setInt(col, i);
+                    }
+                    break;
+                case PrimitiveRow.SHORT:
+                    short s = in.readShort();
+                    if (!isNullValue(s)) {
+                        row.setShort(col, s);
+                    }
+                    break;
+                default:
+                    row.setObject(col, readObject(in));
+            }
+        }
+        
+        Object readObject(DataInputStream in) throws IOException {
+            int n = count;
+            if (n < 0) {
+                n = in.readInt();
+            }
+            
+            if ("char".equals(datatype)) {
+                byte[] buf = new byte[n];
+                in.readFully(buf);
+                return toValue(trimString(new String(buf, StandardCharsets.US_ASCII)));
+            }
+            if ("unicodeChar".equals(datatype)) {
+                byte[] buf = new byte[2 * n];
+                in.readFully(buf);
+                return toValue(trimString(new String(buf, StandardCharsets.UTF_16BE)));
+            }
+            if ("double".equals(datatype)) {
+                double[] vals = new double[n];
+                for (int i = 0; i < n; i++) {
+                    vals[i] = in.readDouble();
+                }
+                if (!array) {
+                    return Double.isNaN(vals[0]) ? null : vals[0];
+                }
+                return toValue(vals);
+            }
+            if ("float".equals(datatype)) {
+                float[] vals = new float[n];
+                for (int i = 0; i < n; i++) {
+                    vals[i] = in.readFloat();
+                }
+                if (!array) {
+                    return Float.isNaN(vals[0]) ? null : vals[0];
+                }
+                return toValue(vals);
+            }
+            if ("long".equals(datatype)) {
+                long[] vals = new long[n];
+                for (int i = 0; i < n; i++) {
+                    vals[i] = in.readLong();
+                }
+                if (!array) {
+                    return isNullValue(vals[0]) ? null : toValue(vals[0]);
+                }
+                return toValue(vals);
+            }
+            if ("int".equals(datatype)) {
+                int[] vals = new int[n];
+                for (int i = 0; i < n; i++) {
+                    vals[i] = in.readInt();
+                }
+                if (!array) {
+                    return isNullValue(vals[0]) ? null : toValue(vals[0]);
+                }
+                return toValue(vals);
+            }
+            if ("short".equals(datatype)) {
+                short[] vals = new short[n];
+                for (int i = 0; i < n; i++) {
+                    vals[i] = in.readShort();
+                }
+                if (!array) {
+                    return isNullValue(vals[0]) ? null : toValue(vals[0]);
+                }
+                return toValue(vals);
+            }
+            if ("unsignedByte".equals(datatype)) {
+                byte[] vals = new byte[n];
+                in.readFully(vals);
+                if (!array) {
+                    short v = (short) (vals[0] & 0xff);
+                    return isNullValue(v) ? null : toValue(v);
+                }
+                return toValue(vals);
+            }
+            if ("boolean".equals(datatype)) {
+                byte[] vals = new byte[n];
+                in.readFully(vals);
+                if (!array) {
+                    char c = (char) vals[0];
+                    if (c == 'T' || c == 't' || c == '1') {
+                        return Boolean.TRUE;
+                    }
+                    if (c == 'F' || c == 'f' || c == '0') {
+                        return Boolean.FALSE;
+                    }
+                    return null;
+                }
+                return toValue(new String(vals, StandardCharsets.US_ASCII).trim());
+            }
+            throw new UnexpectedContentException("unsupported binary datatype: " + name + " " + datatype);
+        }
+        
+        private boolean isNullValue(long val) {
+            return nullValue != null && nullValue == val;
+        }
+        
+        // strip NUL padding
+        private String trimString(String s) {
+            int end = s.length();
+            while (end > 0 && s.charAt(end - 1) == '\0') {
+                end--;
+            }
+            return s.substring(0, end);
+        }
+        
+        private Object toValue(String s) {
+            if (s.isEmpty()) {
+                return null;
+            }
+            if (xtype == null) {
+                return s;
+            }
+            return format.parse(s);
+        }
+        
+        private Object toValue(Object scalar) {
+            if (xtype == null) {
+                return scalar;
+            }
+            return format.parse(scalar.toString());
+        }
+        
+        private Object toValue(double[] vals) {
+            if (vals.length == 0) {
+                return null;
+            }
+            if (xtype == null) {
+                return vals;
+            }
+            if ("interval".equals(xtype) && vals.length == 2) {
+                return new DoubleInterval(vals[0], vals[1]);
+            }
+            if ("point".equals(xtype) && vals.length == 2) {
+                return new Point(vals[0], vals[1]);
+            }
+            if ("circle".equals(xtype) && vals.length == 3) {
+                return new Circle(new Point(vals[0], vals[1]), vals[2]);
+            }
+            if ("polygon".equals(xtype) && vals.length % 2 == 0) {
+                Polygon ret = new Polygon();
+                for (int i = 0; i < vals.length; i += 2) {
+                    ret.getVertices().add(new Point(vals[i], vals[i + 1]));
+                }
+                return ret;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (double d : vals) {
+                sb.append(d).append(" ");
+            }
+            return format.parse(sb.toString().trim());
+        }
+        
+        private Object toValue(float[] vals) {
+            if (vals.length == 0) {
+                return null;
+            }
+            if (xtype == null) {
+                return vals;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (float f : vals) {
+                sb.append(f).append(" ");
+            }
+            return format.parse(sb.toString().trim());
+        }
+        
+        private Object toValue(long[] vals) {
+            if (vals.length == 0) {
+                return null;
+            }
+            if (xtype == null) {
+                return vals;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (long v : vals) {
+                sb.append(v).append(" ");
+            }
+            return format.parse(sb.toString().trim());
+        }
+        
+        private Object toValue(int[] vals) {
+            if (vals.length == 0) {
+                return null;
+            }
+            if (xtype == null) {
+                return vals;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (int v : vals) {
+                sb.append(v).append(" ");
+            }
+            return format.parse(sb.toString().trim());
+        }
+        
+        private Object toValue(short[] vals) {
+            if (vals.length == 0) {
+                return null;
+            }
+            if (xtype == null) {
+                return vals;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (short v : vals) {
+                sb.append(v).append(" ");
+            }
+            return format.parse(sb.toString().trim());
+        }
+        
+        private Object toValue(byte[] vals) {
+            if (vals.length == 0) {
+                return null;
+            }
+            if (xtype == null) {
+                return vals;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (byte v : vals) {
+                sb.append(v & 0xff).append(" ");
+            }
+            return format.parse(sb.toString().trim());
+        }
+    }
+}
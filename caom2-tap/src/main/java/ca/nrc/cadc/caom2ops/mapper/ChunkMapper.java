@@ -109,15 +109,264 @@ public class ChunkMapper implements VOTableRowMapper<Chunk> {
 
     private static final Logger log = Logger.getLogger(ChunkMapper.class);
 
-    private Map<String, Integer> map;
+    // column indexes resolved once per result set: mapRow is index-only
+    private final Integer idCol;
+    private final Integer productTypeCol;
+    private final Integer naxisCol;
+    private final Integer positionAxis1Col;
+    private final Integer positionAxis2Col;
+    private final Integer energyAxisCol;
+    private final Integer timeAxisCol;
+    private final Integer polarizationAxisCol;
+    private final Integer customAxisCol;
+    private final Integer observableAxisCol;
+    private final Integer positionAxisAxis1CtypeCol;
+    private final Integer positionAxisAxis1CunitCol;
+    private final Integer positionAxisAxis2CtypeCol;
+    private final Integer positionAxisAxis2CunitCol;
+    private final Integer positionAxisError1SyserCol;
+    private final Integer positionAxisError1RnderCol;
+    private final Integer positionAxisError2SyserCol;
+    private final Integer positionAxisError2RnderCol;
+    private final Integer positionAxisRangeStartCoord1PixCol;
+    private final Integer positionAxisRangeStartCoord1ValCol;
+    private final Integer positionAxisRangeStartCoord2PixCol;
+    private final Integer positionAxisRangeStartCoord2ValCol;
+    private final Integer positionAxisRangeEndCoord1PixCol;
+    private final Integer positionAxisRangeEndCoord1ValCol;
+    private final Integer positionAxisRangeEndCoord2PixCol;
+    private final Integer positionAxisRangeEndCoord2ValCol;
+    private final Integer positionAxisBoundsCol;
+    private final Integer positionAxisFunctionDimensionNaxis1Col;
+    private final Integer positionAxisFunctionDimensionNaxis2Col;
+    private final Integer positionAxisFunctionRefCoordCoord1PixCol;
+    private final Integer positionAxisFunctionRefCoordCoord1ValCol;
+    private final Integer positionAxisFunctionRefCoordCoord2PixCol;
+    private final Integer positionAxisFunctionRefCoordCoord2ValCol;
+    private final Integer positionAxisFunctionCd11Col;
+    private final Integer positionAxisFunctionCd12Col;
+    private final Integer positionAxisFunctionCd21Col;
+    private final Integer positionAxisFunctionCd22Col;
+    private final Integer positionCoordsysCol;
+    private final Integer positionEquinoxCol;
+    private final Integer positionResolutionCol;
+    private final Integer energyAxisAxisCtypeCol;
+    private final Integer energyAxisAxisCunitCol;
+    private final Integer energyAxisErrorSyserCol;
+    private final Integer energyAxisErrorRnderCol;
+    private final Integer energyAxisRangeCol;
+    private final Integer energyAxisRangeStartPixCol;
+    private final Integer energyAxisRangeStartValCol;
+    private final Integer energyAxisRangeEndPixCol;
+    private final Integer energyAxisRangeEndValCol;
+    private final Integer energyAxisBoundsCol;
+    private final Integer energyAxisFunctionCol;
+    private final Integer energyAxisFunctionNaxisCol;
+    private final Integer energyAxisFunctionRefCoordPixCol;
+    private final Integer energyAxisFunctionRefCoordValCol;
+    private final Integer energyAxisFunctionDeltaCol;
+    private final Integer energySpecsysCol;
+    private final Integer energySsysobsCol;
+    private final Integer energySsyssrcCol;
+    private final Integer energyRestfrqCol;
+    private final Integer energyRestwavCol;
+    private final Integer energyVelosysCol;
+    private final Integer energyZsourceCol;
+    private final Integer energyVelangCol;
+    private final Integer energyBandpassNameCol;
+    private final Integer energyResolvingPowerCol;
+    private final Integer energyTransitionSpeciesCol;
+    private final Integer energyTransitionTransitionCol;
+    private final Integer timeAxisAxisCtypeCol;
+    private final Integer timeAxisAxisCunitCol;
+    private final Integer timeAxisErrorSyserCol;
+    private final Integer timeAxisErrorRnderCol;
+    private final Integer timeAxisRangeCol;
+    private final Integer timeAxisRangeStartPixCol;
+    private final Integer timeAxisRangeStartValCol;
+    private final Integer timeAxisRangeEndPixCol;
+    private final Integer timeAxisRangeEndValCol;
+    private final Integer timeAxisBoundsCol;
+    private final Integer timeAxisFunctionCol;
+    private final Integer timeAxisFunctionNaxisCol;
+    private final Integer timeAxisFunctionRefCoordPixCol;
+    private final Integer timeAxisFunctionRefCoordValCol;
+    private final Integer timeAxisFunctionDeltaCol;
+    private final Integer timeTimesysCol;
+    private final Integer timeTreposCol;
+    private final Integer timeMjdrefCol;
+    private final Integer timeExposureCol;
+    private final Integer timeResolutionCol;
+    private final Integer polarizationAxisAxisCtypeCol;
+    private final Integer polarizationAxisAxisCunitCol;
+    private final Integer polarizationAxisErrorSyserCol;
+    private final Integer polarizationAxisErrorRnderCol;
+    private final Integer polarizationRangeCol;
+    private final Integer polarizationAxisRangeStartPixCol;
+    private final Integer polarizationAxisRangeStartValCol;
+    private final Integer polarizationAxisRangeEndPixCol;
+    private final Integer polarizationAxisRangeEndValCol;
+    private final Integer polarizationAxisBoundsCol;
+    private final Integer polarizationFunctionCol;
+    private final Integer polarizationAxisFunctionNaxisCol;
+    private final Integer polarizationAxisFunctionRefCoordPixCol;
+    private final Integer polarizationAxisFunctionRefCoordValCol;
+    private final Integer polarizationAxisFunctionDeltaCol;
+    private final Integer customAxisAxisCtypeCol;
+    private final Integer customAxisAxisCunitCol;
+    private final Integer customAxisErrorSyserCol;
+    private final Integer customAxisErrorRnderCol;
+    private final Integer customAxisRangeStartPixCol;
+    private final Integer customAxisRangeStartValCol;
+    private final Integer customAxisRangeEndPixCol;
+    private final Integer customAxisRangeEndValCol;
+    private final Integer customAxisBoundsCol;
+    private final Integer customAxisFunctionNaxisCol;
+    private final Integer customAxisFunctionRefCoordPixCol;
+    private final Integer customAxisFunctionRefCoordValCol;
+    private final Integer customAxisFunctionDeltaCol;
+    private final Integer observableDependentAxisCtypeCol;
+    private final Integer observableDependentAxisCunitCol;
+    private final Integer observableDependentBinCol;
+    private final Integer observableIndependentAxisCtypeCol;
+    private final Integer observableIndependentAxisCunitCol;
+    private final Integer observableIndependentBinCol;
+    private final Integer lastModifiedCol;
+    private final Integer maxLastModifiedCol;
+    private final Integer metaChecksumCol;
+    private final Integer accMetaChecksumCol;
 
     public ChunkMapper(Map<String, Integer> map) {
-        this.map = map;
+        this.idCol = map.get("caom2:Chunk.id");
+        this.productTypeCol = map.get("caom2:Chunk.productType");
+        this.naxisCol = map.get("caom2:Chunk.naxis");
+        this.positionAxis1Col = map.get("caom2:Chunk.positionAxis1");
+        this.positionAxis2Col = map.get("caom2:Chunk.positionAxis2");
+        this.energyAxisCol = map.get("caom2:Chunk.energyAxis");
+        this.timeAxisCol = map.get("caom2:Chunk.timeAxis");
+        this.polarizationAxisCol = map.get("caom2:Chunk.polarizationAxis");
+        this.customAxisCol = map.get("caom2:Chunk.customAxis");
+        this.observableAxisCol = map.get("caom2:Chunk.observableAxis");
+        this.positionAxisAxis1CtypeCol = map.get("caom2:Chunk.position.axis.axis1.ctype");
+        this.positionAxisAxis1CunitCol = map.get("caom2:Chunk.position.axis.axis1.cunit");
+        this.positionAxisAxis2CtypeCol = map.get("caom2:Chunk.position.axis.axis2.ctype");
+        this.positionAxisAxis2CunitCol = map.get("caom2:Chunk.position.axis.axis2.cunit");
+        this.positionAxisError1SyserCol = map.get("caom2:Chunk.position.axis.error1.syser");
+        this.positionAxisError1RnderCol = map.get("caom2:Chunk.position.axis.error1.rnder");
+        this.positionAxisError2SyserCol = map.get("caom2:Chunk.position.axis.error2.syser");
+        this.positionAxisError2RnderCol = map.get("caom2:Chunk.position.axis.error2.rnder");
+        this.positionAxisRangeStartCoord1PixCol = map.get("caom2:Chunk.position.axis.range.start.coord1.pix");
+        this.positionAxisRangeStartCoord1ValCol = map.get("caom2:Chunk.position.axis.range.start.coord1.val");
+        this.positionAxisRangeStartCoord2PixCol = map.get("caom2:Chunk.position.axis.range.start.coord2.pix");
+        this.positionAxisRangeStartCoord2ValCol = map.get("caom2:Chunk.position.axis.range.start.coord2.val");
+        this.positionAxisRangeEndCoord1PixCol = map.get("caom2:Chunk.position.axis.range.end.coord1.pix");
+        this.positionAxisRangeEndCoord1ValCol = map.get("caom2:Chunk.position.axis.range.end.coord1.val");
+        this.positionAxisRangeEndCoord2PixCol = map.get("caom2:Chunk.position.axis.range.end.coord2.pix");
+        this.positionAxisRangeEndCoord2ValCol = map.get("caom2:Chunk.position.axis.range.end.coord2.val");
+        this.positionAxisBoundsCol = map.get("caom2:Chunk.position.axis.bounds");
+        this.positionAxisFunctionDimensionNaxis1Col = map.get("caom2:Chunk.position.axis.function.dimension.naxis1");
+        this.positionAxisFunctionDimensionNaxis2Col = map.get("caom2:Chunk.position.axis.function.dimension.naxis2");
+        this.positionAxisFunctionRefCoordCoord1PixCol = map.get("caom2:Chunk.position.axis.function.refCoord.coord1.pix");
+        this.positionAxisFunctionRefCoordCoord1ValCol = map.get("caom2:Chunk.position.axis.function.refCoord.coord1.val");
+        this.positionAxisFunctionRefCoordCoord2PixCol = map.get("caom2:Chunk.position.axis.function.refCoord.coord2.pix");
+        this.positionAxisFunctionRefCoordCoord2ValCol = map.get("caom2:Chunk.position.axis.function.refCoord.coord2.val");
+        this.positionAxisFunctionCd11Col = map.get("caom2:Chunk.position.axis.function.cd11");
+        this.positionAxisFunctionCd12Col = map.get("caom2:Chunk.position.axis.function.cd12");
+        this.positionAxisFunctionCd21Col = map.get("caom2:Chunk.position.axis.function.cd21");
+        this.positionAxisFunctionCd22Col = map.get("caom2:Chunk.position.axis.function.cd22");
+        this.positionCoordsysCol = map.get("caom2:Chunk.position.coordsys");
+        this.positionEquinoxCol = map.get("caom2:Chunk.position.equinox");
+        this.positionResolutionCol = map.get("caom2:Chunk.position.resolution");
+        this.energyAxisAxisCtypeCol = map.get("caom2:Chunk.energy.axis.axis.ctype");
+        this.energyAxisAxisCunitCol = map.get("caom2:Chunk.energy.axis.axis.cunit");
+        this.energyAxisErrorSyserCol = map.get("caom2:Chunk.energy.axis.error.syser");
+        this.energyAxisErrorRnderCol = map.get("caom2:Chunk.energy.axis.error.rnder");
+        this.energyAxisRangeCol = map.get("caom2:Chunk.energy.axis.range");
+        this.energyAxisRangeStartPixCol = map.get("caom2:Chunk.energy.axis.range.start.pix");
+        this.energyAxisRangeStartValCol = map.get("caom2:Chunk.energy.axis.range.start.val");
+        this.energyAxisRangeEndPixCol = map.get("caom2:Chunk.energy.axis.range.end.pix");
+        this.energyAxisRangeEndValCol = map.get("caom2:Chunk.energy.axis.range.end.val");
+        this.energyAxisBoundsCol = map.get("caom2:Chunk.energy.axis.bounds");
+        this.energyAxisFunctionCol = map.get("caom2:Chunk.energy.axis.function");
+        this.energyAxisFunctionNaxisCol = map.get("caom2:Chunk.energy.axis.function.naxis");
+        this.energyAxisFunctionRefCoordPixCol = map.get("caom2:Chunk.energy.axis.function.refCoord.pix");
+        this.energyAxisFunctionRefCoordValCol = map.get("caom2:Chunk.energy.axis.function.refCoord.val");
+        this.energyAxisFunctionDeltaCol = map.get("caom2:Chunk.energy.axis.function.delta");
+        this.energySpecsysCol = map.get("caom2:Chunk.energy.specsys");
+        this.energySsysobsCol = map.get("caom2:Chunk.energy.ssysobs");
+        this.energySsyssrcCol = map.get("caom2:Chunk.energy.ssyssrc");
+        this.energyRestfrqCol = map.get("caom2:Chunk.energy.restfrq");
+        this.energyRestwavCol = map.get("caom2:Chunk.energy.restwav");
+        this.energyVelosysCol = map.get("caom2:Chunk.energy.velosys");
+        this.energyZsourceCol = map.get("caom2:Chunk.energy.zsource");
+        this.energyVelangCol = map.get("caom2:Chunk.energy.velang");
+        this.energyBandpassNameCol = map.get("caom2:Chunk.energy.bandpassName");
+        this.energyResolvingPowerCol = map.get("caom2:Chunk.energy.resolvingPower");
+        this.energyTransitionSpeciesCol = map.get("caom2:Chunk.energy.transition.species");
+        this.energyTransitionTransitionCol = map.get("caom2:Chunk.energy.transition.transition");
+        this.timeAxisAxisCtypeCol = map.get("caom2:Chunk.time.axis.axis.ctype");
+        this.timeAxisAxisCunitCol = map.get("caom2:Chunk.time.axis.axis.cunit");
+        this.timeAxisErrorSyserCol = map.get("caom2:Chunk.time.axis.error.syser");
+        this.timeAxisErrorRnderCol = map.get("caom2:Chunk.time.axis.error.rnder");
+        this.timeAxisRangeCol = map.get("caom2:Chunk.time.axis.range");
+        this.timeAxisRangeStartPixCol = map.get("caom2:Chunk.time.axis.range.start.pix");
+        this.timeAxisRangeStartValCol = map.get("caom2:Chunk.time.axis.range.start.val");
+        this.timeAxisRangeEndPixCol = map.get("caom2:Chunk.time.axis.range.end.pix");
+        this.timeAxisRangeEndValCol = map.get("caom2:Chunk.time.axis.range.end.val");
+        this.timeAxisBoundsCol = map.get("caom2:Chunk.time.axis.bounds");
+        this.timeAxisFunctionCol = map.get("caom2:Chunk.time.axis.function");
+        this.timeAxisFunctionNaxisCol = map.get("caom2:Chunk.time.axis.function.naxis");
+        this.timeAxisFunctionRefCoordPixCol = map.get("caom2:Chunk.time.axis.function.refCoord.pix");
+        this.timeAxisFunctionRefCoordValCol = map.get("caom2:Chunk.time.axis.function.refCoord.val");
+        this.timeAxisFunctionDeltaCol = map.get("caom2:Chunk.time.axis.function.delta");
+        this.timeTimesysCol = map.get("caom2:Chunk.time.timesys");
+        this.timeTreposCol = map.get("caom2:Chunk.time.trepos");
+        this.timeMjdrefCol = map.get("caom2:Chunk.time.mjdref");
+        this.timeExposureCol = map.get("caom2:Chunk.time.exposure");
+        this.timeResolutionCol = map.get("caom2:Chunk.time.resolution");
+        this.polarizationAxisAxisCtypeCol = map.get("caom2:Chunk.polarization.axis.axis.ctype");
+        this.polarizationAxisAxisCunitCol = map.get("caom2:Chunk.polarization.axis.axis.cunit");
+        this.polarizationAxisErrorSyserCol = map.get("caom2:Chunk.polarization.axis.error.syser");
+        this.polarizationAxisErrorRnderCol = map.get("caom2:Chunk.polarization.axis.error.rnder");
+        this.polarizationRangeCol = map.get("caom2:Chunk.polarization.range");
+        this.polarizationAxisRangeStartPixCol = map.get("caom2:Chunk.polarization.axis.range.start.pix");
+        this.polarizationAxisRangeStartValCol = map.get("caom2:Chunk.polarization.axis.range.start.val");
+        this.polarizationAxisRangeEndPixCol = map.get("caom2:Chunk.polarization.axis.range.end.pix");
+        this.polarizationAxisRangeEndValCol = map.get("caom2:Chunk.polarization.axis.range.end.val");
+        this.polarizationAxisBoundsCol = map.get("caom2:Chunk.polarization.axis.bounds");
+        this.polarizationFunctionCol = map.get("caom2:Chunk.polarization.function");
+        this.polarizationAxisFunctionNaxisCol = map.get("caom2:Chunk.polarization.axis.function.naxis");
+        this.polarizationAxisFunctionRefCoordPixCol = map.get("caom2:Chunk.polarization.axis.function.refCoord.pix");
+        this.polarizationAxisFunctionRefCoordValCol = map.get("caom2:Chunk.polarization.axis.function.refCoord.val");
+        this.polarizationAxisFunctionDeltaCol = map.get("caom2:Chunk.polarization.axis.function.delta");
+        this.customAxisAxisCtypeCol = map.get("caom2:Chunk.custom.axis.axis.ctype");
+        this.customAxisAxisCunitCol = map.get("caom2:Chunk.custom.axis.axis.cunit");
+        this.customAxisErrorSyserCol = map.get("caom2:Chunk.custom.axis.error.syser");
+        this.customAxisErrorRnderCol = map.get("caom2:Chunk.custom.axis.error.rnder");
+        this.customAxisRangeStartPixCol = map.get("caom2:Chunk.custom.axis.range.start.pix");
+        this.customAxisRangeStartValCol = map.get("caom2:Chunk.custom.axis.range.start.val");
+        this.customAxisRangeEndPixCol = map.get("caom2:Chunk.custom.axis.range.end.pix");
+        this.customAxisRangeEndValCol = map.get("caom2:Chunk.custom.axis.range.end.val");
+        this.customAxisBoundsCol = map.get("caom2:Chunk.custom.axis.bounds");
+        this.customAxisFunctionNaxisCol = map.get("caom2:Chunk.custom.axis.function.naxis");
+        this.customAxisFunctionRefCoordPixCol = map.get("caom2:Chunk.custom.axis.function.refCoord.pix");
+        this.customAxisFunctionRefCoordValCol = map.get("caom2:Chunk.custom.axis.function.refCoord.val");
+        this.customAxisFunctionDeltaCol = map.get("caom2:Chunk.custom.axis.function.delta");
+        this.observableDependentAxisCtypeCol = map.get("caom2:Chunk.observable.dependent.axis.ctype");
+        this.observableDependentAxisCunitCol = map.get("caom2:Chunk.observable.dependent.axis.cunit");
+        this.observableDependentBinCol = map.get("caom2:Chunk.observable.dependent.bin");
+        this.observableIndependentAxisCtypeCol = map.get("caom2:Chunk.observable.independent.axis.ctype");
+        this.observableIndependentAxisCunitCol = map.get("caom2:Chunk.observable.independent.axis.cunit");
+        this.observableIndependentBinCol = map.get("caom2:Chunk.observable.independent.bin");
+        this.lastModifiedCol = map.get("caom2:Chunk.lastModified");
+        this.maxLastModifiedCol = map.get("caom2:Chunk.maxLastModified");
+        this.metaChecksumCol = map.get("caom2:Chunk.metaChecksum");
+        this.accMetaChecksumCol = map.get("caom2:Chunk.accMetaChecksum");
     }
 
     public Chunk mapRow(List<Object> data, DateFormat dateFormat) {
         log.debug("mapping Chunk");
-        UUID id = Util.getUUID(data, map.get("caom2:Chunk.id"));
+        UUID id = Util.getUUID(data, idCol);
         if (id == null) {
             return null;
         }
@@ -125,67 +374,67 @@ public class ChunkMapper implements VOTableRowMapper<Chunk> {
         try {
             Chunk c = new Chunk();
 
-            String pt = Util.getString(data, map.get("caom2:Chunk.productType"));
+            String pt = Util.getString(data, productTypeCol);
             log.debug("found c.productType = " + pt);
             if (pt != null) {
                 c.productType = ProductType.toValue(pt);
             }
 
-            c.naxis = Util.getInteger(data, map.get("caom2:Chunk.naxis"));
-            c.positionAxis1 = Util.getInteger(data, map.get("caom2:Chunk.positionAxis1"));
-            c.positionAxis2 = Util.getInteger(data, map.get("caom2:Chunk.positionAxis2"));
-            c.energyAxis = Util.getInteger(data, map.get("caom2:Chunk.energyAxis"));
-            c.timeAxis = Util.getInteger(data, map.get("caom2:Chunk.timeAxis"));
-            c.polarizationAxis = Util.getInteger(data, map.get("caom2:Chunk.polarizationAxis"));
-            c.customAxis = Util.getInteger(data, map.get("caom2:Chunk.customAxis"));
-            c.observableAxis = Util.getInteger(data, map.get("caom2:Chunk.observableAxis"));
+            c.naxis = Util.getInteger(data, naxisCol);
+            c.positionAxis1 = Util.getInteger(data, positionAxis1Col);
+            c.positionAxis2 = Util.getInteger(data, positionAxis2Col);
+            c.energyAxis = Util.getInteger(data, energyAxisCol);
+            c.timeAxis = Util.getInteger(data, timeAxisCol);
+            c.polarizationAxis = Util.getInteger(data, polarizationAxisCol);
+            c.customAxis = Util.getInteger(data, customAxisCol);
+            c.observableAxis = Util.getInteger(data, observableAxisCol);
 
             // position
-            String posctype1 = Util.getString(data, map.get("caom2:Chunk.position.axis.axis1.ctype"));
-            String poscunit1 = Util.getString(data, map.get("caom2:Chunk.position.axis.axis1.cunit"));
-            String posctype2 = Util.getString(data, map.get("caom2:Chunk.position.axis.axis2.ctype"));
-            String poscunit2 = Util.getString(data, map.get("caom2:Chunk.position.axis.axis2.cunit"));
-            Double e1s = Util.getDouble(data, map.get("caom2:Chunk.position.axis.error1.syser"));
-            Double e1r = Util.getDouble(data, map.get("caom2:Chunk.position.axis.error1.rnder"));
-            Double e2s = Util.getDouble(data, map.get("caom2:Chunk.position.axis.error2.syser"));
-            Double e2r = Util.getDouble(data, map.get("caom2:Chunk.position.axis.error2.rnder"));
+            String posctype1 = Util.getString(data, positionAxisAxis1CtypeCol);
+            String poscunit1 = Util.getString(data, positionAxisAxis1CunitCol);
+            String posctype2 = Util.getString(data, positionAxisAxis2CtypeCol);
+            String poscunit2 = Util.getString(data, positionAxisAxis2CunitCol);
+            Double e1s = Util.getDouble(data, positionAxisError1SyserCol);
+            Double e1r = Util.getDouble(data, positionAxisError1RnderCol);
+            Double e2s = Util.getDouble(data, positionAxisError2SyserCol);
+            Double e2r = Util.getDouble(data, positionAxisError2RnderCol);
             CoordRange2D posrange = null; // Util.decodeCoordRange2D( Util.getString(data, map.get(CHUNK_POS_AXIS_RANGE)) );
-            Double start1pix = Util.getDouble(data, map.get("caom2:Chunk.position.axis.range.start.coord1.pix"));
-            Double start1val = Util.getDouble(data, map.get("caom2:Chunk.position.axis.range.start.coord1.val"));
-            Double start2pix = Util.getDouble(data, map.get("caom2:Chunk.position.axis.range.start.coord2.pix"));
-            Double start2val = Util.getDouble(data, map.get("caom2:Chunk.position.axis.range.start.coord2.val"));
-            Double end1pix = Util.getDouble(data, map.get("caom2:Chunk.position.axis.range.end.coord1.pix"));
-            Double end1val = Util.getDouble(data, map.get("caom2:Chunk.position.axis.range.end.coord1.val"));
-            Double end2pix = Util.getDouble(data, map.get("caom2:Chunk.position.axis.range.end.coord2.pix"));
-            Double end2val = Util.getDouble(data, map.get("caom2:Chunk.position.axis.range.end.coord2.val"));
-            if (start1pix != null) {
+            if (!Util.isNull(data, positionAxisRangeStartCoord1PixCol)) {
+                double start1pix = Util.getRequiredDouble(data, positionAxisRangeStartCoord1PixCol);
+                double start1val = Util.getRequiredDouble(data, positionAxisRangeStartCoord1ValCol);
+                double start2pix = Util.getRequiredDouble(data, positionAxisRangeStartCoord2PixCol);
+                double start2val = Util.getRequiredDouble(data, positionAxisRangeStartCoord2ValCol);
+                double end1pix = Util.getRequiredDouble(data, positionAxisRangeEndCoord1PixCol);
+                double end1val = Util.getRequiredDouble(data, positionAxisRangeEndCoord1ValCol);
+                double end2pix = Util.getRequiredDouble(data, positionAxisRangeEndCoord2PixCol);
+                double end2val = Util.getRequiredDouble(data, positionAxisRangeEndCoord2ValCol);
                 posrange = new CoordRange2D(
                         new Coord2D(new RefCoord(start1pix, start1val), new RefCoord(start2pix, start2val)),
                         new Coord2D(new RefCoord(end1pix, end1val), new RefCoord(end2pix, end2val)));
             }
 
-            CoordBounds2D posbounds = Util.decodeCoordBounds2D(Util.getString(data, map.get("caom2:Chunk.position.axis.bounds")));
+            CoordBounds2D posbounds = Util.decodeCoordBounds2D(Util.getString(data, positionAxisBoundsCol));
 
             CoordFunction2D posfunction = null; // Util.decodeCoordFunction2D( Util.getString(data, map.get(CHUNK_POS_AXIS_FUNCTION)) );
-            Long naxis1 = Util.getLong(data, map.get("caom2:Chunk.position.axis.function.dimension.naxis1"));
-            Long naxis2 = Util.getLong(data, map.get("caom2:Chunk.position.axis.function.dimension.naxis2"));
-            Double c1pix = Util.getDouble(data, map.get("caom2:Chunk.position.axis.function.refCoord.coord1.pix"));
-            Double c1val = Util.getDouble(data, map.get("caom2:Chunk.position.axis.function.refCoord.coord1.val"));
-            Double c2pix = Util.getDouble(data, map.get("caom2:Chunk.position.axis.function.refCoord.coord2.pix"));
-            Double c2val = Util.getDouble(data, map.get("caom2:Chunk.position.axis.function.refCoord.coord2.val"));
-            Double cd11 = Util.getDouble(data, map.get("caom2:Chunk.position.axis.function.cd11"));
-            Double cd12 = Util.getDouble(data, map.get("caom2:Chunk.position.axis.function.cd12"));
-            Double cd21 = Util.getDouble(data, map.get("caom2:Chunk.position.axis.function.cd21"));
-            Double cd22 = Util.getDouble(data, map.get("caom2:Chunk.position.axis.function.cd22"));
+            Long naxis1 = Util.getLong(data, positionAxisFunctionDimensionNaxis1Col);
+            Long naxis2 = Util.getLong(data, positionAxisFunctionDimensionNaxis2Col);
             if (naxis1 != null) {
+                double c1pix = Util.getRequiredDouble(data, positionAxisFunctionRefCoordCoord1PixCol);
+                double c1val = Util.getRequiredDouble(data, positionAxisFunctionRefCoordCoord1ValCol);
+                double c2pix = Util.getRequiredDouble(data, positionAxisFunctionRefCoordCoord2PixCol);
+                double c2val = Util.getRequiredDouble(data, positionAxisFunctionRefCoordCoord2ValCol);
+                double cd11 = Util.getRequiredDouble(data, positionAxisFunctionCd11Col);
+                double cd12 = Util.getRequiredDouble(data, positionAxisFunctionCd12Col);
+                double cd21 = Util.getRequiredDouble(data, positionAxisFunctionCd21Col);
+                double cd22 = Util.getRequiredDouble(data, positionAxisFunctionCd22Col);
                 posfunction = new CoordFunction2D(new Dimension2D(naxis1, naxis2),
                         new Coord2D(new RefCoord(c1pix, c1val), new RefCoord(c2pix, c2val)),
                         cd11, cd12, cd21, cd22);
             }
 
-            String coordsys = Util.getString(data, map.get("caom2:Chunk.position.coordsys"));
-            Double equinox = Util.getDouble(data, map.get("caom2:Chunk.position.equinox"));
-            Double posres = Util.getDouble(data, map.get("caom2:Chunk.position.resolution"));
+            String coordsys = Util.getString(data, positionCoordsysCol);
+            Double equinox = Util.getDouble(data, positionEquinoxCol);
+            Double posres = Util.getDouble(data, positionResolutionCol);
             if (posctype1 != null) {
                 CoordAxis2D axis = new CoordAxis2D(new Axis(posctype1, poscunit1), new Axis(posctype2, poscunit2));
                 if (e1s != null || e1r != null) {
@@ -204,41 +453,41 @@ public class ChunkMapper implements VOTableRowMapper<Chunk> {
             }
 
             // energy
-            String enctype = Util.getString(data, map.get("caom2:Chunk.energy.axis.axis.ctype"));
-            String encunit = Util.getString(data, map.get("caom2:Chunk.energy.axis.axis.cunit"));
-            Double enes = Util.getDouble(data, map.get("caom2:Chunk.energy.axis.error.syser"));
-            Double ener = Util.getDouble(data, map.get("caom2:Chunk.energy.axis.error.rnder"));
-            CoordRange1D enrange = null; // Util.decodeCoordRange1D( Util.getString(data, map.get("caom2:Chunk.energy.axis.range")) );
-            Double pix1 = Util.getDouble(data, map.get("caom2:Chunk.energy.axis.range.start.pix"));
-            Double val1 = Util.getDouble(data, map.get("caom2:Chunk.energy.axis.range.start.val"));
-            Double pix2 = Util.getDouble(data, map.get("caom2:Chunk.energy.axis.range.end.pix"));
-            Double val2 = Util.getDouble(data, map.get("caom2:Chunk.energy.axis.range.end.val"));
-            if (pix1 != null) {
+            String enctype = Util.getString(data, energyAxisAxisCtypeCol);
+            String encunit = Util.getString(data, energyAxisAxisCunitCol);
+            Double enes = Util.getDouble(data, energyAxisErrorSyserCol);
+            Double ener = Util.getDouble(data, energyAxisErrorRnderCol);
+            CoordRange1D enrange = null; // Util.decodeCoordRange1D( Util.getString(data, energyAxisRangeCol) );
+            if (!Util.isNull(data, energyAxisRangeStartPixCol)) {
+                double pix1 = Util.getRequiredDouble(data, energyAxisRangeStartPixCol);
+                double val1 = Util.getRequiredDouble(data, energyAxisRangeStartValCol);
+                double pix2 = Util.getRequiredDouble(data, energyAxisRangeEndPixCol);
+                double val2 = Util.getRequiredDouble(data, energyAxisRangeEndValCol);
                 enrange = new CoordRange1D(new RefCoord(pix1, val1), new RefCoord(pix2, val2));
             }
 
-            CoordBounds1D enbounds = Util.decodeCoordBounds1D(Util.getString(data, map.get("caom2:Chunk.energy.axis.bounds")));
-            CoordFunction1D enfunction = null; // Util.decodeCoordFunction1D( Util.getString(data, map.get("caom2:Chunk.energy.axis.function")) );
-            Long naxis = Util.getLong(data, map.get("caom2:Chunk.energy.axis.function.naxis"));
-            Double pix = Util.getDouble(data, map.get("caom2:Chunk.energy.axis.function.refCoord.pix"));
-            Double val = Util.getDouble(data, map.get("caom2:Chunk.energy.axis.function.refCoord.val"));
-            Double delta = Util.getDouble(data, map.get("caom2:Chunk.energy.axis.function.delta"));
+            CoordBounds1D enbounds = Util.decodeCoordBounds1D(Util.getString(data, energyAxisBoundsCol));
+            CoordFunction1D enfunction = null; // Util.decodeCoordFunction1D( Util.getString(data, energyAxisFunctionCol) );
+            Long naxis = Util.getLong(data, energyAxisFunctionNaxisCol);
+            Double delta = Util.getDouble(data, energyAxisFunctionDeltaCol);
             if (naxis != null) {
+                double pix = Util.getRequiredDouble(data, energyAxisFunctionRefCoordPixCol);
+                double val = Util.getRequiredDouble(data, energyAxisFunctionRefCoordValCol);
                 enfunction = new CoordFunction1D(naxis, delta, new RefCoord(pix, val));
             }
 
-            String specsys = Util.getString(data, map.get("caom2:Chunk.energy.specsys"));
-            String ssysobs = Util.getString(data, map.get("caom2:Chunk.energy.ssysobs"));
-            String ssyssrc = Util.getString(data, map.get("caom2:Chunk.energy.ssyssrc"));
-            Double restfrq = Util.getDouble(data, map.get("caom2:Chunk.energy.restfrq"));
-            Double restwav = Util.getDouble(data, map.get("caom2:Chunk.energy.restwav"));
-            Double velosys = Util.getDouble(data, map.get("caom2:Chunk.energy.velosys"));
-            Double zsource = Util.getDouble(data, map.get("caom2:Chunk.energy.zsource"));
-            Double velang = Util.getDouble(data, map.get("caom2:Chunk.energy.velang"));
-            String bandpassName = Util.getString(data, map.get("caom2:Chunk.energy.bandpassName"));
-            Double enres = Util.getDouble(data, map.get("caom2:Chunk.energy.resolvingPower"));
-            String species = Util.getString(data, map.get("caom2:Chunk.energy.transition.species"));
-            String trans = Util.getString(data, map.get("caom2:Chunk.energy.transition.transition"));
+            String specsys = Util.getString(data, energySpecsysCol);
+            String ssysobs = Util.getString(data, energySsysobsCol);
+            String ssyssrc = Util.getString(data, energySsyssrcCol);
+            Double restfrq = Util.getDouble(data, energyRestfrqCol);
+            Double restwav = Util.getDouble(data, energyRestwavCol);
+            Double velosys = Util.getDouble(data, energyVelosysCol);
+            Double zsource = Util.getDouble(data, energyZsourceCol);
+            Double velang = Util.getDouble(data, energyVelangCol);
+            String bandpassName = Util.getString(data, energyBandpassNameCol);
+            Double enres = Util.getDouble(data, energyResolvingPowerCol);
+            String species = Util.getString(data, energyTransitionSpeciesCol);
+            String trans = Util.getString(data, energyTransitionTransitionCol);
             if (enctype != null) {
                 CoordAxis1D axis = new CoordAxis1D(new Axis(enctype, encunit));
                 if (enes != null || ener != null) {
@@ -263,34 +512,34 @@ public class ChunkMapper implements VOTableRowMapper<Chunk> {
             }
 
             // time
-            final String tctype = Util.getString(data, map.get("caom2:Chunk.time.axis.axis.ctype"));
-            String tcunit = Util.getString(data, map.get("caom2:Chunk.time.axis.axis.cunit"));
-            Double tes = Util.getDouble(data, map.get("caom2:Chunk.time.axis.error.syser"));
-            Double ter = Util.getDouble(data, map.get("caom2:Chunk.time.axis.error.rnder"));
-            CoordRange1D trange = null; // Util.decodeCoordRange1D( Util.getString(data, map.get("caom2:Chunk.time.axis.range")) );
-            pix1 = Util.getDouble(data, map.get("caom2:Chunk.time.axis.range.start.pix"));
-            val1 = Util.getDouble(data, map.get("caom2:Chunk.time.axis.range.start.val"));
-            pix2 = Util.getDouble(data, map.get("caom2:Chunk.time.axis.range.end.pix"));
-            val2 = Util.getDouble(data, map.get("caom2:Chunk.time.axis.range.end.val"));
-            if (pix1 != null) {
+            final String tctype = Util.getString(data, timeAxisAxisCtypeCol);
+            String tcunit = Util.getString(data, timeAxisAxisCunitCol);
+            Double tes = Util.getDouble(data, timeAxisErrorSyserCol);
+            Double ter = Util.getDouble(data, timeAxisErrorRnderCol);
+            CoordRange1D trange = null; // Util.decodeCoordRange1D( Util.getString(data, timeAxisRangeCol) );
+            if (!Util.isNull(data, timeAxisRangeStartPixCol)) {
+                double pix1 = Util.getRequiredDouble(data, timeAxisRangeStartPixCol);
+                double val1 = Util.getRequiredDouble(data, timeAxisRangeStartValCol);
+                double pix2 = Util.getRequiredDouble(data, timeAxisRangeEndPixCol);
+                double val2 = Util.getRequiredDouble(data, timeAxisRangeEndValCol);
                 trange = new CoordRange1D(new RefCoord(pix1, val1), new RefCoord(pix2, val2));
             }
 
-            CoordBounds1D tbounds = Util.decodeCoordBounds1D(Util.getString(data, map.get("caom2:Chunk.time.axis.bounds")));
-            CoordFunction1D tfunction = null; // Util.decodeCoordFunction1D( Util.getString(data, map.get("caom2:Chunk.time.axis.function")) );
-            naxis = Util.getLong(data, map.get("caom2:Chunk.time.axis.function.naxis"));
-            pix = Util.getDouble(data, map.get("caom2:Chunk.time.axis.function.refCoord.pix"));
-            val = Util.getDouble(data, map.get("caom2:Chunk.time.axis.function.refCoord.val"));
-            delta = Util.getDouble(data, map.get("caom2:Chunk.time.axis.function.delta"));
+            CoordBounds1D tbounds = Util.decodeCoordBounds1D(Util.getString(data, timeAxisBoundsCol));
+            CoordFunction1D tfunction = null; // Util.decodeCoordFunction1D( Util.getString(data, timeAxisFunctionCol) );
+            naxis = Util.getLong(data, timeAxisFunctionNaxisCol);
+            delta = Util.getDouble(data, timeAxisFunctionDeltaCol);
             if (naxis != null) {
+                double pix = Util.getRequiredDouble(data, timeAxisFunctionRefCoordPixCol);
+                double val = Util.getRequiredDouble(data, timeAxisFunctionRefCoordValCol);
                 tfunction = new CoordFunction1D(naxis, delta, new RefCoord(pix, val));
             }
 
-            String timesys = Util.getString(data, map.get("caom2:Chunk.time.timesys"));
-            String trefpos = Util.getString(data, map.get("caom2:Chunk.time.trepos"));
-            Double mjdref = Util.getDouble(data, map.get("caom2:Chunk.time.mjdref"));
-            Double exposure = Util.getDouble(data, map.get("caom2:Chunk.time.exposure"));
-            Double tres = Util.getDouble(data, map.get("caom2:Chunk.time.resolution"));
+            String timesys = Util.getString(data, timeTimesysCol);
+            String trefpos = Util.getString(data, timeTreposCol);
+            Double mjdref = Util.getDouble(data, timeMjdrefCol);
+            Double exposure = Util.getDouble(data, timeExposureCol);
+            Double tres = Util.getDouble(data, timeResolutionCol);
             if (tctype != null) {
                 CoordAxis1D axis = new CoordAxis1D(new Axis(tctype, tcunit));
                 if (tes != null || ter != null) {
@@ -308,26 +557,26 @@ public class ChunkMapper implements VOTableRowMapper<Chunk> {
             }
 
             // polarization
-            final String pctype = Util.getString(data, map.get("caom2:Chunk.polarization.axis.axis.ctype"));
-            String pcunit = Util.getString(data, map.get("caom2:Chunk.polarization.axis.axis.cunit"));
-            Double pes = Util.getDouble(data, map.get("caom2:Chunk.polarization.axis.error.syser"));
-            Double per = Util.getDouble(data, map.get("caom2:Chunk.polarization.axis.error.rnder"));
-            CoordRange1D prange = null; // Util.decodeCoordRange1D( Util.getString(data, map.get("caom2:Chunk.polarization.range")) );
-            pix1 = Util.getDouble(data, map.get("caom2:Chunk.polarization.axis.range.start.pix"));
-            val1 = Util.getDouble(data, map.get("caom2:Chunk.polarization.axis.range.start.val"));
-            pix2 = Util.getDouble(data, map.get("caom2:Chunk.polarization.axis.range.end.pix"));
-            val2 = Util.getDouble(data, map.get("caom2:Chunk.polarization.axis.range.end.val"));
-            if (pix1 != null) {
+            final String pctype = Util.getString(data, polarizationAxisAxisCtypeCol);
+            String pcunit = Util.getString(data, polarizationAxisAxisCunitCol);
+            Double pes = Util.getDouble(data, polarizationAxisErrorSyserCol);
+            Double per = Util.getDouble(data, polarizationAxisErrorRnderCol);
+            CoordRange1D prange = null; // Util.decodeCoordRange1D( Util.getString(data, polarizationRangeCol) );
+            if (!Util.isNull(data, polarizationAxisRangeStartPixCol)) {
+                double pix1 = Util.getRequiredDouble(data, polarizationAxisRangeStartPixCol);
+                double val1 = Util.getRequiredDouble(data, polarizationAxisRangeStartValCol);
+                double pix2 = Util.getRequiredDouble(data, polarizationAxisRangeEndPixCol);
+                double val2 = Util.getRequiredDouble(data, polarizationAxisRangeEndValCol);
                 prange = new CoordRange1D(new RefCoord(pix1, val1), new RefCoord(pix2, val2));
             }
 
-            CoordBounds1D pbounds = Util.decodeCoordBounds1D(Util.getString(data, map.get("caom2:Chunk.polarization.axis.bounds")));
-            CoordFunction1D pfunction = null; // Util.decodeCoordFunction1D( Util.getString(data, map.get("caom2:Chunk.polarization.function")) );
-            naxis = Util.getLong(data, map.get("caom2:Chunk.polarization.axis.function.naxis"));
-            pix = Util.getDouble(data, map.get("caom2:Chunk.polarization.axis.function.refCoord.pix"));
-            val = Util.getDouble(data, map.get("caom2:Chunk.polarization.axis.function.refCoord.val"));
-            delta = Util.getDouble(data, map.get("caom2:Chunk.polarization.axis.function.delta"));
+            CoordBounds1D pbounds = Util.decodeCoordBounds1D(Util.getString(data, polarizationAxisBoundsCol));
+            CoordFunction1D pfunction = null; // Util.decodeCoordFunction1D( Util.getString(data, polarizationFunctionCol) );
+            naxis = Util.getLong(data, polarizationAxisFunctionNaxisCol);
+            delta = Util.getDouble(data, polarizationAxisFunctionDeltaCol);
             if (naxis != null) {
+                double pix = Util.getRequiredDouble(data, polarizationAxisFunctionRefCoordPixCol);
+                double val = Util.getRequiredDouble(data, polarizationAxisFunctionRefCoordValCol);
                 pfunction = new CoordFunction1D(naxis, delta, new RefCoord(pix, val));
             }
 
@@ -343,26 +592,26 @@ public class ChunkMapper implements VOTableRowMapper<Chunk> {
             }
 
             // custom
-            final String cctype = Util.getString(data, map.get("caom2:Chunk.custom.axis.axis.ctype"));
-            String ccunit = Util.getString(data, map.get("caom2:Chunk.custom.axis.axis.cunit"));
-            Double ces = Util.getDouble(data, map.get("caom2:Chunk.custom.axis.error.syser"));
-            Double cer = Util.getDouble(data, map.get("caom2:Chunk.custom.axis.error.rnder"));
+            final String cctype = Util.getString(data, customAxisAxisCtypeCol);
+            String ccunit = Util.getString(data, customAxisAxisCunitCol);
+            Double ces = Util.getDouble(data, customAxisErrorSyserCol);
+            Double cer = Util.getDouble(data, customAxisErrorRnderCol);
             CoordRange1D crange = null;
-            pix1 = Util.getDouble(data, map.get("caom2:Chunk.custom.axis.range.start.pix"));
-            val1 = Util.getDouble(data, map.get("caom2:Chunk.custom.axis.range.start.val"));
-            pix2 = Util.getDouble(data, map.get("caom2:Chunk.custom.axis.range.end.pix"));
-            val2 = Util.getDouble(data, map.get("caom2:Chunk.custom.axis.range.end.val"));
-            if (pix1 != null) {
+            if (!Util.isNull(data, customAxisRangeStartPixCol)) {
+                double pix1 = Util.getRequiredDouble(data, customAxisRangeStartPixCol);
+                double val1 = Util.getRequiredDouble(data, customAxisRangeStartValCol);
+                double pix2 = Util.getRequiredDouble(data, customAxisRangeEndPixCol);
+                double val2 = Util.getRequiredDouble(data, customAxisRangeEndValCol);
                 crange = new CoordRange1D(new RefCoord(pix1, val1), new RefCoord(pix2, val2));
             }
 
-            CoordBounds1D cbounds = Util.decodeCoordBounds1D(Util.getString(data, map.get("caom2:Chunk.custom.axis.bounds")));
+            CoordBounds1D cbounds = Util.decodeCoordBounds1D(Util.getString(data, customAxisBoundsCol));
             CoordFunction1D cfunction = null;
-            naxis = Util.getLong(data, map.get("caom2:Chunk.custom.axis.function.naxis"));
-            pix = Util.getDouble(data, map.get("caom2:Chunk.custom.axis.function.refCoord.pix"));
-            val = Util.getDouble(data, map.get("caom2:Chunk.custom.axis.function.refCoord.val"));
-            delta = Util.getDouble(data, map.get("caom2:Chunk.custom.axis.function.delta"));
+            naxis = Util.getLong(data, customAxisFunctionNaxisCol);
+            delta = Util.getDouble(data, customAxisFunctionDeltaCol);
             if (naxis != null) {
+                double pix = Util.getRequiredDouble(data, customAxisFunctionRefCoordPixCol);
+                double val = Util.getRequiredDouble(data, customAxisFunctionRefCoordValCol);
                 cfunction = new CoordFunction1D(naxis, delta, new RefCoord(pix, val));
             }
 
@@ -378,12 +627,12 @@ public class ChunkMapper implements VOTableRowMapper<Chunk> {
             }
 
             // observable
-            String oda = Util.getString(data, map.get("caom2:Chunk.observable.dependent.axis.ctype"));
-            String odu = Util.getString(data, map.get("caom2:Chunk.observable.dependent.axis.cunit"));
-            Long odb = Util.getLong(data, map.get("caom2:Chunk.observable.dependent.bin"));
-            String oia = Util.getString(data, map.get("caom2:Chunk.observable.independent.axis.ctype"));
-            String oiu = Util.getString(data, map.get("caom2:Chunk.observable.independent.axis.cunit"));
-            Long oib = Util.getLong(data, map.get("caom2:Chunk.observable.independent.bin"));
+            String oda = Util.getString(data, observableDependentAxisCtypeCol);
+            String odu = Util.getString(data, observableDependentAxisCunitCol);
+            Long odb = Util.getLong(data, observableDependentBinCol);
+            String oia = Util.getString(data, observableIndependentAxisCtypeCol);
+            String oiu = Util.getString(data, observableIndependentAxisCunitCol);
+            Long oib = Util.getLong(data, observableIndependentBinCol);
             if (oda != null) {
                 Slice dep = new Slice(new Axis(oda, odu), odb);
                 c.observable = new ObservableAxis(dep);
@@ -392,15 +641,15 @@ public class ChunkMapper implements VOTableRowMapper<Chunk> {
                 }
             }
 
-            Date lastModified = Util.getDate(data, map.get("caom2:Chunk.lastModified"));
+            Date lastModified = Util.getDate(data, lastModifiedCol);
             log.debug("found: chunk.lastModified = " + lastModified);
-            Date maxLastModified = Util.getDate(data, map.get("caom2:Chunk.maxLastModified"));
+            Date maxLastModified = Util.getDate(data, maxLastModifiedCol);
             log.debug("found: chunk.maxLastModified = " + maxLastModified);
             Util.assignLastModified(c, lastModified, "lastModified");
             Util.assignLastModified(c, maxLastModified, "maxLastModified");
 
-            URI metaChecksum = Util.getURI(data, map.get("caom2:Chunk.metaChecksum"));
-            URI accMetaChecksum = Util.getURI(data, map.get("caom2:Chunk.accMetaChecksum"));
+            URI metaChecksum = Util.getURI(data, metaChecksumCol);
+            URI accMetaChecksum = Util.getURI(data, accMetaChecksumCol);
             Util.assignMetaChecksum(c, metaChecksum, "metaChecksum");
             Util.assignMetaChecksum(c, accMetaChecksum, "accMetaChecksum");
 
@@ -102,25 +102,116 @@ public class ObservationMapper implements VOTableRowMapper<Observation> {
 
     private static final Logger log = Logger.getLogger(ObservationMapper.class);
 
-    private Map<String, Integer> map;
+    // column indexes resolved once per result set: mapRow is index-only
+    private final Integer idCol;
+    private final Integer collectionCol;
+    private final Integer observationIDCol;
+    private final Integer algorithmNameCol;
+    private final Integer membersCol;
+    private final Integer typeCodeCol;
+    private final Integer typeCol;
+    private final Integer intentCol;
+    private final Integer sequenceNumberCol;
+    private final Integer metaReleaseCol;
+    private final Integer metaReadGroupsCol;
+    private final Integer proposalIdCol;
+    private final Integer proposalPiCol;
+    private final Integer proposalProjectCol;
+    private final Integer proposalTitleCol;
+    private final Integer proposalKeywordsCol;
+    private final Integer targetNameCol;
+    private final Integer targetTargetIDCol;
+    private final Integer targetMovingCol;
+    private final Integer targetRedshiftCol;
+    private final Integer targetStandardCol;
+    private final Integer targetTypeCol;
+    private final Integer targetKeywordsCol;
+    private final Integer targetPositionCoordsysCol;
+    private final Integer targetPositionCoordinatesCval1Col;
+    private final Integer targetPositionCoordinatesCval2Col;
+    private final Integer targetPositionEquinoxCol;
+    private final Integer telescopeNameCol;
+    private final Integer telescopeGeoLocationXCol;
+    private final Integer telescopeGeoLocationYCol;
+    private final Integer telescopeGeoLocationZCol;
+    private final Integer telescopeKeywordsCol;
+    private final Integer instrumentNameCol;
+    private final Integer instrumentKeywordsCol;
+    private final Integer requirementsFlagCol;
+    private final Integer environmentAmbientTempCol;
+    private final Integer environmentElevationCol;
+    private final Integer environmentHumidityCol;
+    private final Integer environmentPhotometricCol;
+    private final Integer environmentSeeingCol;
+    private final Integer environmentTauCol;
+    private final Integer environmentWavelengthTauCol;
+    private final Integer lastModifiedCol;
+    private final Integer maxLastModifiedCol;
+    private final Integer metaChecksumCol;
+    private final Integer accMetaChecksumCol;
 
     public ObservationMapper(Map<String, Integer> map) {
-        this.map = map;
+        this.idCol = map.get("caom2:Observation.id");
+        this.collectionCol = map.get("caom2:Observation.collection");
+        this.observationIDCol = map.get("caom2:Observation.observationID");
+        this.algorithmNameCol = map.get("caom2:Observation.algorithm.name");
+        this.membersCol = map.get("caom2:Observation.members");
+        this.typeCodeCol = map.get("caom2:Observation.typeCode");
+        this.typeCol = map.get("caom2:Observation.type");
+        this.intentCol = map.get("caom2:Observation.intent");
+        this.sequenceNumberCol = map.get("caom2:Observation.sequenceNumber");
+        this.metaReleaseCol = map.get("caom2:Observation.metaRelease");
+        this.metaReadGroupsCol = map.get("caom2:Observation.metaReadGroups");
+        this.proposalIdCol = map.get("caom2:Observation.proposal.id");
+        this.proposalPiCol = map.get("caom2:Observation.proposal.pi");
+        this.proposalProjectCol = map.get("caom2:Observation.proposal.project");
+        this.proposalTitleCol = map.get("caom2:Observation.proposal.title");
+        this.proposalKeywordsCol = map.get("caom2:Observation.proposal.keywords");
+        this.targetNameCol = map.get("caom2:Observation.target.name");
+        this.targetTargetIDCol = map.get("caom2:Observation.target.targetID");
+        this.targetMovingCol = map.get("caom2:Observation.target.moving");
+        this.targetRedshiftCol = map.get("caom2:Observation.target.redshift");
+        this.targetStandardCol = map.get("caom2:Observation.target.standard");
+        this.targetTypeCol = map.get("caom2:Observation.target.type");
+        this.targetKeywordsCol = map.get("caom2:Observation.target.keywords");
+        this.targetPositionCoordsysCol = map.get("caom2:Observation.targetPosition.coordsys");
+        this.targetPositionCoordinatesCval1Col = map.get("caom2:Observation.targetPosition.coordinates.cval1");
+        this.targetPositionCoordinatesCval2Col = map.get("caom2:Observation.targetPosition.coordinates.cval2");
+        this.targetPositionEquinoxCol = map.get("caom2:Observation.targetPosition.equinox");
+        this.telescopeNameCol = map.get("caom2:Observation.telescope.name");
+        this.telescopeGeoLocationXCol = map.get("caom2:Observation.telescope.geoLocationX");
+        this.telescopeGeoLocationYCol = map.get("caom2:Observation.telescope.geoLocationY");
+        this.telescopeGeoLocationZCol = map.get("caom2:Observation.telescope.geoLocationZ");
+        this.telescopeKeywordsCol = map.get("caom2:Observation.telescope.keywords");
+        this.instrumentNameCol = map.get("caom2:Observation.instrument.name");
+        this.instrumentKeywordsCol = map.get("caom2:Observation.instrument.keywords");
+        this.requirementsFlagCol = map.get("caom2:Observation.requirements.flag");
+        this.environmentAmbientTempCol = map.get("caom2:Observation.environment.ambientTemp");
+        this.environmentElevationCol = map.get("caom2:Observation.environment.elevation");
+        this.environmentHumidityCol = map.get("caom2:Observation.environment.humidity");
+        this.environmentPhotometricCol = map.get("caom2:Observation.environment.photometric");
+        this.environmentSeeingCol = map.get("caom2:Observation.environment.seeing");
+        this.environmentTauCol = map.get("caom2:Observation.environment.tau");
+        this.environmentWavelengthTauCol = map.get("caom2:Observation.environment.wavelengthTau");
+        this.lastModifiedCol = map.get("caom2:Observation.lastModified");
+        this.maxLastModifiedCol = map.get("caom2:Observation.maxLastModified");
+        this.metaChecksumCol = map.get("caom2:Observation.metaChecksum");
+        this.accMetaChecksumCol = map.get("caom2:Observation.accMetaChecksum");
     }
 
     public Observation mapRow(List<Object> data, DateFormat dateFormat) {
         log.debug("mapping Observation");
-        UUID id = Util.getUUID(data, map.get("caom2:Observation.id"));
+        UUID id = Util.getUUID(data, idCol);
         if (id == null) {
             return null;
         }
 
         try {
-            String collection = Util.getString(data, map.get("caom2:Observation.collection"));
-            String observationID = Util.getString(data, map.get("caom2:Observation.observationID"));
-            String algName = Util.getString(data, map.get("caom2:Observation.algorithm.name"));
-            String mem = Util.getString(data, map.get("caom2:Observation.members"));
-            String typeCode = Util.getString(data, map.get("caom2:Observation.typeCode"));
+            String collection = Util.getString(data, collectionCol);
+            String observationID = Util.getString(data, observationIDCol);
+            String algName = Util.getString(data, algorithmNameCol);
+            String mem = Util.getString(data, membersCol);
+            String typeCode = Util.getString(data, typeCodeCol);
             Observation obs;
             if ("C".equals(typeCode)) { // used to be mem != null ... also typeCode may change to D in CAOM-2.4
                 DerivedObservation co = new DerivedObservation(collection, observationID, new Algorithm(algName));
@@ -130,84 +221,84 @@ public class ObservationMapper implements VOTableRowMapper<Observation> {
                 obs = new SimpleObservation(collection, observationID);
             }
 
-            obs.type = Util.getString(data, map.get("caom2:Observation.type"));
-            String intentStr = Util.getString(data, map.get("caom2:Observation.intent"));
+            obs.type = Util.getString(data, typeCol);
+            String intentStr = Util.getString(data, intentCol);
             if (intentStr != null) {
                 obs.intent = ObservationIntentType.toValue(intentStr);
             }
-            obs.sequenceNumber = Util.getInteger(data, map.get("caom2:Observation.sequenceNumber"));
-            obs.metaRelease = Util.getDate(data, map.get("caom2:Observation.metaRelease"));
-            List<URI> mrg = Util.getURIList(data, map.get("caom2:Observation.metaReadGroups")); // CAOM-2.4
+            obs.sequenceNumber = Util.getInteger(data, sequenceNumberCol);
+            obs.metaRelease = Util.getDate(data, metaReleaseCol);
+            List<URI> mrg = Util.getURIList(data, metaReadGroupsCol); // CAOM-2.4
             if (mrg != null) {
                 obs.getMetaReadGroups().addAll(mrg);
             }
 
-            String proposalID = Util.getString(data, map.get("caom2:Observation.proposal.id"));
+            String proposalID = Util.getString(data, proposalIdCol);
             if (proposalID != null) {
                 obs.proposal = new Proposal(proposalID);
-                obs.proposal.pi = Util.getString(data, map.get("caom2:Observation.proposal.pi"));
-                obs.proposal.project = Util.getString(data, map.get("caom2:Observation.proposal.project"));
-                obs.proposal.title = Util.getString(data, map.get("caom2:Observation.proposal.title"));
-                Util.decodeKeywordList(Util.getString(data, map.get("caom2:Observation.proposal.keywords")), obs.proposal.getKeywords());
+                obs.proposal.pi = Util.getString(data, proposalPiCol);
+                obs.proposal.project = Util.getString(data, proposalProjectCol);
+                obs.proposal.title = Util.getString(data, proposalTitleCol);
+                Util.decodeKeywordList(Util.getString(data, proposalKeywordsCol), obs.proposal.getKeywords());
             }
 
-            String targetName = Util.getString(data, map.get("caom2:Observation.target.name"));
+            String targetName = Util.getString(data, targetNameCol);
             if (targetName != null) {
                 obs.target = new Target(targetName);
-                obs.target.targetID = Util.getURI(data, map.get("caom2:Observation.target.targetID")); // CAOM-2.4
-                obs.target.moving = Util.getBoolean(data, map.get("caom2:Observation.target.moving"));
-                obs.target.redshift = Util.getDouble(data, map.get("caom2:Observation.target.redshift"));
-                obs.target.standard = Util.getBoolean(data, map.get("caom2:Observation.target.standard"));
-                String targetType = Util.getString(data, map.get("caom2:Observation.target.type"));
+                obs.target.targetID = Util.getURI(data, targetTargetIDCol); // CAOM-2.4
+                obs.target.moving = Util.getBoolean(data, targetMovingCol);
+                obs.target.redshift = Util.getDouble(data, targetRedshiftCol);
+                obs.target.standard = Util.getBoolean(data, targetStandardCol);
+                String targetType = Util.getString(data, targetTypeCol);
                 if (targetType != null) {
                     obs.target.type = TargetType.toValue(targetType);
                 }
-                Util.decodeKeywordList(Util.getString(data, map.get("caom2:Observation.target.keywords")), obs.target.getKeywords());
+                Util.decodeKeywordList(Util.getString(data, targetKeywordsCol), obs.target.getKeywords());
             }
 
-            String tpcsys = Util.getString(data, map.get("caom2:Observation.targetPosition.coordsys"));
+            String tpcsys = Util.getString(data, targetPositionCoordsysCol);
             if (tpcsys != null) {
-                Double tpc1 = Util.getDouble(data, map.get("caom2:Observation.targetPosition.coordinates.cval1"));
-                Double tpc2 = Util.getDouble(data, map.get("caom2:Observation.targetPosition.coordinates.cval2"));
+                double tpc1 = Util.getRequiredDouble(data, targetPositionCoordinatesCval1Col);
+                double tpc2 = Util.getRequiredDouble(data, targetPositionCoordinatesCval2Col);
                 obs.targetPosition = new TargetPosition(tpcsys, new Point(tpc1, tpc2));
-                obs.targetPosition.equinox = Util.getDouble(data, map.get("caom2:Observation.targetPosition.equinox"));
+                obs.targetPosition.equinox = Util.getDouble(data, targetPositionEquinoxCol);
             }
 
-            String telName = Util.getString(data, map.get("caom2:Observation.telescope.name"));
+            String telName = Util.getString(data, telescopeNameCol);
             if (telName != null) {
                 obs.telescope = new Telescope(telName);
-                obs.telescope.geoLocationX = Util.getDouble(data, map.get("caom2:Observation.telescope.geoLocationX"));
-                obs.telescope.geoLocationY = Util.getDouble(data, map.get("caom2:Observation.telescope.geoLocationY"));
-                obs.telescope.geoLocationZ = Util.getDouble(data, map.get("caom2:Observation.telescope.geoLocationZ"));
-                Util.decodeKeywordList(Util.getString(data, map.get("caom2:Observation.telescope.keywords")), obs.telescope.getKeywords());
+                obs.telescope.geoLocationX = Util.getDouble(data, telescopeGeoLocationXCol);
+                obs.telescope.geoLocationY = Util.getDouble(data, telescopeGeoLocationYCol);
+                obs.telescope.geoLocationZ = Util.getDouble(data, telescopeGeoLocationZCol);
+                Util.decodeKeywordList(Util.getString(data, telescopeKeywordsCol), obs.telescope.getKeywords());
             }
 
-            String instName = Util.getString(data, map.get("caom2:Observation.instrument.name"));
+            String instName = Util.getString(data, instrumentNameCol);
             if (instName != null) {
                 obs.instrument = new Instrument(instName);
-                Util.decodeKeywordList(Util.getString(data, map.get("caom2:Observation.instrument.keywords")), obs.instrument.getKeywords());
+                Util.decodeKeywordList(Util.getString(data, instrumentKeywordsCol), obs.instrument.getKeywords());
             }
 
-            String reqFlag = Util.getString(data, map.get("caom2:Observation.requirements.flag"));
+            String reqFlag = Util.getString(data, requirementsFlagCol);
             if (reqFlag != null) {
                 obs.requirements = new Requirements(Status.toValue(reqFlag));
             }
             obs.environment = new Environment();
-            obs.environment.ambientTemp = Util.getDouble(data, map.get("caom2:Observation.environment.ambientTemp"));
-            obs.environment.elevation = Util.getDouble(data, map.get("caom2:Observation.environment.elevation"));
-            obs.environment.humidity = Util.getDouble(data, map.get("caom2:Observation.environment.humidity"));
-            obs.environment.photometric = Util.getBoolean(data, map.get("caom2:Observation.environment.photometric"));
-            obs.environment.seeing = Util.getDouble(data, map.get("caom2:Observation.environment.seeing"));
-            obs.environment.tau = Util.getDouble(data, map.get("caom2:Observation.environment.tau"));
-            obs.environment.wavelengthTau = Util.getDouble(data, map.get("caom2:Observation.environment.wavelengthTau"));
-
-            Date lastModified = Util.getDate(data, map.get("caom2:Observation.lastModified"));
-            Date maxLastModified = Util.getDate(data, map.get("caom2:Observation.maxLastModified"));
+            obs.environment.ambientTemp = Util.getDouble(data, environmentAmbientTempCol);
+            obs.environment.elevation = Util.getDouble(data, environmentElevationCol);
+            obs.environment.humidity = Util.getDouble(data, environmentHumidityCol);
+            obs.environment.photometric = Util.getBoolean(data, environmentPhotometricCol);
+            obs.environment.seeing = Util.getDouble(data, environmentSeeingCol);
+            obs.environment.tau = Util.getDouble(data, environmentTauCol);
+            obs.environment.wavelengthTau = Util.getDouble(data, environmentWavelengthTauCol);
+
+            Date lastModified = Util.getDate(data, lastModifiedCol);
+            Date maxLastModified = Util.getDate(data, maxLastModifiedCol);
             Util.assignLastModified(obs, lastModified, "lastModified");
             Util.assignLastModified(obs, maxLastModified, "maxLastModified");
 
-            URI metaChecksum = Util.getURI(data, map.get("caom2:Observation.metaChecksum"));
-            URI accMetaChecksum = Util.getURI(data, map.get("caom2:Observation.accMetaChecksum"));
+            URI metaChecksum = Util.getURI(data, metaChecksumCol);
+            URI accMetaChecksum = Util.getURI(data, accMetaChecksumCol);
             Util.assignMetaChecksum(obs, metaChecksum, "metaChecksum");
             Util.assignMetaChecksum(obs, accMetaChecksum, "accMetaChecksum");
 
@@ -87,10 +87,23 @@ public class PartMapper implements VOTableRowMapper<Part> {
 
     private static final Logger log = Logger.getLogger(PartMapper.class);
 
-    private Map<String, Integer> map;
+    // column indexes resolved once per result set: mapRow is index-only
+    private final Integer idCol;
+    private final Integer nameCol;
+    private final Integer productTypeCol;
+    private final Integer lastModifiedCol;
+    private final Integer maxLastModifiedCol;
+    private final Integer metaChecksumCol;
+    private final Integer accMetaChecksumCol;
 
     public PartMapper(Map<String, Integer> map) {
-        this.map = map;
+        this.idCol = map.get("caom2:Part.id");
+        this.nameCol = map.get("caom2:Part.name");
+        this.productTypeCol = map.get("caom2:Part.productType");
+        this.lastModifiedCol = map.get("caom2:Part.lastModified");
+        this.maxLastModifiedCol = map.get("caom2:Part.maxLastModified");
+        this.metaChecksumCol = map.get("caom2:Part.metaChecksum");
+        this.accMetaChecksumCol = map.get("caom2:Part.accMetaChecksum");
     }
 
     /**
@@ -103,27 +116,27 @@ public class PartMapper implements VOTableRowMapper<Part> {
      */
     public Part mapRow(List<Object> data, DateFormat dateFormat) {
         log.debug("mapping Part");
-        UUID id = Util.getUUID(data, map.get("caom2:Part.id"));
+        UUID id = Util.getUUID(data, idCol);
         if (id == null) {
             return null;
         }
 
         try {
-            String partName = Util.getString(data, map.get("caom2:Part.name"));
+            String partName = Util.getString(data, nameCol);
             Part part = new Part(partName);
 
-            String partType = Util.getString(data, map.get("caom2:Part.productType"));
+            String partType = Util.getString(data, productTypeCol);
             if (partType != null) {
                 part.productType = ProductType.toValue(partType);
             }
 
-            Date partLastModified = Util.getDate(data, map.get("caom2:Part.lastModified"));
-            Date partMaxLastModified = Util.getDate(data, map.get("caom2:Part.maxLastModified"));
+            Date partLastModified = Util.getDate(data, lastModifiedCol);
+            Date partMaxLastModified = Util.getDate(data, maxLastModifiedCol);
             Util.assignLastModified(part, partLastModified, "lastModified");
             Util.assignLastModified(part, partMaxLastModified, "maxLastModified");
 
-            URI metaChecksum = Util.getURI(data, map.get("caom2:Part.metaChecksum"));
-            URI accMetaChecksum = Util.getURI(data, map.get("caom2:Part.accMetaChecksum"));
+            URI metaChecksum = Util.getURI(data, metaChecksumCol);
+            URI accMetaChecksum = Util.getURI(data, accMetaChecksumCol);
             Util.assignMetaChecksum(part, metaChecksum, "metaChecksum");
             Util.assignMetaChecksum(part, accMetaChecksum, "accMetaChecksum");
 
@@ -111,50 +111,173 @@ public class PlaneMapper implements VOTableRowMapper<Plane> {
 
     private static final Logger log = Logger.getLogger(PlaneMapper.class);
 
-    private Map<String, Integer> map;
+    // column indexes resolved once per result set: mapRow is index-only
+    private final Integer idCol;
+    private final Integer productIDCol;
+    private final Integer calibrationLevelCol;
+    private final Integer dataProductTypeCol;
+    private final Integer dataReleaseCol;
+    private final Integer dataReadGroupsCol;
+    private final Integer metaReleaseCol;
+    private final Integer metaReadGroupsCol;
+    private final Integer creatorIDCol;
+    private final Integer positionBoundsCol;
+    private final Integer positionBoundsSamplesCol;
+    private final Integer positionDimensionNaxis1Col;
+    private final Integer positionDimensionNaxis2Col;
+    private final Integer positionResolutionCol;
+    private final Integer positionBoundsResolutionBoundsCol;
+    private final Integer positionSampleSizeCol;
+    private final Integer positionTimeDependentCol;
+    private final Integer energyBoundsCol;
+    private final Integer energyBoundsSamplesCol;
+    private final Integer energyBandpassNameCol;
+    private final Integer energyDimensionCol;
+    private final Integer energyEnergyBandsCol;
+    private final Integer energyResolvingPowerCol;
+    private final Integer energyBoundsResolvingPowerBoundsCol;
+    private final Integer energyRestwavCol;
+    private final Integer energySampleSizeCol;
+    private final Integer energyTransitionSpeciesCol;
+    private final Integer energyTransitionTransitionCol;
+    private final Integer timeBoundsCol;
+    private final Integer timeBoundsSamplesCol;
+    private final Integer timeDimensionCol;
+    private final Integer timeResolutionCol;
+    private final Integer timeBoundsResolutionBoundsCol;
+    private final Integer timeExposureCol;
+    private final Integer timeSampleSizeCol;
+    private final Integer polarizationStatesCol;
+    private final Integer polarizationDimensionCol;
+    private final Integer customCtypeCol;
+    private final Integer customBoundsCol;
+    private final Integer timeCustomSamplesCol;
+    private final Integer customDimensionCol;
+    private final Integer metricsBackgroundCol;
+    private final Integer metricsBackgroundStddevCol;
+    private final Integer metricsFluxDensityLimitCol;
+    private final Integer metricsMagLimitCol;
+    private final Integer metricsSourceNumberDensityCol;
+    private final Integer metricsSampleSNRCol;
+    private final Integer provenanceNameCol;
+    private final Integer provenanceLastExecutedCol;
+    private final Integer provenanceProducerCol;
+    private final Integer provenanceProjectCol;
+    private final Integer provenanceReferenceCol;
+    private final Integer provenanceRunIDCol;
+    private final Integer provenanceVersionCol;
+    private final Integer provenanceInputsCol;
+    private final Integer provenanceKeywordsCol;
+    private final Integer qualityFlagCol;
+    private final Integer observableUcdCol;
+    private final Integer lastModifiedCol;
+    private final Integer maxLastModifiedCol;
+    private final Integer metaChecksumCol;
+    private final Integer accMetaChecksumCol;
 
     public PlaneMapper(Map<String, Integer> map) {
-        this.map = map;
+        this.idCol = map.get("caom2:Plane.id");
+        this.productIDCol = map.get("caom2:Plane.productID");
+        this.calibrationLevelCol = map.get("caom2:Plane.calibrationLevel");
+        this.dataProductTypeCol = map.get("caom2:Plane.dataProductType");
+        this.dataReleaseCol = map.get("caom2:Plane.dataRelease");
+        this.dataReadGroupsCol = map.get("caom2:Plane.dataReadGroups");
+        this.metaReleaseCol = map.get("caom2:Plane.metaRelease");
+        this.metaReadGroupsCol = map.get("caom2:Plane.metaReadGroups");
+        this.creatorIDCol = map.get("caom2:Plane.creatorID");
+        this.positionBoundsCol = map.get("caom2:Plane.position.bounds");
+        this.positionBoundsSamplesCol = map.get("caom2:Plane.position.bounds.samples");
+        this.positionDimensionNaxis1Col = map.get("caom2:Plane.position.dimension.naxis1");
+        this.positionDimensionNaxis2Col = map.get("caom2:Plane.position.dimension.naxis2");
+        this.positionResolutionCol = map.get("caom2:Plane.position.resolution");
+        this.positionBoundsResolutionBoundsCol = map.get("caom2:Plane.position.bounds.resolutionBounds");
+        this.positionSampleSizeCol = map.get("caom2:Plane.position.sampleSize");
+        this.positionTimeDependentCol = map.get("caom2:Plane.position.timeDependent");
+        this.energyBoundsCol = map.get("caom2:Plane.energy.bounds");
+        this.energyBoundsSamplesCol = map.get("caom2:Plane.energy.bounds.samples");
+        this.energyBandpassNameCol = map.get("caom2:Plane.energy.bandpassName");
+        this.energyDimensionCol = map.get("caom2:Plane.energy.dimension");
+        this.energyEnergyBandsCol = map.get("caom2:Plane.energy.energyBands");
+        this.energyResolvingPowerCol = map.get("caom2:Plane.energy.resolvingPower");
+        this.energyBoundsResolvingPowerBoundsCol = map.get("caom2:Plane.energy.bounds.resolvingPowerBounds");
+        this.energyRestwavCol = map.get("caom2:Plane.energy.restwav");
+        this.energySampleSizeCol = map.get("caom2:Plane.energy.sampleSize");
+        this.energyTransitionSpeciesCol = map.get("caom2:Plane.energy.transition.species");
+        this.energyTransitionTransitionCol = map.get("caom2:Plane.energy.transition.transition");
+        this.timeBoundsCol = map.get("caom2:Plane.time.bounds");
+        this.timeBoundsSamplesCol = map.get("caom2:Plane.time.bounds.samples");
+        this.timeDimensionCol = map.get("caom2:Plane.time.dimension");
+        this.timeResolutionCol = map.get("caom2:Plane.time.resolution");
+        this.timeBoundsResolutionBoundsCol = map.get("caom2:Plane.time.bounds.resolutionBounds");
+        this.timeExposureCol = map.get("caom2:Plane.time.exposure");
+        this.timeSampleSizeCol = map.get("caom2:Plane.time.sampleSize");
+        this.polarizationStatesCol = map.get("caom2:Plane.polarization.states");
+        this.polarizationDimensionCol = map.get("caom2:Plane.polarization.dimension");
+        this.customCtypeCol = map.get("caom2:Plane.custom.ctype");
+        this.customBoundsCol = map.get("caom2:Plane.custom.bounds");
+        this.timeCustomSamplesCol = map.get("caom2:Plane.time.custom.samples");
+        this.customDimensionCol = map.get("caom2:Plane.custom.dimension");
+        this.metricsBackgroundCol = map.get("caom2:Plane.metrics.background");
+        this.metricsBackgroundStddevCol = map.get("caom2:Plane.metrics.backgroundStddev");
+        this.metricsFluxDensityLimitCol = map.get("caom2:Plane.metrics.fluxDensityLimit");
+        this.metricsMagLimitCol = map.get("caom2:Plane.metrics.magLimit");
+        this.metricsSourceNumberDensityCol = map.get("caom2:Plane.metrics.sourceNumberDensity");
+        this.metricsSampleSNRCol = map.get("caom2:Plane.metrics.sampleSNR");
+        this.provenanceNameCol = map.get("caom2:Plane.provenance.name");
+        this.provenanceLastExecutedCol = map.get("caom2:Plane.provenance.lastExecuted");
+        this.provenanceProducerCol = map.get("caom2:Plane.provenance.producer");
+        this.provenanceProjectCol = map.get("caom2:Plane.provenance.project");
+        this.provenanceReferenceCol = map.get("caom2:Plane.provenance.reference");
+        this.provenanceRunIDCol = map.get("caom2:Plane.provenance.runID");
+        this.provenanceVersionCol = map.get("caom2:Plane.provenance.version");
+        this.provenanceInputsCol = map.get("caom2:Plane.provenance.inputs");
+        this.provenanceKeywordsCol = map.get("caom2:Plane.provenance.keywords");
+        this.qualityFlagCol = map.get("caom2:Plane.quality.flag");
+        this.observableUcdCol = map.get("caom2:Plane.observable.ucd");
+        this.lastModifiedCol = map.get("caom2:Plane.lastModified");
+        this.maxLastModifiedCol = map.get("caom2:Plane.maxLastModified");
+        this.metaChecksumCol = map.get("caom2:Plane.metaChecksum");
+        this.accMetaChecksumCol = map.get("caom2:Plane.accMetaChecksum");
     }
 
     public Plane mapRow(List<Object> data, DateFormat dateFormat) {
         log.debug("mapping Plane");
-        UUID id = Util.getUUID(data, map.get("caom2:Plane.id"));
+        UUID id = Util.getUUID(data, idCol);
         if (id == null) {
             return null;
         }
 
         try {
-            String productID = Util.getString(data, map.get("caom2:Plane.productID"));
+            String productID = Util.getString(data, productIDCol);
 
             Plane plane = new Plane(productID);
 
-            Integer cal = Util.getInteger(data, map.get("caom2:Plane.calibrationLevel"));
+            Integer cal = Util.getInteger(data, calibrationLevelCol);
             if (cal != null) {
                 plane.calibrationLevel = CalibrationLevel.toValue(cal);
             }
 
-            String dpType = Util.getString(data, map.get("caom2:Plane.dataProductType"));
+            String dpType = Util.getString(data, dataProductTypeCol);
             if (dpType != null) {
                 plane.dataProductType = DataProductType.toValue(dpType);
             }
 
-            plane.dataRelease = Util.getDate(data, map.get("caom2:Plane.dataRelease"));
-            List<URI> drg = Util.getURIList(data, map.get("caom2:Plane.dataReadGroups")); // CAOM-2.4
+            plane.dataRelease = Util.getDate(data, dataReleaseCol);
+            List<URI> drg = Util.getURIList(data, dataReadGroupsCol); // CAOM-2.4
             if (drg != null) {
                 plane.getDataReadGroups().addAll(drg);
             }
-            plane.metaRelease = Util.getDate(data, map.get("caom2:Plane.metaRelease"));
-            List<URI> mrg = Util.getURIList(data, map.get("caom2:Plane.metaReadGroups")); // CAOM-2.4
+            plane.metaRelease = Util.getDate(data, metaReleaseCol);
+            List<URI> mrg = Util.getURIList(data, metaReadGroupsCol); // CAOM-2.4
             if (mrg != null) {
                 plane.getMetaReadGroups().addAll(mrg);
             }
 
-            plane.creatorID = Util.getURI(data, map.get("caom2:Plane.creatorID"));
+            plane.creatorID = Util.getURI(data, creatorIDCol);
 
             // position
-            ca.nrc.cadc.dali.Shape posBounds = (ca.nrc.cadc.dali.Shape) Util.getObject(data, map.get("caom2:Plane.position.bounds"));
-            double[] posBoundsSamples = (double[]) Util.getObject(data, map.get("caom2:Plane.position.bounds.samples"));
+            ca.nrc.cadc.dali.Shape posBounds = (ca.nrc.cadc.dali.Shape) Util.getObject(data, positionBoundsCol);
+            double[] posBoundsSamples = (double[]) Util.getObject(data, positionBoundsSamplesCol);
             if (posBounds != null) {
                 plane.position = new Position();
                 if (posBounds instanceof ca.nrc.cadc.dali.Circle) {
@@ -183,24 +306,24 @@ public class PlaneMapper implements VOTableRowMapper<Plane> {
                     throw new RuntimeException("OOPS: unexpected type for caom2:Plane.position.bounds: " + posBounds.getClass().getName());
                 }
 
-                Long dim1 = Util.getLong(data, map.get("caom2:Plane.position.dimension.naxis1"));
-                Long dim2 = Util.getLong(data, map.get("caom2:Plane.position.dimension.naxis2"));
-                if (dim1 != null && dim2 != null) {
+                if (!Util.isNull(data, positionDimensionNaxis1Col) && !Util.isNull(data, positionDimensionNaxis2Col)) {
+                    long dim1 = Util.getLongValue(data, positionDimensionNaxis1Col, 0L);
+                    long dim2 = Util.getLongValue(data, positionDimensionNaxis2Col, 0L);
                     plane.position.dimension = new Dimension2D(dim1, dim2);
                 }
-                plane.position.resolution = Util.getDouble(data, map.get("caom2:Plane.position.resolution"));
-                double[] resBounds = (double[]) Util.getObject(data, map.get("caom2:Plane.position.bounds.resolutionBounds")); // CAOM 2.4
+                plane.position.resolution = Util.getDouble(data, positionResolutionCol);
+                double[] resBounds = (double[]) Util.getObject(data, positionBoundsResolutionBoundsCol); // CAOM 2.4
                 if (resBounds != null) {
                     plane.position.resolutionBounds = new Interval(resBounds[0], resBounds[1]);
                 }
-                plane.position.sampleSize = Util.getDouble(data, map.get("caom2:Plane.position.sampleSize"));
-                plane.position.timeDependent = Util.getBoolean(data, map.get("caom2:Plane.position.timeDependent"));
+                plane.position.sampleSize = Util.getDouble(data, positionSampleSizeCol);
+                plane.position.timeDependent = Util.getBoolean(data, positionTimeDependentCol);
             }
 
             // energy
             ca.nrc.cadc.dali.DoubleInterval nrgBounds
-                    = (ca.nrc.cadc.dali.DoubleInterval) Util.getObject(data, map.get("caom2:Plane.energy.bounds"));
-            double[] nrgBoundsSamples = (double[]) Util.getObject(data, map.get("caom2:Plane.energy.bounds.samples"));
+                    = (ca.nrc.cadc.dali.DoubleInterval) Util.getObject(data, energyBoundsCol);
+            double[] nrgBoundsSamples = (double[]) Util.getObject(data, energyBoundsSamplesCol);
             if (nrgBounds != null) {
                 plane.energy = new Energy();
                 plane.energy.bounds = new SampledInterval(nrgBounds.getLower(), nrgBounds.getUpper());
@@ -214,21 +337,21 @@ public class PlaneMapper implements VOTableRowMapper<Plane> {
                     // HACK: backwards compat
                     plane.energy.bounds.getSamples().add(new Interval(nrgBounds.getLower(), nrgBounds.getUpper()));
                 }
-                plane.energy.bandpassName = Util.getString(data, map.get("caom2:Plane.energy.bandpassName"));
-                plane.energy.dimension = Util.getLong(data, map.get("caom2:Plane.energy.dimension"));
-                String ebs = Util.getString(data, map.get("caom2:Plane.energy.energyBands")); // CAOM-2.4
+                plane.energy.bandpassName = Util.getString(data, energyBandpassNameCol);
+                plane.energy.dimension = Util.getLong(data, energyDimensionCol);
+                String ebs = Util.getString(data, energyEnergyBandsCol); // CAOM-2.4
                 if (ebs != null) {
                     CaomUtil.decodeBands(ebs, plane.energy.getEnergyBands());
                 }
-                plane.energy.resolvingPower = Util.getDouble(data, map.get("caom2:Plane.energy.resolvingPower"));
-                double[] resBounds = (double[]) Util.getObject(data, map.get("caom2:Plane.energy.bounds.resolvingPowerBounds")); // CAOM 2.4
+                plane.energy.resolvingPower = Util.getDouble(data, energyResolvingPowerCol);
+                double[] resBounds = (double[]) Util.getObject(data, energyBoundsResolvingPowerBoundsCol); // CAOM 2.4
                 if (resBounds != null) {
                     plane.energy.resolvingPowerBounds = new Interval(resBounds[0], resBounds[1]);
                 }
-                plane.energy.restwav = Util.getDouble(data, map.get("caom2:Plane.energy.restwav"));
-                plane.energy.sampleSize = Util.getDouble(data, map.get("caom2:Plane.energy.sampleSize"));
-                String spec = Util.getString(data, map.get("caom2:Plane.energy.transition.species"));
-                String trans = Util.getString(data, map.get("caom2:Plane.energy.transition.transition"));
+                plane.energy.restwav = Util.getDouble(data, energyRestwavCol);
+                plane.energy.sampleSize = Util.getDouble(data, energySampleSizeCol);
+                String spec = Util.getString(data, energyTransitionSpeciesCol);
+                String trans = Util.getString(data, energyTransitionTransitionCol);
                 if (spec != null && trans != null) {
                     plane.energy.transition = new EnergyTransition(spec, trans);
                 }
@@ -236,8 +359,8 @@ public class PlaneMapper implements VOTableRowMapper<Plane> {
 
             // time
             ca.nrc.cadc.dali.DoubleInterval timBounds
-                    = (ca.nrc.cadc.dali.DoubleInterval) Util.getObject(data, map.get("caom2:Plane.time.bounds"));
-            double[] timBoundsSamples = (double[]) Util.getObject(data, map.get("caom2:Plane.time.bounds.samples"));
+                    = (ca.nrc.cadc.dali.DoubleInterval) Util.getObject(data, timeBoundsCol);
+            double[] timBoundsSamples = (double[]) Util.getObject(data, timeBoundsSamplesCol);
             if (timBounds != null) {
                 plane.time = new Time();
                 plane.time.bounds = new SampledInterval(timBounds.getLower(), timBounds.getUpper());
@@ -252,32 +375,32 @@ public class PlaneMapper implements VOTableRowMapper<Plane> {
                     // HACK: backwards compat
                     plane.time.bounds.getSamples().add(new Interval(timBounds.getLower(), timBounds.getUpper()));
                 }
-                plane.time.dimension = Util.getLong(data, map.get("caom2:Plane.time.dimension"));
-                plane.time.resolution = Util.getDouble(data, map.get("caom2:Plane.time.resolution"));
-                double[] resBounds = (double[]) Util.getObject(data, map.get("caom2:Plane.time.bounds.resolutionBounds")); // CAOM 2.4
+                plane.time.dimension = Util.getLong(data, timeDimensionCol);
+                plane.time.resolution = Util.getDouble(data, timeResolutionCol);
+                double[] resBounds = (double[]) Util.getObject(data, timeBoundsResolutionBoundsCol); // CAOM 2.4
                 if (resBounds != null) {
                     plane.time.resolutionBounds = new Interval(resBounds[0], resBounds[1]);
                 }
-                plane.time.exposure = Util.getDouble(data, map.get("caom2:Plane.time.exposure"));
-                plane.time.sampleSize = Util.getDouble(data, map.get("caom2:Plane.time.sampleSize"));
+                plane.time.exposure = Util.getDouble(data, timeExposureCol);
+                plane.time.sampleSize = Util.getDouble(data, timeSampleSizeCol);
             }
 
             // polarization
-            String polStates = Util.getString(data, map.get("caom2:Plane.polarization.states"));
+            String polStates = Util.getString(data, polarizationStatesCol);
             if (polStates != null) {
                 plane.polarization = new Polarization();
                 plane.polarization.states = new TreeSet<>();
                 Util.decodeStates(polStates, plane.polarization.states);
-                plane.polarization.dimension = Util.getLong(data, map.get("caom2:Plane.polarization.dimension"));
+                plane.polarization.dimension = Util.getLong(data, polarizationDimensionCol);
             }
 
             // custom
-            String customCtype = Util.getString(data, map.get("caom2:Plane.custom.ctype")); // CAOM 2.4
+            String customCtype = Util.getString(data, customCtypeCol); // CAOM 2.4
             if (customCtype != null) {
                 plane.custom = new CustomAxis(customCtype);
                 ca.nrc.cadc.dali.DoubleInterval cusBounds
-                        = (ca.nrc.cadc.dali.DoubleInterval) Util.getObject(data, map.get("caom2:Plane.custom.bounds"));
-                double[] cusBoundsSamples = (double[]) Util.getObject(data, map.get("caom2:Plane.time.custom.samples"));
+                        = (ca.nrc.cadc.dali.DoubleInterval) Util.getObject(data, customBoundsCol);
+                double[] cusBoundsSamples = (double[]) Util.getObject(data, timeCustomSamplesCol);
                 if (cusBounds != null) {
                     plane.custom.bounds = new SampledInterval(cusBounds.getLower(), cusBounds.getUpper());
                     if (cusBoundsSamples != null) {
@@ -285,17 +408,17 @@ public class PlaneMapper implements VOTableRowMapper<Plane> {
                             plane.custom.bounds.getSamples().add(new Interval(cusBoundsSamples[i], cusBoundsSamples[i + 1]));
                         }
                     }
-                    plane.custom.dimension = Util.getLong(data, map.get("caom2:Plane.custom.dimension"));
+                    plane.custom.dimension = Util.getLong(data, customDimensionCol);
                 }
             }
 
             Metrics metrics = new Metrics();
-            metrics.background = Util.getDouble(data, map.get("caom2:Plane.metrics.background"));
-            metrics.backgroundStddev = Util.getDouble(data, map.get("caom2:Plane.metrics.backgroundStddev"));
-            metrics.fluxDensityLimit = Util.getDouble(data, map.get("caom2:Plane.metrics.fluxDensityLimit"));
-            metrics.magLimit = Util.getDouble(data, map.get("caom2:Plane.metrics.magLimit"));
-            metrics.sourceNumberDensity = Util.getDouble(data, map.get("caom2:Plane.metrics.sourceNumberDensity"));
-            metrics.sampleSNR = Util.getDouble(data, map.get("caom2:Plane.metrics.sampleSNR"));
+            metrics.background = Util.getDouble(data, metricsBackgroundCol);
+            metrics.backgroundStddev = Util.getDouble(data, metricsBackgroundStddevCol);
+            metrics.fluxDensityLimit = Util.getDouble(data, metricsFluxDensityLimitCol);
+            metrics.magLimit = Util.getDouble(data, metricsMagLimitCol);
+            metrics.sourceNumberDensity = Util.getDouble(data, metricsSourceNumberDensityCol);
+            metrics.sampleSNR = Util.getDouble(data, metricsSampleSNRCol);
             // cosmetic but consistent with ObservationReader:
             if (metrics.background != null || metrics.backgroundStddev != null
                     || metrics.fluxDensityLimit != null || metrics.magLimit != null
@@ -303,41 +426,41 @@ public class PlaneMapper implements VOTableRowMapper<Plane> {
                 plane.metrics = metrics;
             }
 
-            String provName = Util.getString(data, map.get("caom2:Plane.provenance.name"));
+            String provName = Util.getString(data, provenanceNameCol);
             if (provName != null) {
                 plane.provenance = new Provenance(provName);
-                plane.provenance.lastExecuted = Util.getDate(data, map.get("caom2:Plane.provenance.lastExecuted"));
-                plane.provenance.producer = Util.getString(data, map.get("caom2:Plane.provenance.producer"));
-                plane.provenance.project = Util.getString(data, map.get("caom2:Plane.provenance.project"));
-                String sref = Util.getString(data, map.get("caom2:Plane.provenance.reference"));
+                plane.provenance.lastExecuted = Util.getDate(data, provenanceLastExecutedCol);
+                plane.provenance.producer = Util.getString(data, provenanceProducerCol);
+                plane.provenance.project = Util.getString(data, provenanceProjectCol);
+                String sref = Util.getString(data, provenanceReferenceCol);
                 if (sref != null) {
                     plane.provenance.reference = new URI(sref);
                 }
-                plane.provenance.runID = Util.getString(data, map.get("caom2:Plane.provenance.runID"));
-                plane.provenance.version = Util.getString(data, map.get("caom2:Plane.provenance.version"));
-                String inputs = Util.getString(data, map.get("caom2:Plane.provenance.inputs"));
+                plane.provenance.runID = Util.getString(data, provenanceRunIDCol);
+                plane.provenance.version = Util.getString(data, provenanceVersionCol);
+                String inputs = Util.getString(data, provenanceInputsCol);
                 Util.decodePlaneURIs(inputs, plane.provenance.getInputs());
-                String keywords = Util.getString(data, map.get("caom2:Plane.provenance.keywords"));
+                String keywords = Util.getString(data, provenanceKeywordsCol);
                 Util.decodeKeywordList(keywords, plane.provenance.getKeywords());
             }
 
-            String qualityFlag = Util.getString(data, map.get("caom2:Plane.quality.flag"));
+            String qualityFlag = Util.getString(data, qualityFlagCol);
             if (qualityFlag != null) {
                 plane.quality = new DataQuality(Quality.toValue(qualityFlag));
             }
             
-            String observableUCD = Util.getString(data, map.get("caom2:Plane.observable.ucd")); // CAOM-2.4
+            String observableUCD = Util.getString(data, observableUcdCol); // CAOM-2.4
             if (observableUCD != null) {
                 plane.observable = new Observable(observableUCD);
             }
 
-            Date lastModified = Util.getDate(data, map.get("caom2:Plane.lastModified"));
-            Date maxLastModified = Util.getDate(data, map.get("caom2:Plane.maxLastModified"));
+            Date lastModified = Util.getDate(data, lastModifiedCol);
+            Date maxLastModified = Util.getDate(data, maxLastModifiedCol);
             Util.assignLastModified(plane, lastModified, "lastModified");
             Util.assignLastModified(plane, maxLastModified, "maxLastModified");
 
-            URI metaChecksum = Util.getURI(data, map.get("caom2:Plane.metaChecksum"));
-            URI accMetaChecksum = Util.getURI(data, map.get("caom2:Plane.accMetaChecksum"));
+            URI metaChecksum = Util.getURI(data, metaChecksumCol);
+            URI accMetaChecksum = Util.getURI(data, accMetaChecksumCol);
             Util.assignMetaChecksum(plane, metaChecksum, "metaChecksum");
             Util.assignMetaChecksum(plane, accMetaChecksum, "accMetaChecksum");
 
@@ -0,0 +1,242 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2ops.mapper;
+
+import ca.nrc.cadc.dali.tables.votable.VOTableField;
+import java.util.AbstractList;
+
+/**
+ * Row of a result table that keeps scalar numeric values in primitive slots. Values are 
+ * only boxed if a caller uses the List interface (get); mappers should use the primitive
+ * accessors in Util instead. Null is a separate state so a NaN value read from the table 
+ * is still returned as NaN by get.
+ */
+public class PrimitiveRow extends AbstractList<Object> {
+
+    static final byte NULL = 0;
+    static final byte DOUBLE = 1;
+    static final byte FLOAT = 2;
+    static final byte LONG = 3;
+    static final byte INT = 4;
+    static final byte SHORT = 5;
+    static final byte OBJECT = 6;
+
+    private final byte[] types;
+    private final long[] prims; // raw long bits for DOUBLE and FLOAT
+    private final Object[] objects;
+
+    /**
+     * Create a row with all values null.
+     * 
+     * @param size number of columns
+     */
+    public PrimitiveRow(int size) {
+        this.types = new byte[size];
+        this.prims = new long[size];
+        this.objects = new Object[size];
+    }
+
+    /**
+     * @param f table field
+     * @return the primitive slot type for a scalar numeric field without an xtype, 
+     *      otherwise OBJECT
+     */
+    static byte getSlotType(VOTableField f) {
+        String arraysize = f.getArraysize();
+        if (f.xtype != null || (arraysize != null && !arraysize.trim().isEmpty())) {
+            return OBJECT;
+        }
+        String dt = f.getDatatype();
+        if ("double".equals(dt)) {
+            return DOUBLE;
+        }
+        if ("float".equals(dt)) {
+            return FLOAT;
+        }
+        if ("long".equals(dt)) {
+            return LONG;
+        }
+        if ("int".equals(dt)) {
+            return INT;
+        }
+        if ("short".equals(dt)) {
+            return SHORT;
+        }
+        return OBJECT;
+    }
+
+    @Override
+    public int size() {
+        return types.length;
+    }
+
+    @Override
+    public Object get(int col) {
+        switch (types[col]) {
+            case NULL:
+                return null;
+            case DOUBLE:
+                return Double.longBitsToDouble(prims[col]);
+            case FLOAT:
+                return (float) Double.longBitsToDouble(prims[col]);
+            case LONG:
+                return prims[col];
+            case INT:
+                return (int) prims[col];
+            case SHORT:
+                return (short) prims[col];
+            default:
+                return objects[col];
+        }
+    }
+
+    public boolean isNull(int col) {
+        return types[col] == NULL;
+    }
+
+    /**
+     * @param col column index
+     * @return the value as a double or NaN if the value is null
+     * @throws ClassCastException if the value is not numeric
+     */
+    public double getDouble(int col) {
+        switch (types[col]) {
+            case NULL:
+                return Double.NaN;
+            case DOUBLE:
+            case FLOAT:
+                return Double.longBitsToDouble(prims[col]);
+            case LONG:
+            case INT:
+            case SHORT:
+                return prims[col];
+            default:
+                return ((Number) objects[col]).doubleValue();
+        }
+    }
+
+    /**
+     * @param col column index
+     * @param nullValue value to return if the value is null
+     * @return the value as a long or nullValue
+     * @throws ClassCastException if the value is not an integer type
+     */
+    public long getLong(int col, long nullValue) {
+        switch (types[col]) {
+            case NULL:
+                return nullValue;
+            case LONG:
+            case INT:
+            case SHORT:
+                return prims[col];
+            case DOUBLE:
+            case FLOAT:
+                throw new ClassCastException("column " + col + " is not an integer type");
+            default:
+                return ((Number) objects[col]).longValue();
+        }
+    }
+
+    public void setNull(int col) {
+        types[col] = NULL;
+        objects[col] = null;
+    }
+
+    public void setDouble(int col, double val) {
+        set(col, DOUBLE, Double.doubleToRawLongBits(val));
+    }
+
+    public void setFloat(int col, float val) {
+        set(col, FLOAT, Double.doubleToRawLongBits(val));
+    }
+
+    public void setLong(int col, long val) {
+        set(col, LONG, val);
+    }
+
+    public void setInt(int col, int val) {
+        set(col, INT, val);
+    }
+
+    public void setShort(int col, short val) {
+        set(col, SHORT, val);
+    }
+
+    public void setObject(int col, Object val) {
+        types[col] = (val == null ? NULL : OBJECT);
+        objects[col] = val;
+    }
+
+    private void set(int col, byte type, long bits) {
+        types[col] = type;
+        prims[col] = bits;
+        objects[col] = null;
+    }
+}
@@ -204,6 +204,76 @@ public class Util extends CaomUtil {
         return (Double) o;
     }
 
+    /**
+     * Get a double value without boxing when the row is a PrimitiveRow.
+     * 
+     * @param data row
+     * @param col column index, may be null
+     * @return the value or NaN if the column or value is null
+     */
+    public static double getDoubleValue(List<Object> data, Integer col) {
+        if (col == null) {
+            return Double.NaN;
+        }
+        if (data instanceof PrimitiveRow) {
+            return ((PrimitiveRow) data).getDouble(col);
+        }
+        Object o = data.get(col);
+        if (o == null) {
+            return Double.NaN;
+        }
+        return ((Number) o).doubleValue();
+    }
+
+    /**
+     * Get a required double value without boxing when the row is a PrimitiveRow.
+     * Unlike getDoubleValue, a null value is not mapped to NaN so incomplete
+     * content is rejected instead of silently mapped.
+     * 
+     * @param data row
+     * @param col column index
+     * @return the value
+     * @throws NullPointerException if the column or value is null
+     */
+    public static double getRequiredDouble(List<Object> data, Integer col) {
+        if (isNull(data, col)) {
+            throw new NullPointerException("required value is null: column " + col);
+        }
+        return getDoubleValue(data, col);
+    }
+
+    /**
+     * Get a long value without boxing when the row is a PrimitiveRow.
+     * 
+     * @param data row
+     * @param col column index, may be null
+     * @param nullValue value to return for null
+     * @return the value or nullValue if the column or value is null
+     */
+    public static long getLongValue(List<Object> data, Integer col, long nullValue) {
+        if (col == null) {
+            return nullValue;
+        }
+        if (data instanceof PrimitiveRow) {
+            return ((PrimitiveRow) data).getLong(col, nullValue);
+        }
+        Object o = data.get(col);
+        if (o == null) {
+            return nullValue;
+        }
+        return ((Number) o).longValue();
+    }
+
+    public static boolean isNull(List<Object> data, Integer col) {
+        if (col == null) {
+            return true;
+        }
+        if (data instanceof PrimitiveRow) {
+            return ((PrimitiveRow) data).isNull(col);
+        }
+        return data.get(col) == null;
+    }
+
     public static List<Double> getDoubleList(List<Object> data, Integer col) {
         if (col == null) {
             return null;
@@ -0,0 +1,414 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2ops.mapper;
+
+import ca.nrc.cadc.dali.tables.votable.VOTableField;
+import ca.nrc.cadc.dali.util.Format;
+import ca.nrc.cadc.dali.util.FormatFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.log4j.Logger;
+
+/**
+ * Pull parser for the results table of a VOTable document with TABLEDATA, BINARY, or
+ * BINARY2 serialization. The FIELD metadata is read when the iterator is created; rows are 
+ * parsed one at a time as the caller iterates so only the current row is held in memory.
+ * Binary data must be an inline base64 STREAM.
+ */
+public class VOTableRowIterator implements Iterator<List<Object>> {
+
+    private static final Logger log = Logger.getLogger(VOTableRowIterator.class);
+
+    private static final String RESULTS = "results";
+    private static final String QUERY_STATUS = "QUERY_STATUS";
+    private static final String STATUS_ERROR = "ERROR";
+
+    private final XMLStreamReader reader;
+    private final List<VOTableField> fields = new ArrayList<>();
+    private final List<Format<Object>> formats = new ArrayList<>();
+    // VALUES null of integer fields, null if not specified
+    private final List<Long> nullValues = new ArrayList<>();
+    private byte[] slotTypes;
+
+    private BinaryRowReader binaryReader;
+    private List<Object> nextRow;
+    private boolean done = false;
+
+    /**
+     * Read the VOTable header up to the start of the results table data.
+     *
+     * @param istream input stream positioned at the start of the document
+     * @throws UnexpectedContentException if the document is invalid, has no results table,
+     *      or reports a query failure
+     */
+    public VOTableRowIterator(InputStream istream) {
+        try {
+            XMLInputFactory xif = XMLInputFactory.newInstance();
+            xif.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            xif.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            this.reader = xif.createXMLStreamReader(istream);
+            readHeader();
+        } catch (XMLStreamException ex) {
+            throw new UnexpectedContentException("failed to read VOTable header: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * @return the fields of the results table
+     */
+    public List<VOTableField> getFields() {
+        return fields;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextRow == null && !done) {
+            try {
+                nextRow = readRow();
+            } catch (XMLStreamException | IOException ex) {
+                throw new UnexpectedContentException("failed to read VOTable row: " + ex.getMessage(), ex);
+            }
+        }
+        return nextRow != null;
+    }
+
+    @Override
+    public List<Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<Object> ret = nextRow;
+        nextRow = null;
+        return ret;
+    }
+
+    // compile compat with older java versions
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    private void readHeader() throws XMLStreamException {
+        FormatFactory formatFactory = new FormatFactory();
+        boolean inResults = false;
+        boolean inField = false;
+        boolean foundResults = false;
+        String binary = null;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("RESOURCE".equals(name)) {
+                    inResults = RESULTS.equals(reader.getAttributeValue(null, "type"));
+                    foundResults = foundResults || inResults;
+                } else if (inResults && "INFO".equals(name)) {
+                    String infoName = reader.getAttributeValue(null, "name");
+                    String infoValue = reader.getAttributeValue(null, "value");
+                    if (QUERY_STATUS.equals(infoName) && STATUS_ERROR.equals(infoValue)) {
+                        String msg = reader.getElementText();
+                        throw new UnexpectedContentException("query failed: " + msg);
+                    }
+                } else if (inResults && "FIELD".equals(name)) {
+                    VOTableField f = new VOTableField(reader.getAttributeValue(null, "name"),
+                            reader.getAttributeValue(null, "datatype"),
+                            reader.getAttributeValue(null, "arraysize"));
+                    f.utype = reader.getAttributeValue(null, "utype");
+                    f.xtype = reader.getAttributeValue(null, "xtype");
+                    fields.add(f);
+                    formats.add(formatFactory.getFormat(f));
+                    nullValues.add(null);
+                    inField = true;
+                } else if (inField && "VALUES".equals(name)) {
+                    int i = fields.size() - 1;
+                    nullValues.set(i, getNullValue(fields.get(i), reader.getAttributeValue(null, "null")));
+                } else if (inResults && "TABLEDATA".equals(name)) {
+                    log.debug("found TABLEDATA with " + fields.size() + " fields");
+                    this.slotTypes = new byte[fields.size()];
+                    for (int i = 0; i < slotTypes.length; i++) {
+                        slotTypes[i] = PrimitiveRow.getSlotType(fields.get(i));
+                    }
+                    return;
+                } else if (inResults && ("BINARY".equals(name) || "BINARY2".equals(name))) {
+                    binary = name;
+                } else if (binary != null && "STREAM".equals(name)) {
+                    String encoding = reader.getAttributeValue(null, "encoding");
+                    if (!"base64".equals(encoding) || reader.getAttributeValue(null, "href") != null) {
+                        throw new UnexpectedContentException("unsupported " + binary + " STREAM: encoding=" + encoding 
+                                + " href=" + reader.getAttributeValue(null, "href"));
+                    }
+                    log.debug("found " + binary + " with " + fields.size() + " fields");
+                    InputStream bin = Base64.getMimeDecoder().wrap(new ElementTextInputStream());
+                    this.binaryReader = new BinaryRowReader(fields, formats, nullValues, bin, "BINARY2".equals(binary));
+                    return;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if ("FIELD".equals(reader.getLocalName())) {
+                    inField = false;
+                } else if (inResults && "TABLE".equals(reader.getLocalName())) {
+                    // table with no DATA element
+                    done = true;
+                    return;
+                }
+            }
+        }
+        if (!foundResults) {
+            throw new UnexpectedContentException("VOTable has no results resource");
+        }
+        done = true;
+    }
+
+    // the null value only applies to integer datatypes: floating point null is NaN
+    static Long getNullValue(VOTableField f, String val) {
+        if (val == null || f.getArraysize() != null) {
+            return null;
+        }
+        String dt = f.getDatatype();
+        if (!"long".equals(dt) && !"int".equals(dt) && !"short".equals(dt) && !"unsignedByte".equals(dt)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(val.trim());
+        } catch (NumberFormatException ex) {
+            throw new UnexpectedContentException("invalid VALUES null for " + f.getName() + ": " + val, ex);
+        }
+    }
+
+    private List<Object> readRow() throws XMLStreamException, IOException {
+        if (binaryReader != null) {
+            List<Object> row = binaryReader.readRow();
+            if (row == null) {
+                done = true;
+                reader.close();
+            }
+            return row;
+        }
+        
+        PrimitiveRow row = null;
+        int col = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("TR".equals(name)) {
+                    row = new PrimitiveRow(fields.size());
+                    col = 0;
+                } else if ("TD".equals(name)) {
+                    if (row == null || col == fields.size()) {
+                        throw new UnexpectedContentException("invalid TABLEDATA: unexpected TD");
+                    }
+                    String text = reader.getElementText().trim();
+                    if (!text.isEmpty()) {
+                        parseCell(row, col, text);
+                    }
+                    col++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("TR".equals(name)) {
+                    if (row == null || col != fields.size()) {
+                        throw new UnexpectedContentException("invalid TABLEDATA: found row with "
+                                + col + " values, expected " + fields.size());
+                    }
+                    return row;
+                } else if ("TABLEDATA".equals(name)) {
+                    break;
+                }
+            }
+        }
+        done = true;
+        reader.close();
+        return null;
+    }
+    
+    // scalar numeric values go straight to primitive slots; everything else via the field format
+    private void parseCell(PrimitiveRow row, int col, String text) {
+        switch (slotTypes[col]) {
+            case PrimitiveRow.DOUBLE:
+                row.setDouble(col, parseDouble(text));
+                break;
+            case PrimitiveRow.FLOAT:
+                row.setFloat(col, parseFloat(text));
+                break;
+            case PrimitiveRow.LONG:
+                long l = Long.parseLong(text);
+                if (!isNullValue(col, l)) {
+                    row.setLong(col, l);
+                }
+                break;
+            case PrimitiveRow.INT:
+                int i = Integer.parseInt(text);
+                if (!isNullValue(col, i)) {
+                    row.setInt(col, i);
+                }
+                break;
+            case PrimitiveRow.SHORT:
+                short sh = Short.parseShort(text);
+                if (!isNullValue(col, sh)) {
+                    row.setShort(col, sh);
+                }
+                break;
+            default:
+                row.setObject(col, formats.get(col).parse(text));
+        }
+    }
+    
+    // VOTable writes infinity as +Inf, -Inf, or Inf, which Double.parseDouble does not accept
+    static double parseDouble(String text) {
+        if (isInfinity(text)) {
+            return (text.charAt(0) == '-' ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+        }
+        return Double.parseDouble(text);
+    }
+
+    static float parseFloat(String text) {
+        if (isInfinity(text)) {
+            return (text.charAt(0) == '-' ? Float.NEGATIVE_INFINITY : Float.POSITIVE_INFINITY);
+        }
+        return Float.parseFloat(text);
+    }
+
+    private static boolean isInfinity(String text) {
+        int i = (text.charAt(0) == '+' || text.charAt(0) == '-' ? 1 : 0);
+        return text.length() - i == 3 && text.regionMatches(true, i, "Inf", 0, 3);
+    }
+    
+    private boolean isNullValue(int col, long val) {
+        Long nv = nullValues.get(col);
+        return nv != null && nv == val;
+    }
+    
+    // ASCII content of the current element (base64 STREAM) as an input stream
+    private class ElementTextInputStream extends InputStream {
+        private char[] buf = new char[0];
+        private int pos = 0;
+        private int len = 0;
+        private boolean eof = false;
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return buf[pos++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int n) throws IOException {
+            if (n == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int num = Math.min(n, len - pos);
+            for (int i = 0; i < num; i++) {
+                b[off + i] = (byte) buf[pos++];
+            }
+            return num;
+        }
+        
+        // true if there are buffered characters
+        private boolean fill() throws IOException {
+            try {
+                while (pos == len && !eof) {
+                    if (!reader.hasNext()) {
+                        eof = true;
+                    } else {
+                        int event = reader.next();
+                        if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                                || event == XMLStreamConstants.SPACE) {
+                            int n = reader.getTextLength();
+                            if (buf.length < n) {
+                                buf = new char[n];
+                            }
+                            System.arraycopy(reader.getTextCharacters(), reader.getTextStart(), buf, 0, n);
+                            pos = 0;
+                            len = n;
+                        } else if (event == XMLStreamConstants.END_ELEMENT) {
+                            eof = true;
+                        }
+                    }
+                }
+            } catch (XMLStreamException ex) {
+                throw new IOException("failed to read STREAM: " + ex.getMessage(), ex);
+            }
+            return pos < len;
+        }
+    }
+}
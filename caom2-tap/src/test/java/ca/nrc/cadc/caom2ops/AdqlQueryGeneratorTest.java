@@ -74,6 +74,9 @@ import ca.nrc.cadc.caom2.PlaneURI;
 import ca.nrc.cadc.caom2.PublisherID;
 import ca.nrc.cadc.util.Log4jInit;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.junit.Assert;
@@ -126,6 +129,42 @@ public class AdqlQueryGeneratorTest {
         }
     }
 
+    @Test
+    public void testArtifactQueryList() {
+        try {
+            List<URI> uris = new ArrayList<URI>();
+            uris.add(new URI("ad:FOO/bar1.fits"));
+            uris.add(new URI("ad:FOO/bar2.fits"));
+            uris.add(new URI("ad:FOO/bar1.fits"));
+            AdqlQueryGenerator gen = new AdqlQueryGenerator();
+            String adql = gen.getArtifactADQL(uris);
+            log.info("testArtifactQueryList:\n" + adql);
+
+            adql = adql.toLowerCase();
+
+            Assert.assertTrue(adql.contains("from caom2.plane"));
+            Assert.assertTrue(adql.contains("left outer join caom2.chunk"));
+            Assert.assertTrue(adql.contains("artifact.uri in ('ad:foo/bar1.fits', 'ad:foo/bar2.fits')"));
+            Assert.assertTrue(adql.contains("order by plane.publisherid, artifact.artifactid, part.partid"));
+            
+            // values are string literals
+            uris.clear();
+            uris.add(new URI("ad:FOO/bar'1.fits"));
+            adql = gen.getArtifactADQL(uris);
+            Assert.assertTrue(adql.contains("Artifact.uri IN ('ad:FOO/bar''1.fits')"));
+            
+            try {
+                gen.getArtifactADQL(new ArrayList<URI>());
+                Assert.fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException expected) {
+                log.debug("caught expected: " + expected);
+            }
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
     @Test
     public void testArtifactListQueryPlaneURI() {
         try {
@@ -182,6 +221,44 @@ public class AdqlQueryGeneratorTest {
         }
     }
 
+    @Test
+    public void testArtifactListQueryPublisherIDList() {
+        try {
+            List<PublisherID> uris = new ArrayList<PublisherID>();
+            uris.add(new PublisherID(new URI("ivo://cadc.nrc.ca/FOO?bar123/bar456")));
+            uris.add(new PublisherID(new URI("ivo://cadc.nrc.ca/FOO?bar123/bar789")));
+            uris.add(new PublisherID(new URI("ivo://cadc.nrc.ca/FOO?bar123/bar456"))); // duplicate
+            AdqlQueryGenerator gen = new AdqlQueryGenerator();
+            String adql = gen.getADQL(uris, true);
+            log.info("testArtifactListQueryPublisherIDList:\n" + adql);
+
+            adql = adql.toLowerCase();
+
+            Assert.assertTrue(adql.contains("from caom2.plane"));
+            Assert.assertTrue(adql.contains("left outer join caom2.artifact"));
+            Assert.assertFalse(adql.contains("left outer join caom2.part"));
+
+            Assert.assertTrue(adql.contains("plane.publisherid in ('ivo://cadc.nrc.ca/foo?bar123/bar456', 'ivo://cadc.nrc.ca/foo?bar123/bar789')"));
+            Assert.assertTrue(adql.contains("order by plane.publisherid"));
+            
+            // values are string literals
+            uris.clear();
+            uris.add(new PublisherID(new URI("ivo://cadc.nrc.ca/FOO?bar'123/bar456")));
+            adql = gen.getADQL(uris, true);
+            Assert.assertTrue(adql.contains("Plane.publisherID IN ('ivo://cadc.nrc.ca/FOO?bar''123/bar456')"));
+            
+            try {
+                gen.getADQL(new ArrayList<PublisherID>(), true);
+                Assert.fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException expected) {
+                log.info("caught expected: " + expected);
+            }
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
     @Test
     public void testObservationQuery() {
         try {
@@ -208,4 +285,151 @@ public class AdqlQueryGeneratorTest {
             Assert.fail("unexpected exception: " + unexpected);
         }
     }
+
+    @Test
+    public void testObservationLevelQueries() {
+        try {
+            ObservationURI uri = new ObservationURI("FOO", "bar123");
+            AdqlQueryGenerator gen = new AdqlQueryGenerator();
+            List<String> queries = gen.getLevelADQL(uri);
+            Assert.assertEquals(5, queries.size());
+            
+            String[] tables = new String[] { "observation", "plane", "artifact", "part", "chunk" };
+            for (int i = 0; i < queries.size(); i++) {
+                String adql = queries.get(i);
+                log.info("testObservationLevelQueries:\n" + adql);
+                adql = adql.toLowerCase();
+                
+                Assert.assertTrue(adql.startsWith("select " + tables[i] + "."));
+                Assert.assertTrue(adql.contains(tables[i] + ".*"));
+                Assert.assertFalse(adql.contains("outer join"));
+                Assert.assertTrue(adql.contains("observation.collection = 'foo'"));
+                Assert.assertTrue(adql.contains("observation.observationid = 'bar123'"));
+                // only the columns of this level
+                for (int j = 0; j < tables.length; j++) {
+                    if (j != i) {
+                        Assert.assertFalse(adql.contains(tables[j] + ".*"));
+                    }
+                }
+                if (i > 0) {
+                    Assert.assertTrue(adql.contains(" as parentid"));
+                    Assert.assertTrue(adql.contains("join caom2." + tables[i] + " "));
+                    Assert.assertTrue(adql.contains("order by " + tables[i] + "."));
+                }
+            }
+            
+            // values are string literals
+            queries = gen.getLevelADQL(new ObservationURI("FOO", "bar'123"));
+            for (String adql : queries) {
+                Assert.assertTrue(adql.contains("Observation.observationID = 'bar''123'"));
+            }
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testObservationVersionQuery() {
+        try {
+            ObservationURI uri = new ObservationURI("FOO", "bar123");
+            AdqlQueryGenerator gen = new AdqlQueryGenerator();
+            String adql = gen.getVersionADQL(uri);
+            log.info("testObservationVersionQuery:\n" + adql);
+
+            adql = adql.toLowerCase();
+            Assert.assertTrue(adql.contains("observation.lastmodified"));
+            Assert.assertTrue(adql.contains("observation.maxlastmodified"));
+            Assert.assertTrue(adql.contains("observation.accmetachecksum"));
+            Assert.assertFalse(adql.contains("observation.*"));
+            // the planes the caller can see but no other columns
+            Assert.assertTrue(adql.contains("plane.planeid, plane.metarelease from"));
+            Assert.assertFalse(adql.contains("plane.*"));
+            Assert.assertTrue(adql.contains("left outer join caom2.plane as plane on observation.obsid = plane.obsid"));
+            Assert.assertFalse(adql.contains("caom2.artifact"));
+            Assert.assertTrue(adql.contains("observation.collection = 'foo'"));
+            Assert.assertTrue(adql.contains("observation.observationid = 'bar123'"));
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testObservationListQuery() {
+        try {
+            List<ObservationURI> uris = new ArrayList<ObservationURI>();
+            uris.add(new ObservationURI("FOO", "bar1"));
+            uris.add(new ObservationURI("FOO", "bar2"));
+            uris.add(new ObservationURI("BAZ", "bar1"));
+            AdqlQueryGenerator gen = new AdqlQueryGenerator();
+            String adql = gen.getADQL(uris);
+            log.info("testObservationListQuery:\n" + adql);
+
+            adql = adql.toLowerCase();
+            Assert.assertTrue(adql.contains("from caom2.observation"));
+            Assert.assertTrue(adql.contains("left outer join caom2.chunk"));
+            Assert.assertTrue(adql.contains("(observation.collection = 'baz' and observation.observationid in ('bar1'))"));
+            Assert.assertTrue(adql.contains("(observation.collection = 'foo' and observation.observationid in ('bar1', 'bar2'))"));
+            Assert.assertTrue(adql.contains(" or "));
+            Assert.assertTrue(adql.contains("order by observation.obsid, plane.planeid"));
+            
+            // values are string literals
+            uris.clear();
+            uris.add(new ObservationURI("FOO", "bar'1"));
+            adql = gen.getADQL(uris);
+            log.info("testObservationListQuery:\n" + adql);
+            Assert.assertTrue(adql.contains("(Observation.collection = 'FOO' AND Observation.observationID IN ('bar''1'))"));
+            
+            try {
+                gen.getADQL(new ArrayList<ObservationURI>());
+                Assert.fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException expected) {
+                log.debug("caught expected: " + expected);
+            }
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testObservationURIListQuery() {
+        try {
+            AdqlQueryGenerator gen = new AdqlQueryGenerator();
+            String adql = gen.getObservationListADQL("FOO", null, null, null, 1000);
+            log.info("testObservationURIListQuery:\n" + adql);
+            adql = adql.toLowerCase();
+            Assert.assertTrue(adql.startsWith("select top 1000 "));
+            Assert.assertTrue(adql.contains("observation.collection = 'foo'"));
+            Assert.assertFalse(adql.contains("maxlastmodified >"));
+            Assert.assertFalse(adql.contains("maxlastmodified <"));
+            Assert.assertTrue(adql.contains("order by observation.maxlastmodified, observation.observationid"));
+            
+            adql = gen.getObservationListADQL("FOO", new Date(0L), new Date(86400000L), null, 1000);
+            log.info("testObservationURIListQuery:\n" + adql);
+            adql = adql.toLowerCase();
+            Assert.assertTrue(adql.contains("observation.maxlastmodified >= '1970-01-01"));
+            Assert.assertTrue(adql.contains("observation.maxlastmodified < '1970-01-02"));
+            
+            // next page starts after the last observation of the previous page
+            ObservationVersion after = new ObservationVersion(new ObservationURI("FOO", "bar9"));
+            after.maxLastModified = new Date(3600000L);
+            adql = gen.getObservationListADQL("FOO", new Date(0L), null, after, 1000);
+            log.info("testObservationURIListQuery:\n" + adql);
+            adql = adql.toLowerCase();
+            Assert.assertTrue(adql.contains("observation.maxlastmodified >= '1970-01-01t00:00:00.000'"));
+            Assert.assertTrue(adql.contains("(observation.maxlastmodified > '1970-01-01t01:00:00.000'"
+                    + " or (observation.maxlastmodified = '1970-01-01t01:00:00.000'"
+                    + " and observation.observationid > 'bar9'))"));
+            
+            // collection is a request parameter
+            adql = gen.getObservationListADQL("FOO' OR 'a' = 'a", null, null, null, 1000);
+            log.info("testObservationURIListQuery:\n" + adql);
+            Assert.assertTrue(adql.contains("Observation.collection = 'FOO'' OR ''a'' = ''a' ORDER BY"));
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
 }
@@ -0,0 +1,442 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2ops;
+
+import ca.nrc.cadc.auth.HttpPrincipal;
+import ca.nrc.cadc.caom2.Artifact;
+import ca.nrc.cadc.caom2.Chunk;
+import ca.nrc.cadc.caom2.Observation;
+import ca.nrc.cadc.caom2.ObservationURI;
+import ca.nrc.cadc.caom2.Part;
+import ca.nrc.cadc.caom2.Plane;
+import ca.nrc.cadc.caom2.PlaneURI;
+import ca.nrc.cadc.caom2.ProductType;
+import ca.nrc.cadc.caom2.PublisherID;
+import ca.nrc.cadc.caom2.ReleaseType;
+import ca.nrc.cadc.caom2ops.mapper.UnexpectedContentException;
+import ca.nrc.cadc.dali.tables.votable.VOTableField;
+import ca.nrc.cadc.util.Log4jInit;
+import java.net.URI;
+import java.security.Principal;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.security.auth.Subject;
+import javax.security.auth.x500.X500Principal;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests of CaomTapQuery with the queries executed against in-memory tables.
+ */
+public class CaomTapQueryTest {
+    private static final Logger log = Logger.getLogger(CaomTapQueryTest.class);
+
+    static {
+        Log4jInit.setLevel("ca.nrc.cadc.caom2ops", Level.INFO);
+    }
+    
+    private static final URI TAP_ID = URI.create("ivo://example.net/tap");
+    private static final String[] LEVELS = new String[] { "Observation", "Plane", "Artifact", "Part", "Chunk" };
+    
+    // one table per level, selected by the level of the query
+    private static class TestQuery extends CaomTapQuery {
+        final List<String> queries = Collections.synchronizedList(new ArrayList<String>());
+        final Map<String,List<List<Object>>> tables = new HashMap<String,List<List<Object>>>();
+        
+        TestQuery() {
+            super(TAP_ID, "test");
+            for (String level : LEVELS) {
+                tables.put(level, new ArrayList<List<Object>>());
+            }
+        }
+        
+        @Override
+        protected <T> T execQuery(String uri, String adql, TableBuilder<T> builder) {
+            queries.add(adql);
+            String level = getLevel(adql);
+            return builder.build(getFields(level), tables.get(level).iterator());
+        }
+        
+        void add(String level, Object... values) {
+            tables.get(level).add(Arrays.asList(values));
+        }
+    }
+    
+    static String getLevel(String adql) {
+        for (int i = LEVELS.length - 1; i > 0; i--) {
+            if (adql.contains(LEVELS[i] + ".* FROM")) {
+                return LEVELS[i];
+            }
+        }
+        return LEVELS[0];
+    }
+    
+    static List<VOTableField> getFields(String level) {
+        List<VOTableField> ret = new ArrayList<VOTableField>();
+        if (!LEVELS[0].equals(level)) {
+            ret.add(new VOTableField(AdqlQueryGenerator.PARENT_ID, "char", "36"));
+        }
+        ret.add(newField(level + ".id", "char", "36"));
+        if ("Observation".equals(level)) {
+            ret.add(newField("Observation.collection", "char", "*"));
+            ret.add(newField("Observation.observationID", "char", "*"));
+        } else if ("Plane".equals(level)) {
+            ret.add(newField("Plane.productID", "char", "*"));
+        } else if ("Artifact".equals(level)) {
+            ret.add(newField("Artifact.uri", "char", "*"));
+            ret.add(newField("Artifact.productType", "char", "*"));
+            ret.add(newField("Artifact.releaseType", "char", "*"));
+        } else if ("Part".equals(level)) {
+            ret.add(newField("Part.name", "char", "*"));
+        }
+        return ret;
+    }
+    
+    private static VOTableField newField(String utype, String datatype, String arraysize) {
+        VOTableField ret = new VOTableField(utype.replace('.', '_'), datatype, arraysize);
+        ret.utype = "caom2:" + utype;
+        return ret;
+    }
+    
+    @Test
+    public void testLevelQueries() {
+        try {
+            TestQuery q = new TestQuery();
+            q.setSplitObservationQuery(true);
+            
+            UUID obsID = new UUID(0L, 1L);
+            UUID p1 = new UUID(0L, 10L);
+            UUID p2 = new UUID(0L, 11L);
+            UUID a1 = new UUID(0L, 100L);
+            UUID a2 = new UUID(0L, 101L);
+            UUID a3 = new UUID(0L, 102L);
+            UUID pt1 = new UUID(0L, 1000L);
+            UUID pt2 = new UUID(0L, 1001L);
+            
+            q.add("Observation", obsID, "FOO", "bar");
+            // rows of different parents interleaved, as ordered by the child ID
+            q.add("Plane", obsID, p1, "p1");
+            q.add("Plane", obsID, p2, "p2");
+            q.add("Artifact", p1, a1, URI.create("cadc:FOO/a1"), "science", "data");
+            q.add("Artifact", p2, a2, URI.create("cadc:FOO/a2"), "science", "data");
+            q.add("Artifact", p1, a3, URI.create("cadc:FOO/a3"), "preview", "data");
+            q.add("Part", a1, pt1, "0");
+            q.add("Part", a1, pt2, "1");
+            q.add("Chunk", pt1, new UUID(0L, 10000L));
+            q.add("Chunk", pt2, new UUID(0L, 10001L));
+            q.add("Chunk", pt1, new UUID(0L, 10002L));
+            // orphan: parent not in the observation
+            q.add("Chunk", new UUID(0L, 9999L), new UUID(0L, 10003L));
+            
+            Observation obs = q.performQuery(new ObservationURI("FOO", "bar"));
+            Assert.assertNotNull(obs);
+            Assert.assertEquals(obsID, obs.getID());
+            Assert.assertEquals(5, q.queries.size());
+            
+            Assert.assertEquals(2, obs.getPlanes().size());
+            int numArtifacts = 0;
+            int numParts = 0;
+            int numChunks = 0;
+            for (Plane p : obs.getPlanes()) {
+                if (p.getID().equals(p1)) {
+                    Assert.assertEquals(2, p.getArtifacts().size());
+                } else {
+                    Assert.assertEquals(p2, p.getID());
+                    Assert.assertEquals(1, p.getArtifacts().size());
+                }
+                for (Artifact a : p.getArtifacts()) {
+                    numArtifacts++;
+                    if (a.getID().equals(a1)) {
+                        Assert.assertEquals(2, a.getParts().size());
+                    } else {
+                        // empty level
+                        Assert.assertTrue(a.getParts().isEmpty());
+                    }
+                    for (Part pt : a.getParts()) {
+                        numParts++;
+                        int expected = pt.getID().equals(pt1) ? 2 : 1;
+                        Assert.assertEquals(expected, pt.getChunks().size());
+                        for (Chunk c : pt.getChunks()) {
+                            numChunks++;
+                        }
+                    }
+                }
+            }
+            Assert.assertEquals(3, numArtifacts);
+            Assert.assertEquals(2, numParts);
+            Assert.assertEquals(3, numChunks);
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+    
+    @Test
+    public void testLevelQueriesEmpty() {
+        try {
+            TestQuery q = new TestQuery();
+            q.setSplitObservationQuery(true);
+            
+            UUID obsID = new UUID(0L, 1L);
+            q.add("Observation", obsID, "FOO", "bar");
+            Observation obs = q.performQuery(new ObservationURI("FOO", "bar"));
+            Assert.assertNotNull(obs);
+            Assert.assertTrue(obs.getPlanes().isEmpty());
+            Assert.assertEquals(5, q.queries.size());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+    
+    @Test
+    public void testLevelQueriesNotFound() {
+        try {
+            TestQuery q = new TestQuery();
+            q.setSplitObservationQuery(true);
+            
+            Observation obs = q.performQuery(new ObservationURI("FOO", "bar"));
+            Assert.assertNull(obs);
+            // child levels are not queried
+            Assert.assertEquals(1, q.queries.size());
+            Assert.assertEquals("Observation", getLevel(q.queries.get(0)));
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+    
+    @Test
+    public void testChildBuilder() {
+        try {
+            UUID parent = new UUID(0L, 1L);
+            List<List<Object>> rows = new ArrayList<List<Object>>();
+            // parentID may be returned as a string
+            rows.add(Arrays.asList((Object) parent.toString(), new UUID(0L, 2L), "0"));
+            rows.add(Arrays.asList((Object) parent, new UUID(0L, 3L), "1"));
+            rows.add(Arrays.asList((Object) parent, null, null));
+            
+            CaomTapQuery.ChildBuilder<Part> cb = new CaomTapQuery.ChildBuilder<Part>(Part.class);
+            Map<UUID,List<Part>> parts = cb.build(getFields("Part"), rows.iterator());
+            Assert.assertEquals(1, parts.size());
+            List<Part> children = parts.get(parent);
+            Assert.assertNotNull(children);
+            Assert.assertEquals(2, children.size());
+            // in row order
+            Assert.assertEquals("0", children.get(0).getName());
+            Assert.assertEquals("1", children.get(1).getName());
+            
+            List<VOTableField> fields = getFields("Part");
+            fields.remove(0);
+            try {
+                cb.build(fields, new ArrayList<List<Object>>().iterator());
+                Assert.fail("expected UnexpectedContentException");
+            } catch (UnexpectedContentException expected) {
+                log.debug("caught expected: " + expected);
+            }
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+    
+    // every query returns the same artifact list
+    private static class CacheQuery extends CaomTapQuery {
+        int numQueries = 0;
+        
+        CacheQuery() {
+            super(TAP_ID, "test");
+        }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        protected <T> T execQuery(String uri, String adql, TableBuilder<T> builder) {
+            numQueries++;
+            ArtifactQueryResult ret = new ArtifactQueryResult(new PublisherID(URI.create("ivo://example.net/FOO?bar/baz")));
+            ret.getArtifacts().add(new Artifact(URI.create("cadc:FOO/a1"), ProductType.SCIENCE, ReleaseType.DATA));
+            return (T) ret;
+        }
+    }
+    
+    private static ArtifactQueryResult query(final CaomTapQuery q, final PlaneURI uri, Subject caller) throws Exception {
+        if (caller == null) {
+            return q.performQuery(uri, false);
+        }
+        return Subject.doAs(caller, new PrivilegedExceptionAction<ArtifactQueryResult>() {
+            @Override
+            public ArtifactQueryResult run() throws Exception {
+                return q.performQuery(uri, false);
+            }
+        });
+    }
+    
+    private static Subject newSubject(Principal... principals) {
+        Subject ret = new Subject();
+        ret.getPrincipals().addAll(Arrays.asList(principals));
+        return ret;
+    }
+    
+    @Test
+    public void testResultCacheCallers() {
+        try {
+            ExpiringCache<String,ArtifactQueryResult> cache = new ExpiringCache<String,ArtifactQueryResult>(16, 60000L);
+            CacheQuery q = new CacheQuery();
+            q.setResultCache(cache);
+            PlaneURI uri = new PlaneURI(new ObservationURI("FOO", "bar"), "baz");
+            
+            // anonymous callers share entries
+            Assert.assertEquals(1, query(q, uri, null).getArtifacts().size());
+            Assert.assertEquals(1, q.numQueries);
+            Assert.assertEquals(0, cache.getHits());
+            Assert.assertEquals(1, cache.getMisses());
+            
+            query(q, uri, null);
+            query(q, uri, new Subject());
+            Assert.assertEquals(1, q.numQueries);
+            Assert.assertEquals(2, cache.getHits());
+            Assert.assertEquals(1, cache.getMisses());
+            
+            // callers with different principals never share entries
+            query(q, uri, newSubject(new HttpPrincipal("alice")));
+            Assert.assertEquals(2, q.numQueries);
+            query(q, uri, newSubject(new HttpPrincipal("bob")));
+            Assert.assertEquals(3, q.numQueries);
+            query(q, uri, newSubject(new X500Principal("CN=alice")));
+            Assert.assertEquals(4, q.numQueries);
+            query(q, uri, newSubject(new HttpPrincipal("alice"), new X500Principal("CN=alice")));
+            Assert.assertEquals(5, q.numQueries);
+            Assert.assertEquals(2, cache.getHits());
+            Assert.assertEquals(5, cache.getMisses());
+            
+            // same principals in a new Subject
+            ArtifactQueryResult ar = query(q, uri, newSubject(new HttpPrincipal("alice")));
+            Assert.assertEquals(5, q.numQueries);
+            Assert.assertEquals(3, cache.getHits());
+            Assert.assertEquals(5, cache.getMisses());
+            Assert.assertEquals(5, cache.size());
+            
+            // callers get a copy: modifying it does not change the entry
+            ar.getArtifacts().clear();
+            ar = query(q, uri, newSubject(new HttpPrincipal("alice")));
+            Assert.assertEquals(1, ar.getArtifacts().size());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+    
+    @Test
+    public void testArtifactQueryDuplicateURI() {
+        try {
+            final URI uri = URI.create("cadc:FOO/a1");
+            final URI other = URI.create("cadc:FOO/a2");
+            // the same artifact URI in two planes
+            CaomTapQuery q = new CaomTapQuery(TAP_ID, "test") {
+                @Override
+                @SuppressWarnings("unchecked")
+                protected <T> T execQuery(String desc, String adql, TableBuilder<T> builder) {
+                    Map<URI,ArtifactQueryResult> ret = new LinkedHashMap<URI,ArtifactQueryResult>();
+                    ArtifactQueryResult ar1 = new ArtifactQueryResult(new PublisherID(URI.create("ivo://example.net/FOO?bar/p1")));
+                    ar1.getArtifacts().add(new Artifact(uri, ProductType.SCIENCE, ReleaseType.DATA));
+                    ar1.getArtifacts().add(new Artifact(other, ProductType.PREVIEW, ReleaseType.DATA));
+                    ret.put(ar1.getPublisherID().getURI(), ar1);
+                    ArtifactQueryResult ar2 = new ArtifactQueryResult(new PublisherID(URI.create("ivo://example.net/FOO?bar/p2")));
+                    ar2.getArtifacts().add(new Artifact(uri, ProductType.AUXILIARY, ReleaseType.DATA));
+                    ret.put(ar2.getPublisherID().getURI(), ar2);
+                    return (T) ret;
+                }
+            };
+            ExpiringCache<String,ArtifactQueryResult> cache = new ExpiringCache<String,ArtifactQueryResult>(16, 60000L);
+            q.setResultCache(cache);
+            
+            Map<URI,Artifact> found = q.performArtifactQuery(Arrays.asList(uri, other));
+            Assert.assertEquals(2, found.size());
+            Assert.assertEquals(ProductType.SCIENCE, found.get(uri).getProductType());
+            Assert.assertEquals(ProductType.PREVIEW, found.get(other).getProductType());
+            
+            // the cached single result has the same artifact
+            Artifact a = q.performQuery(uri);
+            Assert.assertEquals(1, cache.getHits());
+            Assert.assertEquals(ProductType.SCIENCE, a.getProductType());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+}
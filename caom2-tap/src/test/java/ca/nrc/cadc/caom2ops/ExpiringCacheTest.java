@@ -0,0 +1,147 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2ops;
+
+import ca.nrc.cadc.util.Log4jInit;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExpiringCacheTest {
+    private static final Logger log = Logger.getLogger(ExpiringCacheTest.class);
+
+    static {
+        Log4jInit.setLevel("ca.nrc.cadc.caom2ops", Level.INFO);
+    }
+    
+    @Test
+    public void testGetPut() {
+        try {
+            ExpiringCache<String,String> cache = new ExpiringCache<String,String>(4, 60000L);
+            Assert.assertNull(cache.get("foo"));
+            
+            cache.put("foo", "bar");
+            Assert.assertEquals("bar", cache.get("foo"));
+            Assert.assertEquals(1, cache.size());
+            
+            cache.remove("foo");
+            Assert.assertNull(cache.get("foo"));
+            
+            cache.put("foo", "bar");
+            cache.put("foo", null);
+            Assert.assertNull(cache.get("foo"));
+            Assert.assertEquals(0, cache.size());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+    
+    @Test
+    public void testExpiry() {
+        try {
+            ExpiringCache<String,String> cache = new ExpiringCache<String,String>(4, 100L);
+            cache.put("foo", "bar");
+            Assert.assertEquals("bar", cache.get("foo"));
+            
+            Thread.sleep(200L);
+            Assert.assertNull(cache.get("foo"));
+            Assert.assertEquals(0, cache.size());
+            Assert.assertEquals(1, cache.getEvictions());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+    
+    @Test
+    public void testEviction() {
+        try {
+            ExpiringCache<Integer,String> cache = new ExpiringCache<Integer,String>(2, 60000L);
+            cache.put(1, "one");
+            cache.put(2, "two");
+            cache.get(1); // 2 is now least recently used
+            cache.put(3, "three");
+            
+            Assert.assertEquals(2, cache.size());
+            Assert.assertEquals("one", cache.get(1));
+            Assert.assertNull(cache.get(2));
+            Assert.assertEquals("three", cache.get(3));
+            
+            Assert.assertEquals(3, cache.getHits());
+            Assert.assertEquals(1, cache.getMisses());
+            Assert.assertEquals(1, cache.getEvictions());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2ops;
+
+import ca.nrc.cadc.util.Log4jInit;
+import ca.nrc.cadc.uws.ErrorSummary;
+import ca.nrc.cadc.uws.ErrorType;
+import ca.nrc.cadc.uws.ExecutionPhase;
+import ca.nrc.cadc.uws.Job;
+import ca.nrc.cadc.uws.Result;
+import ca.nrc.cadc.uws.server.JobPersistenceUtil;
+import ca.nrc.cadc.uws.server.JobUpdater;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SyncJobUpdaterTest {
+
+    private static final Logger log = Logger.getLogger(SyncJobUpdaterTest.class);
+
+    static {
+        Log4jInit.setLevel("ca.nrc.cadc.caom2ops", Level.INFO);
+    }
+
+    @Test
+    public void testCompletedWrittenOnce() {
+        try {
+            RecordingUpdater delegate = new RecordingUpdater();
+            Job job = newJob();
+            SyncJobUpdater ju = new SyncJobUpdater(job, delegate);
+            
+            ExecutionPhase ep = ju.setPhase("abc", ExecutionPhase.QUEUED, ExecutionPhase.EXECUTING, new Date());
+            Assert.assertEquals(ExecutionPhase.EXECUTING, ep);
+            Assert.assertEquals(ExecutionPhase.EXECUTING, ju.getPhase("abc"));
+            Assert.assertEquals(ExecutionPhase.EXECUTING, job.getExecutionPhase());
+            
+            // wrong start phase
+            ep = ju.setPhase("abc", ExecutionPhase.QUEUED, ExecutionPhase.EXECUTING, new Date());
+            Assert.assertNull(ep);
+            
+            Assert.assertFalse(ju.isPersisted());
+            Assert.assertTrue(delegate.calls.isEmpty());
+            
+            // single write from the persisted phase
+            ep = ju.setPhase("abc", ExecutionPhase.EXECUTING, ExecutionPhase.COMPLETED, new Date());
+            Assert.assertEquals(ExecutionPhase.COMPLETED, ep);
+            Assert.assertEquals(ExecutionPhase.COMPLETED, job.getExecutionPhase());
+            Assert.assertTrue(ju.isPersisted());
+            Assert.assertEquals(1, delegate.calls.size());
+            Assert.assertEquals("abc QUEUED COMPLETED", delegate.calls.get(0));
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testErrorPersisted() {
+        try {
+            RecordingUpdater delegate = new RecordingUpdater();
+            SyncJobUpdater ju = new SyncJobUpdater(newJob(), delegate);
+            
+            ju.setPhase("abc", ExecutionPhase.QUEUED, ExecutionPhase.EXECUTING, new Date());
+            Assert.assertTrue(delegate.calls.isEmpty());
+            
+            ErrorSummary err = new ErrorSummary("oops", ErrorType.FATAL);
+            ExecutionPhase ep = ju.setPhase("abc", ExecutionPhase.EXECUTING, ExecutionPhase.ERROR, err, new Date());
+            Assert.assertEquals(ExecutionPhase.ERROR, ep);
+            Assert.assertTrue(ju.isPersisted());
+            
+            // transition to EXECUTING replayed before the error
+            Assert.assertEquals(2, delegate.calls.size());
+            Assert.assertEquals("abc QUEUED EXECUTING", delegate.calls.get(0));
+            Assert.assertEquals("abc EXECUTING ERROR error", delegate.calls.get(1));
+            
+            // pass through after persist
+            Assert.assertEquals(ExecutionPhase.ERROR, ju.getPhase("abc"));
+            Assert.assertEquals(3, delegate.calls.size());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testResultsPersisted() {
+        try {
+            RecordingUpdater delegate = new RecordingUpdater();
+            SyncJobUpdater ju = new SyncJobUpdater(newJob(), delegate);
+            
+            ju.setPhase("abc", ExecutionPhase.QUEUED, ExecutionPhase.EXECUTING, new Date());
+            List<Result> results = new ArrayList<Result>();
+            ExecutionPhase ep = ju.setPhase("abc", ExecutionPhase.EXECUTING, ExecutionPhase.COMPLETED, 
+                    results, new Date());
+            Assert.assertEquals(ExecutionPhase.COMPLETED, ep);
+            Assert.assertTrue(ju.isPersisted());
+            Assert.assertEquals(1, delegate.calls.size());
+            Assert.assertEquals("abc QUEUED COMPLETED", delegate.calls.get(0));
+            
+            RecordingUpdater delegate2 = new RecordingUpdater();
+            SyncJobUpdater ju2 = new SyncJobUpdater(newJob(), delegate2);
+            ju2.setPhase("abc", ExecutionPhase.QUEUED, ExecutionPhase.EXECUTING, new Date());
+            results.add(new Result("result", new URI("https://example.net/result")));
+            ep = ju2.setPhase("abc", ExecutionPhase.EXECUTING, ExecutionPhase.COMPLETED, results, new Date());
+            Assert.assertEquals(ExecutionPhase.COMPLETED, ep);
+            Assert.assertTrue(ju2.isPersisted());
+            Assert.assertEquals(1, delegate2.calls.size());
+            Assert.assertEquals("abc QUEUED COMPLETED results", delegate2.calls.get(0));
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testCompletedPhaseChanged() {
+        try {
+            // persisted job was changed by another request (e.g. aborted)
+            RecordingUpdater delegate = new RecordingUpdater() {
+                @Override
+                public ExecutionPhase setPhase(String jobID, ExecutionPhase start, ExecutionPhase end, Date date) {
+                    calls.add(jobID + " " + start + " " + end);
+                    return null;
+                }
+            };
+            Job job = newJob();
+            SyncJobUpdater ju = new SyncJobUpdater(job, delegate);
+            
+            ju.setPhase("abc", ExecutionPhase.QUEUED, ExecutionPhase.EXECUTING, new Date());
+            ExecutionPhase ep = ju.setPhase("abc", ExecutionPhase.EXECUTING, ExecutionPhase.COMPLETED, new Date());
+            Assert.assertNull(ep);
+            Assert.assertEquals(1, delegate.calls.size());
+            
+            // unconditional
+            RecordingUpdater delegate2 = new RecordingUpdater();
+            SyncJobUpdater ju2 = new SyncJobUpdater(newJob(), delegate2);
+            ju2.setPhase("abc", ExecutionPhase.EXECUTING);
+            Assert.assertTrue(delegate2.calls.isEmpty());
+            ju2.setPhase("abc", ExecutionPhase.COMPLETED);
+            Assert.assertEquals(1, delegate2.calls.size());
+            Assert.assertEquals("abc QUEUED COMPLETED", delegate2.calls.get(0));
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testOtherJobPassThrough() {
+        try {
+            RecordingUpdater delegate = new RecordingUpdater();
+            SyncJobUpdater ju = new SyncJobUpdater(newJob(), delegate);
+            
+            ExecutionPhase ep = ju.setPhase("other", ExecutionPhase.QUEUED, ExecutionPhase.EXECUTING, new Date());
+            Assert.assertEquals(ExecutionPhase.EXECUTING, ep);
+            Assert.assertEquals(1, delegate.calls.size());
+            Assert.assertEquals("other QUEUED EXECUTING", delegate.calls.get(0));
+            Assert.assertFalse(ju.isPersisted());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    private Job newJob() {
+        Job job = new Job();
+        JobPersistenceUtil.assignID(job, "abc");
+        job.setExecutionPhase(ExecutionPhase.QUEUED);
+        return job;
+    }
+
+    private static class RecordingUpdater implements JobUpdater {
+        final List<String> calls = new ArrayList<String>();
+        
+        @Override
+        public ExecutionPhase getPhase(String jobID) {
+            calls.add(jobID + " getPhase");
+            return ExecutionPhase.ERROR;
+        }
+
+        @Override
+        public void setPhase(String jobID, ExecutionPhase end) {
+            calls.add(jobID + " " + end);
+        }
+
+        @Override
+        public ExecutionPhase setPhase(String jobID, ExecutionPhase start, ExecutionPhase end, Date date) {
+            calls.add(jobID + " " + start + " " + end);
+            return end;
+        }
+
+        @Override
+        public ExecutionPhase setPhase(String jobID, ExecutionPhase start, ExecutionPhase end, 
+                List<Result> results, Date date) {
+            calls.add(jobID + " " + start + " " + end + " results");
+            return end;
+        }
+
+        @Override
+        public ExecutionPhase setPhase(String jobID, ExecutionPhase start, ExecutionPhase end, 
+                ErrorSummary error, Date date) {
+            calls.add(jobID + " " + start + " " + end + " error");
+            return end;
+        }
+    }
+}
@@ -0,0 +1,465 @@
+/*
+************************************************************************
+*******************  CANADIAN ASTRONOMY DATA CENTRE  *******************
+**************  CENTRE CANADIEN DE DONNÉES ASTRONOMIQUES  **************
+*
+*  (c) 2026.                            (c) 2026.
+*  Government of Canada                 Gouvernement du Canada
+*  National Research Council            Conseil national de recherches
+*  Ottawa, Canada, K1A 0R6              Ottawa, Canada, K1A 0R6
+*  All rights reserved                  Tous droits réservés
+*
+*  NRC disclaims any warranties,        Le CNRC dénie toute garantie
+*  expressed, implied, or               énoncée, implicite ou légale,
+*  statutory, of any kind with          de quelque nature que ce
+*  respect to the software,             soit, concernant le logiciel,
+*  including without limitation         y compris sans restriction
+*  any warranty of merchantability      toute garantie de valeur
+*  or fitness for a particular          marchande ou de pertinence
+*  purpose. NRC shall not be            pour un usage particulier.
+*  liable in any event for any          Le CNRC ne pourra en aucun cas
+*  damages, whether direct or           être tenu responsable de tout
+*  indirect, special or general,        dommage, direct ou indirect,
+*  consequential or incidental,         particulier ou général,
+*  arising from the use of the          accessoire ou fortuit, résultant
+*  software.  Neither the name          de l'utilisation du logiciel. Ni
+*  of the National Research             le nom du Conseil National de
+*  Council of Canada nor the            Recherches du Canada ni les noms
+*  names of its contributors may        de ses  participants ne peuvent
+*  be used to endorse or promote        être utilisés pour approuver ou
+*  products derived from this           promouvoir les produits dérivés
+*  software without specific prior      de ce logiciel sans autorisation
+*  written permission.                  préalable et particulière
+*                                       par écrit.
+*
+*  This file is part of the             Ce fichier fait partie du projet
+*  OpenCADC project.                    OpenCADC.
+*
+*  OpenCADC is free software:           OpenCADC est un logiciel libre ;
+*  you can redistribute it and/or       vous pouvez le redistribuer ou le
+*  modify it under the terms of         modifier suivant les termes de
+*  the GNU Affero General Public        la “GNU Affero General Public
+*  License as published by the          License” telle que publiée
+*  Free Software Foundation,            par la Free Software Foundation
+*  either version 3 of the              : soit la version 3 de cette
+*  License, or (at your option)         licence, soit (à votre gré)
+*  any later version.                   toute version ultérieure.
+*
+*  OpenCADC is distributed in the       OpenCADC est distribué
+*  hope that it will be useful,         dans l’espoir qu’il vous
+*  but WITHOUT ANY WARRANTY;            sera utile, mais SANS AUCUNE
+*  without even the implied             GARANTIE : sans même la garantie
+*  warranty of MERCHANTABILITY          implicite de COMMERCIALISABILITÉ
+*  or FITNESS FOR A PARTICULAR          ni d’ADÉQUATION À UN OBJECTIF
+*  PURPOSE.  See the GNU Affero         PARTICULIER. Consultez la Licence
+*  General Public License for           Générale Publique GNU Affero
+*  more details.                        pour plus de détails.
+*
+*  You should have received             Vous devriez avoir reçu une
+*  a copy of the GNU Affero             copie de la Licence Générale
+*  General Public License along         Publique GNU Affero avec
+*  with OpenCADC.  If not, see          OpenCADC ; si ce n’est
+*  <http://www.gnu.org/licenses/>.      pas le cas, consultez :
+*                                       <http://www.gnu.org/licenses/>.
+*
+*  $Revision: 5 $
+*
+************************************************************************
+ */
+
+package ca.nrc.cadc.caom2ops.mapper;
+
+import ca.nrc.cadc.dali.tables.votable.VOTableField;
+import ca.nrc.cadc.util.Log4jInit;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VOTableRowIteratorTest {
+
+    private static final Logger log = Logger.getLogger(VOTableRowIteratorTest.class);
+
+    static {
+        Log4jInit.setLevel("ca.nrc.cadc.caom2ops", Level.INFO);
+    }
+
+    private static final String HEAD = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<VOTABLE xmlns=\"http://www.ivoa.net/xml/VOTable/v1.3\" version=\"1.3\">\n"
+            + "<RESOURCE type=\"results\">\n"
+            + "<INFO name=\"QUERY_STATUS\" value=\"OK\" />\n"
+            + "<TABLE>\n"
+            + "<FIELD name=\"productID\" datatype=\"char\" arraysize=\"*\" utype=\"caom2:Plane.productID\">"
+            + "<DESCRIPTION>product</DESCRIPTION></FIELD>\n"
+            + "<FIELD name=\"dimension\" datatype=\"long\" utype=\"caom2:Plane.energy.dimension\" />\n"
+            + "<FIELD name=\"restwav\" datatype=\"double\" utype=\"caom2:Plane.energy.restwav\" />\n"
+            + "<FIELD name=\"metaReadable\" datatype=\"char\" arraysize=\"*\" />\n";
+
+    // same fields with a null value for the long field
+    private static final String HEAD_NULL = HEAD.replace(
+            "<FIELD name=\"dimension\" datatype=\"long\" utype=\"caom2:Plane.energy.dimension\" />",
+            "<FIELD name=\"dimension\" datatype=\"long\" utype=\"caom2:Plane.energy.dimension\">"
+            + "<VALUES null=\"-1\" /></FIELD>");
+
+    private static final String TAIL = "</TABLE>\n"
+            + "</RESOURCE>\n"
+            + "</VOTABLE>\n";
+
+    public VOTableRowIteratorTest() {
+    }
+
+    //@Test
+    public void testTemplate() {
+        try {
+
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testRows() {
+        try {
+            String doc = HEAD
+                    + "<DATA><TABLEDATA>\n"
+                    + "<TR><TD>foo</TD><TD>1024</TD><TD>2.5E-7</TD><TD>abc</TD></TR>\n"
+                    + "<TR><TD>bar</TD><TD /><TD></TD><TD /></TR>\n"
+                    + "</TABLEDATA></DATA>\n"
+                    + TAIL;
+            VOTableRowIterator iter = new VOTableRowIterator(toStream(doc));
+
+            List<VOTableField> fields = iter.getFields();
+            Assert.assertEquals(4, fields.size());
+            Map<String, Integer> map = VOTableUtil.buildUTypeMap(fields);
+            Assert.assertEquals(Integer.valueOf(0), map.get("caom2:Plane.productID"));
+            Assert.assertEquals(Integer.valueOf(1), map.get("caom2:Plane.energy.dimension"));
+            Assert.assertEquals(Integer.valueOf(2), map.get("caom2:Plane.energy.restwav"));
+            Assert.assertEquals(Integer.valueOf(3), map.get("column-name:metaReadable"));
+
+            Assert.assertTrue(iter.hasNext());
+            List<Object> row = iter.next();
+            Assert.assertEquals(4, row.size());
+            Assert.assertEquals("foo", Util.getString(row, map.get("caom2:Plane.productID")));
+            Assert.assertEquals(Long.valueOf(1024L), Util.getLong(row, map.get("caom2:Plane.energy.dimension")));
+            Assert.assertEquals(2.5e-7, Util.getDouble(row, map.get("caom2:Plane.energy.restwav")), 1.0e-12);
+            Assert.assertNotNull(row.get(3));
+
+            Assert.assertTrue(iter.hasNext());
+            row = iter.next();
+            Assert.assertEquals("bar", row.get(0));
+            Assert.assertNull(row.get(1));
+            Assert.assertNull(row.get(2));
+            Assert.assertNull(row.get(3));
+
+            Assert.assertFalse(iter.hasNext());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testPrimitiveValues() {
+        try {
+            String doc = HEAD
+                    + "<DATA><TABLEDATA>\n"
+                    + "<TR><TD>foo</TD><TD>1024</TD><TD>NaN</TD><TD>abc</TD></TR>\n"
+                    + "<TR><TD>bar</TD><TD /><TD /><TD /></TR>\n"
+                    + "</TABLEDATA></DATA>\n"
+                    + TAIL;
+            VOTableRowIterator iter = new VOTableRowIterator(toStream(doc));
+            Map<String, Integer> map = VOTableUtil.buildUTypeMap(iter.getFields());
+            Integer dimCol = map.get("caom2:Plane.energy.dimension");
+            Integer restwavCol = map.get("caom2:Plane.energy.restwav");
+
+            List<Object> row = iter.next();
+            Assert.assertTrue(row instanceof PrimitiveRow);
+            Assert.assertEquals(1024L, Util.getLongValue(row, dimCol, -1L));
+            Assert.assertEquals(1024.0, Util.getDoubleValue(row, dimCol), 0.0);
+            Assert.assertFalse(Util.isNull(row, restwavCol));
+            Assert.assertTrue(Double.isNaN(Util.getDoubleValue(row, restwavCol)));
+            Assert.assertEquals(Double.valueOf(Double.NaN), row.get(restwavCol));
+            Assert.assertTrue(Double.isNaN(Util.getDoubleValue(row, null)));
+
+            row = iter.next();
+            Assert.assertTrue(Util.isNull(row, dimCol));
+            Assert.assertEquals(-1L, Util.getLongValue(row, dimCol, -1L));
+            Assert.assertTrue(Util.isNull(row, restwavCol));
+            Assert.assertTrue(Double.isNaN(Util.getDoubleValue(row, restwavCol)));
+            Assert.assertNull(row.get(restwavCol));
+
+            Assert.assertFalse(iter.hasNext());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testInfinity() {
+        try {
+            Assert.assertEquals(Double.POSITIVE_INFINITY, VOTableRowIterator.parseDouble("+Inf"), 0.0);
+            Assert.assertEquals(Double.POSITIVE_INFINITY, VOTableRowIterator.parseDouble("Inf"), 0.0);
+            Assert.assertEquals(Double.NEGATIVE_INFINITY, VOTableRowIterator.parseDouble("-Inf"), 0.0);
+            Assert.assertEquals(Double.NEGATIVE_INFINITY, VOTableRowIterator.parseDouble("-Infinity"), 0.0);
+            Assert.assertEquals(Float.POSITIVE_INFINITY, VOTableRowIterator.parseFloat("+Inf"), 0.0f);
+            Assert.assertEquals(Float.NEGATIVE_INFINITY, VOTableRowIterator.parseFloat("-Inf"), 0.0f);
+            Assert.assertEquals(1.5, VOTableRowIterator.parseDouble("+1.5"), 0.0);
+            Assert.assertEquals(-2.5f, VOTableRowIterator.parseFloat("-2.5"), 0.0f);
+            
+            String doc = HEAD
+                    + "<DATA><TABLEDATA>\n"
+                    + "<TR><TD>foo</TD><TD>1</TD><TD>+Inf</TD><TD /></TR>\n"
+                    + "<TR><TD>bar</TD><TD>2</TD><TD>-Inf</TD><TD /></TR>\n"
+                    + "</TABLEDATA></DATA>\n"
+                    + TAIL;
+            VOTableRowIterator iter = new VOTableRowIterator(toStream(doc));
+            Integer restwavCol = VOTableUtil.buildUTypeMap(iter.getFields()).get("caom2:Plane.energy.restwav");
+            
+            List<Object> row = iter.next();
+            Assert.assertEquals(Double.POSITIVE_INFINITY, Util.getDoubleValue(row, restwavCol), 0.0);
+            row = iter.next();
+            Assert.assertEquals(Double.NEGATIVE_INFINITY, Util.getDoubleValue(row, restwavCol), 0.0);
+            Assert.assertFalse(iter.hasNext());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testRequiredDouble() {
+        try {
+            String doc = HEAD
+                    + "<DATA><TABLEDATA>\n"
+                    + "<TR><TD>foo</TD><TD>1</TD><TD>NaN</TD><TD /></TR>\n"
+                    + "<TR><TD>bar</TD><TD>2</TD><TD /><TD /></TR>\n"
+                    + "</TABLEDATA></DATA>\n"
+                    + TAIL;
+            VOTableRowIterator iter = new VOTableRowIterator(toStream(doc));
+            Integer restwavCol = VOTableUtil.buildUTypeMap(iter.getFields()).get("caom2:Plane.energy.restwav");
+            
+            List<Object> row = iter.next();
+            Assert.assertTrue(Double.isNaN(Util.getRequiredDouble(row, restwavCol)));
+            
+            row = iter.next();
+            try {
+                Util.getRequiredDouble(row, restwavCol);
+                Assert.fail("expected NullPointerException for null value");
+            } catch (NullPointerException expected) {
+                log.debug("caught expected: " + expected);
+            }
+            try {
+                Util.getRequiredDouble(row, null);
+                Assert.fail("expected NullPointerException for missing column");
+            } catch (NullPointerException expected) {
+                log.debug("caught expected: " + expected);
+            }
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testBinary2Rows() {
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bos);
+            // row 1: no nulls
+            out.writeByte(0x00);
+            writeString(out, "foo");
+            out.writeLong(1024L);
+            out.writeDouble(2.5e-7);
+            writeString(out, "abc");
+            // row 2: null flags for columns 1,2,3
+            out.writeByte(0x70);
+            writeString(out, "bar");
+            out.writeLong(0L);
+            out.writeDouble(Double.NaN);
+            writeString(out, "");
+            out.close();
+            String stream = Base64.getMimeEncoder().encodeToString(bos.toByteArray());
+            
+            String doc = HEAD
+                    + "<DATA><BINARY2><STREAM encoding=\"base64\">\n"
+                    + stream
+                    + "\n</STREAM></BINARY2></DATA>\n"
+                    + TAIL;
+            VOTableRowIterator iter = new VOTableRowIterator(toStream(doc));
+            Map<String, Integer> map = VOTableUtil.buildUTypeMap(iter.getFields());
+
+            Assert.assertTrue(iter.hasNext());
+            List<Object> row = iter.next();
+            Assert.assertEquals(4, row.size());
+            Assert.assertEquals("foo", Util.getString(row, map.get("caom2:Plane.productID")));
+            Assert.assertEquals(Long.valueOf(1024L), Util.getLong(row, map.get("caom2:Plane.energy.dimension")));
+            Assert.assertEquals(2.5e-7, Util.getDouble(row, map.get("caom2:Plane.energy.restwav")), 1.0e-12);
+            Assert.assertEquals("abc", row.get(3));
+
+            Assert.assertTrue(iter.hasNext());
+            row = iter.next();
+            Assert.assertEquals("bar", row.get(0));
+            Assert.assertNull(row.get(1));
+            Assert.assertNull(row.get(2));
+            Assert.assertNull(row.get(3));
+
+            Assert.assertFalse(iter.hasNext());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testBinaryRows() {
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bos);
+            // row 1: no nulls
+            writeString(out, "foo");
+            out.writeLong(1024L);
+            out.writeDouble(2.5e-7);
+            writeString(out, "abc");
+            // row 2: BINARY has no null flags: VALUES null for long, NaN for double, empty string
+            writeString(out, "bar");
+            out.writeLong(-1L);
+            out.writeDouble(Double.NaN);
+            writeString(out, "");
+            out.close();
+            String stream = Base64.getMimeEncoder().encodeToString(bos.toByteArray());
+            
+            String doc = HEAD_NULL
+                    + "<DATA><BINARY><STREAM encoding=\"base64\">\n"
+                    + stream
+                    + "\n</STREAM></BINARY></DATA>\n"
+                    + TAIL;
+            VOTableRowIterator iter = new VOTableRowIterator(toStream(doc));
+            Map<String, Integer> map = VOTableUtil.buildUTypeMap(iter.getFields());
+            Integer dimCol = map.get("caom2:Plane.energy.dimension");
+
+            Assert.assertTrue(iter.hasNext());
+            List<Object> row = iter.next();
+            Assert.assertEquals(4, row.size());
+            Assert.assertEquals("foo", Util.getString(row, map.get("caom2:Plane.productID")));
+            Assert.assertEquals(Long.valueOf(1024L), Util.getLong(row, dimCol));
+            Assert.assertEquals(2.5e-7, Util.getDouble(row, map.get("caom2:Plane.energy.restwav")), 1.0e-12);
+            Assert.assertEquals("abc", row.get(3));
+
+            Assert.assertTrue(iter.hasNext());
+            row = iter.next();
+            Assert.assertEquals("bar", row.get(0));
+            Assert.assertTrue(Util.isNull(row, dimCol));
+            Assert.assertNull(Util.getLong(row, dimCol));
+            Assert.assertNull(row.get(1));
+            Assert.assertNull(row.get(2));
+            Assert.assertNull(row.get(3));
+
+            Assert.assertFalse(iter.hasNext());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testTableDataNullValue() {
+        try {
+            String doc = HEAD_NULL
+                    + "<DATA><TABLEDATA>\n"
+                    + "<TR><TD>foo</TD><TD>-1</TD><TD /><TD /></TR>\n"
+                    + "<TR><TD>bar</TD><TD>0</TD><TD /><TD /></TR>\n"
+                    + "</TABLEDATA></DATA>\n"
+                    + TAIL;
+            VOTableRowIterator iter = new VOTableRowIterator(toStream(doc));
+            Integer dimCol = VOTableUtil.buildUTypeMap(iter.getFields()).get("caom2:Plane.energy.dimension");
+
+            List<Object> row = iter.next();
+            Assert.assertTrue(Util.isNull(row, dimCol));
+            row = iter.next();
+            Assert.assertEquals(Long.valueOf(0L), Util.getLong(row, dimCol));
+            Assert.assertFalse(iter.hasNext());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testNoRows() {
+        try {
+            String doc = HEAD + "<DATA><TABLEDATA /></DATA>\n" + TAIL;
+            VOTableRowIterator iter = new VOTableRowIterator(toStream(doc));
+            Assert.assertEquals(4, iter.getFields().size());
+            Assert.assertFalse(iter.hasNext());
+
+            doc = HEAD + TAIL;
+            iter = new VOTableRowIterator(toStream(doc));
+            Assert.assertEquals(4, iter.getFields().size());
+            Assert.assertFalse(iter.hasNext());
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testInvalidRow() {
+        try {
+            String doc = HEAD
+                    + "<DATA><TABLEDATA>\n"
+                    + "<TR><TD>foo</TD><TD>1024</TD></TR>\n"
+                    + "</TABLEDATA></DATA>\n"
+                    + TAIL;
+            VOTableRowIterator iter = new VOTableRowIterator(toStream(doc));
+            iter.hasNext();
+            Assert.fail("expected UnexpectedContentException");
+        } catch (UnexpectedContentException expected) {
+            log.info("caught expected: " + expected);
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    @Test
+    public void testQueryError() {
+        try {
+            String doc = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<VOTABLE xmlns=\"http://www.ivoa.net/xml/VOTable/v1.3\" version=\"1.3\">\n"
+                    + "<RESOURCE type=\"results\">\n"
+                    + "<INFO name=\"QUERY_STATUS\" value=\"ERROR\">permission denied</INFO>\n"
+                    + "</RESOURCE>\n"
+                    + "</VOTABLE>\n";
+            new VOTableRowIterator(toStream(doc));
+            Assert.fail("expected UnexpectedContentException");
+        } catch (UnexpectedContentException expected) {
+            log.info("caught expected: " + expected);
+            Assert.assertTrue(expected.getMessage().contains("permission denied"));
+        } catch (Exception unexpected) {
+            log.error("unexpected exception", unexpected);
+            Assert.fail("unexpected exception: " + unexpected);
+        }
+    }
+
+    private InputStream toStream(String doc) {
+        return new ByteArrayInputStream(doc.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // variable length char: int count + bytes
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.US_ASCII);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+}